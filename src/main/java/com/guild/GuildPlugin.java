@@ -121,6 +121,16 @@ public class GuildPlugin extends JavaPlugin {
                 guiManager.closeAllGUIs();
             }
             
+            // 写完队列中剩余的工会日志
+            if (guildService != null) {
+                guildService.shutdown();
+            }
+            
+            // 关闭数据库（等待排队中的写入完成）
+            if (databaseManager != null) {
+                databaseManager.close();
+            }
+            
             // 关闭服务
             if (serviceContainer != null) {
                 serviceContainer.shutdown();
@@ -150,7 +160,9 @@ public class GuildPlugin extends JavaPlugin {
     }
     
     private void startServices() {
-        // 启动数据库连接
+        long start = System.currentTimeMillis();
+        
+        // 启动数据库连接（连接池与表结构需在注册监听器和占位符之前就绪）
         databaseManager.initialize();
         
         // 注册占位符
@@ -158,6 +170,33 @@ public class GuildPlugin extends JavaPlugin {
         
         // 初始化GUI系统
         guiManager.initialize();
+        
+        getLogger().info("核心服务已启动 (耗时 " + (System.currentTimeMillis() - start) + "ms)，正在后台预热工会数据");
+        
+        // 并行构建缓存、关系图和排行榜，完成后再启动后台任务
+        guildService.warmUp().thenRun(() -> {
+            if (!isEnabled()) {
+                return;
+            }
+            
+            // 启动工会日志定时清理
+            guildService.getLogRetention().start();
+            
+            // 启动贡献记录按日汇总
+            guildService.getContributionRollup().start();
+            
+            // 回填升级前数据的毫秒时间列
+            guildService.getTimestampBackfill().start();
+            
+            // 启动跨服数据变更同步
+            guildService.getChangeFeed().start();
+            
+            // 启动数据库定时备份
+            guildService.getBackup().start();
+            
+            // 启动邀请、关系请求与入会申请的到期处理
+            guildService.getExpiry().start();
+        });
     }
     
     public static GuildPlugin getInstance() {
@@ -1,23 +1,37 @@
 package com.guild.commands;
 
 import com.guild.GuildPlugin;
+import com.guild.core.database.DatabaseBenchmark;
+import com.guild.core.database.DatabaseExecutor;
+import com.guild.core.database.DatabaseManager;
+import com.guild.core.database.DatabaseTransfer;
 import com.guild.core.utils.ColorUtils;
+import com.guild.core.utils.CompatibleScheduler;
 import com.guild.gui.AdminGuildGUI;
 import com.guild.gui.RelationManagementGUI;
 import com.guild.models.Guild;
+import com.guild.models.GuildContribution;
+import com.guild.models.GuildMember;
 import com.guild.models.GuildRelation;
+import com.guild.services.GuildLogWriter;
+import com.guild.services.GuildStatisticsService;
+import com.guild.services.LogRetentionService;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 工会管理员命令
@@ -25,6 +39,8 @@ import java.util.concurrent.CompletableFuture;
 public class GuildAdminCommand implements CommandExecutor, TabCompleter {
     
     private final GuildPlugin plugin;
+    // 同一时刻只允许一个数据迁移
+    private final AtomicBoolean migrating = new AtomicBoolean();
     
     public GuildAdminCommand(GuildPlugin plugin) {
         this.plugin = plugin;
@@ -76,6 +92,18 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
             case "reload":
                 handleReload(sender);
                 break;
+            case "database":
+                handleDatabase(sender, args);
+                break;
+            case "migrate":
+                handleMigrate(sender, args);
+                break;
+            case "logs":
+                handleLogs(sender, args);
+                break;
+            case "stats":
+                handleStats(sender, args);
+                break;
             case "test":
                 handleTest(sender, args);
                 break;
@@ -99,7 +127,7 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
         }
         
         if (args.length == 1) {
-            completions.addAll(Arrays.asList("list", "info", "delete", "freeze", "unfreeze", "transfer", "economy", "relation", "reload", "help"));
+            completions.addAll(Arrays.asList("list", "info", "delete", "freeze", "unfreeze", "transfer", "economy", "relation", "database", "migrate", "logs", "stats", "reload", "help"));
         } else if (args.length == 2) {
             switch (args[0].toLowerCase()) {
                 case "info":
@@ -118,6 +146,18 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
                 case "relation":
                     completions.addAll(Arrays.asList("list", "create", "delete", "gui"));
                     break;
+                case "database":
+                    completions.addAll(Arrays.asList("status", "backup", "backups", "restore"));
+                    break;
+                case "migrate":
+                    completions.addAll(Arrays.asList("sqlite", "mysql"));
+                    break;
+                case "logs":
+                    completions.addAll(Arrays.asList("status", "cleanup"));
+                    break;
+                case "stats":
+                    completions.add("reload");
+                    break;
             }
         } else if (args.length == 3) {
             switch (args[0].toLowerCase()) {
@@ -140,6 +180,16 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
                         });
                     }
                     break;
+                case "migrate":
+                    completions.addAll(Arrays.asList("sqlite", "mysql"));
+                    break;
+                case "database":
+                    if ("restore".equalsIgnoreCase(args[1])) {
+                        for (File file : plugin.getGuildService().getBackup().listBackups()) {
+                            completions.add(file.getName());
+                        }
+                    }
+                    break;
             }
         } else if (args.length == 4) {
             switch (args[0].toLowerCase()) {
@@ -226,7 +276,7 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
             }
             
             // 强制删除工会
-            plugin.getGuildService().deleteGuildAsync(guild.getId(), UUID.randomUUID()).thenAccept(success -> {
+            plugin.getGuildService().forceDeleteGuildAsync(guild.getId()).thenAccept(success -> {
                 if (success) {
                     sender.sendMessage(ColorUtils.colorize("&a工会 " + guildName + " 已被强制删除！"));
                 } else {
@@ -302,9 +352,21 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
                     return;
                 }
                 
+                if (member.getRole() == GuildMember.Role.LEADER) {
+                    sender.sendMessage(ColorUtils.colorize("&c玩家 " + newLeaderName + " 已经是该工会的会长！"));
+                    return;
+                }
+                
                 // 转让会长
-                // TODO: 实现转让功能
-                sender.sendMessage(ColorUtils.colorize("&a工会 " + guildName + " 的会长已转让给 " + newLeaderName + "！"));
+                UUID operatorUuid = sender instanceof Player player ? player.getUniqueId() : new UUID(0L, 0L);
+                plugin.getGuildService().transferLeadershipAsync(guild.getId(), newLeader.getUniqueId(), operatorUuid, sender.getName())
+                    .thenAccept(success -> {
+                        if (success) {
+                            sender.sendMessage(ColorUtils.colorize("&a工会 " + guildName + " 的会长已转让给 " + newLeaderName + "！"));
+                        } else {
+                            sender.sendMessage(ColorUtils.colorize("&c转让会长失败！"));
+                        }
+                    });
             });
         });
     }
@@ -332,28 +394,41 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
                 return;
             }
             
-            final double[] newBalance = {guild.getBalance()};
+            // add/remove 按增量写入资金账本，set 直接设置余额
+            CompletableFuture<Boolean> future;
+            String resultText;
+            UUID operatorUuid = sender instanceof Player player ? player.getUniqueId() : new UUID(0L, 0L);
             switch (operation.toLowerCase()) {
                 case "set":
-                    newBalance[0] = amount;
+                    future = plugin.getGuildService().updateGuildBalanceAsync(guild.getId(), amount);
+                    resultText = "已更新为: " + plugin.getEconomyManager().format(amount);
                     break;
                 case "add":
-                    newBalance[0] += amount;
+                    future = plugin.getGuildService().adjustBalanceAsync(guild.getId(), operatorUuid, sender.getName(),
+                        amount, GuildContribution.ContributionType.ADMIN, "管理员增加资金");
+                    resultText = "已增加: " + plugin.getEconomyManager().format(amount);
                     break;
                 case "remove":
-                    newBalance[0] -= amount;
-                    if (newBalance[0] < 0) newBalance[0] = 0;
-                    break;
+                    // 最多扣到0，实际扣除额按数据库中的余额计算
+                    plugin.getGuildService().deductUpToAsync(guild.getId(), operatorUuid, sender.getName(),
+                        amount, GuildContribution.ContributionType.ADMIN, "管理员扣除资金").thenAccept(removed -> {
+                        if (removed != null) {
+                            sender.sendMessage(ColorUtils.colorize("&a工会 " + guildName + " 的资金已扣除: " +
+                                plugin.getEconomyManager().format(removed)));
+                        } else {
+                            sender.sendMessage(ColorUtils.colorize("&c更新工会资金失败！"));
+                        }
+                    });
+                    return;
                 default:
                     sender.sendMessage(ColorUtils.colorize("&c无效的操作！使用 set|add|remove"));
                     return;
             }
             
             // 更新工会资金
-            plugin.getGuildService().updateGuildBalanceAsync(guild.getId(), newBalance[0]).thenAccept(success -> {
+            future.thenAccept(success -> {
                 if (success) {
-                    String formattedAmount = plugin.getEconomyManager().format(newBalance[0]);
-                    sender.sendMessage(ColorUtils.colorize("&a工会 " + guildName + " 的资金已更新为: " + formattedAmount));
+                    sender.sendMessage(ColorUtils.colorize("&a工会 " + guildName + " 的资金" + resultText));
                 } else {
                     sender.sendMessage(ColorUtils.colorize("&c更新工会资金失败！"));
                 }
@@ -380,26 +455,7 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
             case "list":
                 // 显示所有工会关系
                 sender.sendMessage(ColorUtils.colorize("&6=== 工会关系列表 ==="));
-                plugin.getGuildService().getAllGuildsAsync().thenCompose(guilds -> {
-                    List<CompletableFuture<List<GuildRelation>>> relationFutures = new ArrayList<>();
-                    
-                    for (Guild guild : guilds) {
-                        relationFutures.add(plugin.getGuildService().getGuildRelationsAsync(guild.getId()));
-                    }
-                    
-                    return CompletableFuture.allOf(relationFutures.toArray(new CompletableFuture[0]))
-                        .thenApply(v -> {
-                            List<GuildRelation> allRelations = new ArrayList<>();
-                            for (CompletableFuture<List<GuildRelation>> future : relationFutures) {
-                                try {
-                                    allRelations.addAll(future.get());
-                                } catch (Exception e) {
-                                    plugin.getLogger().warning("获取工会关系时发生错误: " + e.getMessage());
-                                }
-                            }
-                            return allRelations;
-                        });
-                }).thenAccept(relations -> {
+                plugin.getGuildService().getAllGuildRelationsAsync().thenAccept(relations -> {
                     if (relations.isEmpty()) {
                         sender.sendMessage(ColorUtils.colorize("&c暂无工会关系"));
                         return;
@@ -448,14 +504,11 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
             return;
         }
         
-        // 获取两个工会
-        CompletableFuture<Guild> guild1Future = plugin.getGuildService().getGuildByNameAsync(guild1Name);
-        CompletableFuture<Guild> guild2Future = plugin.getGuildService().getGuildByNameAsync(guild2Name);
-        
-        CompletableFuture.allOf(guild1Future, guild2Future).thenAccept(v -> {
+        // 一次查询获取两个工会
+        plugin.getGuildService().getGuildsByNamesAsync(List.of(guild1Name, guild2Name)).thenAccept(guilds -> {
             try {
-                Guild guild1 = guild1Future.get();
-                Guild guild2 = guild2Future.get();
+                Guild guild1 = guilds.get(guild1Name);
+                Guild guild2 = guilds.get(guild2Name);
                 
                 if (guild1 == null) {
                     sender.sendMessage(ColorUtils.colorize("&c工会 " + guild1Name + " 不存在！"));
@@ -493,14 +546,11 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
         String guild1Name = args[2];
         String guild2Name = args[3];
         
-        // 获取两个工会
-        CompletableFuture<Guild> guild1Future = plugin.getGuildService().getGuildByNameAsync(guild1Name);
-        CompletableFuture<Guild> guild2Future = plugin.getGuildService().getGuildByNameAsync(guild2Name);
-        
-        CompletableFuture.allOf(guild1Future, guild2Future).thenAccept(v -> {
+        // 一次查询获取两个工会
+        plugin.getGuildService().getGuildsByNamesAsync(List.of(guild1Name, guild2Name)).thenAccept(guilds -> {
             try {
-                Guild guild1 = guild1Future.get();
-                Guild guild2 = guild2Future.get();
+                Guild guild1 = guilds.get(guild1Name);
+                Guild guild2 = guilds.get(guild2Name);
                 
                 if (guild1 == null) {
                     sender.sendMessage(ColorUtils.colorize("&c工会 " + guild1Name + " 不存在！"));
@@ -557,11 +607,233 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
         }
     }
     
+    /**
+     * 数据库运行状态与备份
+     * 用法: /guildadmin database <status|backup|backups|restore>
+     */
+    private void handleDatabase(CommandSender sender, String[] args) {
+        String action = args.length >= 2 ? args[1].toLowerCase() : "status";
+        switch (action) {
+            case "status":
+                showDatabaseStatus(sender);
+                break;
+            case "backup":
+                handleBackup(sender);
+                break;
+            case "backups":
+                showBackups(sender);
+                break;
+            case "restore":
+                handleRestore(sender, args);
+                break;
+            default:
+                sender.sendMessage(ColorUtils.colorize("&c用法: /guildadmin database <status|backup|backups|restore>"));
+                break;
+        }
+    }
+    
+    /**
+     * 立即在后台备份数据库
+     */
+    private void handleBackup(CommandSender sender) {
+        sender.sendMessage(ColorUtils.colorize("&e已开始在后台备份数据库..."));
+        plugin.getGuildService().getBackup().backupNow().whenComplete((file, e) -> CompatibleScheduler.runTask(plugin, () -> {
+            if (e != null) {
+                sender.sendMessage(ColorUtils.colorize("&c备份数据库失败: " + e.getMessage()));
+            } else if (file == null) {
+                sender.sendMessage(ColorUtils.colorize("&c已有备份或恢复任务正在运行"));
+            } else {
+                sender.sendMessage(ColorUtils.colorize("&a数据库备份完成: &f" + file.getName()));
+            }
+        }));
+    }
+    
+    /**
+     * 列出备份目录中的备份文件（最新的在前）
+     */
+    private void showBackups(CommandSender sender) {
+        List<File> backups = plugin.getGuildService().getBackup().listBackups();
+        sender.sendMessage(ColorUtils.colorize("&6=== 数据库备份 (" + backups.size() + ") ==="));
+        for (File file : backups) {
+            sender.sendMessage(ColorUtils.colorize("&e" + file.getName() + " &7" + file.length() / 1024 + "KB"));
+        }
+    }
+    
+    /**
+     * 从备份恢复，会替换当前的全部数据，需要加 confirm 确认
+     * 用法: /guildadmin database restore <文件名> confirm
+     */
+    private void handleRestore(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            sender.sendMessage(ColorUtils.colorize("&c用法: /guildadmin database restore <文件名> confirm"));
+            return;
+        }
+        if (args.length < 4 || !"confirm".equalsIgnoreCase(args[3])) {
+            sender.sendMessage(ColorUtils.colorize("&c恢复会用备份替换当前数据库中的全部数据！"));
+            sender.sendMessage(ColorUtils.colorize("&e确认恢复请使用: /guildadmin database restore " + args[2] + " confirm"));
+            return;
+        }
+        sender.sendMessage(ColorUtils.colorize("&e已开始在后台从备份恢复数据库..."));
+        plugin.getGuildService().getBackup().restore(args[2]).whenComplete((rows, e) -> CompatibleScheduler.runTask(plugin, () -> {
+            if (e != null) {
+                sender.sendMessage(ColorUtils.colorize("&c恢复数据库失败: " + e.getMessage()));
+            } else if (rows < 0) {
+                sender.sendMessage(ColorUtils.colorize("&c已有备份或恢复任务正在运行"));
+            } else {
+                sender.sendMessage(ColorUtils.colorize("&a数据库恢复完成: 写入 " + rows + " 行，正在重新加载缓存"));
+            }
+        }));
+    }
+    
+    /**
+     * 把一种数据库中的全部数据复制到另一种（目标库使用 database.yml 中对应类型的配置，数据表必须为空）
+     * 用法: /guildadmin migrate <sqlite|mysql> <sqlite|mysql>
+     */
+    private void handleMigrate(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            sender.sendMessage(ColorUtils.colorize("&c用法: /guildadmin migrate <sqlite|mysql> <sqlite|mysql>"));
+            return;
+        }
+        DatabaseManager.DatabaseType from = parseDatabaseType(args[1]);
+        DatabaseManager.DatabaseType to = parseDatabaseType(args[2]);
+        if (from == null || to == null || from == to) {
+            sender.sendMessage(ColorUtils.colorize("&c请指定两种不同的数据库类型: sqlite, mysql"));
+            return;
+        }
+        if (!migrating.compareAndSet(false, true)) {
+            sender.sendMessage(ColorUtils.colorize("&c数据迁移正在进行中"));
+            return;
+        }
+        
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        int batchSize = Math.max(1, config.getInt("migration.batch-size", 1000));
+        int fetchSize = Math.max(1, config.getInt("migration.fetch-size", 1000));
+        long progressMillis = Math.max(1, config.getLong("migration.progress-interval", 5)) * 1000L;
+        sender.sendMessage(ColorUtils.colorize("&e开始迁移数据: " + from + " -> " + to + "，迁移期间的新写入不会被复制，建议在维护期间执行"));
+        CompatibleScheduler.runTaskAsync(plugin, () -> {
+            try {
+                DatabaseTransfer.Result result = new DatabaseTransfer(plugin.getDatabaseManager(), plugin.getLogger())
+                    .transfer(from, to, batchSize, fetchSize, progressMillis, message -> sendOnMainThread(sender, "&7" + message));
+                sendOnMainThread(sender, String.format("&a数据迁移完成: %d 张表, %d 行, 耗时 %.1f 秒 (%.0f 行/秒)",
+                    result.getTables(), result.getRows(), result.getMillis() / 1000.0, result.getRowsPerSecond()));
+                sendOnMainThread(sender, "&e将 database.yml 中的 type 改为 " + to.name().toLowerCase() + " 并重启服务器即可切换到新数据库");
+            } catch (SQLException | RuntimeException e) {
+                plugin.getLogger().severe("迁移数据时发生错误: " + e.getMessage());
+                sendOnMainThread(sender, "&c数据迁移失败: " + e.getMessage());
+            } finally {
+                migrating.set(false);
+            }
+        });
+    }
+    
+    /**
+     * 从异步线程向命令发送者发送消息（切回主线程发送）
+     */
+    private void sendOnMainThread(CommandSender sender, String message) {
+        CompatibleScheduler.runTask(plugin, () -> sender.sendMessage(ColorUtils.colorize(message)));
+    }
+    
+    private DatabaseManager.DatabaseType parseDatabaseType(String name) {
+        try {
+            return DatabaseManager.DatabaseType.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private void showDatabaseStatus(CommandSender sender) {
+        sender.sendMessage(ColorUtils.colorize("&6=== 数据库状态 ==="));
+        sender.sendMessage(ColorUtils.colorize("&e类型: &f" + plugin.getDatabaseManager().getDatabaseType()));
+        
+        DatabaseExecutor executor = plugin.getDatabaseManager().getExecutor();
+        if (executor != null) {
+            sender.sendMessage(ColorUtils.colorize("&e执行器: &f" + executor.getMode().getConfigName()
+                + " &7| 线程 " + executor.getPoolSize() + " &7| 执行中 " + executor.getActiveCount()
+                + " &7| 排队 " + executor.getQueueSize()));
+            sender.sendMessage(ColorUtils.colorize("&7  已完成 " + executor.getCompletedTaskCount() + " | 已拒绝 " + executor.getRejectedCount()));
+        }
+        
+        GuildLogWriter logWriter = plugin.getGuildService().getLogWriter();
+        sender.sendMessage(ColorUtils.colorize("&e日志写入队列: &f" + logWriter.getQueueSize()
+            + " &7(峰值 " + logWriter.getPeakQueueSize() + ", 批次上限 " + logWriter.getBatchSize()
+            + ", 间隔 " + logWriter.getFlushIntervalMillis() + "ms)"));
+        sender.sendMessage(ColorUtils.colorize(String.format("&7  已入队 %d | 已写入 %d | 失败 %d | 溢出直写 %d",
+            logWriter.getEnqueuedCount(), logWriter.getWrittenCount(), logWriter.getFailedCount(), logWriter.getOverflowCount())));
+        sender.sendMessage(ColorUtils.colorize(String.format("&7  批次 %d | 上一批 %d 条 | 平均写入 %.2fms",
+            logWriter.getBatchCount(), logWriter.getLastBatchSize(), logWriter.getAverageFlushMillis())));
+    }
+    
+    /**
+     * 工会日志保留任务
+     * 用法: /guildadmin logs <status|cleanup>
+     */
+    private void handleLogs(CommandSender sender, String[] args) {
+        LogRetentionService retention = plugin.getGuildService().getLogRetention();
+        String action = args.length >= 2 ? args[1].toLowerCase() : "status";
+        
+        switch (action) {
+            case "status":
+                sender.sendMessage(ColorUtils.colorize("&6=== 日志清理状态 ==="));
+                if (retention.getRunStartedAt() == 0) {
+                    sender.sendMessage(ColorUtils.colorize("&7尚未运行过日志清理"));
+                    return;
+                }
+                sender.sendMessage(ColorUtils.colorize("&e状态: &f" + (retention.isRunning() ? "&a运行中" : "&7空闲")));
+                sender.sendMessage(ColorUtils.colorize(String.format("&e进度: &f%.1f%% &7| 已删除 %d 行 | %d 批 | %.1f 行/秒",
+                    retention.getProgressPercent(), retention.getDeletedRows(), retention.getChunkCount(), retention.getRowsPerSecond())));
+                if (!retention.isRunning()) {
+                    sender.sendMessage(ColorUtils.colorize("&e上次运行: &f删除 " + retention.getLastRunDeleted() + " 行，耗时 "
+                        + retention.getLastRunMillis() + "ms"));
+                }
+                break;
+            case "cleanup":
+                if (retention.isRunning()) {
+                    sender.sendMessage(ColorUtils.colorize("&c日志清理正在运行中，请使用 /guildadmin logs status 查看进度"));
+                    return;
+                }
+                sender.sendMessage(ColorUtils.colorize("&e已开始在后台清理过期日志..."));
+                retention.runNow(null).thenAccept(deleted -> {
+                    CompatibleScheduler.runTask(plugin, () -> {
+                        if (deleted < 0) {
+                            sender.sendMessage(ColorUtils.colorize("&c日志清理正在运行中"));
+                        } else {
+                            sender.sendMessage(ColorUtils.colorize(String.format("&a日志清理完成: 删除 %d 行，耗时 %dms (%.1f 行/秒)",
+                                deleted, retention.getLastRunMillis(), retention.getRowsPerSecond())));
+                        }
+                    });
+                });
+                break;
+            default:
+                sender.sendMessage(ColorUtils.colorize("&c用法: /guildadmin logs <status|cleanup>"));
+                break;
+        }
+    }
+    
+    /**
+     * 工会汇总统计
+     * 用法: /guildadmin stats [reload]
+     */
+    private void handleStats(CommandSender sender, String[] args) {
+        GuildStatisticsService statistics = plugin.getGuildService().getStatistics();
+        boolean reload = args.length >= 2 && "reload".equalsIgnoreCase(args[1]);
+        CompletableFuture<GuildStatisticsService.Statistics> future = reload ? statistics.reloadAsync() : statistics.getStatisticsAsync();
+        future.thenAccept(stats -> CompatibleScheduler.runTask(plugin, () -> {
+            sender.sendMessage(ColorUtils.colorize("&6=== 工会统计信息 ==="));
+            sender.sendMessage(ColorUtils.colorize("&e总工会数量: &f" + stats.getTotalGuilds()));
+            sender.sendMessage(ColorUtils.colorize("&e总成员数量: &f" + stats.getTotalMembers()));
+            sender.sendMessage(ColorUtils.colorize("&e总资金: &f" + stats.getTotalBalance()));
+            sender.sendMessage(ColorUtils.colorize("&e冻结工会数: &f" + stats.getFrozenGuilds()));
+            sender.sendMessage(ColorUtils.colorize("&e正常工会数: &f" + stats.getActiveGuilds()));
+        }));
+    }
+    
     private void handleReload(CommandSender sender) {
         try {
             plugin.getConfigManager().reloadAllConfigs();
             // 重新加载权限矩阵并清空权限缓存
             plugin.getPermissionManager().reloadFromConfig();
+            // 重新读取占位符缓存配置并清空快照
+            plugin.getPlaceholderManager().reloadFromConfig();
             sender.sendMessage(ColorUtils.colorize("&a配置已重新加载！"));
         } catch (Exception e) {
             sender.sendMessage(ColorUtils.colorize("&c重新加载配置失败: " + e.getMessage()));
@@ -571,7 +843,7 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
     private void handleTest(CommandSender sender, String[] args) {
         if (args.length < 2) {
             sender.sendMessage(ColorUtils.colorize("&c用法: /guildadmin test <test-type>"));
-            sender.sendMessage(ColorUtils.colorize("&7test-type: gui, economy, relation"));
+            sender.sendMessage(ColorUtils.colorize("&7test-type: gui, economy, relation, database"));
             return;
         }
 
@@ -587,49 +859,12 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
                 }
                 break;
             case "economy":
-                if (args.length < 4) {
+                if (args.length < 5) {
                     sender.sendMessage(ColorUtils.colorize("&c用法: /guildadmin test economy <工会名称> <操作> <金额>"));
                     return;
                 }
-                String guildName = args[2];
-                String operation = args[3];
-                double amount;
-                try {
-                    amount = Double.parseDouble(args[4]);
-                } catch (NumberFormatException e) {
-                    sender.sendMessage(ColorUtils.colorize("&c金额格式错误！"));
-                    return;
-                }
-                plugin.getGuildService().getGuildByNameAsync(guildName).thenAccept(guild -> {
-                    if (guild == null) {
-                        sender.sendMessage(ColorUtils.colorize("&c工会 " + guildName + " 不存在！"));
-                        return;
-                    }
-                    final double[] newBalance = {guild.getBalance()};
-                    switch (operation.toLowerCase()) {
-                        case "set":
-                            newBalance[0] = amount;
-                            break;
-                        case "add":
-                            newBalance[0] += amount;
-                            break;
-                        case "remove":
-                            newBalance[0] -= amount;
-                            if (newBalance[0] < 0) newBalance[0] = 0;
-                            break;
-                        default:
-                            sender.sendMessage(ColorUtils.colorize("&c无效的操作！使用 set|add|remove"));
-                            return;
-                    }
-                    plugin.getGuildService().updateGuildBalanceAsync(guild.getId(), newBalance[0]).thenAccept(success -> {
-                        if (success) {
-                            String formattedAmount = plugin.getEconomyManager().format(newBalance[0]);
-                            sender.sendMessage(ColorUtils.colorize("&a工会 " + guildName + " 的资金已更新为: " + formattedAmount));
-                        } else {
-                            sender.sendMessage(ColorUtils.colorize("&c更新工会资金失败！"));
-                        }
-                    });
-                });
+                // 与 /guildadmin economy 相同：add/remove 按增量写入资金账本，不根据缓存中的余额计算新余额
+                handleEconomy(sender, Arrays.copyOfRange(args, 1, args.length));
                 break;
             case "relation":
                 if (args.length < 5) {
@@ -647,40 +882,86 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
                     sender.sendMessage(ColorUtils.colorize("&c无效的关系类型！使用: ally, enemy, war, truce, neutral"));
                     return;
                 }
-                plugin.getGuildService().getGuildByNameAsync(guild1NameTest).thenAccept(guild1 -> {
+                plugin.getGuildService().getGuildsByNamesAsync(List.of(guild1NameTest, guild2NameTest)).thenAccept(guilds -> {
+                    Guild guild1 = guilds.get(guild1NameTest);
+                    Guild guild2 = guilds.get(guild2NameTest);
                     if (guild1 == null) {
                         sender.sendMessage(ColorUtils.colorize("&c工会 " + guild1NameTest + " 不存在！"));
                         return;
                     }
-                    plugin.getGuildService().getGuildByNameAsync(guild2NameTest).thenAccept(guild2 -> {
-                        if (guild2 == null) {
-                            sender.sendMessage(ColorUtils.colorize("&c工会 " + guild2NameTest + " 不存在！"));
-                            return;
-                        }
-                        if (guild1.getId() == guild2.getId()) {
-                            sender.sendMessage(ColorUtils.colorize("&c不能与自己建立关系！"));
-                            return;
+                    if (guild2 == null) {
+                        sender.sendMessage(ColorUtils.colorize("&c工会 " + guild2NameTest + " 不存在！"));
+                        return;
+                    }
+                    if (guild1.getId() == guild2.getId()) {
+                        sender.sendMessage(ColorUtils.colorize("&c不能与自己建立关系！"));
+                        return;
+                    }
+                    plugin.getGuildService().createGuildRelationAsync(
+                        guild1.getId(), guild2.getId(), 
+                        guild1.getName(), guild2.getName(), 
+                        relationTypeTest, UUID.randomUUID(), "管理员"
+                    ).thenAccept(success -> {
+                        if (success) {
+                            sender.sendMessage(ColorUtils.colorize("&a已创建关系: " + guild1NameTest + " ↔ " + guild2NameTest + " (" + getRelationTypeText(relationTypeTest) + ")"));
+                        } else {
+                            sender.sendMessage(ColorUtils.colorize("&c创建关系失败！"));
                         }
-                        plugin.getGuildService().createGuildRelationAsync(
-                            guild1.getId(), guild2.getId(), 
-                            guild1.getName(), guild2.getName(), 
-                            relationTypeTest, UUID.randomUUID(), "管理员"
-                        ).thenAccept(success -> {
-                            if (success) {
-                                sender.sendMessage(ColorUtils.colorize("&a已创建关系: " + guild1NameTest + " ↔ " + guild2NameTest + " (" + getRelationTypeText(relationTypeTest) + ")"));
-                            } else {
-                                sender.sendMessage(ColorUtils.colorize("&c创建关系失败！"));
-                            }
-                        });
                     });
                 });
                 break;
+            case "database":
+                handleDatabaseBenchmark(sender, args);
+                break;
             default:
-                sender.sendMessage(ColorUtils.colorize("&c无效的测试类型！使用 gui, economy, relation"));
+                sender.sendMessage(ColorUtils.colorize("&c无效的测试类型！使用 gui, economy, relation, database"));
                 break;
         }
     }
     
+    /**
+     * 数据库执行器基准测试：分别用 platform 与 virtual 模式并发执行查询
+     * 用法: /guildadmin test database [查询数量]
+     */
+    private void handleDatabaseBenchmark(CommandSender sender, String[] args) {
+        int lookups = 2000;
+        if (args.length >= 3) {
+            try {
+                lookups = Integer.parseInt(args[2]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ColorUtils.colorize("&c查询数量格式错误！"));
+                return;
+            }
+        }
+        if (lookups < 1 || lookups > 100000) {
+            sender.sendMessage(ColorUtils.colorize("&c查询数量必须在 1 - 100000 之间！"));
+            return;
+        }
+        
+        final int totalLookups = lookups;
+        DatabaseExecutor executor = plugin.getDatabaseManager().getExecutor();
+        int threads = executor != null ? executor.getPoolSize() : 10;
+        sender.sendMessage(ColorUtils.colorize("&e开始数据库基准测试: " + totalLookups + " 个并发查询, 线程数 " + threads + " ..."));
+        if (!DatabaseExecutor.isVirtualThreadsSupported()) {
+            sender.sendMessage(ColorUtils.colorize("&7当前Java版本不支持虚拟线程，virtual 模式将回退为 platform"));
+        }
+        
+        CompatibleScheduler.runTaskAsync(plugin, () -> {
+            DatabaseBenchmark benchmark = new DatabaseBenchmark(plugin.getDatabaseManager(), plugin.getLogger());
+            // 预热连接池与JIT，结果不计入
+            benchmark.run(DatabaseExecutor.Mode.PLATFORM, Math.min(200, totalLookups), threads);
+            for (DatabaseExecutor.Mode mode : DatabaseExecutor.Mode.values()) {
+                DatabaseBenchmark.Result result = benchmark.run(mode, totalLookups, threads);
+                sender.sendMessage(ColorUtils.colorize(String.format(
+                    "&a[%s] &f总耗时 %.1fms, 吞吐 %.0f 次/秒, 失败 %d",
+                    result.getMode().getConfigName(), result.getTotalMillis(), result.getThroughput(), result.getFailures())));
+                sender.sendMessage(ColorUtils.colorize(String.format(
+                    "&7  延迟 p50 %.2fms, p95 %.2fms, p99 %.2fms, 最大 %.2fms",
+                    result.getP50Millis(), result.getP95Millis(), result.getP99Millis(), result.getMaxMillis())));
+            }
+        });
+    }
+    
     private void handleHelp(CommandSender sender) {
         sender.sendMessage(ColorUtils.colorize("&6=== 工会管理员命令 ==="));
         sender.sendMessage(ColorUtils.colorize("&e/guildadmin &7- 打开管理员GUI"));
@@ -692,6 +973,12 @@ public class GuildAdminCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ColorUtils.colorize("&e/guildadmin transfer <工会> <玩家> &7- 转让会长"));
         sender.sendMessage(ColorUtils.colorize("&e/guildadmin economy <工会> <操作> <金额> &7- 管理工会经济"));
         sender.sendMessage(ColorUtils.colorize("&e/guildadmin relation <操作> &7- 管理工会关系"));
+        sender.sendMessage(ColorUtils.colorize("&e/guildadmin database status &7- 查看数据库运行状态"));
+        sender.sendMessage(ColorUtils.colorize("&e/guildadmin database <backup|backups> &7- 立即备份或列出备份"));
+        sender.sendMessage(ColorUtils.colorize("&e/guildadmin database restore <文件名> confirm &7- 从备份恢复数据库"));
+        sender.sendMessage(ColorUtils.colorize("&e/guildadmin migrate <sqlite|mysql> <sqlite|mysql> &7- 在两种数据库之间迁移全部数据"));
+        sender.sendMessage(ColorUtils.colorize("&e/guildadmin logs <status|cleanup> &7- 查看或立即运行日志清理"));
+        sender.sendMessage(ColorUtils.colorize("&e/guildadmin stats [reload] &7- 查看工会汇总统计"));
         sender.sendMessage(ColorUtils.colorize("&e/guildadmin reload &7- 重新加载配置"));
         sender.sendMessage(ColorUtils.colorize("&e/guildadmin help &7- 显示帮助信息"));
     }
@@ -6,6 +6,7 @@ import com.guild.gui.MainGuildGUI;
 import com.guild.models.Guild;
 import com.guild.models.GuildMember;
 import com.guild.models.GuildRelation;
+import com.guild.models.PlayerGuildContext;
 import com.guild.services.GuildService;
 import com.guild.core.utils.CompatibleScheduler;
 import org.bukkit.Bukkit;
@@ -38,6 +39,12 @@ public class GuildCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
+        // 启动预热完成前缓存尚未就绪，暂不处理工会命令
+        if (!plugin.getGuildService().isReady()) {
+            player.sendMessage(ColorUtils.colorize(plugin.getConfigManager().getMessagesConfig().getString("general.loading", "&e工会数据正在加载，请稍后再试！")));
+            return true;
+        }
+        
         if (args.length == 0) {
             // 打开主GUI
             MainGuildGUI mainGuildGUI = new MainGuildGUI(plugin);
@@ -342,14 +349,15 @@ public class GuildCommand implements CommandExecutor, TabCompleter {
             return;
         }
         
-        Guild guild = guildService.getPlayerGuild(player.getUniqueId());
-        if (guild == null) {
+        PlayerGuildContext context = guildService.getPlayerContext(player.getUniqueId());
+        if (!context.hasGuild()) {
             String message = plugin.getConfigManager().getMessagesConfig().getString("info.no-guild", "&c您还没有加入任何工会！");
             player.sendMessage(ColorUtils.colorize(message));
             return;
         }
         
-        GuildMember member = guildService.getGuildMember(player.getUniqueId());
+        Guild guild = context.getGuild();
+        GuildMember member = context.getMember();
         int memberCount = guildService.getGuildMemberCount(guild.getId());
         
         String header = plugin.getConfigManager().getMessagesConfig().getString("info.title", "&6=== 工会信息 ===");
@@ -621,20 +629,16 @@ public class GuildCommand implements CommandExecutor, TabCompleter {
             return;
         }
         
-        // 检查玩家是否有工会
-        Guild guild = guildService.getPlayerGuild(player.getUniqueId());
-        if (guild == null) {
+        // 检查玩家是否有工会（成员记录与工会一次取得）
+        PlayerGuildContext context = guildService.getPlayerContext(player.getUniqueId());
+        if (!context.hasGuild()) {
             String message = plugin.getConfigManager().getMessagesConfig().getString("info.no-guild", "&c您还没有加入任何工会！");
             player.sendMessage(ColorUtils.colorize(message));
             return;
         }
         
-        GuildMember member = guildService.getGuildMember(player.getUniqueId());
-        if (member == null) {
-            String message = plugin.getConfigManager().getMessagesConfig().getString("leave.member-error", "&c工会成员信息错误！");
-            player.sendMessage(ColorUtils.colorize(message));
-            return;
-        }
+        Guild guild = context.getGuild();
+        GuildMember member = context.getMember();
         
         // 检查是否是会长
         if (member.getRole() == GuildMember.Role.LEADER) {
@@ -1117,17 +1121,17 @@ public class GuildCommand implements CommandExecutor, TabCompleter {
      * 处理工会关系命令
      */
     private void handleRelation(Player player, String[] args) {
-        // 获取玩家工会
-        Guild guild = plugin.getGuildService().getPlayerGuild(player.getUniqueId());
-        if (guild == null) {
+        // 获取玩家工会与成员记录
+        PlayerGuildContext context = plugin.getGuildService().getPlayerContext(player.getUniqueId());
+        if (!context.hasGuild()) {
             String message = plugin.getConfigManager().getMessagesConfig().getString("relation.no-guild", "&c您还没有加入工会！");
             player.sendMessage(ColorUtils.colorize(message));
             return;
         }
+        Guild guild = context.getGuild();
         
         // 检查权限（只有会长可以管理关系）
-        GuildMember member = plugin.getGuildService().getGuildMember(player.getUniqueId());
-        if (member == null || member.getRole() != GuildMember.Role.LEADER) {
+        if (!context.isLeader()) {
             String message = plugin.getConfigManager().getMessagesConfig().getString("relation.only-leader", "&c只有工会会长才能管理工会关系！");
             player.sendMessage(ColorUtils.colorize(message));
             return;
@@ -1436,12 +1440,13 @@ public class GuildCommand implements CommandExecutor, TabCompleter {
         }
         
         // 获取玩家工会
-        plugin.getGuildService().getPlayerGuildAsync(player.getUniqueId()).thenAccept(guild -> {
-            if (guild == null) {
+        plugin.getGuildService().getPlayerContextAsync(player.getUniqueId()).thenAccept(context -> {
+            if (!context.hasGuild()) {
                 String message = plugin.getConfigManager().getMessagesConfig().getString("economy.no-guild", "&c您还没有加入工会！");
                 player.sendMessage(ColorUtils.colorize(message));
                 return;
             }
+            Guild guild = context.getGuild();
             
             // 检查玩家余额
             if (!plugin.getEconomyManager().hasBalance(player, amount)) {
@@ -1452,7 +1457,7 @@ public class GuildCommand implements CommandExecutor, TabCompleter {
             
             // 执行存款
             plugin.getEconomyManager().withdraw(player, amount);
-            plugin.getGuildService().updateGuildBalanceAsync(guild.getId(), guild.getBalance() + amount).thenAccept(success -> {
+            plugin.getGuildService().depositAsync(guild.getId(), player.getUniqueId(), player.getName(), amount).thenAccept(success -> {
                 if (success) {
                     String message = plugin.getConfigManager().getMessagesConfig().getString("economy.deposit-success", "&a成功向工会存款 &e{amount}！")
                         .replace("{amount}", plugin.getEconomyManager().format(amount));
@@ -1489,13 +1494,14 @@ public class GuildCommand implements CommandExecutor, TabCompleter {
             return;
         }
         
-        // 获取玩家工会
-        plugin.getGuildService().getPlayerGuildAsync(player.getUniqueId()).thenAccept(guild -> {
-            if (guild == null) {
+        // 获取玩家工会与职位
+        plugin.getGuildService().getPlayerContextAsync(player.getUniqueId()).thenAccept(context -> {
+            if (!context.hasGuild()) {
                 String message = plugin.getConfigManager().getMessagesConfig().getString("economy.no-guild", "&c您还没有加入工会！");
                 player.sendMessage(ColorUtils.colorize(message));
                 return;
             }
+            Guild guild = context.getGuild();
             
             // 检查工会余额
             if (guild.getBalance() < amount) {
@@ -1505,25 +1511,23 @@ public class GuildCommand implements CommandExecutor, TabCompleter {
             }
             
             // 检查权限（只有会长可以取款）
-            plugin.getGuildService().getGuildMemberAsync(guild.getId(), player.getUniqueId()).thenAccept(member -> {
-                if (member == null || member.getRole() != GuildMember.Role.LEADER) {
-                    String message = plugin.getConfigManager().getMessagesConfig().getString("economy.leader-only", "&c只有工会会长才能取款！");
+            if (!context.isLeader()) {
+                String message = plugin.getConfigManager().getMessagesConfig().getString("economy.leader-only", "&c只有工会会长才能取款！");
+                player.sendMessage(ColorUtils.colorize(message));
+                return;
+            }
+            
+            // 执行取款（余额不足时由数据库条件拒绝）
+            plugin.getGuildService().withdrawAsync(guild.getId(), player.getUniqueId(), player.getName(), amount).thenAccept(success -> {
+                if (success) {
+                    plugin.getEconomyManager().deposit(player, amount);
+                    String message = plugin.getConfigManager().getMessagesConfig().getString("economy.withdraw-success", "&a成功从工会取款 &e{amount}！")
+                        .replace("{amount}", plugin.getEconomyManager().format(amount));
+                    player.sendMessage(ColorUtils.colorize(message));
+                } else {
+                    String message = plugin.getConfigManager().getMessagesConfig().getString("economy.withdraw-failed", "&c取款失败！");
                     player.sendMessage(ColorUtils.colorize(message));
-                    return;
                 }
-                
-                // 执行取款
-                plugin.getGuildService().updateGuildBalanceAsync(guild.getId(), guild.getBalance() - amount).thenAccept(success -> {
-                    if (success) {
-                        plugin.getEconomyManager().deposit(player, amount);
-                        String message = plugin.getConfigManager().getMessagesConfig().getString("economy.withdraw-success", "&a成功从工会取款 &e{amount}！")
-                            .replace("{amount}", plugin.getEconomyManager().format(amount));
-                        player.sendMessage(ColorUtils.colorize(message));
-                    } else {
-                        String message = plugin.getConfigManager().getMessagesConfig().getString("economy.withdraw-failed", "&c取款失败！");
-                        player.sendMessage(ColorUtils.colorize(message));
-                    }
-                });
             });
         });
     }
@@ -1552,64 +1556,54 @@ public class GuildCommand implements CommandExecutor, TabCompleter {
         }
         
         // 获取玩家工会
-        plugin.getGuildService().getPlayerGuildAsync(player.getUniqueId()).thenAccept(sourceGuild -> {
-            if (sourceGuild == null) {
+        plugin.getGuildService().getPlayerContextAsync(player.getUniqueId()).thenAccept(context -> {
+            if (!context.hasGuild()) {
                 String message = plugin.getConfigManager().getMessagesConfig().getString("economy.no-guild", "&c您还没有加入工会！");
                 player.sendMessage(ColorUtils.colorize(message));
                 return;
             }
+            Guild sourceGuild = context.getGuild();
             
             // 检查权限（只有会长可以转账）
-            plugin.getGuildService().getGuildMemberAsync(sourceGuild.getId(), player.getUniqueId()).thenAccept(member -> {
-                if (member == null || member.getRole() != GuildMember.Role.LEADER) {
-                    String message = plugin.getConfigManager().getMessagesConfig().getString("economy.leader-only", "&c只有工会会长才能转账！");
+            if (!context.isLeader()) {
+                String message = plugin.getConfigManager().getMessagesConfig().getString("economy.leader-only", "&c只有工会会长才能转账！");
+                player.sendMessage(ColorUtils.colorize(message));
+                return;
+            }
+            
+            // 检查工会余额
+            if (sourceGuild.getBalance() < amount) {
+                String message = plugin.getConfigManager().getMessagesConfig().getString("economy.guild-insufficient-balance", "&c工会余额不足！");
+                player.sendMessage(ColorUtils.colorize(message));
+                return;
+            }
+            
+            // 查找目标工会
+            plugin.getGuildService().getGuildByNameAsync(targetGuildName).thenAccept(targetGuild -> {
+                if (targetGuild == null) {
+                    String message = plugin.getConfigManager().getMessagesConfig().getString("economy.target-guild-not-found", "&c目标工会不存在！");
                     player.sendMessage(ColorUtils.colorize(message));
                     return;
                 }
                 
-                // 检查工会余额
-                if (sourceGuild.getBalance() < amount) {
-                    String message = plugin.getConfigManager().getMessagesConfig().getString("economy.guild-insufficient-balance", "&c工会余额不足！");
+                // 不能转账给自己
+                if (sourceGuild.getId() == targetGuild.getId()) {
+                    String message = plugin.getConfigManager().getMessagesConfig().getString("economy.cannot-transfer-to-self", "&c不能转账给自己的工会！");
                     player.sendMessage(ColorUtils.colorize(message));
                     return;
                 }
                 
-                // 查找目标工会
-                plugin.getGuildService().getGuildByNameAsync(targetGuildName).thenAccept(targetGuild -> {
-                    if (targetGuild == null) {
-                        String message = plugin.getConfigManager().getMessagesConfig().getString("economy.target-guild-not-found", "&c目标工会不存在！");
+                // 执行转账（扣款与入账在同一事务中完成）
+                plugin.getGuildService().transferAsync(sourceGuild.getId(), targetGuild.getId(), player.getUniqueId(), player.getName(), amount).thenAccept(success -> {
+                    if (success) {
+                        String message = plugin.getConfigManager().getMessagesConfig().getString("economy.transfer-success", "&a成功向工会 &e{target} &a转账 &e{amount}！")
+                            .replace("{target}", targetGuildName)
+                            .replace("{amount}", plugin.getEconomyManager().format(amount));
                         player.sendMessage(ColorUtils.colorize(message));
-                        return;
-                    }
-                    
-                    // 不能转账给自己
-                    if (sourceGuild.getId() == targetGuild.getId()) {
-                        String message = plugin.getConfigManager().getMessagesConfig().getString("economy.cannot-transfer-to-self", "&c不能转账给自己的工会！");
+                    } else {
+                        String message = plugin.getConfigManager().getMessagesConfig().getString("economy.transfer-failed", "&c转账失败！");
                         player.sendMessage(ColorUtils.colorize(message));
-                        return;
                     }
-                    
-                    // 执行转账
-                    plugin.getGuildService().updateGuildBalanceAsync(sourceGuild.getId(), sourceGuild.getBalance() - amount).thenAccept(success1 -> {
-                        if (success1) {
-                            plugin.getGuildService().updateGuildBalanceAsync(targetGuild.getId(), targetGuild.getBalance() + amount).thenAccept(success2 -> {
-                                if (success2) {
-                                    String message = plugin.getConfigManager().getMessagesConfig().getString("economy.transfer-success", "&a成功向工会 &e{target} &a转账 &e{amount}！")
-                                        .replace("{target}", targetGuildName)
-                                        .replace("{amount}", plugin.getEconomyManager().format(amount));
-                                    player.sendMessage(ColorUtils.colorize(message));
-                                } else {
-                                    // 回滚
-                                    plugin.getGuildService().updateGuildBalanceAsync(sourceGuild.getId(), sourceGuild.getBalance() + amount);
-                                    String message = plugin.getConfigManager().getMessagesConfig().getString("economy.transfer-failed", "&c转账失败！");
-                                    player.sendMessage(ColorUtils.colorize(message));
-                                }
-                            });
-                        } else {
-                            String message = plugin.getConfigManager().getMessagesConfig().getString("economy.transfer-failed", "&c转账失败！");
-                            player.sendMessage(ColorUtils.colorize(message));
-                        }
-                    });
                 });
             });
         });
@@ -1620,24 +1614,15 @@ public class GuildCommand implements CommandExecutor, TabCompleter {
      */
     private void handleLogs(Player player, String[] args) {
         // 获取玩家工会
-        plugin.getGuildService().getPlayerGuildAsync(player.getUniqueId()).thenAccept(guild -> {
-            if (guild == null) {
+        plugin.getGuildService().getPlayerContextAsync(player.getUniqueId()).thenAccept(context -> {
+            if (!context.hasGuild()) {
                 String message = plugin.getConfigManager().getMessagesConfig().getString("general.no-guild", "&c您还没有加入工会！");
                 player.sendMessage(ColorUtils.colorize(message));
                 return;
             }
             
-            // 检查权限
-            plugin.getGuildService().getGuildMemberAsync(guild.getId(), player.getUniqueId()).thenAccept(member -> {
-                if (member == null) {
-                    String message = plugin.getConfigManager().getMessagesConfig().getString("general.no-permission", "&c权限不足！");
-                    player.sendMessage(ColorUtils.colorize(message));
-                    return;
-                }
-                
-                // 打开工会日志GUI
-                plugin.getGuiManager().openGUI(player, new com.guild.gui.GuildLogsGUI(plugin, guild, player));
-            });
+            // 打开工会日志GUI（上下文中的成员记录即为权限检查）
+            plugin.getGuiManager().openGUI(player, new com.guild.gui.GuildLogsGUI(plugin, context.getGuild(), player));
         });
     }
     
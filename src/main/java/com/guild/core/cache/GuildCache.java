@@ -0,0 +1,359 @@
+package com.guild.core.cache;
+
+import com.guild.models.Guild;
+import com.guild.models.GuildMember;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 工会数据缓存 - 保存工会、成员对象以及玩家→工会、工会→成员两个索引
+ * 由 GuildService 在每次写库成功后同步更新（写穿），读操作命中时无需访问数据库
+ * 缓存中的对象只以副本形式存取，更新时整体替换，调用方拿到的对象可以随意修改
+ */
+public class GuildCache {
+
+    /** 玩家→工会索引中表示“确认无工会”的占位值（工会ID从1开始） */
+    public static final int NO_GUILD = 0;
+
+    // “确认无工会”记录的有效期和数量上限，查询过的无工会玩家不会无限累积
+    private static final long NO_GUILD_TTL_MILLIS = 10 * 60 * 1000L;
+    private static final int MAX_NO_GUILD_ENTRIES = 10000;
+
+    // 与 SQL 中 ORDER BY role ASC, joined_ms ASC 保持一致
+    private static final Comparator<GuildMember> MEMBER_ORDER = Comparator
+        .comparing((GuildMember m) -> m.getRole().name())
+        .thenComparing(GuildMember::getJoinedAt, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Map<Integer, Guild> guildsById = new ConcurrentHashMap<>();
+    private final Map<String, Integer> guildIdsByName = new ConcurrentHashMap<>();
+    private final Map<String, Integer> guildIdsByTag = new ConcurrentHashMap<>();
+    private final Map<UUID, GuildMember> membersByUuid = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> guildIdsByPlayer = new ConcurrentHashMap<>();
+    // 确认无工会的玩家 → 过期时间，与 guildIdsByPlayer 互斥
+    private final Map<UUID, Long> noGuildUntil = new ConcurrentHashMap<>();
+    // 只保存完整加载过的成员列表，部分数据不会放入此索引
+    private final Map<Integer, Map<UUID, GuildMember>> membersByGuild = new ConcurrentHashMap<>();
+
+    // 每次写入递增，用于丢弃在写入之前发起、写入之后才返回的旧读结果
+    // 回填和写穿更新都在对象锁内进行，版本校验与放入索引之间不会插入其他写入
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 获取当前版本号，读库前调用，回填缓存时传回
+     */
+    public long stamp() {
+        return version.get();
+    }
+
+    private boolean isFresh(long stamp) {
+        return version.get() == stamp;
+    }
+
+    // ==================== 读取 ====================
+
+    public Guild getGuild(int guildId) {
+        return copyOf(guildsById.get(guildId));
+    }
+
+    public Guild getGuildByName(String name) {
+        if (name == null) return null;
+        Integer guildId = guildIdsByName.get(name);
+        if (guildId == null) return null;
+        // 以取到的工会对象本身为准，索引与对象不一致时视为未命中
+        Guild guild = guildsById.get(guildId);
+        return guild != null && name.equals(guild.getName()) ? new Guild(guild) : null;
+    }
+
+    public Guild getGuildByTag(String tag) {
+        if (tag == null) return null;
+        Integer guildId = guildIdsByTag.get(tag);
+        if (guildId == null) return null;
+        Guild guild = guildsById.get(guildId);
+        return guild != null && tag.equals(guild.getTag()) ? new Guild(guild) : null;
+    }
+
+    /**
+     * 获取玩家所在工会ID
+     * @return null 表示未缓存，NO_GUILD 表示确认无工会
+     */
+    public Integer getPlayerGuildId(UUID playerUuid) {
+        Integer guildId = guildIdsByPlayer.get(playerUuid);
+        if (guildId != null) return guildId;
+        Long until = noGuildUntil.get(playerUuid);
+        if (until == null) return null;
+        if (until > System.currentTimeMillis()) return NO_GUILD;
+        noGuildUntil.remove(playerUuid, until);
+        return null;
+    }
+
+    public GuildMember getMember(UUID playerUuid) {
+        return copyOf(membersByUuid.get(playerUuid));
+    }
+
+    /**
+     * 获取工会成员列表（已排序的副本）
+     * @return null 表示该工会的成员列表未完整缓存
+     */
+    public List<GuildMember> getMembers(int guildId) {
+        Map<UUID, GuildMember> members = membersByGuild.get(guildId);
+        if (members == null) return null;
+        List<GuildMember> list = new ArrayList<>(members.size());
+        for (GuildMember member : members.values()) {
+            list.add(new GuildMember(member));
+        }
+        list.sort(MEMBER_ORDER);
+        return list;
+    }
+
+    /**
+     * 获取工会成员数量
+     * @return -1 表示该工会的成员列表未完整缓存
+     */
+    public int getMemberCount(int guildId) {
+        Map<UUID, GuildMember> members = membersByGuild.get(guildId);
+        return members != null ? members.size() : -1;
+    }
+
+    // ==================== 读库回填（带版本校验） ====================
+
+    public synchronized void cacheGuild(Guild guild, long stamp) {
+        if (guild != null && isFresh(stamp)) {
+            indexGuild(new Guild(guild));
+        }
+    }
+
+    public synchronized void cacheMember(GuildMember member, long stamp) {
+        if (member != null && isFresh(stamp)) {
+            indexMember(new GuildMember(member));
+        }
+    }
+
+    public synchronized void cacheNoGuild(UUID playerUuid, long stamp) {
+        if (isFresh(stamp)) {
+            markNoGuild(playerUuid);
+        }
+    }
+
+    public synchronized void cacheMembers(int guildId, List<GuildMember> members, long stamp) {
+        if (!isFresh(stamp)) return;
+        putMembers(guildId, members);
+    }
+
+    // ==================== 写穿更新 ====================
+
+    /**
+     * 放入新建的工会（包括会长在内的成员列表视为完整）
+     */
+    public synchronized void putGuild(Guild guild, List<GuildMember> members) {
+        version.incrementAndGet();
+        indexGuild(new Guild(guild));
+        putMembers(guild.getId(), members);
+    }
+
+    /**
+     * 更新工会字段（余额、等级、家等不影响索引的字段），在副本上修改后整体替换
+     */
+    public synchronized void updateGuild(int guildId, Consumer<Guild> updater) {
+        version.incrementAndGet();
+        Guild guild = guildsById.get(guildId);
+        if (guild != null) {
+            Guild updated = new Guild(guild);
+            updater.accept(updated);
+            indexGuild(updated);
+        }
+    }
+
+    /**
+     * 移除工会对象及名称/标签索引，下次读取时重新加载（用于改名、改标签等）
+     */
+    public synchronized void evictGuild(int guildId) {
+        version.incrementAndGet();
+        Guild guild = guildsById.remove(guildId);
+        if (guild != null) {
+            unindexGuild(guild);
+        }
+    }
+
+    /**
+     * 工会被删除：移除工会及其全部成员
+     */
+    public synchronized void removeGuild(int guildId) {
+        version.incrementAndGet();
+        Guild guild = guildsById.remove(guildId);
+        if (guild != null) {
+            unindexGuild(guild);
+        }
+        membersByGuild.remove(guildId);
+        membersByUuid.values().removeIf(member -> member.getGuildId() == guildId);
+        List<UUID> formerMembers = new ArrayList<>();
+        guildIdsByPlayer.forEach((uuid, id) -> {
+            if (id == guildId) formerMembers.add(uuid);
+        });
+        for (UUID uuid : formerMembers) {
+            markNoGuild(uuid);
+        }
+    }
+
+    /**
+     * 工会在其他服务器被修改：移除工会对象和完整成员列表，下次读取时重新加载
+     */
+    public synchronized void invalidateGuild(int guildId) {
+        version.incrementAndGet();
+        Guild guild = guildsById.remove(guildId);
+        if (guild != null) {
+            unindexGuild(guild);
+        }
+        membersByGuild.remove(guildId);
+    }
+
+    /**
+     * 玩家的成员记录在其他服务器被修改：移除成员对象和玩家→工会索引（不标记为无工会），下次读取时重新加载
+     */
+    public synchronized void invalidatePlayer(UUID playerUuid) {
+        version.incrementAndGet();
+        membersByUuid.remove(playerUuid);
+        guildIdsByPlayer.remove(playerUuid);
+        noGuildUntil.remove(playerUuid);
+        membersByGuild.values().removeIf(members -> members.containsKey(playerUuid));
+    }
+
+    public synchronized void addMember(GuildMember member) {
+        version.incrementAndGet();
+        GuildMember stored = new GuildMember(member);
+        indexMember(stored);
+        Map<UUID, GuildMember> members = membersByGuild.get(stored.getGuildId());
+        if (members != null) {
+            members.put(stored.getPlayerUuid(), stored);
+        }
+    }
+
+    public synchronized void removeMember(UUID playerUuid) {
+        version.incrementAndGet();
+        GuildMember member = membersByUuid.remove(playerUuid);
+        markNoGuild(playerUuid);
+        if (member != null) {
+            Map<UUID, GuildMember> members = membersByGuild.get(member.getGuildId());
+            if (members != null) {
+                members.remove(playerUuid);
+            }
+        } else {
+            // 不知道成员属于哪个工会，丢弃所有可能包含该玩家的列表
+            membersByGuild.values().removeIf(members -> members.containsKey(playerUuid));
+        }
+    }
+
+    public synchronized void updateMemberRole(UUID playerUuid, GuildMember.Role role) {
+        version.incrementAndGet();
+        GuildMember member = membersByUuid.get(playerUuid);
+        if (member != null) {
+            GuildMember updated = new GuildMember(member);
+            updated.setRole(role);
+            membersByUuid.put(playerUuid, updated);
+            Map<UUID, GuildMember> members = membersByGuild.get(updated.getGuildId());
+            if (members != null) {
+                members.replace(playerUuid, updated);
+            }
+        }
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public synchronized void clear() {
+        version.incrementAndGet();
+        guildsById.clear();
+        guildIdsByName.clear();
+        guildIdsByTag.clear();
+        membersByUuid.clear();
+        guildIdsByPlayer.clear();
+        noGuildUntil.clear();
+        membersByGuild.clear();
+    }
+
+    // ==================== 索引维护 ====================
+
+    private static Guild copyOf(Guild guild) {
+        return guild != null ? new Guild(guild) : null;
+    }
+
+    private static GuildMember copyOf(GuildMember member) {
+        return member != null ? new GuildMember(member) : null;
+    }
+
+    private void putMembers(int guildId, List<GuildMember> members) {
+        Map<UUID, GuildMember> map = new ConcurrentHashMap<>();
+        for (GuildMember member : members) {
+            GuildMember stored = new GuildMember(member);
+            indexMember(stored);
+            map.put(stored.getPlayerUuid(), stored);
+        }
+        membersByGuild.put(guildId, map);
+    }
+
+    private void markNoGuild(UUID playerUuid) {
+        guildIdsByPlayer.remove(playerUuid);
+        long now = System.currentTimeMillis();
+        noGuildUntil.put(playerUuid, now + NO_GUILD_TTL_MILLIS);
+        if (noGuildUntil.size() > MAX_NO_GUILD_ENTRIES) {
+            trimNoGuild(now);
+        }
+    }
+
+    /**
+     * 先清掉过期的无工会记录，仍超出上限时按过期时间从早到晚淘汰到上限的四分之三
+     */
+    private void trimNoGuild(long now) {
+        noGuildUntil.values().removeIf(until -> until <= now);
+        int excess = noGuildUntil.size() - MAX_NO_GUILD_ENTRIES * 3 / 4;
+        if (excess <= 0) return;
+        List<Map.Entry<UUID, Long>> entries = new ArrayList<>(noGuildUntil.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        Iterator<Map.Entry<UUID, Long>> iterator = entries.iterator();
+        while (excess-- > 0 && iterator.hasNext()) {
+            Map.Entry<UUID, Long> entry = iterator.next();
+            noGuildUntil.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void indexGuild(Guild guild) {
+        Guild previous = guildsById.put(guild.getId(), guild);
+        if (previous != null && previous != guild) {
+            unindexGuild(previous);
+        }
+        if (guild.getName() != null) {
+            guildIdsByName.put(guild.getName(), guild.getId());
+        }
+        if (guild.getTag() != null) {
+            guildIdsByTag.put(guild.getTag(), guild.getId());
+        }
+    }
+
+    private void unindexGuild(Guild guild) {
+        if (guild.getName() != null) {
+            guildIdsByName.remove(guild.getName(), guild.getId());
+        }
+        if (guild.getTag() != null) {
+            guildIdsByTag.remove(guild.getTag(), guild.getId());
+        }
+    }
+
+    private void indexMember(GuildMember member) {
+        GuildMember previous = membersByUuid.put(member.getPlayerUuid(), member);
+        if (previous != null && previous.getGuildId() != member.getGuildId()) {
+            Map<UUID, GuildMember> oldMembers = membersByGuild.get(previous.getGuildId());
+            if (oldMembers != null) {
+                oldMembers.remove(member.getPlayerUuid());
+            }
+        }
+        guildIdsByPlayer.put(member.getPlayerUuid(), member.getGuildId());
+        noGuildUntil.remove(member.getPlayerUuid());
+    }
+}
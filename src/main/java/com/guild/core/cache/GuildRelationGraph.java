@@ -0,0 +1,184 @@
+package com.guild.core.cache;
+
+import com.guild.models.GuildRelation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 工会关系图 - 启动时一次性从 guild_relations 加载，按工会ID保存邻接表
+ * 由 GuildService 在关系写库成功后同步更新，关系查询全部在内存中完成
+ */
+public class GuildRelationGraph {
+
+    // 与 SQL 中 ORDER BY created_ms DESC 保持一致
+    private static final Comparator<GuildRelation> NEWEST_FIRST = Comparator
+        .comparing(GuildRelation::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(GuildRelation::getId, Comparator.reverseOrder());
+
+    private final Map<Integer, GuildRelation> relationsById = new ConcurrentHashMap<>();
+    // 工会ID → (关系ID → 关系)
+    private final Map<Integer, Map<Integer, GuildRelation>> edges = new ConcurrentHashMap<>();
+    // 两个工会之间的关系，键与工会顺序无关
+    private final Map<Long, GuildRelation> relationsByPair = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * 是否已完成加载；未加载时调用方应回退到数据库查询
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 用全表扫描的结果重建关系图
+     */
+    public synchronized void load(Collection<GuildRelation> relations) {
+        relationsById.clear();
+        edges.clear();
+        relationsByPair.clear();
+        for (GuildRelation relation : relations) {
+            add(relation);
+        }
+        loaded = true;
+    }
+
+    // ==================== 读取 ====================
+
+    public GuildRelation getRelation(int relationId) {
+        return relationsById.get(relationId);
+    }
+
+    /**
+     * 获取两个工会之间的关系（与顺序无关）
+     */
+    public GuildRelation getRelation(int guild1Id, int guild2Id) {
+        return relationsByPair.get(pairKey(guild1Id, guild2Id));
+    }
+
+    /**
+     * 获取工会的所有关系，按创建时间倒序
+     */
+    public List<GuildRelation> getRelations(int guildId) {
+        Map<Integer, GuildRelation> guildEdges = edges.get(guildId);
+        if (guildEdges == null || guildEdges.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<GuildRelation> relations = new ArrayList<>(guildEdges.values());
+        relations.sort(NEWEST_FIRST);
+        return relations;
+    }
+
+    /**
+     * 获取工会指定类型和状态的关系
+     */
+    public List<GuildRelation> getRelations(int guildId, GuildRelation.RelationType type, GuildRelation.RelationStatus status) {
+        Map<Integer, GuildRelation> guildEdges = edges.get(guildId);
+        if (guildEdges == null) {
+            return Collections.emptyList();
+        }
+        List<GuildRelation> relations = new ArrayList<>();
+        for (GuildRelation relation : guildEdges.values()) {
+            if (relation.getType() == type && relation.getStatus() == status) {
+                relations.add(relation);
+            }
+        }
+        return relations;
+    }
+
+    /**
+     * 获取全部关系，按创建时间倒序
+     */
+    public List<GuildRelation> getAllRelations() {
+        List<GuildRelation> relations = new ArrayList<>(relationsById.values());
+        relations.sort(NEWEST_FIRST);
+        return relations;
+    }
+
+    public int size() {
+        return relationsById.size();
+    }
+
+    // ==================== 写入（写库成功后调用） ====================
+
+    public synchronized void addRelation(GuildRelation relation) {
+        if (loaded) {
+            add(relation);
+        }
+    }
+
+    public synchronized void updateStatus(int relationId, GuildRelation.RelationStatus status) {
+        GuildRelation relation = relationsById.get(relationId);
+        if (relation != null) {
+            relation.setStatus(status);
+            relation.setUpdatedAt(LocalDateTime.now());
+        }
+    }
+
+    public synchronized void removeRelation(int relationId) {
+        GuildRelation relation = relationsById.remove(relationId);
+        if (relation == null) {
+            return;
+        }
+        removeEdge(relation.getGuild1Id(), relationId);
+        removeEdge(relation.getGuild2Id(), relationId);
+
+        long key = pairKey(relation.getGuild1Id(), relation.getGuild2Id());
+        if (relationsByPair.get(key) == relation) {
+            relationsByPair.remove(key);
+            // 两个方向各有一条记录时，保留剩下的那条
+            for (GuildRelation other : getRelations(relation.getGuild1Id())) {
+                if (other.getOtherGuildId(relation.getGuild1Id()) == relation.getGuild2Id()) {
+                    relationsByPair.put(key, other);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 移除工会的所有关系（工会解散时，数据库中由外键级联删除）
+     */
+    public synchronized void removeGuild(int guildId) {
+        Map<Integer, GuildRelation> guildEdges = edges.get(guildId);
+        if (guildEdges == null) {
+            return;
+        }
+        for (Integer relationId : new ArrayList<>(guildEdges.keySet())) {
+            removeRelation(relationId);
+        }
+        edges.remove(guildId);
+    }
+
+    private void add(GuildRelation relation) {
+        relationsById.put(relation.getId(), relation);
+        edges.computeIfAbsent(relation.getGuild1Id(), id -> new ConcurrentHashMap<>()).put(relation.getId(), relation);
+        edges.computeIfAbsent(relation.getGuild2Id(), id -> new ConcurrentHashMap<>()).put(relation.getId(), relation);
+        // 同一对工会有多条记录时以最新的为准
+        relationsByPair.merge(pairKey(relation.getGuild1Id(), relation.getGuild2Id()), relation,
+            (existing, added) -> added.getId() >= existing.getId() ? added : existing);
+    }
+
+    private void removeEdge(int guildId, int relationId) {
+        Map<Integer, GuildRelation> guildEdges = edges.get(guildId);
+        if (guildEdges != null) {
+            guildEdges.remove(relationId);
+            if (guildEdges.isEmpty()) {
+                edges.remove(guildId);
+            }
+        }
+    }
+
+    private static long pairKey(int guild1Id, int guild2Id) {
+        int low = Math.min(guild1Id, guild2Id);
+        int high = Math.max(guild1Id, guild2Id);
+        return ((long) low << 32) | (high & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,192 @@
+package com.guild.core.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 排名树 - 按子树大小增强的 Treap，按分数从高到低、工会ID从小到大排序
+ * 插入、删除、查询名次和按名次取值均为 O(log n)
+ * 非线程安全，由调用方加锁
+ */
+public class RankTree {
+
+    private Node root;
+
+    public int size() {
+        return size(root);
+    }
+
+    public void insert(int id, double score) {
+        root = insert(root, new Node(id, score));
+    }
+
+    /**
+     * 删除节点，分数必须与插入时一致
+     */
+    public void remove(int id, double score) {
+        root = remove(root, id, score);
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * 获取名次（从 1 开始），不存在时返回 0
+     */
+    public int rankOf(int id, double score) {
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(id, score, node);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left) + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 获取指定名次（从 1 开始）的ID，超出范围时返回 -1
+     */
+    public int idAt(int rank) {
+        int index = rank - 1;
+        Node node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取前 limit 名的ID
+     */
+    public List<Integer> top(int limit) {
+        List<Integer> ids = new ArrayList<>(Math.max(0, Math.min(limit, size())));
+        collect(root, ids, limit);
+        return ids;
+    }
+
+    private static void collect(Node node, List<Integer> ids, int limit) {
+        if (node == null || ids.size() >= limit) {
+            return;
+        }
+        collect(node.left, ids, limit);
+        if (ids.size() < limit) {
+            ids.add(node.id);
+            collect(node.right, ids, limit);
+        }
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.id, added.score, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node remove(Node node, int id, double score) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(id, score, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, id, score);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, id, score);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    // 分数高的在前，分数相同按ID从小到大
+    private static int compare(int id, double score, Node node) {
+        int cmp = Double.compare(node.score, score);
+        return cmp != 0 ? cmp : Integer.compare(id, node.id);
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static final class Node {
+        private final int id;
+        private final double score;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        Node(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
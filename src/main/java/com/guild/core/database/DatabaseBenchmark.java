@@ -0,0 +1,152 @@
+package com.guild.core.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * 数据库执行器基准测试 - 模拟大量玩家同时查询工会成员信息
+ * 用于在实际服务器上比较 platform 与 virtual 两种执行模式
+ */
+public class DatabaseBenchmark {
+
+    private static final String LOOKUP_SQL = "SELECT * FROM guild_members WHERE player_uuid = ?";
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+
+    public DatabaseBenchmark(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+    }
+
+    /**
+     * 使用指定模式的临时执行器同时提交 lookups 个查询并统计耗时
+     * 会阻塞调用线程，不要在主线程调用
+     */
+    public Result run(DatabaseExecutor.Mode mode, int lookups, int threads) {
+        // 队列足够容纳全部查询，测量的是排队 + 执行的总延迟
+        DatabaseExecutor executor = new DatabaseExecutor(logger, mode, threads, lookups,
+            DatabaseExecutor.RejectionPolicy.ABORT);
+        long[] latencies = new long[lookups];
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(lookups);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            final int index = i;
+            final long submittedAt = System.nanoTime();
+            futures.add(executor.runAsync(() -> {
+                try {
+                    lookup(UUID.randomUUID());
+                } catch (SQLException e) {
+                    failures.incrementAndGet();
+                }
+                latencies[index] = System.nanoTime() - submittedAt;
+            }).exceptionally(throwable -> {
+                failures.incrementAndGet();
+                return null;
+            }));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            logger.warning("数据库基准测试未能全部完成: " + e.getMessage());
+        }
+        long totalNanos = System.nanoTime() - start;
+        executor.shutdown(10000);
+
+        Arrays.sort(latencies);
+        return new Result(executor.getMode(), lookups, failures.get(), totalNanos,
+            percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99), latencies[lookups - 1]);
+    }
+
+    private void lookup(UUID playerUuid) throws SQLException {
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(LOOKUP_SQL)) {
+            stmt.setString(1, playerUuid.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rs.getInt("guild_id");
+                }
+            }
+        }
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * 基准测试结果
+     */
+    public static final class Result {
+        private final DatabaseExecutor.Mode mode;
+        private final int lookups;
+        private final int failures;
+        private final long totalNanos;
+        private final long p50Nanos;
+        private final long p95Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        Result(DatabaseExecutor.Mode mode, int lookups, int failures, long totalNanos,
+               long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+            this.mode = mode;
+            this.lookups = lookups;
+            this.failures = failures;
+            this.totalNanos = totalNanos;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public DatabaseExecutor.Mode getMode() {
+            return mode;
+        }
+
+        public int getLookups() {
+            return lookups;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public double getTotalMillis() {
+            return totalNanos / 1_000_000.0;
+        }
+
+        public double getThroughput() {
+            return totalNanos > 0 ? lookups / (totalNanos / 1_000_000_000.0) : 0;
+        }
+
+        public double getP50Millis() {
+            return p50Nanos / 1_000_000.0;
+        }
+
+        public double getP95Millis() {
+            return p95Nanos / 1_000_000.0;
+        }
+
+        public double getP99Millis() {
+            return p99Nanos / 1_000_000.0;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.guild.core.database;
+
+import com.guild.core.utils.CompatibleScheduler;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * 数据库执行器 - 专用于阻塞的JDBC调用
+ * platform 模式：固定大小线程池（默认与连接池大小一致）+ 有界队列
+ * virtual 模式：每个任务一个虚拟线程（需要 Java 21+），用许可数限制同时在途的任务
+ * 两种模式在超出容量时都按配置的策略施加背压
+ */
+public class DatabaseExecutor implements Executor {
+
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findThreadPerTaskExecutor();
+    private static final Method OF_VIRTUAL = findOfVirtual();
+
+    private final Logger logger;
+    private final Mode mode;
+    private final ExecutorService executor;
+    private final ThreadPoolExecutor platformExecutor;
+    // virtual 模式下的在途任务许可（线程数 + 队列长度）
+    private final Semaphore virtualPermits;
+    private final int threads;
+    private final int queueSize;
+    private final RejectionPolicy rejectionPolicy;
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+
+    public DatabaseExecutor(Logger logger, Mode mode, int threads, int queueSize, RejectionPolicy rejectionPolicy) {
+        this.logger = logger;
+        this.threads = Math.max(1, threads);
+        this.queueSize = Math.max(1, queueSize);
+        this.rejectionPolicy = rejectionPolicy;
+
+        ExecutorService virtualExecutor = mode == Mode.VIRTUAL ? createVirtualThreadExecutor("Guild-DB-v") : null;
+        if (mode == Mode.VIRTUAL && virtualExecutor == null) {
+            logger.warning("当前Java版本 (" + System.getProperty("java.version") + ") 不支持虚拟线程，数据库执行器回退为 platform 模式");
+            mode = Mode.PLATFORM;
+        }
+        this.mode = mode;
+
+        if (mode == Mode.VIRTUAL) {
+            this.platformExecutor = null;
+            this.virtualPermits = new Semaphore(this.threads + this.queueSize);
+            this.executor = virtualExecutor;
+        } else {
+            this.virtualPermits = null;
+            this.platformExecutor = new ThreadPoolExecutor(this.threads, this.threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.queueSize), new NamedThreadFactory("Guild-DB-"), new BackpressureHandler());
+            this.platformExecutor.allowCoreThreadTimeOut(true);
+            this.executor = platformExecutor;
+        }
+    }
+
+    /**
+     * 根据 database.yml 的 executor 配置创建执行器
+     */
+    public static DatabaseExecutor fromConfig(Logger logger, FileConfiguration config, int connectionPoolSize) {
+        int threads = config.getInt("executor.threads", 0);
+        if (threads <= 0) {
+            threads = connectionPoolSize;
+        }
+        int queueSize = config.getInt("executor.queue-size", 1000);
+        Mode mode = Mode.fromConfig(config.getString("executor.mode", "platform"));
+        RejectionPolicy policy = RejectionPolicy.fromConfig(config.getString("executor.rejection-policy", "caller-runs"));
+
+        DatabaseExecutor executor = new DatabaseExecutor(logger, mode, threads, queueSize, policy);
+        logger.info("数据库执行器已启动: 模式=" + executor.getMode().getConfigName() + ", 线程数=" + executor.threads
+            + ", 队列长度=" + executor.queueSize + ", 拒绝策略=" + policy.getConfigName());
+        return executor;
+    }
+
+    /**
+     * 当前JVM是否支持虚拟线程（Java 21+）
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return NEW_THREAD_PER_TASK_EXECUTOR != null && OF_VIRTUAL != null;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (platformExecutor != null) {
+            platformExecutor.execute(countCompletion(command));
+            return;
+        }
+        if (!virtualPermits.tryAcquire()) {
+            rejectVirtual(command);
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    virtualPermits.release();
+                    completedCount.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            virtualPermits.release();
+            rejectedCount.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * 在数据库线程上执行任务，被拒绝时返回失败的 future 而不是抛出异常
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, this);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public CompletableFuture<Void> runAsync(Runnable runnable) {
+        try {
+            return CompletableFuture.runAsync(runnable, this);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 停止接收新任务并等待已提交的任务完成
+     */
+    public void shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("数据库执行器在 " + timeoutMillis + "ms 内未能完成剩余任务，剩余 " + getQueueSize() + " 个任务将被丢弃");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getPoolSize() {
+        return threads;
+    }
+
+    /**
+     * 正在执行的任务数（virtual 模式下为在途任务数）
+     */
+    public int getActiveCount() {
+        if (platformExecutor != null) {
+            return platformExecutor.getActiveCount();
+        }
+        return Math.min(threads, inFlightVirtual());
+    }
+
+    /**
+     * 排队等待的任务数（virtual 模式下为超出线程数的在途任务数）
+     */
+    public int getQueueSize() {
+        if (platformExecutor != null) {
+            return platformExecutor.getQueue().size();
+        }
+        return Math.max(0, inFlightVirtual() - threads);
+    }
+
+    public long getCompletedTaskCount() {
+        return completedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private int inFlightVirtual() {
+        return threads + queueSize - virtualPermits.availablePermits();
+    }
+
+    private Runnable countCompletion(Runnable command) {
+        return () -> {
+            try {
+                command.run();
+            } finally {
+                completedCount.incrementAndGet();
+            }
+        };
+    }
+
+    private void rejectVirtual(Runnable command) {
+        if (executor.isShutdown()) {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException(new SQLException("数据库执行器已关闭"));
+        }
+        if (rejectionPolicy == RejectionPolicy.CALLER_RUNS && !CompatibleScheduler.isPrimaryThread()) {
+            countCompletion(command).run();
+            return;
+        }
+        throw reject();
+    }
+
+    private RejectedExecutionException reject() {
+        long rejected = rejectedCount.incrementAndGet();
+        // 避免在突发流量下刷屏
+        if (rejected == 1 || rejected % 100 == 0) {
+            logger.warning("数据库执行器队列已满，已拒绝 " + rejected + " 个任务");
+        }
+        return new RejectedExecutionException("数据库执行器队列已满");
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器，以兼容 Java 17 编译目标
+     * @return 不支持时返回 null
+     */
+    private static ExecutorService createVirtualThreadExecutor(String prefix) {
+        if (!isVirtualThreadsSupported()) {
+            return null;
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 19/20 未开启预览特性时会抛出 UnsupportedOperationException
+            return null;
+        }
+    }
+
+    private static Method findThreadPerTaskExecutor() {
+        try {
+            return java.util.concurrent.Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Method findOfVirtual() {
+        try {
+            return Thread.class.getMethod("ofVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 执行器模式
+     */
+    public enum Mode {
+        /** 固定大小的平台线程池 */
+        PLATFORM("platform"),
+        /** 每个任务一个虚拟线程（Java 21+） */
+        VIRTUAL("virtual");
+
+        private final String configName;
+
+        Mode(String configName) {
+            this.configName = configName;
+        }
+
+        public String getConfigName() {
+            return configName;
+        }
+
+        static Mode fromConfig(String value) {
+            for (Mode mode : values()) {
+                if (mode.configName.equalsIgnoreCase(value)) {
+                    return mode;
+                }
+            }
+            return PLATFORM;
+        }
+    }
+
+    /**
+     * 队列已满时的处理方式
+     */
+    public enum RejectionPolicy {
+        /** 由提交任务的线程自己执行；服务器主线程提交时改为拒绝，避免在主线程上执行JDBC */
+        CALLER_RUNS("caller-runs"),
+        /** 直接拒绝，返回失败的 future */
+        ABORT("abort");
+
+        private final String configName;
+
+        RejectionPolicy(String configName) {
+            this.configName = configName;
+        }
+
+        public String getConfigName() {
+            return configName;
+        }
+
+        static RejectionPolicy fromConfig(String value) {
+            for (RejectionPolicy policy : values()) {
+                if (policy.configName.equalsIgnoreCase(value)) {
+                    return policy;
+                }
+            }
+            return CALLER_RUNS;
+        }
+    }
+
+    private class BackpressureHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor pool) {
+            if (pool.isShutdown()) {
+                rejectedCount.incrementAndGet();
+                throw new RejectedExecutionException(new SQLException("数据库执行器已关闭"));
+            }
+            if (rejectionPolicy == RejectionPolicy.CALLER_RUNS && !CompatibleScheduler.isPrimaryThread()) {
+                task.run();
+                return;
+            }
+            throw reject();
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -6,10 +6,16 @@ import com.zaxxer.hikari.HikariDataSource;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
@@ -20,7 +26,23 @@ public class DatabaseManager {
     private final GuildPlugin plugin;
     private final Logger logger;
     private HikariDataSource dataSource;
+    // 只读副本连接池（未配置时为 null，所有读操作走主库）
+    private HikariDataSource readDataSource;
     private DatabaseType databaseType;
+    private DatabaseExecutor executor;
+    // SQLite 单写线程（仅 SQLite 且启用 sqlite.single-writer 时存在）
+    private SqliteWriter writer;
+    // 读己之写：最近写入过的工会/玩家在窗口期内读主库，避免读到副本尚未同步的数据
+    private final Map<Integer, Long> recentGuildWrites = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> recentPlayerWrites = new ConcurrentHashMap<>();
+    private volatile long lastWriteAt;
+    private long readYourWritesMillis;
+    // 读连接池与主库是否可能不一致（真正的副本为 true；SQLite 同一文件的只读连接池为 false）
+    private boolean readPoolLagging;
+    // 已写入数据库但尚未结束的数据库任务数（任务在写入提交后才发布变更事件），供增量统计判断重新加载的结果是否可用
+    private final AtomicInteger writeTasksInFlight = new AtomicInteger();
+    // 当前线程上正在执行的数据库任务是否已写入
+    private static final ThreadLocal<boolean[]> TASK_WROTE = new ThreadLocal<>();
     
     public DatabaseManager(GuildPlugin plugin) {
         this.plugin = plugin;
@@ -36,16 +58,33 @@ public class DatabaseManager {
         String type = config.getString("type", config.getString("database.type", "sqlite")).toLowerCase();
         
         try {
+            long start = System.currentTimeMillis();
             if ("mysql".equals(type)) {
                 initializeMySQL(config);
             } else {
                 initializeSQLite(config);
             }
+            long poolMillis = System.currentTimeMillis() - start;
             
             // 创建数据表
+            start = System.currentTimeMillis();
             createTables();
+            long schemaMillis = System.currentTimeMillis() - start;
             
-            logger.info("数据库连接初始化成功: " + databaseType);
+            // 只读连接池需要在数据表（以及 SQLite 的 WAL 文件）创建之后打开
+            initializeReadReplica(config);
+            if (databaseType == DatabaseType.SQLITE && config.getBoolean("sqlite.single-writer", true)) {
+                writer = new SqliteWriter(this, logger, config.getInt("sqlite.writer-batch-size", 64));
+            }
+            
+            // 专用数据库执行器（platform / virtual），线程数默认与连接池大小一致（读写分离时取较大的一个）
+            int poolSize = dataSource.getMaximumPoolSize();
+            if (readDataSource != null) {
+                poolSize = Math.max(poolSize, readDataSource.getMaximumPoolSize());
+            }
+            executor = DatabaseExecutor.fromConfig(logger, config, poolSize);
+            
+            logger.info("数据库连接初始化成功: " + databaseType + " (连接池 " + poolMillis + "ms, 表结构检查 " + schemaMillis + "ms)");
             
         } catch (Exception e) {
             logger.severe("数据库连接初始化失败: " + e.getMessage());
@@ -60,16 +99,10 @@ public class DatabaseManager {
         databaseType = DatabaseType.MYSQL;
         
         HikariConfig hikariConfig = new HikariConfig();
-        String host = config.getString("mysql.host", config.getString("database.mysql.host", "localhost"));
-        int port = config.getInt("mysql.port", config.getInt("database.mysql.port", 3306));
-        String database = config.getString("mysql.database", config.getString("database.mysql.database", "guild"));
-        String params = "?useSSL=" + (config.getBoolean("mysql.use-ssl", config.getBoolean("database.mysql.use-ssl", false)) ? "true" : "false") +
-                "&serverTimezone=" + config.getString("mysql.timezone", config.getString("database.mysql.timezone", "UTC")) +
-                "&characterEncoding=" + config.getString("mysql.character-encoding", config.getString("database.mysql.character-encoding", "UTF-8"));
-        hikariConfig.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database + params);
+        hikariConfig.setJdbcUrl(mysqlJdbcUrl(config));
         
-        hikariConfig.setUsername(config.getString("mysql.username", config.getString("database.mysql.username", "root")));
-        hikariConfig.setPassword(config.getString("mysql.password", config.getString("database.mysql.password", "")));
+        hikariConfig.setUsername(mysqlUsername(config));
+        hikariConfig.setPassword(mysqlPassword(config));
         hikariConfig.setMaximumPoolSize(config.getInt("mysql.pool-size", config.getInt("database.mysql.pool-size", 20)));
         hikariConfig.setMinimumIdle(config.getInt("mysql.min-idle", config.getInt("database.mysql.min-idle", 10)));
         hikariConfig.setConnectionTimeout(config.getLong("mysql.connection-timeout", config.getLong("database.mysql.connection-timeout", 60000)));
@@ -79,6 +112,45 @@ public class DatabaseManager {
         dataSource = new HikariDataSource(hikariConfig);
     }
     
+    private String mysqlJdbcUrl(FileConfiguration config) {
+        String host = config.getString("mysql.host", config.getString("database.mysql.host", "localhost"));
+        int port = config.getInt("mysql.port", config.getInt("database.mysql.port", 3306));
+        String database = config.getString("mysql.database", config.getString("database.mysql.database", "guild"));
+        String params = "?useSSL=" + (config.getBoolean("mysql.use-ssl", config.getBoolean("database.mysql.use-ssl", false)) ? "true" : "false") +
+                "&serverTimezone=" + config.getString("mysql.timezone", config.getString("database.mysql.timezone", "UTC")) +
+                "&characterEncoding=" + config.getString("mysql.character-encoding", config.getString("database.mysql.character-encoding", "UTF-8")) +
+                // 让批量写入（日志等）合并为多值 INSERT
+                "&rewriteBatchedStatements=true";
+        return "jdbc:mysql://" + host + ":" + port + "/" + database + params;
+    }
+    
+    private String mysqlUsername(FileConfiguration config) {
+        return config.getString("mysql.username", config.getString("database.mysql.username", "root"));
+    }
+    
+    private String mysqlPassword(FileConfiguration config) {
+        return config.getString("mysql.password", config.getString("database.mysql.password", ""));
+    }
+    
+    private String sqliteJdbcUrl(FileConfiguration config) {
+        String fileName = config.getString("sqlite.file", config.getString("database.sqlite.file", "guild.db"));
+        return "jdbc:sqlite:" + plugin.getDataFolder() + "/" + fileName;
+    }
+    
+    /**
+     * 按 database.yml 中的配置直接打开指定类型数据库的一个连接（不经过连接池，用于迁移等一次性任务）
+     * 与当前使用的数据库类型无关，调用方负责关闭连接
+     */
+    public Connection openConnection(DatabaseType type) throws SQLException {
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        if (type == DatabaseType.MYSQL) {
+            // useCursorFetch 让 setFetchSize 生效：按批从服务器读取结果，而不是一次读入整张表
+            return DriverManager.getConnection(mysqlJdbcUrl(config) + "&useCursorFetch=true",
+                mysqlUsername(config), mysqlPassword(config));
+        }
+        return DriverManager.getConnection(sqliteJdbcUrl(config));
+    }
+    
     /**
      * 初始化SQLite连接
      */
@@ -86,11 +158,10 @@ public class DatabaseManager {
         databaseType = DatabaseType.SQLITE;
         
         HikariConfig hikariConfig = new HikariConfig();
-        String fileName = config.getString("sqlite.file", config.getString("database.sqlite.file", "guild.db"));
-        String dbPath = plugin.getDataFolder() + "/" + fileName;
-        hikariConfig.setJdbcUrl("jdbc:sqlite:" + dbPath);
+        hikariConfig.setJdbcUrl(sqliteJdbcUrl(config));
         int maxPool = config.getInt("connection-pool.maximum-pool-size", 2);
         if (maxPool < 1) { maxPool = 1; }
+        // 单写模式下写入都排队到写线程上（同一时刻只占用一个连接），连接池保持配置的大小，供建表、备份等不走写线程的操作使用
         hikariConfig.setMaximumPoolSize(maxPool);
         long connTimeout = config.getLong("connection-pool.connection-timeout", 10000);
         hikariConfig.setConnectionTimeout(connTimeout);
@@ -121,298 +192,70 @@ public class DatabaseManager {
     }
     
     /**
-     * 创建数据表
+     * 初始化只读副本连接池（可选）
+     * MySQL 使用 mysql.replica 配置，未填写的项沿用主库配置；SQLite 使用 sqlite.replica-file 指定的文件（只读打开）
      */
-    private void createTables() {
-        if (databaseType == DatabaseType.SQLITE) {
-            createSQLiteTables();
+    private void initializeReadReplica(FileConfiguration config) {
+        readYourWritesMillis = Math.max(0, config.getLong("read-replica.read-your-writes", 3000));
+        HikariConfig hikariConfig = new HikariConfig();
+        if (databaseType == DatabaseType.MYSQL) {
+            if (!config.getBoolean("mysql.replica.enabled", false)) {
+                return;
+            }
+            String host = config.getString("mysql.replica.host", config.getString("mysql.host", "localhost"));
+            int port = config.getInt("mysql.replica.port", config.getInt("mysql.port", 3306));
+            String database = config.getString("mysql.replica.database", config.getString("mysql.database", "guild"));
+            String params = "?useSSL=" + (config.getBoolean("mysql.use-ssl", false) ? "true" : "false") +
+                    "&serverTimezone=" + config.getString("mysql.timezone", "UTC") +
+                    "&characterEncoding=" + config.getString("mysql.character-encoding", "UTF-8");
+            hikariConfig.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database + params);
+            hikariConfig.setUsername(config.getString("mysql.replica.username", config.getString("mysql.username", "root")));
+            hikariConfig.setPassword(config.getString("mysql.replica.password", config.getString("mysql.password", "")));
+            hikariConfig.setMaximumPoolSize(config.getInt("mysql.replica.pool-size", config.getInt("mysql.pool-size", 20)));
+            hikariConfig.setMinimumIdle(config.getInt("mysql.replica.min-idle", config.getInt("mysql.min-idle", 10)));
+            hikariConfig.setConnectionTimeout(config.getLong("mysql.connection-timeout", 60000));
+            hikariConfig.setIdleTimeout(config.getLong("mysql.idle-timeout", 600000));
+            hikariConfig.setMaxLifetime(config.getLong("mysql.max-lifetime", 1800000));
+            readPoolLagging = true;
         } else {
-            createMySQLTables();
-        }
-        
-        // 异步检查并添加缺失的列，避免阻塞启动
-        CompletableFuture.runAsync(() -> {
-            try {
-                Thread.sleep(1000); // 等待1秒确保数据库连接稳定
-                checkAndAddMissingColumns();
-            } catch (Exception e) {
-                logger.warning("异步检查数据库列时发生错误: " + e.getMessage());
+            String fileName = config.getString("sqlite.replica-file", "");
+            if (fileName == null || fileName.isEmpty()) {
+                // 单写模式下读取走同一文件的只读连接池（WAL 模式下读不阻塞写），数据与主连接实时一致
+                if (!config.getBoolean("sqlite.single-writer", true)) {
+                    return;
+                }
+                fileName = config.getString("sqlite.file", config.getString("database.sqlite.file", "guild.db"));
+            } else {
+                readPoolLagging = true;
             }
-        });
-        
-        logger.info("数据表创建完成");
-    }
-    
-    /**
-     * 创建SQLite数据表
-     */
-    private void createSQLiteTables() {
-        // 工会表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guilds (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                name TEXT UNIQUE NOT NULL,
-                tag TEXT UNIQUE,
-                description TEXT,
-                leader_uuid TEXT NOT NULL,
-                leader_name TEXT NOT NULL,
-                home_world TEXT,
-                home_x REAL,
-                home_y REAL,
-                home_z REAL,
-                home_yaw REAL,
-                home_pitch REAL,
-                created_at TEXT DEFAULT (datetime('now','localtime')),
-                updated_at TEXT DEFAULT (datetime('now','localtime'))
-            )
-        """);
-        
-        // 工会成员表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_members (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                guild_id INTEGER NOT NULL,
-                player_uuid TEXT NOT NULL,
-                player_name TEXT NOT NULL,
-                role TEXT DEFAULT 'MEMBER',
-                joined_at TEXT DEFAULT (datetime('now','localtime')),
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE,
-                UNIQUE(guild_id, player_uuid)
-            )
-        """);
-        
-        // 工会申请表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_applications (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                guild_id INTEGER NOT NULL,
-                player_uuid TEXT NOT NULL,
-                player_name TEXT NOT NULL,
-                message TEXT,
-                status TEXT DEFAULT 'PENDING',
-                created_at TEXT DEFAULT (datetime('now','localtime')),
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
-            )
-        """);
-        
-        // 工会邀请表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_invites (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                guild_id INTEGER NOT NULL,
-                player_uuid TEXT NOT NULL,
-                player_name TEXT NOT NULL,
-                inviter_uuid TEXT NOT NULL,
-                inviter_name TEXT NOT NULL,
-                status TEXT DEFAULT 'PENDING',
-                expires_at TEXT,
-                created_at TEXT DEFAULT (datetime('now','localtime')),
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
-            )
-        """);
-        
-        // 工会关系表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_relations (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                guild1_id INTEGER NOT NULL,
-                guild2_id INTEGER NOT NULL,
-                guild1_name TEXT NOT NULL,
-                guild2_name TEXT NOT NULL,
-                relation_type TEXT NOT NULL,
-                status TEXT DEFAULT 'PENDING',
-                initiator_uuid TEXT NOT NULL,
-                initiator_name TEXT NOT NULL,
-                created_at TEXT DEFAULT (datetime('now','localtime')),
-                updated_at TEXT DEFAULT (datetime('now','localtime')),
-                expires_at TEXT,
-                FOREIGN KEY (guild1_id) REFERENCES guilds(id) ON DELETE CASCADE,
-                FOREIGN KEY (guild2_id) REFERENCES guilds(id) ON DELETE CASCADE,
-                UNIQUE(guild1_id, guild2_id)
-            )
-        """);
-        
-        // 工会经济表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_economy (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                guild_id INTEGER NOT NULL UNIQUE,
-                balance REAL DEFAULT 0.0,
-                level INTEGER DEFAULT 1,
-                experience REAL DEFAULT 0.0,
-                max_experience REAL DEFAULT 5000.0,
-                max_members INTEGER DEFAULT 6,
-                last_updated TEXT DEFAULT (datetime('now','localtime')),
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
-            )
-        """);
-        
-        // 工会贡献记录表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_contributions (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                guild_id INTEGER NOT NULL,
-                player_uuid TEXT NOT NULL,
-                player_name TEXT NOT NULL,
-                amount REAL NOT NULL,
-                contribution_type TEXT NOT NULL,
-                description TEXT,
-                created_at TEXT DEFAULT (datetime('now','localtime')),
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
-            )
-        """);
-        
-        // 工会日志表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_logs (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                guild_id INTEGER NOT NULL,
-                guild_name TEXT NOT NULL,
-                player_uuid TEXT NOT NULL,
-                player_name TEXT NOT NULL,
-                log_type TEXT NOT NULL,
-                description TEXT NOT NULL,
-                details TEXT,
-                created_at TEXT DEFAULT (datetime('now','localtime')),
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
-            )
-        """);
+            hikariConfig.setJdbcUrl("jdbc:sqlite:" + plugin.getDataFolder() + "/" + fileName);
+            // SQLITE_OPEN_READONLY，防止误写入副本文件
+            hikariConfig.addDataSourceProperty("open_mode", "1");
+            hikariConfig.setMaximumPoolSize(Math.max(1, config.getInt("sqlite.read-pool-size",
+                config.getInt("connection-pool.maximum-pool-size", 2))));
+            hikariConfig.setConnectionTimeout(config.getLong("connection-pool.connection-timeout", 10000));
+            hikariConfig.setConnectionInitSql("PRAGMA busy_timeout=" + config.getLong("sqlite.busy-timeout", 5000) + ";"
+                + "PRAGMA cache_size=" + config.getInt("sqlite.cache-size", 2000) + ";");
+        }
+        hikariConfig.setPoolName("Guild-ReadReplica");
+        hikariConfig.setReadOnly(true);
+        readDataSource = new HikariDataSource(hikariConfig);
+        if (readPoolLagging) {
+            logger.info("只读副本已启用，读己之写窗口: " + readYourWritesMillis + "ms");
+        } else {
+            logger.info("SQLite 单写模式已启用: 1 个写线程, " + readDataSource.getMaximumPoolSize() + " 个只读连接");
+        }
     }
     
     /**
-     * 创建MySQL数据表
+     * 创建数据表并执行结构迁移
      */
-    private void createMySQLTables() {
-        // 工会表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guilds (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                name VARCHAR(50) UNIQUE NOT NULL,
-                tag VARCHAR(10) UNIQUE,
-                description TEXT,
-                leader_uuid VARCHAR(36) NOT NULL,
-                leader_name VARCHAR(16) NOT NULL,
-                home_world VARCHAR(100),
-                home_x DOUBLE,
-                home_y DOUBLE,
-                home_z DOUBLE,
-                home_yaw FLOAT,
-                home_pitch FLOAT,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
-            )
-        """);
-        
-        // 工会成员表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_members (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                guild_id INT NOT NULL,
-                player_uuid VARCHAR(36) NOT NULL,
-                player_name VARCHAR(16) NOT NULL,
-                role VARCHAR(20) DEFAULT 'MEMBER',
-                joined_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE,
-                UNIQUE KEY unique_guild_player (guild_id, player_uuid)
-            )
-        """);
-        
-        // 工会申请表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_applications (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                guild_id INT NOT NULL,
-                player_uuid VARCHAR(36) NOT NULL,
-                player_name VARCHAR(16) NOT NULL,
-                message TEXT,
-                status VARCHAR(20) DEFAULT 'PENDING',
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
-            )
-        """);
-        
-        // 工会邀请表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_invites (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                guild_id INT NOT NULL,
-                player_uuid VARCHAR(36) NOT NULL,
-                player_name VARCHAR(16) NOT NULL,
-                inviter_uuid VARCHAR(36) NOT NULL,
-                inviter_name VARCHAR(16) NOT NULL,
-                status VARCHAR(20) DEFAULT 'PENDING',
-                expires_at TIMESTAMP NULL,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
-            )
-        """);
-        
-        // 工会关系表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_relations (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                guild1_id INT NOT NULL,
-                guild2_id INT NOT NULL,
-                guild1_name VARCHAR(50) NOT NULL,
-                guild2_name VARCHAR(50) NOT NULL,
-                relation_type VARCHAR(20) NOT NULL,
-                status VARCHAR(20) DEFAULT 'PENDING',
-                initiator_uuid VARCHAR(36) NOT NULL,
-                initiator_name VARCHAR(16) NOT NULL,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-                expires_at TIMESTAMP NULL,
-                FOREIGN KEY (guild1_id) REFERENCES guilds(id) ON DELETE CASCADE,
-                FOREIGN KEY (guild2_id) REFERENCES guilds(id) ON DELETE CASCADE,
-                UNIQUE KEY unique_guild_relation (guild1_id, guild2_id)
-            )
-        """);
-        
-        // 工会经济表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_economy (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                guild_id INT NOT NULL UNIQUE,
-                balance DOUBLE DEFAULT 0.0,
-                level INT DEFAULT 1,
-                experience DOUBLE DEFAULT 0.0,
-                max_experience DOUBLE DEFAULT 5000.0,
-                max_members INT DEFAULT 6,
-                last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
-            )
-        """);
-        
-        // 工会贡献记录表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_contributions (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                guild_id INT NOT NULL,
-                player_uuid VARCHAR(36) NOT NULL,
-                player_name VARCHAR(16) NOT NULL,
-                amount DOUBLE NOT NULL,
-                contribution_type VARCHAR(20) NOT NULL,
-                description TEXT,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
-            )
-        """);
-        
-        // 工会日志表
-        executeUpdate("""
-            CREATE TABLE IF NOT EXISTS guild_logs (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                guild_id INT NOT NULL,
-                guild_name VARCHAR(50) NOT NULL,
-                player_uuid VARCHAR(36) NOT NULL,
-                player_name VARCHAR(16) NOT NULL,
-                log_type VARCHAR(50) NOT NULL,
-                description TEXT NOT NULL,
-                details TEXT,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
-            )
-        """);
+    private void createTables() throws SQLException {
+        try (Connection conn = getConnection()) {
+            SchemaMigrator migrator = new SchemaMigrator(logger);
+            int version = migrator.migrate(conn, databaseType);
+            logger.info("数据表结构已是最新版本: v" + version);
+        }
     }
     
     /**
@@ -425,19 +268,157 @@ public class DatabaseManager {
         return dataSource.getConnection();
     }
     
+    /**
+     * 是否配置了可能落后于主库的只读副本（SQLite 单写模式下同一文件的只读连接池不算）
+     */
+    public boolean hasReadReplica() {
+        return readPoolLagging;
+    }
+    
+    /**
+     * 获取读连接（不针对特定工会/玩家的读取，如按名称查找、全量列表）
+     * 窗口期内有任何写入时走主库，否则走只读副本
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (readDataSource == null || (readPoolLagging && isWithinWindow(lastWriteAt))) {
+            return getConnection();
+        }
+        return replicaConnection();
+    }
+    
+    /**
+     * 获取与主库实时一致的读连接（全表扫描、后台任务等不能容忍副本延迟的读取）
+     * SQLite 单写模式下走同一文件的只读连接池，真正的副本或未配置读连接池时走主库
+     */
+    public Connection getConsistentReadConnection() throws SQLException {
+        if (readDataSource == null || readPoolLagging) {
+            return getConnection();
+        }
+        return replicaConnection();
+    }
+    
+    /**
+     * 获取读连接：该工会或玩家在读己之写窗口内写入过时走主库，否则走只读副本
+     * guildId <= 0 或 playerUuid 为 null 表示不按该维度判断
+     */
+    public Connection getReadConnection(int guildId, UUID playerUuid) throws SQLException {
+        if (readDataSource == null || (readPoolLagging && isRecentlyWritten(guildId, playerUuid))) {
+            return getConnection();
+        }
+        return replicaConnection();
+    }
+    
+    /**
+     * 记录一次写入（在主库写入成功后调用），之后窗口期内该工会/玩家的读取走主库
+     */
+    public void markWrite(int guildId, UUID playerUuid) {
+        if (!readPoolLagging) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lastWriteAt = now;
+        if (guildId > 0) {
+            recentGuildWrites.put(guildId, now);
+        }
+        if (playerUuid != null) {
+            recentPlayerWrites.put(playerUuid, now);
+        }
+        // 顺带清理过期记录，避免长期运行后堆积
+        if (recentGuildWrites.size() + recentPlayerWrites.size() > 1024) {
+            recentGuildWrites.values().removeIf(writtenAt -> !isWithinWindow(writtenAt));
+            recentPlayerWrites.values().removeIf(writtenAt -> !isWithinWindow(writtenAt));
+        }
+    }
+    
+    /**
+     * 工会或玩家是否在读己之写窗口内写入过
+     */
+    public boolean isRecentlyWritten(int guildId, UUID playerUuid) {
+        if (guildId > 0 && isWithinWindow(recentGuildWrites.get(guildId))) {
+            return true;
+        }
+        return playerUuid != null && isWithinWindow(recentPlayerWrites.get(playerUuid));
+    }
+    
+    private boolean isWithinWindow(Long writtenAt) {
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < readYourWritesMillis;
+    }
+    
+    /**
+     * 从副本获取连接，副本不可用时回退到主库
+     */
+    private Connection replicaConnection() throws SQLException {
+        try {
+            return readDataSource.getConnection();
+        } catch (SQLException e) {
+            logger.warning("只读副本不可用，改用主库: " + e.getMessage());
+            return getConnection();
+        }
+    }
+    
+    /**
+     * 在一个连接、一个事务中执行工作单元
+     * 正常结束时执行剩余批次并提交；抛出异常或标记为只回滚时整体回滚
+     */
+    public <T> T executeInTransaction(UnitOfWork.Work<T> work) throws SQLException {
+        markTaskWrite();
+        // SQLite 单写模式：交给写线程与其他排队的写入合并提交；已在写线程上时用保存点嵌套在当前写入中
+        if (writer != null) {
+            return writer.isWriterThread() ? writer.executeNested(work) : writer.execute(work);
+        }
+        try (Connection conn = getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (UnitOfWork unitOfWork = new UnitOfWork(conn)) {
+                T result = work.execute(unitOfWork);
+                if (unitOfWork.isRollbackOnly()) {
+                    conn.rollback();
+                } else {
+                    unitOfWork.flush();
+                    conn.commit();
+                }
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+    
+    /**
+     * 执行单条写语句，返回影响行数（SQLite 单写模式下在写线程上执行，否则直接以自动提交执行）
+     */
+    public int update(String sql, Object... params) throws SQLException {
+        if (writer != null) {
+            return executeInTransaction(unitOfWork -> unitOfWork.update(sql, params));
+        }
+        markTaskWrite();
+        try (Connection conn = getConnection(); UnitOfWork unitOfWork = new UnitOfWork(conn)) {
+            return unitOfWork.update(sql, params);
+        }
+    }
+    
+    /**
+     * 执行单条 INSERT，返回生成的自增主键，未插入或没有主键时返回 0
+     */
+    public int insert(String sql, Object... params) throws SQLException {
+        if (writer != null) {
+            return executeInTransaction(unitOfWork -> unitOfWork.insert(sql, params));
+        }
+        markTaskWrite();
+        try (Connection conn = getConnection(); UnitOfWork unitOfWork = new UnitOfWork(conn)) {
+            return unitOfWork.insert(sql, params);
+        }
+    }
+    
     /**
      * 执行更新操作
      */
     public int executeUpdate(String sql, Object... params) {
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            for (int i = 0; i < params.length; i++) {
-                stmt.setObject(i + 1, params[i]);
-            }
-            
-            return stmt.executeUpdate();
-            
+        try {
+            return update(sql, params);
         } catch (SQLException e) {
             logger.severe("执行更新操作失败: " + e.getMessage());
             throw new RuntimeException("数据库操作失败", e);
@@ -448,7 +429,65 @@ public class DatabaseManager {
      * 异步执行更新操作
      */
     public CompletableFuture<Integer> executeUpdateAsync(String sql, Object... params) {
-        return CompletableFuture.supplyAsync(() -> executeUpdate(sql, params));
+        return supplyAsync(() -> executeUpdate(sql, params));
+    }
+    
+    /**
+     * 在数据库线程池上异步执行任务
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        if (executor == null) {
+            return CompletableFuture.failedFuture(new SQLException("数据库连接未初始化"));
+        }
+        return executor.supplyAsync(() -> {
+            boolean[] outer = TASK_WROTE.get();
+            boolean[] wrote = new boolean[1];
+            TASK_WROTE.set(wrote);
+            try {
+                return supplier.get();
+            } finally {
+                TASK_WROTE.set(outer);
+                if (wrote[0]) {
+                    writeTasksInFlight.decrementAndGet();
+                }
+            }
+        });
+    }
+    
+    /**
+     * 在数据库线程池上异步执行任务
+     */
+    public CompletableFuture<Void> runAsync(Runnable runnable) {
+        return supplyAsync(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+    
+    /**
+     * 是否有已写入数据库、但尚未结束（可能还没发布变更事件）的数据库任务
+     * 按聚合查询重新加载的增量统计在查询后检查此项，避免事件在加载结果上重复计入
+     */
+    public boolean hasWritesInFlight() {
+        return writeTasksInFlight.get() > 0;
+    }
+    
+    /**
+     * 在数据库任务内第一次写入时计数，任务结束时扣除
+     */
+    private void markTaskWrite() {
+        boolean[] wrote = TASK_WROTE.get();
+        if (wrote != null && !wrote[0]) {
+            wrote[0] = true;
+            writeTasksInFlight.incrementAndGet();
+        }
+    }
+    
+    /**
+     * 获取数据库线程池
+     */
+    public DatabaseExecutor getExecutor() {
+        return executor;
     }
     
     /**
@@ -475,6 +514,17 @@ public class DatabaseManager {
      * 关闭数据库连接
      */
     public void close() {
+        // 先等待排队中的数据库任务完成，再关闭连接池
+        if (executor != null) {
+            long timeout = plugin.getConfigManager().getDatabaseConfig().getLong("executor.shutdown-timeout", 10000);
+            executor.shutdown(timeout);
+        }
+        if (writer != null) {
+            writer.shutdown(plugin.getConfigManager().getDatabaseConfig().getLong("executor.shutdown-timeout", 10000));
+        }
+        if (readDataSource != null && !readDataSource.isClosed()) {
+            readDataSource.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             logger.info("数据库连接已关闭");
@@ -482,149 +532,22 @@ public class DatabaseManager {
     }
     
     /**
-     * 获取数据库类型
+     * 获取 SQLite 单写线程，未启用时返回 null
      */
-    public DatabaseType getDatabaseType() {
-        return databaseType;
+    public SqliteWriter getWriter() {
+        return writer;
     }
     
     /**
-     * 数据库类型枚举
-     */
-    /**
-     * 检查并添加缺失的列
-     */
-    private void checkAndAddMissingColumns() {
-        try {
-            if (databaseType == DatabaseType.SQLITE) {
-                checkAndAddSQLiteColumns();
-            } else {
-                checkAndAddMySQLColumns();
-            }
-            logger.info("数据库列检查完成");
-        } catch (Exception e) {
-            logger.warning("检查数据库列时发生错误: " + e.getMessage());
-        }
-    }
-    
-    /**
-     * 检查并添加SQLite缺失的列
+     * 获取数据库类型
      */
-    private void checkAndAddSQLiteColumns() {
-        try (Connection conn = getConnection()) {
-            conn.setAutoCommit(false); // 开启事务以提高性能
-            
-            // 检查guilds表是否有home相关列
-            try (ResultSet rs = conn.getMetaData().getColumns(null, null, "guilds", "home_world")) {
-                if (!rs.next()) {
-                    // 添加home相关列
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_world TEXT")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_x REAL")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_y REAL")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_z REAL")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_yaw REAL")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_pitch REAL")) {
-                        stmt.executeUpdate();
-                    }
-                    logger.info("已为guilds表添加home相关列");
-                }
-            }
-            
-            // 检查guilds表是否有economy相关列
-            try (ResultSet rs = conn.getMetaData().getColumns(null, null, "guilds", "balance")) {
-                if (!rs.next()) {
-                    // 添加economy相关列
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN balance REAL DEFAULT 0.0")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN level INTEGER DEFAULT 1")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN max_members INTEGER DEFAULT 6")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN frozen INTEGER DEFAULT 0")) {
-                        stmt.executeUpdate();
-                    }
-                    logger.info("已为guilds表添加economy相关列");
-                }
-            }
-            
-            conn.commit(); // 提交事务
-        } catch (SQLException e) {
-            logger.warning("检查SQLite列时发生错误: " + e.getMessage());
-        }
+    public DatabaseType getDatabaseType() {
+        return databaseType;
     }
     
     /**
-     * 检查并添加MySQL缺失的列
+     * 数据库类型枚举
      */
-    private void checkAndAddMySQLColumns() {
-        try (Connection conn = getConnection()) {
-            conn.setAutoCommit(false); // 开启事务以提高性能
-            
-            // 检查guilds表是否有home相关列
-            try (ResultSet rs = conn.getMetaData().getColumns(null, null, "guilds", "home_world")) {
-                if (!rs.next()) {
-                    // 添加home相关列
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_world VARCHAR(100)")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_x DOUBLE")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_y DOUBLE")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_z DOUBLE")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_yaw FLOAT")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN home_pitch FLOAT")) {
-                        stmt.executeUpdate();
-                    }
-                    logger.info("已为guilds表添加home相关列");
-                }
-            }
-            
-            // 检查guilds表是否有economy相关列
-            try (ResultSet rs = conn.getMetaData().getColumns(null, null, "guilds", "balance")) {
-                if (!rs.next()) {
-                    // 添加economy相关列
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN balance DOUBLE DEFAULT 0.0")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN level INT DEFAULT 1")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN max_members INT DEFAULT 6")) {
-                        stmt.executeUpdate();
-                    }
-                    try (PreparedStatement stmt = conn.prepareStatement("ALTER TABLE guilds ADD COLUMN frozen BOOLEAN DEFAULT FALSE")) {
-                        stmt.executeUpdate();
-                    }
-                    logger.info("已为guilds表添加economy相关列");
-                }
-            }
-            
-            conn.commit(); // 提交事务
-        } catch (SQLException e) {
-            logger.warning("检查MySQL列时发生错误: " + e.getMessage());
-        }
-    }
-    
     public enum DatabaseType {
         MYSQL, SQLITE
     }
@@ -0,0 +1,205 @@
+package com.guild.core.database;
+
+import com.guild.core.time.TimeProvider;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * 跨数据库迁移 - 把一种数据库（SQLite / MySQL）中的全部数据逐表复制到另一种
+ * 目标库先用 SchemaMigrator 建好表结构；源表按 fetchSize 用游标分批读取，目标按批次写入并随批次提交，保留原有ID
+ * 内存占用只与批次大小有关，与表的行数无关
+ */
+public class DatabaseTransfer {
+
+    // 表结构版本由目标库自己的迁移记录；变更通知只对在线的服务器有意义
+    private static final Set<String> SKIPPED_TABLES = Set.of("schema_version", "guild_changes");
+    // 目标库迁移表结构时自动写入的记录，复制前清空，以源库为准
+    private static final Set<String> CLEARED_TABLES = Set.of("timestamp_backfill");
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+
+    public DatabaseTransfer(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+    }
+
+    /**
+     * 把 from 中的全部数据复制到 to（目标库中的数据表必须为空）
+     * 会阻塞调用线程，不要在主线程调用
+     * @param progress 进度消息，每张表开始、结束以及每隔 progressMillis 调用一次
+     */
+    public Result transfer(DatabaseManager.DatabaseType from, DatabaseManager.DatabaseType to, int batchSize, int fetchSize,
+                           long progressMillis, Consumer<String> progress) throws SQLException {
+        if (from == to) {
+            throw new IllegalArgumentException("源数据库与目标数据库类型相同: " + from);
+        }
+        long start = System.currentTimeMillis();
+        try (Connection source = databaseManager.openConnection(from);
+             Connection target = databaseManager.openConnection(to)) {
+            int version = new SchemaMigrator(logger).migrate(target, to);
+            progress.accept("目标数据库表结构已是最新版本: v" + version);
+            prepareTarget(target, to);
+
+            List<String> tables = TableWriter.listTables(source, SKIPPED_TABLES);
+            TableWriter writer = new TableWriter(target, batchSize, TableWriter.listTables(target, SKIPPED_TABLES));
+            target.setAutoCommit(false);
+            try {
+                for (String table : tables) {
+                    copyTable(source, target, writer, table, fetchSize, progressMillis, progress);
+                }
+            } catch (SQLException | RuntimeException e) {
+                target.rollback();
+                throw e;
+            } finally {
+                target.setAutoCommit(true);
+                if (to == DatabaseManager.DatabaseType.MYSQL) {
+                    try (Statement stmt = target.createStatement()) {
+                        stmt.execute("SET FOREIGN_KEY_CHECKS = 1");
+                    }
+                }
+            }
+            Result result = new Result(from, to, tables.size(), writer.getRowCount(), System.currentTimeMillis() - start);
+            logger.info(String.format("数据迁移完成: %s -> %s, %d 张表, %d 行, 耗时 %dms (%.0f 行/秒)",
+                from, to, result.getTables(), result.getRows(), result.getMillis(), result.getRowsPerSecond()));
+            return result;
+        }
+    }
+
+    /**
+     * 检查目标数据表为空，并关闭外键检查（表的复制顺序与外键无关）
+     */
+    private void prepareTarget(Connection target, DatabaseManager.DatabaseType to) throws SQLException {
+        try (Statement stmt = target.createStatement()) {
+            for (String table : TableWriter.listTables(target, SKIPPED_TABLES)) {
+                if (CLEARED_TABLES.contains(table)) {
+                    stmt.executeUpdate("DELETE FROM " + table);
+                    continue;
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                    if (rs.next() && rs.getLong(1) > 0) {
+                        throw new SQLException("目标数据库的表 " + table + " 中已有数据，请先清空目标数据库");
+                    }
+                }
+            }
+            stmt.execute(to == DatabaseManager.DatabaseType.MYSQL ? "SET FOREIGN_KEY_CHECKS = 0" : "PRAGMA foreign_keys = OFF");
+        }
+    }
+
+    private void copyTable(Connection source, Connection target, TableWriter writer, String table, int fetchSize,
+                           long progressMillis, Consumer<String> progress) throws SQLException {
+        long total;
+        try (Statement stmt = source.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            total = rs.next() ? rs.getLong(1) : 0;
+        }
+        long start = System.currentTimeMillis();
+        long lastReport = start;
+        long copied = 0;
+        try (Statement stmt = source.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(fetchSize);
+            try (ResultSet rs = stmt.executeQuery("SELECT * FROM " + table)) {
+                List<String> columns = TableWriter.columnNames(rs.getMetaData());
+                if (!writer.beginTable(table, columns)) {
+                    progress.accept("跳过目标数据库中不存在的表: " + table);
+                    return;
+                }
+                progress.accept("开始复制 " + table + ": " + total + " 行");
+                Object[] row = new Object[columns.size()];
+                while (rs.next()) {
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = normalize(rs.getObject(i + 1));
+                    }
+                    copied++;
+                    if (writer.insert(row)) {
+                        target.commit();
+                        long now = System.currentTimeMillis();
+                        if (now - lastReport >= progressMillis) {
+                            lastReport = now;
+                            progress.accept(String.format("%s: %d/%d 行 (%.1f%%), %.0f 行/秒", table, copied, total,
+                                total > 0 ? copied * 100.0 / total : 100.0, copied * 1000.0 / Math.max(1, now - start)));
+                        }
+                    }
+                }
+                writer.finish();
+                target.commit();
+            }
+        }
+        long millis = System.currentTimeMillis() - start;
+        progress.accept(String.format("%s 复制完成: %d 行, 耗时 %dms (%.0f 行/秒)", table, copied, millis, copied * 1000.0 / Math.max(1, millis)));
+    }
+
+    /**
+     * MySQL 的时间列读出为 Timestamp / LocalDateTime，日期列（如 guild_contribution_daily.day）读出为 Date / LocalDate，
+     * 写入 SQLite 时统一转为文本格式（yyyy-MM-dd HH:mm:ss / yyyy-MM-dd）
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().format(TimeProvider.FULL_FORMATTER);
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.format(TimeProvider.FULL_FORMATTER);
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate().format(TimeProvider.DATE_FORMATTER);
+        }
+        if (value instanceof LocalDate date) {
+            return date.format(TimeProvider.DATE_FORMATTER);
+        }
+        return value;
+    }
+
+    /**
+     * 迁移结果
+     */
+    public static final class Result {
+        private final DatabaseManager.DatabaseType from;
+        private final DatabaseManager.DatabaseType to;
+        private final int tables;
+        private final long rows;
+        private final long millis;
+
+        Result(DatabaseManager.DatabaseType from, DatabaseManager.DatabaseType to, int tables, long rows, long millis) {
+            this.from = from;
+            this.to = to;
+            this.tables = tables;
+            this.rows = rows;
+            this.millis = millis;
+        }
+
+        public DatabaseManager.DatabaseType getFrom() {
+            return from;
+        }
+
+        public DatabaseManager.DatabaseType getTo() {
+            return to;
+        }
+
+        public int getTables() {
+            return tables;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public double getRowsPerSecond() {
+            return rows * 1000.0 / Math.max(1, millis);
+        }
+    }
+}
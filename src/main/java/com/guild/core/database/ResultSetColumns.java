@@ -0,0 +1,68 @@
+package com.guild.core.database;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ResultSet 列索引表 - 每个 ResultSet 只读取一次元数据
+ * 行映射器据此预先解析列索引和列是否存在，逐行读取时按索引取值，不再按列名查找或用异常探测缺失的列
+ */
+public final class ResultSetColumns {
+
+    private final Map<String, Integer> indexes;
+
+    private ResultSetColumns(Map<String, Integer> indexes) {
+        this.indexes = indexes;
+    }
+
+    public static ResultSetColumns of(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int count = metaData.getColumnCount();
+        Map<String, Integer> indexes = new HashMap<>(count * 2);
+        for (int i = 1; i <= count; i++) {
+            // 同名列只保留第一个，与 ResultSet.findColumn 的行为一致
+            indexes.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        return new ResultSetColumns(indexes);
+    }
+
+    /**
+     * 只保留以 prefix 开头的列并去掉前缀，用于联表查询中以别名前缀区分的同名列
+     */
+    public ResultSetColumns withPrefix(String prefix) {
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        Map<String, Integer> prefixed = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : indexes.entrySet()) {
+            if (entry.getKey().startsWith(lowerPrefix)) {
+                prefixed.put(entry.getKey().substring(lowerPrefix.length()), entry.getValue());
+            }
+        }
+        return new ResultSetColumns(prefixed);
+    }
+
+    /**
+     * 列索引（从 1 开始），列不存在时返回 0
+     */
+    public int index(String column) {
+        return indexes.getOrDefault(column.toLowerCase(Locale.ROOT), 0);
+    }
+
+    /**
+     * 必须存在的列的索引，不存在时抛出 SQLException
+     */
+    public int require(String column) throws SQLException {
+        int index = index(column);
+        if (index == 0) {
+            throw new SQLException("结果集中缺少列: " + column);
+        }
+        return index;
+    }
+
+    public boolean has(String column) {
+        return index(column) > 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.guild.core.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 行映射器 - 把 ResultSet 的当前行转换为对象
+ * 实现通常在创建时按 ResultSetColumns 解析好列索引，同一个 ResultSet 的所有行复用
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T map(ResultSet rs) throws SQLException;
+}
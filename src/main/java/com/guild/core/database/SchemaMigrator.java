@@ -0,0 +1,668 @@
+package com.guild.core.database;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import com.guild.core.time.TimeProvider;
+
+/**
+ * 数据库结构迁移器 - 按版本号顺序执行各数据库方言的迁移
+ * 已执行的版本记录在 schema_version 表中，每个迁移只会执行一次
+ */
+public class SchemaMigrator {
+
+    /**
+     * v6 起改用毫秒时间戳的列：表名 -> 旧的文本时间列，对应的毫秒列名见 millisColumn
+     * 旧列保留并继续写入（兼容旧版本插件），读取、排序与范围查询只使用毫秒列
+     */
+    public static final Map<String, List<String>> MILLIS_COLUMNS = Map.of(
+        "guilds", List.of("created_at", "updated_at"),
+        "guild_members", List.of("joined_at"),
+        "guild_applications", List.of("created_at"),
+        "guild_invites", List.of("created_at", "expires_at"),
+        "guild_relations", List.of("created_at", "updated_at", "expires_at"),
+        "guild_economy", List.of("last_updated"),
+        "guild_contributions", List.of("created_at"),
+        "guild_logs", List.of("created_at"),
+        "guild_changes", List.of("created_at")
+    );
+
+    private static final List<String> SQLITE_TABLES = List.of(
+        // 工会表
+        """
+        CREATE TABLE IF NOT EXISTS guilds (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            name TEXT UNIQUE NOT NULL,
+            tag TEXT UNIQUE,
+            description TEXT,
+            leader_uuid TEXT NOT NULL,
+            leader_name TEXT NOT NULL,
+            home_world TEXT,
+            home_x REAL,
+            home_y REAL,
+            home_z REAL,
+            home_yaw REAL,
+            home_pitch REAL,
+            created_at TEXT DEFAULT (datetime('now','localtime')),
+            updated_at TEXT DEFAULT (datetime('now','localtime'))
+        )
+        """,
+        // 工会成员表
+        """
+        CREATE TABLE IF NOT EXISTS guild_members (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            guild_id INTEGER NOT NULL,
+            player_uuid TEXT NOT NULL,
+            player_name TEXT NOT NULL,
+            role TEXT DEFAULT 'MEMBER',
+            joined_at TEXT DEFAULT (datetime('now','localtime')),
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE,
+            UNIQUE(guild_id, player_uuid)
+        )
+        """,
+        // 工会申请表
+        """
+        CREATE TABLE IF NOT EXISTS guild_applications (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            guild_id INTEGER NOT NULL,
+            player_uuid TEXT NOT NULL,
+            player_name TEXT NOT NULL,
+            message TEXT,
+            status TEXT DEFAULT 'PENDING',
+            created_at TEXT DEFAULT (datetime('now','localtime')),
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+        )
+        """,
+        // 工会邀请表
+        """
+        CREATE TABLE IF NOT EXISTS guild_invites (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            guild_id INTEGER NOT NULL,
+            player_uuid TEXT NOT NULL,
+            player_name TEXT NOT NULL,
+            inviter_uuid TEXT NOT NULL,
+            inviter_name TEXT NOT NULL,
+            status TEXT DEFAULT 'PENDING',
+            expires_at TEXT,
+            created_at TEXT DEFAULT (datetime('now','localtime')),
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+        )
+        """,
+        // 工会关系表
+        """
+        CREATE TABLE IF NOT EXISTS guild_relations (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            guild1_id INTEGER NOT NULL,
+            guild2_id INTEGER NOT NULL,
+            guild1_name TEXT NOT NULL,
+            guild2_name TEXT NOT NULL,
+            relation_type TEXT NOT NULL,
+            status TEXT DEFAULT 'PENDING',
+            initiator_uuid TEXT NOT NULL,
+            initiator_name TEXT NOT NULL,
+            created_at TEXT DEFAULT (datetime('now','localtime')),
+            updated_at TEXT DEFAULT (datetime('now','localtime')),
+            expires_at TEXT,
+            FOREIGN KEY (guild1_id) REFERENCES guilds(id) ON DELETE CASCADE,
+            FOREIGN KEY (guild2_id) REFERENCES guilds(id) ON DELETE CASCADE,
+            UNIQUE(guild1_id, guild2_id)
+        )
+        """,
+        // 工会经济表
+        """
+        CREATE TABLE IF NOT EXISTS guild_economy (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            guild_id INTEGER NOT NULL UNIQUE,
+            balance REAL DEFAULT 0.0,
+            level INTEGER DEFAULT 1,
+            experience REAL DEFAULT 0.0,
+            max_experience REAL DEFAULT 5000.0,
+            max_members INTEGER DEFAULT 6,
+            last_updated TEXT DEFAULT (datetime('now','localtime')),
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+        )
+        """,
+        // 工会贡献记录表
+        """
+        CREATE TABLE IF NOT EXISTS guild_contributions (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            guild_id INTEGER NOT NULL,
+            player_uuid TEXT NOT NULL,
+            player_name TEXT NOT NULL,
+            amount REAL NOT NULL,
+            contribution_type TEXT NOT NULL,
+            description TEXT,
+            created_at TEXT DEFAULT (datetime('now','localtime')),
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+        )
+        """,
+        // 工会日志表
+        """
+        CREATE TABLE IF NOT EXISTS guild_logs (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            guild_id INTEGER NOT NULL,
+            guild_name TEXT NOT NULL,
+            player_uuid TEXT NOT NULL,
+            player_name TEXT NOT NULL,
+            log_type TEXT NOT NULL,
+            description TEXT NOT NULL,
+            details TEXT,
+            created_at TEXT DEFAULT (datetime('now','localtime')),
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+        )
+        """
+    );
+
+    private static final List<String> MYSQL_TABLES = List.of(
+        // 工会表
+        """
+        CREATE TABLE IF NOT EXISTS guilds (
+            id INT AUTO_INCREMENT PRIMARY KEY,
+            name VARCHAR(50) UNIQUE NOT NULL,
+            tag VARCHAR(10) UNIQUE,
+            description TEXT,
+            leader_uuid VARCHAR(36) NOT NULL,
+            leader_name VARCHAR(16) NOT NULL,
+            home_world VARCHAR(100),
+            home_x DOUBLE,
+            home_y DOUBLE,
+            home_z DOUBLE,
+            home_yaw FLOAT,
+            home_pitch FLOAT,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+        )
+        """,
+        // 工会成员表
+        """
+        CREATE TABLE IF NOT EXISTS guild_members (
+            id INT AUTO_INCREMENT PRIMARY KEY,
+            guild_id INT NOT NULL,
+            player_uuid VARCHAR(36) NOT NULL,
+            player_name VARCHAR(16) NOT NULL,
+            role VARCHAR(20) DEFAULT 'MEMBER',
+            joined_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE,
+            UNIQUE KEY unique_guild_player (guild_id, player_uuid)
+        )
+        """,
+        // 工会申请表
+        """
+        CREATE TABLE IF NOT EXISTS guild_applications (
+            id INT AUTO_INCREMENT PRIMARY KEY,
+            guild_id INT NOT NULL,
+            player_uuid VARCHAR(36) NOT NULL,
+            player_name VARCHAR(16) NOT NULL,
+            message TEXT,
+            status VARCHAR(20) DEFAULT 'PENDING',
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+        )
+        """,
+        // 工会邀请表
+        """
+        CREATE TABLE IF NOT EXISTS guild_invites (
+            id INT AUTO_INCREMENT PRIMARY KEY,
+            guild_id INT NOT NULL,
+            player_uuid VARCHAR(36) NOT NULL,
+            player_name VARCHAR(16) NOT NULL,
+            inviter_uuid VARCHAR(36) NOT NULL,
+            inviter_name VARCHAR(16) NOT NULL,
+            status VARCHAR(20) DEFAULT 'PENDING',
+            expires_at TIMESTAMP NULL,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+        )
+        """,
+        // 工会关系表
+        """
+        CREATE TABLE IF NOT EXISTS guild_relations (
+            id INT AUTO_INCREMENT PRIMARY KEY,
+            guild1_id INT NOT NULL,
+            guild2_id INT NOT NULL,
+            guild1_name VARCHAR(50) NOT NULL,
+            guild2_name VARCHAR(50) NOT NULL,
+            relation_type VARCHAR(20) NOT NULL,
+            status VARCHAR(20) DEFAULT 'PENDING',
+            initiator_uuid VARCHAR(36) NOT NULL,
+            initiator_name VARCHAR(16) NOT NULL,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+            expires_at TIMESTAMP NULL,
+            FOREIGN KEY (guild1_id) REFERENCES guilds(id) ON DELETE CASCADE,
+            FOREIGN KEY (guild2_id) REFERENCES guilds(id) ON DELETE CASCADE,
+            UNIQUE KEY unique_guild_relation (guild1_id, guild2_id)
+        )
+        """,
+        // 工会经济表
+        """
+        CREATE TABLE IF NOT EXISTS guild_economy (
+            id INT AUTO_INCREMENT PRIMARY KEY,
+            guild_id INT NOT NULL UNIQUE,
+            balance DOUBLE DEFAULT 0.0,
+            level INT DEFAULT 1,
+            experience DOUBLE DEFAULT 0.0,
+            max_experience DOUBLE DEFAULT 5000.0,
+            max_members INT DEFAULT 6,
+            last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+        )
+        """,
+        // 工会贡献记录表
+        """
+        CREATE TABLE IF NOT EXISTS guild_contributions (
+            id INT AUTO_INCREMENT PRIMARY KEY,
+            guild_id INT NOT NULL,
+            player_uuid VARCHAR(36) NOT NULL,
+            player_name VARCHAR(16) NOT NULL,
+            amount DOUBLE NOT NULL,
+            contribution_type VARCHAR(20) NOT NULL,
+            description TEXT,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+        )
+        """,
+        // 工会日志表
+        """
+        CREATE TABLE IF NOT EXISTS guild_logs (
+            id INT AUTO_INCREMENT PRIMARY KEY,
+            guild_id INT NOT NULL,
+            guild_name VARCHAR(50) NOT NULL,
+            player_uuid VARCHAR(36) NOT NULL,
+            player_name VARCHAR(16) NOT NULL,
+            log_type VARCHAR(50) NOT NULL,
+            description TEXT NOT NULL,
+            details TEXT,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+        )
+        """
+    );
+
+    private final Logger logger;
+    private final List<Migration> migrations = new ArrayList<>();
+
+    public SchemaMigrator(Logger logger) {
+        this.logger = logger;
+        registerMigrations();
+    }
+
+    /**
+     * 迁移列表，只能在末尾追加，已发布的版本不能修改
+     */
+    private void registerMigrations() {
+        migrations.add(new Migration(1, "创建基础数据表", (conn, type) -> {
+            for (String sql : type == DatabaseManager.DatabaseType.SQLITE ? SQLITE_TABLES : MYSQL_TABLES) {
+                execute(conn, sql);
+            }
+        }));
+
+        migrations.add(new Migration(2, "补充工会家园与经济字段", (conn, type) -> {
+            boolean sqlite = type == DatabaseManager.DatabaseType.SQLITE;
+            addColumnIfMissing(conn, "guilds", "home_world", sqlite ? "TEXT" : "VARCHAR(100)");
+            addColumnIfMissing(conn, "guilds", "home_x", sqlite ? "REAL" : "DOUBLE");
+            addColumnIfMissing(conn, "guilds", "home_y", sqlite ? "REAL" : "DOUBLE");
+            addColumnIfMissing(conn, "guilds", "home_z", sqlite ? "REAL" : "DOUBLE");
+            addColumnIfMissing(conn, "guilds", "home_yaw", sqlite ? "REAL" : "FLOAT");
+            addColumnIfMissing(conn, "guilds", "home_pitch", sqlite ? "REAL" : "FLOAT");
+            addColumnIfMissing(conn, "guilds", "balance", sqlite ? "REAL DEFAULT 0.0" : "DOUBLE DEFAULT 0.0");
+            addColumnIfMissing(conn, "guilds", "level", sqlite ? "INTEGER DEFAULT 1" : "INT DEFAULT 1");
+            addColumnIfMissing(conn, "guilds", "max_members", sqlite ? "INTEGER DEFAULT 6" : "INT DEFAULT 6");
+            addColumnIfMissing(conn, "guilds", "frozen", sqlite ? "INTEGER DEFAULT 0" : "BOOLEAN DEFAULT FALSE");
+        }));
+
+        migrations.add(new Migration(3, "为热点查询添加二级索引", (conn, type) -> {
+            // 按玩家查询成员（guild_id 已由唯一约束 (guild_id, player_uuid) 覆盖）
+            createIndexIfMissing(conn, type, "guild_members", "idx_guild_members_player", "player_uuid");
+            // 日志分页（按工会倒序）与按时间清理
+            createIndexIfMissing(conn, type, "guild_logs", "idx_guild_logs_guild_created", "guild_id, created_at");
+            createIndexIfMissing(conn, type, "guild_logs", "idx_guild_logs_created", "created_at");
+            // 申请：按工会查待处理、按玩家查申请记录
+            createIndexIfMissing(conn, type, "guild_applications", "idx_guild_applications_guild_status", "guild_id, status");
+            createIndexIfMissing(conn, type, "guild_applications", "idx_guild_applications_player_status", "player_uuid, status");
+            // 邀请：按被邀请玩家查待处理邀请
+            createIndexIfMissing(conn, type, "guild_invites", "idx_guild_invites_player_status", "player_uuid, status");
+            // 关系：唯一约束覆盖 guild1_id 方向，反方向需要单独索引
+            createIndexIfMissing(conn, type, "guild_relations", "idx_guild_relations_guild2", "guild2_id, guild1_id");
+            // 贡献记录：按工会、按玩家查询
+            createIndexIfMissing(conn, type, "guild_contributions", "idx_guild_contributions_guild_created", "guild_id, created_at");
+            createIndexIfMissing(conn, type, "guild_contributions", "idx_guild_contributions_player", "player_uuid");
+        }));
+
+        migrations.add(new Migration(4, "添加贡献汇总表与按日汇总表", (conn, type) -> {
+            boolean sqlite = type == DatabaseManager.DatabaseType.SQLITE;
+            // 按 (工会, 玩家, 类型) 累计的贡献总额，与贡献记录在同一事务中更新
+            execute(conn, sqlite ? """
+                CREATE TABLE IF NOT EXISTS guild_contribution_totals (
+                    guild_id INTEGER NOT NULL,
+                    player_uuid TEXT NOT NULL,
+                    contribution_type TEXT NOT NULL,
+                    player_name TEXT NOT NULL,
+                    total REAL NOT NULL DEFAULT 0.0,
+                    entry_count INTEGER NOT NULL DEFAULT 0,
+                    updated_at TEXT,
+                    PRIMARY KEY (guild_id, player_uuid, contribution_type),
+                    FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+                )
+                """ : """
+                CREATE TABLE IF NOT EXISTS guild_contribution_totals (
+                    guild_id INT NOT NULL,
+                    player_uuid VARCHAR(36) NOT NULL,
+                    contribution_type VARCHAR(20) NOT NULL,
+                    player_name VARCHAR(16) NOT NULL,
+                    total DOUBLE NOT NULL DEFAULT 0.0,
+                    entry_count INT NOT NULL DEFAULT 0,
+                    updated_at TIMESTAMP NULL,
+                    PRIMARY KEY (guild_id, player_uuid, contribution_type),
+                    FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+                )
+                """);
+            createIndexIfMissing(conn, type, "guild_contribution_totals", "idx_guild_contribution_totals_player", "player_uuid");
+            // 旧的贡献记录压缩后按天保存的汇总
+            execute(conn, sqlite ? """
+                CREATE TABLE IF NOT EXISTS guild_contribution_daily (
+                    guild_id INTEGER NOT NULL,
+                    player_uuid TEXT NOT NULL,
+                    contribution_type TEXT NOT NULL,
+                    day TEXT NOT NULL,
+                    total REAL NOT NULL DEFAULT 0.0,
+                    entry_count INTEGER NOT NULL DEFAULT 0,
+                    PRIMARY KEY (guild_id, player_uuid, contribution_type, day),
+                    FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+                )
+                """ : """
+                CREATE TABLE IF NOT EXISTS guild_contribution_daily (
+                    guild_id INT NOT NULL,
+                    player_uuid VARCHAR(36) NOT NULL,
+                    contribution_type VARCHAR(20) NOT NULL,
+                    day DATE NOT NULL,
+                    total DOUBLE NOT NULL DEFAULT 0.0,
+                    entry_count INT NOT NULL DEFAULT 0,
+                    PRIMARY KEY (guild_id, player_uuid, contribution_type, day),
+                    FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE
+                )
+                """);
+            // 用已有的贡献记录回填汇总
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO guild_contribution_totals (guild_id, player_uuid, contribution_type, player_name, total, entry_count, updated_at) " +
+                    "SELECT guild_id, player_uuid, contribution_type, MAX(player_name), SUM(amount), COUNT(*), ? " +
+                    "FROM guild_contributions GROUP BY guild_id, player_uuid, contribution_type")) {
+                stmt.setString(1, TimeProvider.nowString());
+                stmt.executeUpdate();
+            }
+        }));
+
+        migrations.add(new Migration(5, "添加跨服数据变更记录表", (conn, type) -> {
+            // 多个服务器共用一个数据库时，各服务器轮询此表失效本地缓存
+            execute(conn, type == DatabaseManager.DatabaseType.SQLITE ? """
+                CREATE TABLE IF NOT EXISTS guild_changes (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    server_id TEXT NOT NULL,
+                    entity_type TEXT NOT NULL,
+                    entity_id TEXT NOT NULL,
+                    created_at TEXT NOT NULL
+                )
+                """ : """
+                CREATE TABLE IF NOT EXISTS guild_changes (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    server_id VARCHAR(36) NOT NULL,
+                    entity_type VARCHAR(16) NOT NULL,
+                    entity_id VARCHAR(36) NOT NULL,
+                    created_at TIMESTAMP NOT NULL
+                )
+                """);
+            createIndexIfMissing(conn, type, "guild_changes", "idx_guild_changes_created", "created_at");
+        }));
+
+        migrations.add(new Migration(6, "时间列改用毫秒时间戳", (conn, type) -> {
+            boolean sqlite = type == DatabaseManager.DatabaseType.SQLITE;
+            for (Map.Entry<String, List<String>> table : MILLIS_COLUMNS.entrySet()) {
+                for (String column : table.getValue()) {
+                    addColumnIfMissing(conn, table.getKey(), millisColumn(column), sqlite ? "INTEGER" : "BIGINT");
+                }
+            }
+            // 先建新索引再删旧索引：MySQL 的外键需要至少一个以 guild_id 开头的索引
+            createIndexIfMissing(conn, type, "guild_logs", "idx_guild_logs_guild_created_ms", "guild_id, created_ms");
+            createIndexIfMissing(conn, type, "guild_logs", "idx_guild_logs_created_ms", "created_ms");
+            createIndexIfMissing(conn, type, "guild_contributions", "idx_guild_contributions_guild_created_ms", "guild_id, created_ms");
+            createIndexIfMissing(conn, type, "guild_changes", "idx_guild_changes_created_ms", "created_ms");
+            dropIndexIfExists(conn, type, "guild_logs", "idx_guild_logs_guild_created");
+            dropIndexIfExists(conn, type, "guild_logs", "idx_guild_logs_created");
+            dropIndexIfExists(conn, type, "guild_contributions", "idx_guild_contributions_guild_created");
+            dropIndexIfExists(conn, type, "guild_changes", "idx_guild_changes_created");
+            // 记录迁移时各表的最大ID：之后写入的行已带毫秒列，之前的行由 TimestampBackfillService 在后台分批回填
+            execute(conn, sqlite ? """
+                CREATE TABLE IF NOT EXISTS timestamp_backfill (
+                    table_name TEXT PRIMARY KEY,
+                    last_id INTEGER NOT NULL,
+                    max_id INTEGER NOT NULL
+                )
+                """ : """
+                CREATE TABLE IF NOT EXISTS timestamp_backfill (
+                    table_name VARCHAR(64) PRIMARY KEY,
+                    last_id BIGINT NOT NULL,
+                    max_id BIGINT NOT NULL
+                )
+                """);
+            for (String table : MILLIS_COLUMNS.keySet()) {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "INSERT INTO timestamp_backfill (table_name, last_id, max_id) SELECT ?, 0, COALESCE(MAX(id), 0) FROM " + table)) {
+                    stmt.setString(1, table);
+                    stmt.executeUpdate();
+                }
+            }
+        }));
+
+        migrations.add(new Migration(7, "为到期处理添加 (状态, 到期时间) 索引", (conn, type) -> {
+            // ExpiryService 启动时只读取待处理记录的到期时间，按索引范围读取而不扫描整张表
+            createIndexIfMissing(conn, type, "guild_invites", "idx_guild_invites_status_expires_ms", "status, expires_ms");
+            createIndexIfMissing(conn, type, "guild_relations", "idx_guild_relations_status_expires_ms", "status, expires_ms");
+            createIndexIfMissing(conn, type, "guild_applications", "idx_guild_applications_status_created_ms", "status, created_ms");
+        }));
+
+        migrations.add(new Migration(8, "为贡献记录汇总添加创建时间索引", (conn, type) -> {
+            // ContributionRollupService 按 created_ms 范围确定待汇总的ID区间，(guild_id, created_ms) 索引无法用于不限工会的范围查询
+            createIndexIfMissing(conn, type, "guild_contributions", "idx_guild_contributions_created_ms", "created_ms");
+        }));
+    }
+
+    /**
+     * 文本时间列对应的毫秒列名：created_at -> created_ms，last_updated -> last_updated_ms
+     */
+    public static String millisColumn(String column) {
+        return column.endsWith("_at") ? column.substring(0, column.length() - 3) + "_ms" : column + "_ms";
+    }
+
+    /**
+     * 将数据库迁移到最新版本
+     * @return 迁移后的版本号
+     */
+    public int migrate(Connection conn, DatabaseManager.DatabaseType type) throws SQLException {
+        createVersionTable(conn, type);
+        int current = getCurrentVersion(conn);
+
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : migrations) {
+            if (migration.version > current) {
+                pending.add(migration);
+            }
+        }
+        if (pending.isEmpty()) {
+            return current;
+        }
+
+        // SQLite 的 DDL 可以回滚，所有待执行的版本在一个事务中提交（新安装时只需一次提交）
+        // MySQL 的 DDL 会隐式提交，每个版本单独提交
+        boolean singleTransaction = type == DatabaseManager.DatabaseType.SQLITE;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (Migration migration : pending) {
+                long start = System.currentTimeMillis();
+                try {
+                    migration.step.apply(conn, type);
+                    recordVersion(conn, migration);
+                    if (!singleTransaction) {
+                        conn.commit();
+                    }
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("数据库迁移 v" + migration.version + " (" + migration.description + ") 失败: " + e.getMessage(), e);
+                }
+                current = migration.version;
+                logger.info("数据库迁移 v" + migration.version + " 完成: " + migration.description
+                    + " (" + (System.currentTimeMillis() - start) + "ms)");
+            }
+            if (singleTransaction) {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            if (singleTransaction) {
+                conn.rollback();
+            }
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return current;
+    }
+
+    /**
+     * 获取数据库当前版本（未执行过任何迁移时为 0）
+     */
+    public int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * 获取代码中定义的最新版本
+     */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version;
+    }
+
+    /**
+     * 获取所有迁移的版本号（升序）
+     */
+    public List<Integer> getVersions() {
+        List<Integer> versions = new ArrayList<>();
+        for (Migration migration : migrations) {
+            versions.add(migration.version);
+        }
+        return Collections.unmodifiableList(versions);
+    }
+
+    private void createVersionTable(Connection conn, DatabaseManager.DatabaseType type) throws SQLException {
+        if (type == DatabaseManager.DatabaseType.SQLITE) {
+            execute(conn, """
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT NOT NULL,
+                    applied_at TEXT NOT NULL
+                )
+            """);
+        } else {
+            execute(conn, """
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(200) NOT NULL,
+                    applied_at TIMESTAMP NOT NULL
+                )
+            """);
+        }
+    }
+
+    private void recordVersion(Connection conn, Migration migration) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setString(3, TimeProvider.nowString());
+            stmt.executeUpdate();
+        }
+    }
+
+    // ==================== 迁移工具方法 ====================
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private static void addColumnIfMissing(Connection conn, String table, String column, String definition) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        execute(conn, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+    }
+
+    private static void createIndexIfMissing(Connection conn, DatabaseManager.DatabaseType type, String table,
+                                             String indexName, String columns) throws SQLException {
+        if (type == DatabaseManager.DatabaseType.SQLITE) {
+            execute(conn, "CREATE INDEX IF NOT EXISTS " + indexName + " ON " + table + " (" + columns + ")");
+            return;
+        }
+        // MySQL 不支持 CREATE INDEX IF NOT EXISTS，先查元数据
+        if (!indexExists(conn, table, indexName)) {
+            execute(conn, "CREATE INDEX " + indexName + " ON " + table + " (" + columns + ")");
+        }
+    }
+
+    private static void dropIndexIfExists(Connection conn, DatabaseManager.DatabaseType type, String table,
+                                          String indexName) throws SQLException {
+        if (type == DatabaseManager.DatabaseType.SQLITE) {
+            execute(conn, "DROP INDEX IF EXISTS " + indexName);
+            return;
+        }
+        if (indexExists(conn, table, indexName)) {
+            execute(conn, "DROP INDEX " + indexName + " ON " + table);
+        }
+    }
+
+    private static boolean indexExists(Connection conn, String table, String indexName) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getIndexInfo(conn.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                if (indexName.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 单个迁移步骤
+     */
+    @FunctionalInterface
+    interface MigrationStep {
+        void apply(Connection conn, DatabaseManager.DatabaseType type) throws SQLException;
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+
+        Migration(int version, String description, MigrationStep step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+}
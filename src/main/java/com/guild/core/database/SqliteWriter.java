@@ -0,0 +1,228 @@
+package com.guild.core.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * SQLite 单写线程 - 事务写入排队到一个专用线程上执行，避免多个连接争抢写锁（SQLITE_BUSY）
+ * 同一时刻排队的多个写入合并到一个事务中提交；每个写入使用独立的保存点，单个写入失败只回滚它自己
+ */
+public class SqliteWriter {
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final int batchSize;
+    private final BlockingQueue<Task<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    // 写线程上正在执行的写入所用的工作单元，只在写线程上访问
+    private UnitOfWork current;
+
+    SqliteWriter(DatabaseManager databaseManager, Logger logger, int batchSize) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+        this.batchSize = Math.max(1, batchSize);
+        this.thread = new Thread(this::run, "Guild-SqliteWriter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * 提交写入，在写线程上提交事务后完成
+     */
+    public <T> CompletableFuture<T> submit(UnitOfWork.Work<T> work) {
+        Task<T> task = new Task<>(work);
+        if (!running) {
+            task.future.completeExceptionally(new SQLException("SQLite 写线程已关闭"));
+            return task.future;
+        }
+        queue.add(task);
+        return task.future;
+    }
+
+    /**
+     * 提交写入并等待结果（在数据库执行器线程上调用）
+     */
+    public <T> T execute(UnitOfWork.Work<T> work) throws SQLException {
+        try {
+            return submit(work).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("等待 SQLite 写线程时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    /**
+     * 当前线程是否为写线程（写线程内的嵌套事务直接执行，避免自己等待自己）
+     */
+    public boolean isWriterThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * 在写线程上执行嵌套事务：复用当前写入的连接，用保存点隔离，随外层批次一起提交
+     * 不能另借连接开事务，否则会等待写线程自己持有的写锁直到 busy_timeout
+     */
+    <T> T executeNested(UnitOfWork.Work<T> work) throws SQLException {
+        if (current == null) {
+            throw new SQLException("写线程上没有正在执行的写入");
+        }
+        // 先执行外层已排队的批次，保证语句顺序
+        Connection conn = current.getConnection();
+        Savepoint savepoint = conn.setSavepoint();
+        UnitOfWork outer = current;
+        try (UnitOfWork unitOfWork = new UnitOfWork(conn)) {
+            current = unitOfWork;
+            T result = work.execute(unitOfWork);
+            if (unitOfWork.isRollbackOnly()) {
+                conn.rollback(savepoint);
+            } else {
+                unitOfWork.flush();
+                conn.releaseSavepoint(savepoint);
+            }
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback(savepoint);
+            throw e;
+        } finally {
+            current = outer;
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 停止接收新的写入，等待队列中剩余的写入完成
+     */
+    public void shutdown(long timeoutMillis) {
+        running = false;
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.warning("SQLite 写线程未能在 " + timeoutMillis + "ms 内写完队列，剩余 " + queue.size() + " 个写入");
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        List<Task<?>> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Task<?> first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                executeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        Task<?> remaining;
+        while ((remaining = queue.poll()) != null) {
+            remaining.future.completeExceptionally(new SQLException("SQLite 写线程已关闭"));
+        }
+    }
+
+    /**
+     * 在一个事务中依次执行一批写入，提交成功后再完成各自的 future
+     */
+    private void executeBatch(List<Task<?>> batch) {
+        List<Task<?>> succeeded = new ArrayList<>(batch.size());
+        try (Connection conn = databaseManager.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                for (Task<?> task : batch) {
+                    if (task.executeInSavepoint(conn)) {
+                        succeeded.add(task);
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.severe("SQLite 写线程提交事务时发生错误: " + e.getMessage());
+            // 整个事务已回滚，只让仍在等待提交的写入失败，已失败或只回滚的保持原结果
+            for (Task<?> task : batch) {
+                if (!task.future.isDone()) {
+                    task.future.completeExceptionally(e);
+                }
+            }
+            return;
+        }
+        for (Task<?> task : succeeded) {
+            task.complete();
+        }
+    }
+
+    private final class Task<T> {
+        private final UnitOfWork.Work<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+
+        Task(UnitOfWork.Work<T> work) {
+            this.work = work;
+        }
+
+        /**
+         * 在保存点内执行；失败或标记为只回滚时回滚到保存点并直接完成 future，返回是否需要等待提交
+         */
+        boolean executeInSavepoint(Connection conn) throws SQLException {
+            Savepoint savepoint = conn.setSavepoint();
+            try (UnitOfWork unitOfWork = new UnitOfWork(conn)) {
+                current = unitOfWork;
+                result = work.execute(unitOfWork);
+                if (unitOfWork.isRollbackOnly()) {
+                    conn.rollback(savepoint);
+                    future.complete(result);
+                    return false;
+                }
+                unitOfWork.flush();
+                conn.releaseSavepoint(savepoint);
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                future.completeExceptionally(e);
+                conn.rollback(savepoint);
+                return false;
+            } finally {
+                current = null;
+            }
+        }
+
+        void complete() {
+            future.complete(result);
+        }
+    }
+}
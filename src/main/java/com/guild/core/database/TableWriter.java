@@ -0,0 +1,155 @@
+package com.guild.core.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按表批量写入行（备份恢复与跨数据库迁移共用）
+ * 只写入目标数据库中也存在的表和列，保留原有的ID；每 batchSize 行执行一次批次，内存占用与数据量无关
+ * 不负责提交事务，调用方根据 insert 的返回值决定何时提交
+ */
+public class TableWriter {
+
+    private final Connection conn;
+    private final int batchSize;
+    // 目标表（小写）-> 列名（小写）
+    private final Map<String, Set<String>> targetColumns = new LinkedHashMap<>();
+    private PreparedStatement stmt;
+    // 源数据中的列在 INSERT 语句中的参数位置，-1 表示目标表没有该列
+    private int[] parameterIndexes;
+    private int pending;
+    private long rowCount;
+
+    public TableWriter(Connection conn, int batchSize, List<String> tables) throws SQLException {
+        this.conn = conn;
+        this.batchSize = Math.max(1, batchSize);
+        for (String table : tables) {
+            try (Statement query = conn.createStatement();
+                 ResultSet rs = query.executeQuery("SELECT * FROM " + table + " WHERE 1 = 0")) {
+                targetColumns.put(table.toLowerCase(), new HashSet<>(columnNames(rs.getMetaData())));
+            }
+        }
+    }
+
+    /**
+     * 列出数据库中的数据表（按名称排序，不含 SQLite 内部表和 skipped 中的表）
+     */
+    public static List<String> listTables(Connection conn, Set<String> skipped) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, "%", new String[] {"TABLE"})) {
+            while (rs.next()) {
+                String table = rs.getString("TABLE_NAME").toLowerCase();
+                if (!table.startsWith("sqlite_") && !skipped.contains(table)) {
+                    tables.add(table);
+                }
+            }
+        }
+        Collections.sort(tables);
+        return tables;
+    }
+
+    /**
+     * 结果集的列名（小写）
+     */
+    public static List<String> columnNames(ResultSetMetaData meta) throws SQLException {
+        List<String> columns = new ArrayList<>(meta.getColumnCount());
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            columns.add(meta.getColumnLabel(i).toLowerCase());
+        }
+        return columns;
+    }
+
+    public List<String> getTables() {
+        return new ArrayList<>(targetColumns.keySet());
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 开始写入一张表，columns 为之后 insert 的每行数据的列顺序
+     * @return 目标数据库是否有这张表（没有时之后的行会被跳过）
+     */
+    public boolean beginTable(String table, List<String> columns) throws SQLException {
+        finish();
+        Set<String> existing = targetColumns.get(table.toLowerCase());
+        if (existing == null) {
+            parameterIndexes = null;
+            return false;
+        }
+        parameterIndexes = new int[columns.size()];
+        List<String> inserted = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).toLowerCase();
+            if (existing.contains(column)) {
+                inserted.add(column);
+                parameterIndexes[i] = inserted.size();
+            } else {
+                parameterIndexes[i] = -1;
+            }
+        }
+        String sql = "INSERT INTO " + table.toLowerCase() + " (" + String.join(", ", inserted) + ") VALUES ("
+            + String.join(", ", Collections.nCopies(inserted.size(), "?")) + ")";
+        stmt = conn.prepareStatement(sql);
+        return true;
+    }
+
+    /**
+     * 加入一行，攒满一批时执行
+     * @return 是否刚执行了一个批次
+     */
+    public boolean insert(Object[] row) throws SQLException {
+        if (parameterIndexes == null) {
+            return false;
+        }
+        for (int i = 0; i < row.length && i < parameterIndexes.length; i++) {
+            if (parameterIndexes[i] < 0) {
+                continue;
+            }
+            if (row[i] == null) {
+                stmt.setNull(parameterIndexes[i], Types.NULL);
+            } else {
+                stmt.setObject(parameterIndexes[i], row[i]);
+            }
+        }
+        stmt.addBatch();
+        rowCount++;
+        if (++pending >= batchSize) {
+            stmt.executeBatch();
+            pending = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 写入当前表剩余的批次并关闭语句
+     */
+    public void finish() throws SQLException {
+        if (stmt == null) {
+            return;
+        }
+        try {
+            if (pending > 0) {
+                stmt.executeBatch();
+            }
+        } finally {
+            pending = 0;
+            stmt.close();
+            stmt = null;
+        }
+    }
+}
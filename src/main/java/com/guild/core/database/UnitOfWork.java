@@ -0,0 +1,144 @@
+package com.guild.core.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 工作单元 - 一个连接、一个事务内的多步写操作
+ * 通过 queue 加入的语句按 SQL 合并为批次，在下一次 update/query 或提交前一次性执行，减少往返次数
+ * 由 DatabaseManager.executeInTransaction 创建和提交，调用方不应自行提交或关闭连接
+ */
+public class UnitOfWork implements AutoCloseable {
+
+    private final Connection connection;
+    // 相同 SQL 合并为一个批次，按首次加入的顺序执行
+    private final Map<String, PreparedStatement> batches = new LinkedHashMap<>();
+    private boolean rollbackOnly;
+
+    UnitOfWork(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * 当前事务使用的连接（用于需要自增主键等特殊场景）
+     * 直接使用连接前会先执行已排队的批次
+     */
+    public Connection getConnection() throws SQLException {
+        flush();
+        return connection;
+    }
+
+    /**
+     * 加入批次，延迟到下一次 flush 时执行
+     */
+    public void queue(String sql, Object... params) throws SQLException {
+        PreparedStatement stmt = batches.get(sql);
+        if (stmt == null) {
+            stmt = connection.prepareStatement(sql);
+            batches.put(sql, stmt);
+        }
+        bind(stmt, params);
+        stmt.addBatch();
+    }
+
+    /**
+     * 立即执行更新（先执行已排队的批次），返回影响行数
+     */
+    public int update(String sql, Object... params) throws SQLException {
+        flush();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            bind(stmt, params);
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * 立即执行 INSERT（先执行已排队的批次），返回生成的自增主键，没有时返回 0
+     */
+    public int insert(String sql, Object... params) throws SQLException {
+        flush();
+        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            bind(stmt, params);
+            if (stmt.executeUpdate() == 0) {
+                return 0;
+            }
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                return keys.next() ? keys.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * 查询单个整数（如 COUNT），无结果时返回 defaultValue
+     */
+    public int queryInt(String sql, int defaultValue, Object... params) throws SQLException {
+        flush();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : defaultValue;
+            }
+        }
+    }
+
+    /**
+     * 执行所有已排队的批次
+     */
+    public void flush() throws SQLException {
+        if (batches.isEmpty()) {
+            return;
+        }
+        try {
+            for (PreparedStatement stmt : batches.values()) {
+                stmt.executeBatch();
+            }
+        } finally {
+            closeBatches();
+        }
+    }
+
+    /**
+     * 标记事务只能回滚：工作结束后不提交，已执行的语句全部撤销
+     */
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    public boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+    @Override
+    public void close() {
+        closeBatches();
+    }
+
+    private void closeBatches() {
+        for (PreparedStatement stmt : batches.values()) {
+            try {
+                stmt.close();
+            } catch (SQLException ignored) {
+            }
+        }
+        batches.clear();
+    }
+
+    private static void bind(PreparedStatement stmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+    }
+
+    /**
+     * 在工作单元中执行的操作
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute(UnitOfWork unitOfWork) throws SQLException;
+    }
+}
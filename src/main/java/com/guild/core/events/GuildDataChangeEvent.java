@@ -0,0 +1,159 @@
+package com.guild.core.events;
+
+import java.util.UUID;
+
+/**
+ * 工会数据变更事件 - 数据库写入成功后由 GuildService 通过 EventBus 发布
+ * 携带本次变更对各项汇总数据的增量，订阅者可据此增量维护统计等派生数据
+ */
+public class GuildDataChangeEvent {
+
+    private final Type type;
+    private final int guildId;
+    private final String guildName;
+    private final UUID playerUuid;
+    private final int guildDelta;
+    private final int memberDelta;
+    private final double balanceDelta;
+    private final int frozenDelta;
+    private final double contributionDelta;
+    private final int level;
+    private final double newBalance;
+
+    private GuildDataChangeEvent(Type type, int guildId, String guildName, UUID playerUuid,
+                                 int guildDelta, int memberDelta, double balanceDelta, int frozenDelta,
+                                 double contributionDelta, int level, double newBalance) {
+        this.type = type;
+        this.guildId = guildId;
+        this.guildName = guildName;
+        this.playerUuid = playerUuid;
+        this.guildDelta = guildDelta;
+        this.memberDelta = memberDelta;
+        this.balanceDelta = balanceDelta;
+        this.frozenDelta = frozenDelta;
+        this.contributionDelta = contributionDelta;
+        this.level = level;
+        this.newBalance = newBalance;
+    }
+
+    private GuildDataChangeEvent(Type type, int guildId, UUID playerUuid,
+                                 int guildDelta, int memberDelta, double balanceDelta, int frozenDelta) {
+        this(type, guildId, null, playerUuid, guildDelta, memberDelta, balanceDelta, frozenDelta, 0, 0, 0);
+    }
+
+    /**
+     * 新建工会的初始余额为 0、等级为 1，会长随后以 MEMBER_JOINED 单独发布
+     */
+    public static GuildDataChangeEvent guildCreated(int guildId, String guildName) {
+        return new GuildDataChangeEvent(Type.GUILD_CREATED, guildId, guildName, null, 1, 0, 0, 0, 0, 1, 0);
+    }
+
+    /**
+     * @param memberCount 随工会一起删除的成员数
+     */
+    public static GuildDataChangeEvent guildDeleted(int guildId, int memberCount, double balance, boolean frozen) {
+        return new GuildDataChangeEvent(Type.GUILD_DELETED, guildId, null, -1, -memberCount, -balance, frozen ? -1 : 0);
+    }
+
+    public static GuildDataChangeEvent memberJoined(int guildId, UUID playerUuid) {
+        return new GuildDataChangeEvent(Type.MEMBER_JOINED, guildId, playerUuid, 0, 1, 0, 0);
+    }
+
+    public static GuildDataChangeEvent memberLeft(int guildId, UUID playerUuid) {
+        return new GuildDataChangeEvent(Type.MEMBER_LEFT, guildId, playerUuid, 0, -1, 0, 0);
+    }
+
+    public static GuildDataChangeEvent balanceChanged(int guildId, double oldBalance, double newBalance) {
+        return new GuildDataChangeEvent(Type.BALANCE_CHANGED, guildId, null, null, 0, 0, newBalance - oldBalance, 0, 0, 0, newBalance);
+    }
+
+    public static GuildDataChangeEvent frozenChanged(int guildId, boolean frozen) {
+        return new GuildDataChangeEvent(Type.FROZEN_CHANGED, guildId, null, 0, 0, 0, frozen ? 1 : -1);
+    }
+
+    public static GuildDataChangeEvent levelChanged(int guildId, int newLevel) {
+        return new GuildDataChangeEvent(Type.LEVEL_CHANGED, guildId, null, null, 0, 0, 0, 0, 0, newLevel, 0);
+    }
+
+    /**
+     * @param amount 个人贡献（见 ContributionType.isPersonalContribution）的变化金额
+     */
+    public static GuildDataChangeEvent contributionAdded(int guildId, UUID playerUuid, double amount) {
+        return new GuildDataChangeEvent(Type.CONTRIBUTION_ADDED, guildId, null, playerUuid, 0, 0, 0, 0, amount, 0, 0);
+    }
+
+    public static GuildDataChangeEvent guildRenamed(int guildId, String newName) {
+        return new GuildDataChangeEvent(Type.GUILD_RENAMED, guildId, newName, null, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getGuildId() {
+        return guildId;
+    }
+
+    /**
+     * 创建和改名时的工会名称，其他类型为 null
+     */
+    public String getGuildName() {
+        return guildName;
+    }
+
+    /**
+     * 成员变更和贡献时的玩家UUID，其他类型为 null
+     */
+    public UUID getPlayerUuid() {
+        return playerUuid;
+    }
+
+    public int getGuildDelta() {
+        return guildDelta;
+    }
+
+    public int getMemberDelta() {
+        return memberDelta;
+    }
+
+    public double getBalanceDelta() {
+        return balanceDelta;
+    }
+
+    /**
+     * 余额变更后的余额，其他类型为 0
+     */
+    public double getNewBalance() {
+        return newBalance;
+    }
+
+    public int getFrozenDelta() {
+        return frozenDelta;
+    }
+
+    public double getContributionDelta() {
+        return contributionDelta;
+    }
+
+    /**
+     * 创建和等级变更时的新等级，其他类型为 0
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * 变更类型
+     */
+    public enum Type {
+        GUILD_CREATED,
+        GUILD_DELETED,
+        MEMBER_JOINED,
+        MEMBER_LEFT,
+        BALANCE_CHANGED,
+        FROZEN_CHANGED,
+        LEVEL_CHANGED,
+        CONTRIBUTION_ADDED,
+        GUILD_RENAMED
+    }
+}
@@ -4,13 +4,13 @@ import com.guild.GuildPlugin;
 import com.guild.models.Guild;
 import com.guild.models.GuildMember;
 import com.guild.services.GuildService;
+import com.guild.services.LeaderboardService;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import com.guild.core.utils.PlaceholderUtils;
 
 import com.guild.core.time.TimeProvider;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * Guild插件 PlaceholderAPI 扩展
@@ -20,10 +20,12 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private final GuildPlugin plugin;
     private final GuildService guildService;
+    private final PlaceholderCache placeholderCache;
     
-    public GuildPlaceholderExpansion(GuildPlugin plugin, GuildService guildService) {
+    public GuildPlaceholderExpansion(GuildPlugin plugin, GuildService guildService, PlaceholderCache placeholderCache) {
         this.plugin = plugin;
         this.guildService = guildService;
+        this.placeholderCache = placeholderCache;
     }
     
     @Override
@@ -48,12 +50,17 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     @Override
     public String onPlaceholderRequest(Player player, @NotNull String params) {
-        if (player == null) {
+        String[] args = params.split("_");
+        if (args.length == 0) {
             return "";
         }
         
-        String[] args = params.split("_");
-        if (args.length == 0) {
+        // 排行榜与玩家无关，全息图等没有玩家的场景也可使用
+        if (args[0].equalsIgnoreCase("top")) {
+            return getTopPlaceholder(args);
+        }
+        
+        if (player == null) {
             return "";
         }
         
@@ -119,6 +126,10 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
                 case "canmanageeconomy":
                     return canManageEconomy(player);
                 
+                // 工会排行
+                case "rank":
+                    return getGuildRank(player, args);
+                
                 default:
                     return "";
             }
@@ -128,11 +139,27 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
         }
     }
     
+    // ==================== 快照读取 ====================
+    
+    /**
+     * 从快照缓存读取玩家工会，不访问数据库
+     */
+    private Guild getCachedGuild(Player player) {
+        return placeholderCache.get(player.getUniqueId()).getGuild();
+    }
+    
+    /**
+     * 从快照缓存读取玩家成员信息，不访问数据库
+     */
+    private GuildMember getCachedMember(Player player) {
+        return placeholderCache.get(player.getUniqueId()).getMember();
+    }
+    
     // ==================== 基础工会信息 ====================
     
     private String getGuildName(Player player) {
         try {
-            Guild guild = guildService.getPlayerGuild(player.getUniqueId());
+            Guild guild = getCachedGuild(player);
             return guild != null ? guild.getName() : "无工会";
         } catch (Exception e) {
             return "无工会";
@@ -141,7 +168,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String getGuildTag(Player player) {
         try {
-            Guild guild = guildService.getPlayerGuild(player.getUniqueId());
+            Guild guild = getCachedGuild(player);
             return guild != null ? guild.getTag() : "";
         } catch (Exception e) {
             return "";
@@ -150,7 +177,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String getGuildDescription(Player player) {
         try {
-            Guild guild = guildService.getPlayerGuild(player.getUniqueId());
+            Guild guild = getCachedGuild(player);
             return guild != null ? guild.getDescription() : "";
         } catch (Exception e) {
             return "";
@@ -159,7 +186,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String getGuildLeader(Player player) {
         try {
-            Guild guild = guildService.getPlayerGuild(player.getUniqueId());
+            Guild guild = getCachedGuild(player);
             return guild != null ? guild.getLeaderName() : "";
         } catch (Exception e) {
             return "";
@@ -168,11 +195,8 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String getGuildMemberCount(Player player) {
         try {
-            Guild guild = guildService.getPlayerGuild(player.getUniqueId());
-            if (guild == null) return "0";
-            
-            CompletableFuture<Integer> future = guildService.getGuildMemberCountAsync(guild.getId());
-            return String.valueOf(future.get());
+            PlaceholderCache.Snapshot snapshot = placeholderCache.get(player.getUniqueId());
+            return snapshot.getGuild() != null ? String.valueOf(snapshot.getMemberCount()) : "0";
         } catch (Exception e) {
             return "0";
         }
@@ -180,7 +204,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String getGuildMaxMembers(Player player) {
         try {
-            Guild guild = guildService.getPlayerGuild(player.getUniqueId());
+            Guild guild = getCachedGuild(player);
             return guild != null ? String.valueOf(guild.getMaxMembers()) : "0";
         } catch (Exception e) {
             return "0";
@@ -189,7 +213,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String getGuildLevel(Player player) {
         try {
-            Guild guild = guildService.getPlayerGuild(player.getUniqueId());
+            Guild guild = getCachedGuild(player);
             return guild != null ? String.valueOf(guild.getLevel()) : "0";
         } catch (Exception e) {
             return "0";
@@ -198,7 +222,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String getGuildBalance(Player player) {
         try {
-            Guild guild = guildService.getPlayerGuild(player.getUniqueId());
+            Guild guild = getCachedGuild(player);
             return guild != null ? String.format("%.2f", guild.getBalance()) : "0.00";
         } catch (Exception e) {
             return "0.00";
@@ -207,7 +231,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String getGuildFrozenStatus(Player player) {
         try {
-            Guild guild = guildService.getPlayerGuild(player.getUniqueId());
+            Guild guild = getCachedGuild(player);
             return guild != null ? (guild.isFrozen() ? "已冻结" : "正常") : "无工会";
         } catch (Exception e) {
             return "无工会";
@@ -218,7 +242,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String getPlayerRoleRaw(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             return member != null ? member.getRole().getDisplayName() : "";
         } catch (Exception e) {
             return "";
@@ -227,7 +251,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
 
     private String getPlayerRoleColor(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             if (member == null) return "";
             return PlaceholderUtils.getRoleColorCode(member.getRole());
         } catch (Exception e) {
@@ -237,7 +261,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
 
     private String getPlayerRoleColored(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             if (member == null) return "";
             return PlaceholderUtils.getColoredRoleDisplay(member.getRole());
         } catch (Exception e) {
@@ -247,7 +271,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
 
     private String getPlayerRolePrefix(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             GuildMember.Role role = member != null ? member.getRole() : null;
             return PlaceholderUtils.getRoleSeparator(role);
         } catch (Exception e) {
@@ -257,7 +281,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String getPlayerJoinedTime(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             if (member == null || member.getJoinedAt() == null) return "";
             return member.getJoinedAt().format(TimeProvider.FULL_FORMATTER);
         } catch (Exception e) {
@@ -267,9 +291,50 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String getPlayerContribution(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
-            // 暂时返回0，因为GuildMember类还没有contribution字段
-            return member != null ? "0" : "0";
+            PlaceholderCache.Snapshot snapshot = placeholderCache.get(player.getUniqueId());
+            return snapshot.getMember() != null ? String.format("%.2f", snapshot.getContribution()) : "0";
+        } catch (Exception e) {
+            return "0";
+        }
+    }
+    
+    // ==================== 工会排行 ====================
+    
+    /**
+     * %guild_top_<指标>_<名次>_name% / %guild_top_<指标>_<名次>_value%
+     */
+    private String getTopPlaceholder(String[] args) {
+        try {
+            if (args.length < 4) return "";
+            LeaderboardService.Metric metric = LeaderboardService.Metric.fromKey(args[1]);
+            if (metric == null) return "";
+            LeaderboardService.Entry entry = guildService.getLeaderboard().getEntry(metric, Integer.parseInt(args[2]));
+            if (entry == null) {
+                return args[3].equalsIgnoreCase("name") ? "无" : "";
+            }
+            switch (args[3].toLowerCase()) {
+                case "name":
+                    return entry.getName();
+                case "value":
+                    return entry.formatValue(metric);
+                default:
+                    return "";
+            }
+        } catch (Exception e) {
+            return "";
+        }
+    }
+    
+    /**
+     * %guild_rank_<指标>% - 玩家所在工会的名次，无工会时为 0
+     */
+    private String getGuildRank(Player player, String[] args) {
+        try {
+            if (args.length < 2) return "0";
+            LeaderboardService.Metric metric = LeaderboardService.Metric.fromKey(args[1]);
+            Guild guild = getCachedGuild(player);
+            if (metric == null || guild == null) return "0";
+            return String.valueOf(guildService.getLeaderboard().getRank(metric, guild.getId()));
         } catch (Exception e) {
             return "0";
         }
@@ -279,7 +344,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String hasGuild(Player player) {
         try {
-            Guild guild = guildService.getPlayerGuild(player.getUniqueId());
+            Guild guild = getCachedGuild(player);
             return guild != null ? "是" : "否";
         } catch (Exception e) {
             return "否";
@@ -288,7 +353,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String isLeader(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             return member != null && member.getRole() == GuildMember.Role.LEADER ? "是" : "否";
         } catch (Exception e) {
             return "否";
@@ -297,7 +362,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String isOfficer(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             return member != null && member.getRole() == GuildMember.Role.OFFICER ? "是" : "否";
         } catch (Exception e) {
             return "否";
@@ -306,7 +371,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String isMember(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             return member != null ? "是" : "否";
         } catch (Exception e) {
             return "否";
@@ -317,7 +382,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String canInvite(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             if (member == null) return "否";
             
             return (member.getRole() == GuildMember.Role.LEADER || member.getRole() == GuildMember.Role.OFFICER) ? "是" : "否";
@@ -328,7 +393,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String canKick(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             if (member == null) return "否";
             
             return (member.getRole() == GuildMember.Role.LEADER || member.getRole() == GuildMember.Role.OFFICER) ? "是" : "否";
@@ -339,7 +404,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String canPromote(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             if (member == null) return "否";
             
             return member.getRole() == GuildMember.Role.LEADER ? "是" : "否";
@@ -350,7 +415,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String canDemote(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             if (member == null) return "否";
             
             return member.getRole() == GuildMember.Role.LEADER ? "是" : "否";
@@ -361,7 +426,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String canSetHome(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             if (member == null) return "否";
             
             return (member.getRole() == GuildMember.Role.LEADER || member.getRole() == GuildMember.Role.OFFICER) ? "是" : "否";
@@ -372,7 +437,7 @@ public class GuildPlaceholderExpansion extends PlaceholderExpansion {
     
     private String canManageEconomy(Player player) {
         try {
-            GuildMember member = guildService.getGuildMember(player.getUniqueId());
+            GuildMember member = getCachedMember(player);
             if (member == null) return "否";
             
             return (member.getRole() == GuildMember.Role.LEADER || member.getRole() == GuildMember.Role.OFFICER) ? "是" : "否";
@@ -0,0 +1,185 @@
+package com.guild.core.placeholder;
+
+import com.guild.GuildPlugin;
+import com.guild.models.Guild;
+import com.guild.models.GuildMember;
+import com.guild.services.GuildService;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 占位符快照缓存 - 按玩家缓存工会数据快照
+ * 占位符请求只读取快照，过期后在后台异步刷新，主线程永不等待数据库
+ */
+public class PlaceholderCache {
+
+    private final GuildPlugin plugin;
+    private final GuildService guildService;
+    private final Map<UUID, Snapshot> snapshots = new ConcurrentHashMap<>();
+    // 正在刷新的玩家，保证同一玩家同时只有一个刷新任务
+    private final Set<UUID> refreshing = ConcurrentHashMap.newKeySet();
+    // 刷新过程中被标记失效的玩家，刷新完成后需要再刷新一次
+    private final Set<UUID> pendingRefresh = ConcurrentHashMap.newKeySet();
+
+    private volatile long ttlMillis;
+
+    public PlaceholderCache(GuildPlugin plugin, GuildService guildService) {
+        this.plugin = plugin;
+        this.guildService = guildService;
+        reloadFromConfig();
+    }
+
+    /**
+     * 从配置读取 placeholders.cache-enabled / cache-time
+     * 关闭缓存时每次请求都会触发后台刷新，但仍返回最近一次的快照
+     */
+    public void reloadFromConfig() {
+        FileConfiguration cfg = plugin.getConfigManager().getMainConfig();
+        boolean enabled = cfg == null || cfg.getBoolean("placeholders.cache-enabled", true);
+        int seconds = cfg != null ? cfg.getInt("placeholders.cache-time", 30) : 30;
+        this.ttlMillis = enabled ? Math.max(0, seconds) * 1000L : 0L;
+    }
+
+    /**
+     * 获取玩家快照（不阻塞）
+     * 无快照时返回空快照，过期时返回旧快照并在后台刷新
+     */
+    public Snapshot get(UUID playerUuid) {
+        Snapshot snapshot = snapshots.get(playerUuid);
+        if (snapshot == null || snapshot.isExpired(ttlMillis)) {
+            refresh(playerUuid);
+        }
+        return snapshot != null ? snapshot : Snapshot.EMPTY;
+    }
+
+    /**
+     * 标记玩家快照失效并立即后台刷新
+     */
+    public void invalidate(UUID playerUuid) {
+        snapshots.computeIfPresent(playerUuid, (uuid, snapshot) -> snapshot.expire());
+        if (refreshing.contains(playerUuid)) {
+            pendingRefresh.add(playerUuid);
+        }
+        refresh(playerUuid);
+    }
+
+    /**
+     * 标记某工会全部成员的快照失效
+     */
+    public void invalidateGuild(int guildId) {
+        for (Map.Entry<UUID, Snapshot> entry : snapshots.entrySet()) {
+            if (entry.getValue().getGuildId() == guildId) {
+                invalidate(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * 移除玩家快照（玩家退出时调用）
+     */
+    public void remove(UUID playerUuid) {
+        snapshots.remove(playerUuid);
+        pendingRefresh.remove(playerUuid);
+    }
+
+    public void clear() {
+        snapshots.clear();
+        pendingRefresh.clear();
+    }
+
+    private void refresh(UUID playerUuid) {
+        if (!refreshing.add(playerUuid)) {
+            return;
+        }
+
+        guildService.getGuildMemberAsync(playerUuid).thenCompose(member -> {
+            if (member == null) {
+                return CompletableFuture.completedFuture(Snapshot.of(null, null, 0, 0));
+            }
+            int guildId = member.getGuildId();
+            CompletableFuture<Guild> guildFuture = guildService.getGuildByIdAsync(guildId);
+            CompletableFuture<Integer> countFuture = guildService.getGuildMemberCountAsync(guildId);
+            CompletableFuture<Double> contributionFuture = guildService.getPlayerContributionTotalAsync(guildId, playerUuid);
+            return CompletableFuture.allOf(guildFuture, countFuture, contributionFuture).thenApply(ignored -> {
+                Guild guild = guildFuture.join();
+                return guild != null
+                    ? Snapshot.of(guild, member, countFuture.join(), contributionFuture.join())
+                    : Snapshot.of(null, null, 0, 0);
+            });
+        }).whenComplete((snapshot, throwable) -> {
+            if (throwable != null) {
+                plugin.getLogger().warning("刷新占位符缓存时发生错误: " + throwable.getMessage());
+            } else if (Bukkit.getPlayer(playerUuid) != null) {
+                // 玩家已离线则不再保留快照
+                snapshots.put(playerUuid, snapshot);
+            }
+            refreshing.remove(playerUuid);
+            if (pendingRefresh.remove(playerUuid)) {
+                refresh(playerUuid);
+            }
+        });
+    }
+
+    /**
+     * 玩家工会数据快照
+     */
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(null, null, 0, 0, 0L);
+
+        private final Guild guild;
+        private final GuildMember member;
+        private final int memberCount;
+        private final double contribution;
+        private final long loadedAt;
+
+        private Snapshot(Guild guild, GuildMember member, int memberCount, double contribution, long loadedAt) {
+            this.guild = guild;
+            this.member = member;
+            this.memberCount = memberCount;
+            this.contribution = contribution;
+            this.loadedAt = loadedAt;
+        }
+
+        static Snapshot of(Guild guild, GuildMember member, int memberCount, double contribution) {
+            return new Snapshot(guild, member, memberCount, contribution, System.currentTimeMillis());
+        }
+
+        Snapshot expire() {
+            return new Snapshot(guild, member, memberCount, contribution, 0L);
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt >= ttlMillis;
+        }
+
+        int getGuildId() {
+            return guild != null ? guild.getId() : -1;
+        }
+
+        public Guild getGuild() {
+            return guild;
+        }
+
+        public GuildMember getMember() {
+            return member;
+        }
+
+        public int getMemberCount() {
+            return memberCount;
+        }
+
+        /**
+         * 玩家在当前工会的个人贡献总额
+         */
+        public double getContribution() {
+            return contribution;
+        }
+    }
+}
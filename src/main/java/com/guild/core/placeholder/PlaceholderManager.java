@@ -3,6 +3,8 @@ package com.guild.core.placeholder;
 import com.guild.GuildPlugin;
 import com.guild.services.GuildService;
 
+import java.util.UUID;
+
 /**
  * 占位符管理器 - 管理PlaceholderAPI集成
  */
@@ -11,6 +13,7 @@ public class PlaceholderManager {
     private final GuildPlugin plugin;
     private GuildService guildService;
     private GuildPlaceholderExpansion placeholderExpansion;
+    private PlaceholderCache placeholderCache;
     private boolean placeholderApiAvailable = false;
     
     public PlaceholderManager(GuildPlugin plugin) {
@@ -32,7 +35,8 @@ public class PlaceholderManager {
         if (plugin.getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
             try {
                 // 创建并注册 PlaceholderExpansion
-                placeholderExpansion = new GuildPlaceholderExpansion(plugin, guildService);
+                placeholderCache = new PlaceholderCache(plugin, guildService);
+                placeholderExpansion = new GuildPlaceholderExpansion(plugin, guildService, placeholderCache);
                 placeholderExpansion.register();
                 placeholderApiAvailable = true;
                 plugin.getLogger().info("PlaceholderAPI 占位符注册成功");
@@ -46,7 +50,42 @@ public class PlaceholderManager {
         }
     }
     
-
+    /**
+     * 玩家工会数据变化后刷新其占位符快照
+     */
+    public void invalidatePlayer(UUID playerUuid) {
+        if (placeholderCache != null) {
+            placeholderCache.invalidate(playerUuid);
+        }
+    }
+    
+    /**
+     * 工会数据变化后刷新其全部成员的占位符快照
+     */
+    public void invalidateGuild(int guildId) {
+        if (placeholderCache != null) {
+            placeholderCache.invalidateGuild(guildId);
+        }
+    }
+    
+    /**
+     * 玩家退出时移除占位符快照
+     */
+    public void removePlayer(UUID playerUuid) {
+        if (placeholderCache != null) {
+            placeholderCache.remove(playerUuid);
+        }
+    }
+    
+    /**
+     * 重新读取占位符缓存配置
+     */
+    public void reloadFromConfig() {
+        if (placeholderCache != null) {
+            placeholderCache.reloadFromConfig();
+            placeholderCache.clear();
+        }
+    }
     
     /**
      * 检查 PlaceholderAPI 是否可用
@@ -1,5 +1,7 @@
 package com.guild.core.time;
 
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -44,12 +46,96 @@ public final class TimeProvider {
         return nowLocalDateTime().plusDays(days).format(FULL_FORMATTER);
     }
 
+    /** 当前时间的毫秒时间戳（数据库 *_ms 列）。 */
+    public static long nowMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /** 当前时间加 minutes 分钟，返回毫秒时间戳。 */
+    public static long plusMinutesMillis(int minutes) {
+        return nowMillis() + minutes * 60_000L;
+    }
+
+    /** 当前时间加 days 天（按服务器时区的日历天），返回毫秒时间戳。 */
+    public static long plusDaysMillis(int days) {
+        return now().plusDays(days).toInstant().toEpochMilli();
+    }
+
+    /** 按服务器时区把 LocalDateTime 转为毫秒时间戳，null 返回 0。 */
+    public static long toMillis(LocalDateTime dateTime) {
+        if (dateTime == null) return 0;
+        return dateTime.atZone(SERVER_ZONE).toInstant().toEpochMilli();
+    }
+
+    /** 按服务器时区把毫秒时间戳转为 LocalDateTime。 */
+    public static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), SERVER_ZONE);
+    }
+
+    /** 毫秒时间戳格式化为完整字符串（写入旧的文本时间列）。 */
+    public static String formatMillis(long millis) {
+        return fromMillis(millis).format(FULL_FORMATTER);
+    }
+
     /** 格式化 LocalDateTime 为完整字符串。 */
     public static String format(LocalDateTime dateTime) {
         if (dateTime == null) return "未知";
         return dateTime.format(FULL_FORMATTER);
     }
 
+    /**
+     * 解析数据库中的时间字符串（yyyy-MM-dd HH:mm:ss，日期与时间之间可为 T，可带小数秒）
+     * 常见格式按固定位置直接读取数字，不经过 DateTimeFormatter；其他格式回退到 ISO 解析，仍失败时返回 null
+     */
+    public static LocalDateTime parse(String text) {
+        if (text == null) return null;
+        int length = text.length();
+        if (length >= 19 && text.charAt(4) == '-' && text.charAt(7) == '-'
+                && (text.charAt(10) == ' ' || text.charAt(10) == 'T')
+                && text.charAt(13) == ':' && text.charAt(16) == ':') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 7);
+            int day = digits(text, 8, 10);
+            int hour = digits(text, 11, 13);
+            int minute = digits(text, 14, 16);
+            int second = digits(text, 17, 19);
+            int nanos = 0;
+            boolean valid = year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0 && second >= 0;
+            if (valid && length > 19) {
+                // 小数秒：MySQL 驱动可能返回 ".0"，最多 9 位
+                valid = text.charAt(19) == '.' && length > 20 && length <= 29;
+                for (int i = 20; valid && i < 29; i++) {
+                    int digit = i < length ? text.charAt(i) - '0' : 0;
+                    valid = digit >= 0 && digit <= 9;
+                    nanos = nanos * 10 + digit;
+                }
+            }
+            if (valid) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+                } catch (DateTimeException ignore) {
+                    return null;
+                }
+            }
+        }
+        try {
+            return LocalDateTime.parse(text.replace(" ", "T"));
+        } catch (DateTimeException ignore) {
+            return null;
+        }
+    }
+
+    /** 读取 [start, end) 之间的十进制数字，含非数字字符时返回 -1 */
+    private static int digits(String text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
     /** 仅日期字符串 yyyy-MM-dd */
     public static String formatDate(LocalDateTime dateTime) {
         if (dateTime == null) return "未知";
@@ -3,7 +3,6 @@ package com.guild.gui;
 import com.guild.GuildPlugin;
 import com.guild.core.gui.GUI;
 import com.guild.core.utils.ColorUtils;
-import com.guild.models.Guild;
 import com.guild.gui.SystemSettingsGUI;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
@@ -15,7 +14,6 @@ import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * 管理员工会GUI
@@ -140,44 +138,14 @@ public class AdminGuildGUI implements GUI {
     }
     
     private void openStatistics(Player player) {
-        // 显示统计信息
-        plugin.getGuildService().getAllGuildsAsync().thenAccept(guilds -> {
+        // 显示统计信息（汇总数据由统计服务增量维护）
+        plugin.getGuildService().getStatistics().getStatisticsAsync().thenAccept(stats -> {
             player.sendMessage(ColorUtils.colorize("&6=== 工会统计信息 ==="));
-            player.sendMessage(ColorUtils.colorize("&e总工会数量: &f" + guilds.size()));
-            
-            if (!guilds.isEmpty()) {
-                final double[] totalBalance = {0};
-                final int[] frozenCount = {0};
-                
-                for (Guild guild : guilds) {
-                    totalBalance[0] += guild.getBalance();
-                    if (guild.isFrozen()) {
-                        frozenCount[0]++;
-                    }
-                }
-                
-                // 获取总成员数
-                CompletableFuture<Integer>[] memberCountFutures = new CompletableFuture[guilds.size()];
-                for (int i = 0; i < guilds.size(); i++) {
-                    memberCountFutures[i] = plugin.getGuildService().getGuildMemberCountAsync(guilds.get(i).getId());
-                }
-                
-                CompletableFuture.allOf(memberCountFutures).thenRun(() -> {
-                    final int[] totalMembers = {0};
-                    for (CompletableFuture<Integer> future : memberCountFutures) {
-                        try {
-                            totalMembers[0] += future.get();
-                        } catch (Exception e) {
-                            plugin.getLogger().severe("获取成员数量时发生错误: " + e.getMessage());
-                        }
-                    }
-                    
-                    player.sendMessage(ColorUtils.colorize("&e总成员数量: &f" + totalMembers[0]));
-                    player.sendMessage(ColorUtils.colorize("&e总资金: &f" + totalBalance[0]));
-                    player.sendMessage(ColorUtils.colorize("&e冻结工会数: &f" + frozenCount[0]));
-                    player.sendMessage(ColorUtils.colorize("&e正常工会数: &f" + (guilds.size() - frozenCount[0])));
-                });
-            }
+            player.sendMessage(ColorUtils.colorize("&e总工会数量: &f" + stats.getTotalGuilds()));
+            player.sendMessage(ColorUtils.colorize("&e总成员数量: &f" + stats.getTotalMembers()));
+            player.sendMessage(ColorUtils.colorize("&e总资金: &f" + stats.getTotalBalance()));
+            player.sendMessage(ColorUtils.colorize("&e冻结工会数: &f" + stats.getFrozenGuilds()));
+            player.sendMessage(ColorUtils.colorize("&e正常工会数: &f" + stats.getActiveGuilds()));
         });
     }
     
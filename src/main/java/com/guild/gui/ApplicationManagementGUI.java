@@ -273,6 +273,11 @@ public class ApplicationManagementGUI implements GUI {
                 name = PlaceholderUtils.replaceApplicationPlaceholders("&c{applicant_name} 的申请", application.getPlayerName(), guild.getName(), application.getCreatedAt());
                 lore.add(ColorUtils.colorize("&7状态: &c已拒绝"));
                 break;
+            case EXPIRED:
+                material = Material.GRAY_WOOL;
+                name = PlaceholderUtils.replaceApplicationPlaceholders("&7{applicant_name} 的申请", application.getPlayerName(), guild.getName(), application.getCreatedAt());
+                lore.add(ColorUtils.colorize("&7状态: &7已过期"));
+                break;
             default:
                 material = Material.GRAY_WOOL;
                 name = PlaceholderUtils.replaceApplicationPlaceholders("&7{applicant_name} 的申请", application.getPlayerName(), guild.getName(), application.getCreatedAt());
@@ -16,7 +16,9 @@ import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -139,18 +141,24 @@ public class CreateRelationGUI implements GUI {
     }
     
     /**
-     * 加载可用工会列表
+     * 加载可用工会列表（排除自己和已有关系的工会）
+     * 本工会的全部关系只查询一次，不对每个候选工会单独查询
      */
     private CompletableFuture<List<Guild>> loadAvailableGuilds() {
-        return plugin.getGuildService().getAllGuildsAsync().thenApply(guilds -> {
-            List<Guild> available = new ArrayList<>();
-            for (Guild g : guilds) {
-                if (!g.getName().equals(guild.getName())) {
-                    available.add(g);
+        return plugin.getGuildService().getAllGuildsAsync()
+            .thenCombine(plugin.getGuildService().getGuildRelationsAsync(guild.getId()), (guilds, relations) -> {
+                Set<Integer> related = new HashSet<>();
+                for (GuildRelation relation : relations) {
+                    related.add(relation.getOtherGuildId(guild.getId()));
                 }
-            }
-            return available;
-        });
+                List<Guild> available = new ArrayList<>();
+                for (Guild g : guilds) {
+                    if (g.getId() != guild.getId() && !related.contains(g.getId())) {
+                        available.add(g);
+                    }
+                }
+                return available;
+            });
     }
     
     /**
@@ -333,7 +341,7 @@ public class CreateRelationGUI implements GUI {
             return;
         }
         
-        // 检查是否已有关系
+        // 列表加载后可能已建立关系，提交前再检查这一对（关系图已加载时不查询数据库）
         plugin.getGuildService().getGuildRelationAsync(guild.getId(), targetGuild[0].getId())
             .thenAccept(existingRelation -> {
                 CompatibleScheduler.runTask(plugin, () -> {
@@ -16,7 +16,6 @@ import org.bukkit.inventory.meta.ItemMeta;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * 工会列表GUI
@@ -125,6 +124,14 @@ public class GuildListGUI implements GUI {
             ColorUtils.colorize(plugin.getConfigManager().getGuiConfig().getString("guild-list.items.back.lore.1", "&7返回主菜单"))
         );
         inventory.setItem(49, back);
+        
+        // 排行榜按钮
+        ItemStack leaderboard = createItem(
+            Material.GOLD_INGOT,
+            ColorUtils.colorize(plugin.getConfigManager().getGuiConfig().getString("guild-list.items.leaderboard.name", "&6工会排行榜")),
+            ColorUtils.colorize(plugin.getConfigManager().getGuiConfig().getString("guild-list.items.leaderboard.lore.1", "&7按资金、等级、成员数、贡献排行"))
+        );
+        inventory.setItem(51, leaderboard);
     }
     
     /**
@@ -217,37 +224,31 @@ public class GuildListGUI implements GUI {
     private void displayGuilds(Inventory inventory, List<Guild> guilds) {
         int startIndex = currentPage * GUILDS_PER_PAGE;
         int endIndex = Math.min(startIndex + GUILDS_PER_PAGE, guilds.size());
+        List<Guild> pageGuilds = guilds.subList(startIndex, Math.max(startIndex, endIndex));
         
-        // 创建所有工会的异步任务
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
-        
-        int slotIndex = 10; // 从第2行第2列开始
-        for (int i = startIndex; i < endIndex; i++) {
-            Guild guild = guilds.get(i);
-            if (slotIndex >= 44) break; // 避免超出显示区域
-            
-            final int finalSlotIndex = slotIndex;
-            
-            // 异步获取成员数量并创建物品
-            CompletableFuture<Void> future = plugin.getGuildService().getGuildMemberCountAsync(guild.getId())
-                .thenAccept(memberCount -> {
-                    // 在主线程中更新GUI
-                    CompatibleScheduler.runTask(plugin, () -> {
-                        ItemStack guildItem = createGuildItemWithMemberCount(guild, memberCount);
-                        inventory.setItem(finalSlotIndex, guildItem);
-                    });
-                });
-            
-            futures.add(future);
-            
-            slotIndex++;
-            if (slotIndex % 9 == 8) { // 跳过边框
-                slotIndex += 2;
-            }
+        List<Integer> guildIds = new ArrayList<>();
+        for (Guild guild : pageGuilds) {
+            guildIds.add(guild.getId());
         }
         
-        // 等待所有异步任务完成
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        // 一次查询取回本页所有工会的成员数量
+        plugin.getGuildService().getMemberCountsAsync(guildIds).thenAccept(memberCounts -> {
+            // 在主线程中更新GUI
+            CompatibleScheduler.runTask(plugin, () -> {
+                int slotIndex = 10; // 从第2行第2列开始
+                for (Guild guild : pageGuilds) {
+                    if (slotIndex >= 44) break; // 避免超出显示区域
+                    
+                    ItemStack guildItem = createGuildItemWithMemberCount(guild, memberCounts.getOrDefault(guild.getId(), 0));
+                    inventory.setItem(slotIndex, guildItem);
+                    
+                    slotIndex++;
+                    if (slotIndex % 9 == 8) { // 跳过边框
+                        slotIndex += 2;
+                    }
+                }
+            });
+        });
     }
     
     /**
@@ -320,7 +321,7 @@ public class GuildListGUI implements GUI {
      * 检查是否是功能按钮
      */
     private boolean isFunctionButton(int slot) {
-        return slot == 45 || slot == 47 || slot == 49;
+        return slot == 45 || slot == 47 || slot == 49 || slot == 51;
     }
     
     /**
@@ -351,6 +352,9 @@ public class GuildListGUI implements GUI {
             case 49: // 返回
                 plugin.getGuiManager().openGUI(player, new MainGuildGUI(plugin));
                 break;
+            case 51: // 排行榜
+                plugin.getGuiManager().openGUI(player, new LeaderboardGUI(plugin));
+                break;
         }
     }
     
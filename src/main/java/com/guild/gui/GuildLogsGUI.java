@@ -6,6 +6,8 @@ import com.guild.core.utils.ColorUtils;
 import com.guild.core.utils.CompatibleScheduler;
 import com.guild.models.Guild;
 import com.guild.models.GuildLog;
+import com.guild.models.GuildLogPage;
+import com.guild.services.GuildService;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -13,6 +15,7 @@ import org.bukkit.event.inventory.ClickType;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -26,18 +29,27 @@ public class GuildLogsGUI implements GUI {
     private final Player player;
     private final int page;
     private final int itemsPerPage = 28; // 2-8列，2-5行
+    // 第 1..page 页的起始游标，用于返回上一页
+    private final List<GuildLogPage.Cursor> pageCursors;
+    // 上一页预取好的本页数据，为 null 时直接查询
+    private final CompletableFuture<GuildLogPage> preloadedPage;
     private List<GuildLog> logs;
     private int totalLogs;
+    private GuildLogPage.Cursor nextCursor;
+    private CompletableFuture<GuildLogPage> nextPage;
     
     public GuildLogsGUI(GuildPlugin plugin, Guild guild, Player player) {
-        this(plugin, guild, player, 0);
+        this(plugin, guild, player, new ArrayList<>(), null);
     }
     
-    public GuildLogsGUI(GuildPlugin plugin, Guild guild, Player player, int page) {
+    private GuildLogsGUI(GuildPlugin plugin, Guild guild, Player player,
+                         List<GuildLogPage.Cursor> pageCursors, CompletableFuture<GuildLogPage> preloadedPage) {
         this.plugin = plugin;
         this.guild = guild;
         this.player = player;
-        this.page = page;
+        this.pageCursors = pageCursors;
+        this.preloadedPage = preloadedPage;
+        this.page = pageCursors.size();
     }
     
     @Override
@@ -81,39 +93,36 @@ public class GuildLogsGUI implements GUI {
     }
     
     /**
-     * 异步加载日志数据
+     * 异步加载日志数据，加载完成后在后台预取下一页
      */
     private CompletableFuture<Boolean> loadLogsAsync() {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                plugin.getLogger().info("开始加载工会 " + guild.getName() + " 的日志数据...");
-                
-                // 检查工会ID是否有效
-                if (guild.getId() <= 0) {
-                    plugin.getLogger().warning("工会ID无效: " + guild.getId());
-                    return false;
-                }
-                
-                // 获取日志总数
-                totalLogs = plugin.getGuildService().getGuildLogsCountAsync(guild.getId()).get();
-                plugin.getLogger().info("工会 " + guild.getName() + " 共有 " + totalLogs + " 条日志记录");
-                
-                // 获取当前页的日志
-                int offset = page * itemsPerPage;
-                logs = plugin.getGuildService().getGuildLogsAsync(guild.getId(), itemsPerPage, offset).get();
-                plugin.getLogger().info("成功加载第 " + (page + 1) + " 页的 " + logs.size() + " 条日志记录");
-                
-                return true;
-            } catch (Exception e) {
-                plugin.getLogger().severe("加载工会日志时发生错误: " + e.getMessage());
-                e.printStackTrace();
-                
-                // 设置默认值
-                totalLogs = 0;
-                logs = new java.util.ArrayList<>();
-                
-                return false;
+        // 检查工会ID是否有效
+        if (guild.getId() <= 0) {
+            plugin.getLogger().warning("工会ID无效: " + guild.getId());
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        GuildService guildService = plugin.getGuildService();
+        GuildLogPage.Cursor cursor = page > 0 ? pageCursors.get(page - 1) : null;
+        CompletableFuture<GuildLogPage> pageFuture = preloadedPage != null
+            ? preloadedPage
+            : guildService.getGuildLogsPageAsync(guild.getId(), itemsPerPage, cursor);
+        
+        return pageFuture.thenCombine(guildService.getGuildLogsCountAsync(guild.getId()), (result, count) -> {
+            logs = result.getLogs();
+            nextCursor = result.getNextCursor();
+            totalLogs = count;
+            if (nextCursor != null) {
+                nextPage = guildService.getGuildLogsPageAsync(guild.getId(), itemsPerPage, nextCursor);
             }
+            return true;
+        }).exceptionally(throwable -> {
+            plugin.getLogger().severe("加载工会日志时发生错误: " + throwable.getMessage());
+            
+            // 设置默认值
+            totalLogs = 0;
+            logs = new ArrayList<>();
+            return false;
         });
     }
     
@@ -261,7 +270,7 @@ public class GuildLogsGUI implements GUI {
             inventory.setItem(45, prevButton);
         }
         
-        if ((page + 1) * itemsPerPage < totalLogs) {
+        if (nextCursor != null) {
             ItemStack nextButton = createItem(
                 Material.ARROW,
                 ColorUtils.colorize("&e下一页"),
@@ -275,7 +284,7 @@ public class GuildLogsGUI implements GUI {
             Material.PAPER,
             ColorUtils.colorize("&6页码信息"),
             ColorUtils.colorize("&7当前页: &f" + (page + 1)),
-            ColorUtils.colorize("&7总页数: &f" + ((totalLogs - 1) / itemsPerPage + 1)),
+            ColorUtils.colorize("&7总页数: &f" + Math.max(page + 1, (totalLogs - 1) / itemsPerPage + 1)),
             ColorUtils.colorize("&7总记录: &f" + totalLogs)
         );
         inventory.setItem(47, pageInfo);
@@ -306,7 +315,8 @@ public class GuildLogsGUI implements GUI {
         // 上一页按钮
         if (itemName.contains("上一页")) {
             if (page > 0) {
-                GuildLogsGUI prevPageGUI = new GuildLogsGUI(plugin, guild, player, page - 1);
+                GuildLogsGUI prevPageGUI = new GuildLogsGUI(plugin, guild, player,
+                    new ArrayList<>(pageCursors.subList(0, page - 1)), null);
                 plugin.getGuiManager().openGUI(player, prevPageGUI);
             }
             return;
@@ -314,8 +324,10 @@ public class GuildLogsGUI implements GUI {
         
         // 下一页按钮
         if (itemName.contains("下一页")) {
-            if ((page + 1) * itemsPerPage < totalLogs) {
-                GuildLogsGUI nextPageGUI = new GuildLogsGUI(plugin, guild, player, page + 1);
+            if (nextCursor != null) {
+                List<GuildLogPage.Cursor> cursors = new ArrayList<>(pageCursors);
+                cursors.add(nextCursor);
+                GuildLogsGUI nextPageGUI = new GuildLogsGUI(plugin, guild, player, cursors, nextPage);
                 plugin.getGuiManager().openGUI(player, nextPageGUI);
             }
             return;
@@ -323,8 +335,7 @@ public class GuildLogsGUI implements GUI {
         
         // 刷新按钮
         if (itemName.contains("刷新")) {
-            GuildLogsGUI refreshGUI = new GuildLogsGUI(plugin, guild, player, page);
-            plugin.getGuiManager().openGUI(player, refreshGUI);
+            refresh(player);
             return;
         }
         
@@ -334,9 +345,9 @@ public class GuildLogsGUI implements GUI {
             int col = slot % 9;
             if (row >= 1 && row <= 4 && col >= 1 && col <= 7) {
                 int relativeIndex = (row - 1) * 7 + (col - 1);
-                int logIndex = (page * itemsPerPage) + relativeIndex;
-                if (logIndex < logs.size()) {
-                    GuildLog log = logs.get(logIndex);
+                // logs 只包含当前页的日志
+                if (logs != null && relativeIndex < logs.size()) {
+                    GuildLog log = logs.get(relativeIndex);
                     handleLogClick(player, log);
                 }
             }
@@ -367,8 +378,8 @@ public class GuildLogsGUI implements GUI {
     
     @Override
     public void refresh(Player player) {
-        // 刷新GUI
-        GuildLogsGUI refreshGUI = new GuildLogsGUI(plugin, guild, player, page);
+        // 刷新GUI：重新查询当前页，不使用预取的数据
+        GuildLogsGUI refreshGUI = new GuildLogsGUI(plugin, guild, player, new ArrayList<>(pageCursors), null);
         plugin.getGuiManager().openGUI(player, refreshGUI);
     }
     
@@ -0,0 +1,231 @@
+package com.guild.gui;
+
+import com.guild.GuildPlugin;
+import com.guild.core.gui.GUI;
+import com.guild.core.utils.ColorUtils;
+import com.guild.core.utils.CompatibleScheduler;
+import com.guild.services.LeaderboardService;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 工会排行榜GUI - 直接读取内存中的排行榜，不访问数据库
+ */
+public class LeaderboardGUI implements GUI {
+
+    private static final int ENTRIES_PER_PAGE = 28; // 4行7列，除去边框
+
+    private final GuildPlugin plugin;
+    private final LeaderboardService.Metric metric;
+    // 当前显示的工会ID，按槽位顺序
+    private final List<Integer> displayedGuildIds = new ArrayList<>();
+
+    public LeaderboardGUI(GuildPlugin plugin) {
+        this(plugin, LeaderboardService.Metric.BALANCE);
+    }
+
+    public LeaderboardGUI(GuildPlugin plugin, LeaderboardService.Metric metric) {
+        this.plugin = plugin;
+        this.metric = metric;
+    }
+
+    @Override
+    public String getTitle() {
+        String title = plugin.getConfigManager().getGuiConfig().getString("leaderboard.title", "&6工会排行榜 - {metric}");
+        return ColorUtils.colorize(title.replace("{metric}", metric.getDisplayName()));
+    }
+
+    @Override
+    public int getSize() {
+        return 54;
+    }
+
+    @Override
+    public void setupInventory(Inventory inventory) {
+        // 填充边框
+        fillBorder(inventory);
+
+        // 指标切换按钮
+        setupMetricButtons(inventory);
+
+        // 返回按钮
+        ItemStack back = createItem(
+            Material.ARROW,
+            ColorUtils.colorize(plugin.getConfigManager().getGuiConfig().getString("leaderboard.items.back.name", "&7返回")),
+            ColorUtils.colorize(plugin.getConfigManager().getGuiConfig().getString("leaderboard.items.back.lore.1", "&7返回工会列表"))
+        );
+        inventory.setItem(49, back);
+
+        // 排行内容
+        displayEntries(inventory);
+    }
+
+    @Override
+    public void onClick(Player player, int slot, ItemStack clickedItem, ClickType clickType) {
+        LeaderboardService.Metric selected = getMetricForSlot(slot);
+        if (selected != null) {
+            if (selected != metric) {
+                plugin.getGuiManager().openGUI(player, new LeaderboardGUI(plugin, selected));
+            }
+            return;
+        }
+
+        if (slot == 49) {
+            plugin.getGuiManager().openGUI(player, new GuildListGUI(plugin));
+            return;
+        }
+
+        if (isEntrySlot(slot)) {
+            handleEntryClick(player, slot);
+        }
+    }
+
+    /**
+     * 填充边框
+     */
+    private void fillBorder(Inventory inventory) {
+        ItemStack border = createItem(Material.BLACK_STAINED_GLASS_PANE, " ");
+        for (int i = 0; i < 9; i++) {
+            inventory.setItem(i, border);
+            inventory.setItem(i + 45, border);
+        }
+        for (int i = 9; i < 45; i += 9) {
+            inventory.setItem(i, border);
+            inventory.setItem(i + 8, border);
+        }
+    }
+
+    /**
+     * 设置指标切换按钮
+     */
+    private void setupMetricButtons(Inventory inventory) {
+        setupMetricButton(inventory, 46, LeaderboardService.Metric.BALANCE, Material.GOLD_INGOT);
+        setupMetricButton(inventory, 47, LeaderboardService.Metric.LEVEL, Material.EXPERIENCE_BOTTLE);
+        setupMetricButton(inventory, 51, LeaderboardService.Metric.MEMBERS, Material.PLAYER_HEAD);
+        setupMetricButton(inventory, 52, LeaderboardService.Metric.CONTRIBUTION, Material.EMERALD);
+    }
+
+    private void setupMetricButton(Inventory inventory, int slot, LeaderboardService.Metric buttonMetric, Material material) {
+        String name = (buttonMetric == metric ? "&a" : "&e") + "按" + buttonMetric.getDisplayName() + "排行";
+        String lore = buttonMetric == metric ? "&a当前显示" : "&7点击切换";
+        inventory.setItem(slot, createItem(material, ColorUtils.colorize(name), ColorUtils.colorize(lore)));
+    }
+
+    private LeaderboardService.Metric getMetricForSlot(int slot) {
+        switch (slot) {
+            case 46: return LeaderboardService.Metric.BALANCE;
+            case 47: return LeaderboardService.Metric.LEVEL;
+            case 51: return LeaderboardService.Metric.MEMBERS;
+            case 52: return LeaderboardService.Metric.CONTRIBUTION;
+            default: return null;
+        }
+    }
+
+    /**
+     * 显示排行内容
+     */
+    private void displayEntries(Inventory inventory) {
+        List<LeaderboardService.Entry> entries = plugin.getGuildService().getLeaderboard().getTop(metric, ENTRIES_PER_PAGE);
+        displayedGuildIds.clear();
+        if (entries.isEmpty()) {
+            ItemStack noGuilds = createItem(
+                Material.BARRIER,
+                ColorUtils.colorize("&c暂无工会"),
+                ColorUtils.colorize("&7服务器中还没有工会")
+            );
+            inventory.setItem(22, noGuilds);
+            return;
+        }
+
+        int slotIndex = 10; // 从第2行第2列开始
+        for (int i = 0; i < entries.size(); i++) {
+            LeaderboardService.Entry entry = entries.get(i);
+            inventory.setItem(slotIndex, createEntryItem(i + 1, entry));
+            displayedGuildIds.add(entry.getGuildId());
+
+            slotIndex++;
+            if (slotIndex % 9 == 8) { // 跳过边框
+                slotIndex += 2;
+            }
+        }
+    }
+
+    /**
+     * 创建排行物品
+     */
+    private ItemStack createEntryItem(int rank, LeaderboardService.Entry entry) {
+        Material material;
+        switch (rank) {
+            case 1: material = Material.GOLD_BLOCK; break;
+            case 2: material = Material.IRON_BLOCK; break;
+            case 3: material = Material.COPPER_BLOCK; break;
+            default: material = Material.SHIELD; break;
+        }
+        return createItem(
+            material,
+            ColorUtils.colorize("&6#" + rank + " &e" + entry.getName()),
+            ColorUtils.colorize("&7" + metric.getDisplayName() + ": &f" + entry.formatValue(metric)),
+            "",
+            ColorUtils.colorize("&7资金: " + String.format("%.2f", entry.getBalance())),
+            ColorUtils.colorize("&7等级: " + entry.getLevel()),
+            ColorUtils.colorize("&7成员: " + entry.getMembers()),
+            ColorUtils.colorize("&7总贡献: " + String.format("%.2f", entry.getContribution())),
+            "",
+            ColorUtils.colorize("&a点击查看详情")
+        );
+    }
+
+    /**
+     * 检查是否是排行槽位
+     */
+    private boolean isEntrySlot(int slot) {
+        return slot >= 10 && slot <= 43 && slot % 9 != 0 && slot % 9 != 8;
+    }
+
+    /**
+     * 处理排行条目点击
+     */
+    private void handleEntryClick(Player player, int slot) {
+        // 槽位换算为序号：每行7个，从第2行第2列开始
+        int index = (slot / 9 - 1) * 7 + (slot % 9 - 1);
+        if (index < 0 || index >= displayedGuildIds.size()) {
+            return;
+        }
+        plugin.getGuildService().getGuildByIdAsync(displayedGuildIds.get(index)).thenAccept(guild -> {
+            CompatibleScheduler.runTask(plugin, () -> {
+                if (guild == null) {
+                    String message = plugin.getConfigManager().getMessagesConfig().getString("gui.no-guilds", "&c没有找到工会");
+                    player.sendMessage(ColorUtils.colorize(message));
+                    return;
+                }
+                plugin.getGuiManager().openGUI(player, new GuildInfoGUI(plugin, player, guild));
+            });
+        });
+    }
+
+    /**
+     * 创建物品
+     */
+    private ItemStack createItem(Material material, String name, String... lore) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+
+        if (meta != null) {
+            meta.setDisplayName(name);
+            if (lore.length > 0) {
+                meta.setLore(Arrays.asList(lore));
+            }
+            item.setItemMeta(meta);
+        }
+
+        return item;
+    }
+}
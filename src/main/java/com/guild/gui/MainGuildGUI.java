@@ -4,6 +4,7 @@ import com.guild.GuildPlugin;
 import com.guild.core.gui.GUI;
 import com.guild.core.gui.GUIManager;
 import com.guild.core.utils.ColorUtils;
+import com.guild.models.Guild;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -181,30 +182,26 @@ public class MainGuildGUI implements GUI {
      */
     private void openApplicationManagementGUI(Player player) {
         // 检查玩家是否有工会
-        plugin.getGuildService().getPlayerGuildAsync(player.getUniqueId()).thenAccept(guild -> {
+        plugin.getGuildService().getPlayerContextAsync(player.getUniqueId()).thenAccept(context -> {
             // 确保在主线程中执行GUI操作
             CompatibleScheduler.runTask(plugin, () -> {
-                if (guild == null) {
+                if (!context.hasGuild()) {
                     String message = plugin.getConfigManager().getMessagesConfig().getString("gui.no-guild", "&c您还没有工会");
                     player.sendMessage(ColorUtils.colorize(message));
                     return;
                 }
+                Guild guild = context.getGuild();
                 
                 // 检查权限
-                plugin.getGuildService().getGuildMemberAsync(guild.getId(), player.getUniqueId()).thenAccept(member -> {
-                    // 确保在主线程中执行GUI操作
-                    CompatibleScheduler.runTask(plugin, () -> {
-                        if (member == null || !member.getRole().canInvite()) {
-                            String message = plugin.getConfigManager().getMessagesConfig().getString("gui.no-permission", "&c权限不足");
-                            player.sendMessage(ColorUtils.colorize(message));
-                            return;
-                        }
-                        
-                        // 打开申请管理GUI
-                        ApplicationManagementGUI applicationManagementGUI = new ApplicationManagementGUI(plugin, guild);
-                        plugin.getGuiManager().openGUI(player, applicationManagementGUI);
-                    });
-                });
+                if (!context.getRole().canInvite()) {
+                    String message = plugin.getConfigManager().getMessagesConfig().getString("gui.no-permission", "&c权限不足");
+                    player.sendMessage(ColorUtils.colorize(message));
+                    return;
+                }
+                
+                // 打开申请管理GUI
+                ApplicationManagementGUI applicationManagementGUI = new ApplicationManagementGUI(plugin, guild);
+                plugin.getGuiManager().openGUI(player, applicationManagementGUI);
             });
         });
     }
@@ -214,30 +211,26 @@ public class MainGuildGUI implements GUI {
      */
     private void openGuildSettingsGUI(Player player) {
         // 检查玩家是否有工会
-        plugin.getGuildService().getPlayerGuildAsync(player.getUniqueId()).thenAccept(guild -> {
+        plugin.getGuildService().getPlayerContextAsync(player.getUniqueId()).thenAccept(context -> {
             // 确保在主线程中执行GUI操作
             CompatibleScheduler.runTask(plugin, () -> {
-                if (guild == null) {
+                if (!context.hasGuild()) {
                     String message = plugin.getConfigManager().getMessagesConfig().getString("gui.no-guild", "&c您还没有工会");
                     player.sendMessage(ColorUtils.colorize(message));
                     return;
                 }
+                Guild guild = context.getGuild();
                 
                 // 检查权限
-                plugin.getGuildService().getGuildMemberAsync(guild.getId(), player.getUniqueId()).thenAccept(member -> {
-                    // 确保在主线程中执行GUI操作
-                    CompatibleScheduler.runTask(plugin, () -> {
-                        if (member == null || member.getRole() != com.guild.models.GuildMember.Role.LEADER) {
-                            String message = plugin.getConfigManager().getMessagesConfig().getString("gui.leader-only", "&c只有工会会长才能执行此操作");
-                            player.sendMessage(ColorUtils.colorize(message));
-                            return;
-                        }
-                        
-                        // 打开工会设置GUI
-                        GuildSettingsGUI guildSettingsGUI = new GuildSettingsGUI(plugin, guild);
-                        plugin.getGuiManager().openGUI(player, guildSettingsGUI);
-                    });
-                });
+                if (!context.isLeader()) {
+                    String message = plugin.getConfigManager().getMessagesConfig().getString("gui.leader-only", "&c只有工会会长才能执行此操作");
+                    player.sendMessage(ColorUtils.colorize(message));
+                    return;
+                }
+                
+                // 打开工会设置GUI
+                GuildSettingsGUI guildSettingsGUI = new GuildSettingsGUI(plugin, guild);
+                plugin.getGuiManager().openGUI(player, guildSettingsGUI);
             });
         });
     }
@@ -256,30 +249,26 @@ public class MainGuildGUI implements GUI {
      */
     private void openGuildRelationsGUI(Player player) {
         // 检查玩家是否有工会
-        plugin.getGuildService().getPlayerGuildAsync(player.getUniqueId()).thenAccept(guild -> {
+        plugin.getGuildService().getPlayerContextAsync(player.getUniqueId()).thenAccept(context -> {
             // 确保在主线程中执行GUI操作
             CompatibleScheduler.runTask(plugin, () -> {
-                if (guild == null) {
+                if (!context.hasGuild()) {
                     String message = plugin.getConfigManager().getMessagesConfig().getString("gui.no-guild", "&c您还没有工会");
                     player.sendMessage(ColorUtils.colorize(message));
                     return;
                 }
+                Guild guild = context.getGuild();
                 
                 // 检查权限
-                plugin.getGuildService().getGuildMemberAsync(guild.getId(), player.getUniqueId()).thenAccept(member -> {
-                    // 确保在主线程中执行GUI操作
-                    CompatibleScheduler.runTask(plugin, () -> {
-                        if (member == null || member.getRole() != com.guild.models.GuildMember.Role.LEADER) {
-                            String message = plugin.getConfigManager().getMessagesConfig().getString("gui.leader-only", "&c只有工会会长才能管理关系");
-                            player.sendMessage(ColorUtils.colorize(message));
-                            return;
-                        }
-                        
-                        // 打开工会关系GUI
-                        GuildRelationsGUI guildRelationsGUI = new GuildRelationsGUI(plugin, guild, player);
-                        plugin.getGuiManager().openGUI(player, guildRelationsGUI);
-                    });
-                });
+                if (!context.isLeader()) {
+                    String message = plugin.getConfigManager().getMessagesConfig().getString("gui.leader-only", "&c只有工会会长才能管理关系");
+                    player.sendMessage(ColorUtils.colorize(message));
+                    return;
+                }
+                
+                // 打开工会关系GUI
+                GuildRelationsGUI guildRelationsGUI = new GuildRelationsGUI(plugin, guild, player);
+                plugin.getGuiManager().openGUI(player, guildRelationsGUI);
             });
         });
     }
@@ -3,6 +3,7 @@ package com.guild.gui;
 import com.guild.GuildPlugin;
 import com.guild.core.gui.GUI;
 import com.guild.core.utils.ColorUtils;
+import com.guild.core.utils.CompatibleScheduler;
 import com.guild.core.utils.PlaceholderUtils;
 import com.guild.models.Guild;
 import com.guild.models.GuildMember;
@@ -172,14 +173,23 @@ public class MemberDetailsGUI implements GUI {
         );
         inventory.setItem(22, timeInfo);
         
-        // 贡献信息
-        ItemStack contributionInfo = createItem(
+        // 贡献信息（汇总表查询完成后更新）
+        inventory.setItem(23, createContributionItem("统计中..."));
+        plugin.getGuildService().getPlayerContributionTotalAsync(guild.getId(), member.getPlayerUuid()).thenAccept(total -> {
+            CompatibleScheduler.runTask(plugin, () -> inventory.setItem(23, createContributionItem(String.format("%.2f", total))));
+        });
+    }
+    
+    /**
+     * 创建贡献信息物品
+     */
+    private ItemStack createContributionItem(String contribution) {
+        return createItem(
             Material.EMERALD,
             ColorUtils.colorize("&e贡献信息"),
-            ColorUtils.colorize("&7工会贡献: &f" + getMemberContribution()),
+            ColorUtils.colorize("&7工会贡献: &f" + contribution),
             ColorUtils.colorize("&7活跃度: &f" + getMemberActivity())
         );
-        inventory.setItem(23, contributionInfo);
     }
     
     /**
@@ -218,7 +228,8 @@ public class MemberDetailsGUI implements GUI {
      */
     private void setupActionButtons(Inventory inventory) {
         // 检查当前玩家是否有权限执行操作
-        plugin.getGuildService().getGuildMemberAsync(guild.getId(), viewer.getUniqueId()).thenAccept(viewerMember -> {
+        plugin.getGuildService().getPlayerContextAsync(viewer.getUniqueId()).thenAccept(context -> {
+            GuildMember viewerMember = context.getMemberOf(guild.getId());
             if (viewerMember == null) return;
             
             // 不能操作自己
@@ -317,7 +328,8 @@ public class MemberDetailsGUI implements GUI {
      */
     private void handleKickMember(Player player) {
         // 检查权限
-        plugin.getGuildService().getGuildMemberAsync(guild.getId(), player.getUniqueId()).thenAccept(executor -> {
+        plugin.getGuildService().getPlayerContextAsync(player.getUniqueId()).thenAccept(context -> {
+            GuildMember executor = context.getMemberOf(guild.getId());
             if (executor == null || !executor.getRole().canKick()) {
                 String message = plugin.getConfigManager().getMessagesConfig().getString("gui.no-permission", "&c权限不足");
                 player.sendMessage(ColorUtils.colorize(message));
@@ -337,7 +349,8 @@ public class MemberDetailsGUI implements GUI {
      */
     private void handlePromoteDemoteMember(Player player) {
         // 检查权限
-        plugin.getGuildService().getGuildMemberAsync(guild.getId(), player.getUniqueId()).thenAccept(executor -> {
+        plugin.getGuildService().getPlayerContextAsync(player.getUniqueId()).thenAccept(context -> {
+            GuildMember executor = context.getMemberOf(guild.getId());
             if (executor == null || executor.getRole() != GuildMember.Role.LEADER) {
                 String message = plugin.getConfigManager().getMessagesConfig().getString("gui.leader-only", "&c只有工会会长才能执行此操作");
                 player.sendMessage(ColorUtils.colorize(message));
@@ -424,14 +437,6 @@ public class MemberDetailsGUI implements GUI {
         }
     }
     
-    /**
-     * 获取成员贡献
-     */
-    private String getMemberContribution() {
-        // TODO: 实现贡献统计系统
-        return "待统计";
-    }
-    
     /**
      * 获取成员活跃度
      */
@@ -3,7 +3,6 @@ package com.guild.gui;
 import com.guild.GuildPlugin;
 import com.guild.core.gui.GUI;
 import com.guild.core.utils.ColorUtils;
-import com.guild.models.Guild;
 import com.guild.models.GuildRelation;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -18,7 +17,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * 关系管理GUI - 管理员专用
@@ -228,27 +226,8 @@ public class RelationManagementGUI implements GUI {
         
         isLoading = true;
         
-        // 获取所有工会的关系
-        plugin.getGuildService().getAllGuildsAsync().thenCompose(guilds -> {
-            List<CompletableFuture<List<GuildRelation>>> relationFutures = new ArrayList<>();
-            
-            for (Guild guild : guilds) {
-                relationFutures.add(plugin.getGuildService().getGuildRelationsAsync(guild.getId()));
-            }
-            
-            return CompletableFuture.allOf(relationFutures.toArray(new CompletableFuture[0]))
-                .thenApply(v -> {
-                    List<GuildRelation> allRelationsList = new ArrayList<>();
-                    for (CompletableFuture<List<GuildRelation>> future : relationFutures) {
-                        try {
-                            allRelationsList.addAll(future.get());
-                        } catch (Exception e) {
-                            plugin.getLogger().warning("加载工会关系时发生错误: " + e.getMessage());
-                        }
-                    }
-                    return allRelationsList;
-                });
-        }).thenAccept(relations -> {
+        // 获取所有工会的关系（来自内存关系图）
+        plugin.getGuildService().getAllGuildRelationsAsync().thenAccept(relations -> {
             Bukkit.getScheduler().runTask(plugin, () -> {
                 allRelations.clear();
                 allRelations.addAll(relations);
@@ -11,6 +11,9 @@ import org.bukkit.event.player.AsyncPlayerChatEvent;
 
 import com.guild.core.utils.CompatibleScheduler;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 玩家事件监听器
  */
@@ -35,19 +38,26 @@ public class PlayerListener implements Listener {
      * 检查工会战争状态并发送通知
      */
     private void checkWarStatus(org.bukkit.entity.Player player) {
-        // 异步检查玩家的工会
+        // 玩家工会与关系均来自内存缓存，命中时不访问数据库
         plugin.getGuildService().getPlayerGuildAsync(player.getUniqueId()).thenAccept(guild -> {
             if (guild != null) {
                 // 检查工会的所有关系
                 plugin.getGuildService().getGuildRelationsAsync(guild.getId()).thenAccept(relations -> {
+                    List<com.guild.models.GuildRelation> wars = new ArrayList<>();
+                    for (com.guild.models.GuildRelation relation : relations) {
+                        if (relation.isWar()) {
+                            wars.add(relation);
+                        }
+                    }
+                    if (wars.isEmpty()) {
+                        return;
+                    }
                     // 确保在主线程中执行
                     CompatibleScheduler.runTask(plugin, () -> {
-                        for (com.guild.models.GuildRelation relation : relations) {
-                            if (relation.isWar()) {
-                                String message = plugin.getConfigManager().getMessagesConfig().getString("relations.war-notification", "&4[工会战争] &c您的工会与 {guild} 处于开战状态！");
-                                message = message.replace("{guild}", relation.getOtherGuildName(guild.getId()));
-                                player.sendMessage(com.guild.core.utils.ColorUtils.colorize(message));
-                            }
+                        for (com.guild.models.GuildRelation relation : wars) {
+                            String message = plugin.getConfigManager().getMessagesConfig().getString("relations.war-notification", "&4[工会战争] &c您的工会与 {guild} 处于开战状态！");
+                            message = message.replace("{guild}", relation.getOtherGuildName(guild.getId()));
+                            player.sendMessage(com.guild.core.utils.ColorUtils.colorize(message));
                         }
                     });
                 });
@@ -65,6 +75,10 @@ public class PlayerListener implements Listener {
         if (guiManager != null) {
             guiManager.closeGUI(event.getPlayer());
         }
+        // 移除占位符快照
+        if (plugin.getPlaceholderManager() != null) {
+            plugin.getPlaceholderManager().removePlayer(event.getPlayer().getUniqueId());
+        }
     }
     
     /**
@@ -40,6 +40,30 @@ public class Guild {
         this.updatedAt = LocalDateTime.now();
     }
     
+    /**
+     * 复制构造 - 缓存以副本形式存取，避免调用方修改共享对象
+     */
+    public Guild(Guild other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.tag = other.tag;
+        this.description = other.description;
+        this.leaderUuid = other.leaderUuid;
+        this.leaderName = other.leaderName;
+        this.homeWorld = other.homeWorld;
+        this.homeX = other.homeX;
+        this.homeY = other.homeY;
+        this.homeZ = other.homeZ;
+        this.homeYaw = other.homeYaw;
+        this.homePitch = other.homePitch;
+        this.balance = other.balance;
+        this.level = other.level;
+        this.maxMembers = other.maxMembers;
+        this.frozen = other.frozen;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+    
     // Getters and Setters
     public int getId() {
         return id;
@@ -90,7 +90,8 @@ public class GuildApplication {
     public enum ApplicationStatus {
         PENDING("待处理"),
         APPROVED("已通过"),
-        REJECTED("已拒绝");
+        REJECTED("已拒绝"),
+        EXPIRED("已过期");
         
         private final String displayName;
         
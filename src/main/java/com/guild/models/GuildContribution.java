@@ -34,6 +34,13 @@ public class GuildContribution {
         public String getDisplayName() {
             return displayName;
         }
+        
+        /**
+         * 是否计入玩家的个人贡献（玩家自己投入工会的资金）
+         */
+        public boolean isPersonalContribution() {
+            return this == DEPOSIT || this == CREATION || this == UPGRADE;
+        }
     }
     
     public GuildContribution() {}
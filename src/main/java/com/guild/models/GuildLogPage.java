@@ -0,0 +1,78 @@
+package com.guild.models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 工会日志分页结果
+ * 按 (created_ms, id) 倒序的游标分页，翻到第几页查询代价都相同
+ */
+public class GuildLogPage {
+
+    private final List<GuildLog> logs;
+    private final Cursor nextCursor;
+
+    public GuildLogPage(List<GuildLog> logs, Cursor nextCursor) {
+        this.logs = logs != null ? logs : Collections.emptyList();
+        this.nextCursor = nextCursor;
+    }
+
+    public static GuildLogPage empty() {
+        return new GuildLogPage(Collections.emptyList(), null);
+    }
+
+    public List<GuildLog> getLogs() {
+        return logs;
+    }
+
+    /**
+     * 下一页的起始游标，没有更多日志时为 null
+     */
+    public Cursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * 分页游标 - 上一页最后一条日志的创建时间（毫秒时间戳）和ID
+     * 创建时间为 null 表示已进入尚未回填 created_ms 的旧日志尾段，之后的页按ID继续
+     */
+    public static final class Cursor {
+        private final Long createdMillis;
+        private final int id;
+
+        public Cursor(Long createdMillis, int id) {
+            this.createdMillis = createdMillis;
+            this.id = id;
+        }
+
+        /**
+         * 旧日志尾段中ID小于 id 的部分
+         */
+        public static Cursor undated(int id) {
+            return new Cursor(null, id);
+        }
+
+        /**
+         * 旧日志尾段的开头
+         */
+        public static Cursor undatedStart() {
+            return new Cursor(null, Integer.MAX_VALUE);
+        }
+
+        public boolean isUndated() {
+            return createdMillis == null;
+        }
+
+        public Long getCreatedMillis() {
+            return createdMillis;
+        }
+
+        public int getId() {
+            return id;
+        }
+    }
+}
@@ -25,6 +25,18 @@ public class GuildMember {
         this.joinedAt = LocalDateTime.now();
     }
     
+    /**
+     * 复制构造 - 缓存以副本形式存取，避免调用方修改共享对象
+     */
+    public GuildMember(GuildMember other) {
+        this.id = other.id;
+        this.guildId = other.guildId;
+        this.playerUuid = other.playerUuid;
+        this.playerName = other.playerName;
+        this.role = other.role;
+        this.joinedAt = other.joinedAt;
+    }
+    
     // Getters and Setters
     public int getId() {
         return id;
@@ -0,0 +1,55 @@
+package com.guild.models;
+
+/**
+ * 玩家的工会上下文 - 玩家的成员记录（含职位）与所在工会
+ * 命令和GUI处理前一次取得，不再依次查询玩家工会、成员记录和工会；工会的余额、等级和人数上限都在工会对象中
+ */
+public class PlayerGuildContext {
+
+    private static final PlayerGuildContext NONE = new PlayerGuildContext(null, null);
+
+    private final GuildMember member;
+    private final Guild guild;
+
+    public PlayerGuildContext(GuildMember member, Guild guild) {
+        this.member = member;
+        this.guild = guild;
+    }
+
+    /**
+     * 没有加入工会的玩家的上下文
+     */
+    public static PlayerGuildContext none() {
+        return NONE;
+    }
+
+    public boolean hasGuild() {
+        return guild != null && member != null;
+    }
+
+    public Guild getGuild() {
+        return guild;
+    }
+
+    public GuildMember getMember() {
+        return member;
+    }
+
+    /**
+     * 玩家在工会中的职位，没有工会时为 null
+     */
+    public GuildMember.Role getRole() {
+        return member != null ? member.getRole() : null;
+    }
+
+    public boolean isLeader() {
+        return getRole() == GuildMember.Role.LEADER;
+    }
+
+    /**
+     * 玩家属于指定工会时返回其成员记录，否则返回 null
+     */
+    public GuildMember getMemberOf(int guildId) {
+        return hasGuild() && guild.getId() == guildId ? member : null;
+    }
+}
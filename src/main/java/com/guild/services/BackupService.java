@@ -0,0 +1,462 @@
+package com.guild.services;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.guild.GuildPlugin;
+import com.guild.core.database.DatabaseManager;
+import com.guild.core.database.TableWriter;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 数据库备份与恢复 - 按 database.yml 的 backup 配置定期在后台备份，并删除超过保留天数的备份
+ * SQLite 用 VACUUM INTO 生成一致的快照（只读事务，不阻塞写入）；MySQL 逐表流式导出为 gzip 压缩的 NDJSON
+ * 恢复时逐行读取备份文件、分批写回，整个恢复在一个事务中提交，内存占用与数据量无关
+ */
+public class BackupService {
+
+    public static final String SNAPSHOT_SUFFIX = ".db";
+    public static final String EXPORT_SUFFIX = ".ndjson.gz";
+    private static final String FILE_PREFIX = "guild_";
+    private static final String PART_SUFFIX = ".part";
+    // 表结构版本以当前数据库为准；变更通知只对在线的服务器有意义
+    private static final Set<String> SKIPPED_TABLES = Set.of("schema_version", "guild_changes");
+
+    private final GuildPlugin plugin;
+    private final DatabaseManager databaseManager;
+    private final GuildService guildService;
+    private final Logger logger;
+    private final ScheduledExecutorService scheduler;
+    // 备份与恢复互斥，同一时刻只运行一个
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public BackupService(GuildPlugin plugin, DatabaseManager databaseManager, GuildService guildService) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.guildService = guildService;
+        this.logger = plugin.getLogger();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Guild-Backup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 按 database.yml 的 backup 配置启动定时备份（需在数据库初始化之后调用）
+     */
+    public void start() {
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        if (!config.getBoolean("backup.enabled", false)) {
+            return;
+        }
+        long interval = Math.max(1, config.getLong("backup.interval", 24));
+        scheduler.scheduleWithFixedDelay(() -> {
+            if (running.compareAndSet(false, true)) {
+                try {
+                    backup();
+                } catch (IOException | SQLException | RuntimeException e) {
+                    // backup() 已记录错误
+                } finally {
+                    running.set(false);
+                }
+            }
+        }, interval, interval, TimeUnit.HOURS);
+        logger.info("数据库定时备份已启动: 每 " + interval + " 小时备份一次，保存到 " + getBackupFolder().getPath());
+    }
+
+    /**
+     * 停止定时备份；正在进行的备份或恢复会继续执行直到超时
+     */
+    public void shutdown(long timeoutMillis) {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("数据库备份任务未能在 " + timeoutMillis + "ms 内结束");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 立即在后台备份一次
+     * @return 备份文件；已有备份或恢复在运行时返回 null，失败时异常完成
+     */
+    public CompletableFuture<File> backupNow() {
+        return submit(this::backup);
+    }
+
+    /**
+     * 在后台从备份目录中的文件恢复，替换当前数据库中的全部数据
+     * @return 恢复的行数；已有备份或恢复在运行时返回 -1，失败时异常完成
+     */
+    public CompletableFuture<Long> restore(String fileName) {
+        File file = new File(getBackupFolder(), fileName);
+        if (fileName.contains("/") || fileName.contains("\\") || !isBackupFile(file) || !file.isFile()) {
+            return CompletableFuture.failedFuture(new IOException("备份文件不存在: " + fileName));
+        }
+        CompletableFuture<Long> future = submit(() -> restoreFrom(file));
+        return future.thenApply(rows -> rows != null ? rows : -1L);
+    }
+
+    /**
+     * 备份目录中的备份文件，最新的在前
+     */
+    public List<File> listBackups() {
+        File[] files = getBackupFolder().listFiles(this::isBackupFile);
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        List<File> backups = new ArrayList<>(Arrays.asList(files));
+        backups.sort(Comparator.comparingLong(File::lastModified).reversed());
+        return backups;
+    }
+
+    public File getBackupFolder() {
+        return new File(plugin.getDataFolder(), plugin.getConfigManager().getDatabaseConfig().getString("backup.path", "backups/"));
+    }
+
+    private <T> CompletableFuture<T> submit(BackupTask<T> task) {
+        if (!running.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            scheduler.execute(() -> {
+                try {
+                    future.complete(task.run());
+                } catch (IOException | SQLException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // ==================== 备份 ====================
+
+    private File backup() throws IOException, SQLException {
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        File folder = getBackupFolder();
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("无法创建备份目录: " + folder.getPath());
+        }
+        boolean sqlite = databaseManager.getDatabaseType() == DatabaseManager.DatabaseType.SQLITE;
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern(config.getString("backup.format", "yyyy-MM-dd_HH-mm-ss")));
+        File target = new File(folder, FILE_PREFIX + timestamp + (sqlite ? SNAPSHOT_SUFFIX : EXPORT_SUFFIX));
+        // 先写入临时文件，完成后再改名，未写完的备份不会被恢复或计入保留数量
+        File part = new File(folder, target.getName() + PART_SUFFIX);
+        if (part.exists() && !part.delete()) {
+            throw new IOException("无法删除未完成的备份文件: " + part.getPath());
+        }
+
+        long start = System.currentTimeMillis();
+        long rows;
+        try {
+            rows = sqlite ? snapshotSqlite(part) : exportTables(part);
+            if (!part.renameTo(target)) {
+                throw new IOException("无法重命名备份文件: " + part.getPath());
+            }
+        } catch (IOException | SQLException | RuntimeException e) {
+            part.delete();
+            logger.severe("备份数据库时发生错误: " + e.getMessage());
+            throw e;
+        }
+        logger.info("数据库备份完成: " + target.getName() + " (" + (rows >= 0 ? rows + " 行, " : "")
+            + target.length() / 1024 + "KB, 耗时 " + (System.currentTimeMillis() - start) + "ms)");
+        pruneExpired(config.getInt("backup.retention-days", 7));
+        return target;
+    }
+
+    /**
+     * SQLite 在线快照：VACUUM INTO 在一个读事务中复制整个数据库，WAL 模式下不阻塞写入
+     * 只读取源库，单写模式下走只读连接池，不占用写线程
+     * @return -1（快照不逐行统计）
+     */
+    private long snapshotSqlite(File target) throws SQLException {
+        try (Connection conn = databaseManager.getConsistentReadConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("VACUUM INTO '" + target.getAbsolutePath().replace("'", "''") + "'");
+        }
+        return -1;
+    }
+
+    /**
+     * 逐表流式导出：每张表先写一行表头 {"table":..., "columns":[...]}，之后每行一个 {"row":[...]}
+     * 所有表在同一个 REPEATABLE READ 事务中读取，导出的是同一时刻的一致快照
+     */
+    private long exportTables(File target) throws IOException, SQLException {
+        long rows = 0;
+        try (Connection conn = databaseManager.getConnection();
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                 new GZIPOutputStream(new FileOutputStream(target)), StandardCharsets.UTF_8))) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setAutoCommit(false);
+            try {
+                rows = exportTables(conn, writer);
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        return rows;
+    }
+
+    private long exportTables(Connection conn, Writer writer) throws IOException, SQLException {
+        long rows = 0;
+        for (String table : TableWriter.listTables(conn, SKIPPED_TABLES)) {
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // MySQL 驱动只有在 fetchSize 为 Integer.MIN_VALUE 时逐行读取结果，否则会把整张表读入内存
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                try (ResultSet rs = stmt.executeQuery("SELECT * FROM " + table)) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    int columnCount = meta.getColumnCount();
+                    JsonObject header = new JsonObject();
+                    header.addProperty("table", table);
+                    JsonArray columns = new JsonArray();
+                    for (int i = 1; i <= columnCount; i++) {
+                        columns.add(meta.getColumnLabel(i));
+                    }
+                    header.add("columns", columns);
+                    writer.write(header.toString());
+                    writer.write('\n');
+
+                    while (rs.next()) {
+                        JsonArray values = new JsonArray(columnCount);
+                        for (int i = 1; i <= columnCount; i++) {
+                            values.add(toJson(rs, i, meta.getColumnType(i)));
+                        }
+                        JsonObject row = new JsonObject();
+                        row.add("row", values);
+                        writer.write(row.toString());
+                        writer.write('\n');
+                        rows++;
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static JsonElement toJson(ResultSet rs, int index, int sqlType) throws SQLException {
+        JsonElement value;
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                value = new JsonPrimitive(rs.getLong(index));
+                break;
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                value = new JsonPrimitive(rs.getDouble(index));
+                break;
+            case Types.BIT:
+            case Types.BOOLEAN:
+                value = new JsonPrimitive(rs.getBoolean(index));
+                break;
+            default:
+                String text = rs.getString(index);
+                value = text != null ? new JsonPrimitive(text) : JsonNull.INSTANCE;
+                break;
+        }
+        return rs.wasNull() ? JsonNull.INSTANCE : value;
+    }
+
+    /**
+     * 删除超过保留天数的备份（0 表示永久保留）
+     */
+    private void pruneExpired(int retentionDays) {
+        if (retentionDays <= 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        for (File file : listBackups()) {
+            if (file.lastModified() < cutoff) {
+                if (file.delete()) {
+                    logger.info("已删除过期的数据库备份: " + file.getName());
+                } else {
+                    logger.warning("无法删除过期的数据库备份: " + file.getName());
+                }
+            }
+        }
+    }
+
+    private boolean isBackupFile(File file) {
+        String name = file.getName();
+        return name.startsWith(FILE_PREFIX) && (name.endsWith(SNAPSHOT_SUFFIX) || name.endsWith(EXPORT_SUFFIX));
+    }
+
+    // ==================== 恢复 ====================
+
+    /**
+     * 在一个事务中清空当前数据并从备份写回，提交后重新加载缓存
+     * SQLite 下事务在写线程上执行，恢复期间其他写入排队等待
+     */
+    private long restoreFrom(File file) throws IOException, SQLException {
+        int batchSize = Math.max(1, plugin.getConfigManager().getDatabaseConfig().getInt("backup.restore-batch-size", 500));
+        boolean sqlite = databaseManager.getDatabaseType() == DatabaseManager.DatabaseType.SQLITE;
+        logger.info("开始从备份恢复数据库: " + file.getName());
+        long start = System.currentTimeMillis();
+
+        long rows;
+        try {
+            rows = databaseManager.executeInTransaction(unitOfWork -> {
+                Connection conn = unitOfWork.getConnection();
+                // 表的写回顺序与外键无关：SQLite 推迟到提交时检查，MySQL 在本连接上暂时关闭检查
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(sqlite ? "PRAGMA defer_foreign_keys = ON" : "SET FOREIGN_KEY_CHECKS = 0");
+                }
+                try {
+                    TableWriter inserter = new TableWriter(conn, batchSize, TableWriter.listTables(conn, SKIPPED_TABLES));
+                    for (String table : inserter.getTables()) {
+                        try (Statement stmt = conn.createStatement()) {
+                            stmt.executeUpdate("DELETE FROM " + table);
+                        }
+                    }
+                    if (file.getName().endsWith(EXPORT_SUFFIX)) {
+                        readExport(file, inserter);
+                    } else {
+                        readSnapshot(file, inserter);
+                    }
+                    inserter.finish();
+                    return inserter.getRowCount();
+                } finally {
+                    if (!sqlite) {
+                        try (Statement stmt = conn.createStatement()) {
+                            stmt.execute("SET FOREIGN_KEY_CHECKS = 1");
+                        }
+                    }
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            logger.severe("从备份恢复数据库时发生错误: " + e.getMessage());
+            throw e;
+        }
+        logger.info("数据库恢复完成: " + rows + " 行 (耗时 " + (System.currentTimeMillis() - start) + "ms)");
+        guildService.reloadAfterRestore();
+        return rows;
+    }
+
+    private void readExport(File file, TableWriter inserter) throws SQLException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                 new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+                if (record.has("table")) {
+                    List<String> columns = new ArrayList<>();
+                    for (JsonElement column : record.getAsJsonArray("columns")) {
+                        columns.add(column.getAsString());
+                    }
+                    inserter.beginTable(record.get("table").getAsString(), columns);
+                } else {
+                    JsonArray values = record.getAsJsonArray("row");
+                    Object[] row = new Object[values.size()];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = fromJson(values.get(i));
+                    }
+                    inserter.insert(row);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new SQLException("读取备份文件失败: " + e.getMessage(), e);
+        }
+    }
+
+    private static Object fromJson(JsonElement element) {
+        if (element.isJsonNull()) {
+            return null;
+        }
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        if (primitive.isBoolean()) {
+            return primitive.getAsBoolean();
+        }
+        if (primitive.isNumber()) {
+            String number = primitive.getAsString();
+            return number.contains(".") || number.contains("E") || number.contains("e")
+                ? (Object) primitive.getAsDouble() : (Object) primitive.getAsLong();
+        }
+        return primitive.getAsString();
+    }
+
+    /**
+     * 读取 SQLite 快照文件（可恢复到任意类型的数据库）
+     */
+    private void readSnapshot(File file, TableWriter inserter) throws SQLException {
+        try (Connection source = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath())) {
+            for (String table : TableWriter.listTables(source, SKIPPED_TABLES)) {
+                try (Statement stmt = source.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT * FROM " + table)) {
+                    List<String> columns = TableWriter.columnNames(rs.getMetaData());
+                    inserter.beginTable(table, columns);
+                    Object[] row = new Object[columns.size()];
+                    while (rs.next()) {
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = rs.getObject(i + 1);
+                        }
+                        inserter.insert(row);
+                    }
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface BackupTask<T> {
+        T run() throws IOException, SQLException;
+    }
+}
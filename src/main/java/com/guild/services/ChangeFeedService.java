@@ -0,0 +1,273 @@
+package com.guild.services;
+
+import com.guild.GuildPlugin;
+import com.guild.core.database.DatabaseManager;
+import com.guild.core.database.UnitOfWork;
+import com.guild.core.time.TimeProvider;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 跨服数据变更同步 - 多个服务器共用一个数据库时，通过 guild_changes 表互相通知缓存失效
+ * 本服的变更记录与写入在同一事务中提交，同时轮询其他服务器记录的变更并失效对应的本地缓存
+ */
+public class ChangeFeedService {
+
+    public static final String ENTITY_GUILD = "GUILD";
+    public static final String ENTITY_PLAYER = "PLAYER";
+    public static final String ENTITY_RELATION = "RELATION";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO guild_changes (server_id, entity_type, entity_id, created_at, created_ms) VALUES (?, ?, ?, ?, ?)";
+    // 同时等待的空洞ID上限，以及每次补查的空洞ID数量
+    private static final int MAX_TRACKED_GAPS = 1000;
+    private static final int GAP_QUERY_CHUNK = 500;
+
+    private final GuildPlugin plugin;
+    private final DatabaseManager databaseManager;
+    private final GuildService guildService;
+    private final Logger logger;
+    private final ScheduledExecutorService scheduler;
+    // 本次启动的服务器标识，轮询时跳过自己写入的变更
+    private final String serverId = UUID.randomUUID().toString();
+    private volatile boolean enabled;
+    private long lastSeenId;
+    // 已越过但尚未读到的ID → 发现的本地时间
+    // 可能是其他服务器尚未提交的事务，也可能是回滚或自增步长造成的永久空洞，超过 gap-timeout 后不再等待
+    private final NavigableMap<Long, Long> missingIds = new TreeMap<>();
+    private boolean leaderboardDirty;
+    private long leaderboardLoadedAt;
+    private long lastPurgeAt;
+
+    public ChangeFeedService(GuildPlugin plugin, DatabaseManager databaseManager, GuildService guildService) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.guildService = guildService;
+        this.logger = plugin.getLogger();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Guild-ChangeFeed");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 按 database.yml 的 change-feed 配置启动轮询（需在数据库初始化之后调用）
+     */
+    public void start() {
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        if (!config.getBoolean("change-feed.enabled", false)) {
+            return;
+        }
+        try {
+            lastSeenId = loadMaxId();
+        } catch (SQLException e) {
+            logger.severe("启动跨服数据同步时发生错误: " + e.getMessage());
+            return;
+        }
+        leaderboardLoadedAt = System.currentTimeMillis();
+        enabled = true;
+        long interval = Math.max(100, config.getLong("change-feed.poll-interval", 2000));
+        scheduler.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("跨服数据同步已启动: 每 " + interval + "ms 轮询一次 (服务器标识: " + serverId + ")");
+    }
+
+    /**
+     * 停止轮询
+     */
+    public void shutdown(long timeoutMillis) {
+        if (!enabled) {
+            return;
+        }
+        enabled = false;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("跨服数据同步任务未能在 " + timeoutMillis + "ms 内结束");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 在写入的事务中记录本服对工会/玩家的修改，随事务一起提交或回滚
+     * guildId <= 0 或 playerUuid 为 null 表示不涉及该维度
+     */
+    public void record(UnitOfWork unitOfWork, int guildId, UUID playerUuid) throws SQLException {
+        if (!enabled) {
+            return;
+        }
+        if (guildId > 0) {
+            queue(unitOfWork, ENTITY_GUILD, String.valueOf(guildId));
+        }
+        if (playerUuid != null) {
+            queue(unitOfWork, ENTITY_PLAYER, playerUuid.toString());
+        }
+    }
+
+    /**
+     * 在写入的事务中记录本服对工会关系的修改（其他服务器会重新加载关系图）
+     */
+    public void recordRelationChange(UnitOfWork unitOfWork) throws SQLException {
+        if (enabled) {
+            queue(unitOfWork, ENTITY_RELATION, "0");
+        }
+    }
+
+    private void queue(UnitOfWork unitOfWork, String entityType, String entityId) throws SQLException {
+        long now = TimeProvider.nowMillis();
+        unitOfWork.queue(INSERT_SQL, serverId, entityType, entityId, TimeProvider.formatMillis(now), now);
+    }
+
+    private void tick() {
+        try {
+            poll();
+            refreshLeaderboardIfDue();
+        } catch (Exception e) {
+            logger.severe("跨服数据同步时发生错误: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 读取新的变更并失效本地缓存
+     * 自增ID按分配顺序而非提交顺序可见：越过的空洞ID单独记下，之后的变更照常应用（失效缓存与顺序无关），
+     * 每次轮询补查仍在等待的空洞ID，超过 gap-timeout 仍未出现的不再等待
+     */
+    private void poll() throws SQLException {
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        int batchSize = Math.max(1, config.getInt("change-feed.batch-size", 500));
+        long gapTimeout = Math.max(0, config.getLong("change-feed.gap-timeout", 10000));
+        long now = System.currentTimeMillis();
+        missingIds.values().removeIf(since -> now - since >= gapTimeout);
+        boolean relationsChanged = false;
+
+        try (Connection conn = databaseManager.getConsistentReadConnection()) {
+            if (!missingIds.isEmpty()) {
+                List<Long> ids = new ArrayList<>(missingIds.keySet());
+                List<Long> chunk = ids.subList(0, Math.min(ids.size(), GAP_QUERY_CHUNK));
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT id, server_id, entity_type, entity_id FROM guild_changes WHERE id IN (" +
+                        String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setLong(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            missingIds.remove(rs.getLong("id"));
+                            relationsChanged |= applyRow(rs);
+                        }
+                    }
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT id, server_id, entity_type, entity_id FROM guild_changes WHERE id > ? ORDER BY id LIMIT ?")) {
+                stmt.setLong(1, lastSeenId);
+                stmt.setInt(2, batchSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long id = rs.getLong("id");
+                        for (long missing = lastSeenId + 1; missing < id && missingIds.size() < MAX_TRACKED_GAPS; missing++) {
+                            missingIds.put(missing, now);
+                        }
+                        lastSeenId = id;
+                        relationsChanged |= applyRow(rs);
+                    }
+                }
+            }
+        }
+        if (relationsChanged) {
+            guildService.loadRelationGraph();
+        }
+        purgeExpired(config);
+    }
+
+    /**
+     * 应用读取到的一行变更（跳过本服写入的），返回是否需要重新加载关系图
+     */
+    private boolean applyRow(ResultSet rs) throws SQLException {
+        if (serverId.equals(rs.getString("server_id"))) {
+            return false;
+        }
+        return apply(rs.getString("entity_type"), rs.getString("entity_id"));
+    }
+
+    /**
+     * 应用一条其他服务器的变更，返回是否需要重新加载关系图
+     */
+    private boolean apply(String entityType, String entityId) {
+        try {
+            switch (entityType) {
+                case ENTITY_GUILD:
+                    guildService.applyRemoteGuildChange(Integer.parseInt(entityId));
+                    guildService.getStatistics().invalidate();
+                    leaderboardDirty = true;
+                    return false;
+                case ENTITY_PLAYER:
+                    guildService.applyRemotePlayerChange(UUID.fromString(entityId));
+                    // 成员加入/退出会改变成员总数
+                    guildService.getStatistics().invalidate();
+                    return false;
+                case ENTITY_RELATION:
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warning("忽略无法识别的跨服数据变更: " + entityType + ":" + entityId);
+            return false;
+        }
+    }
+
+    /**
+     * 其他服务器的改动无法增量应用到排行榜，按 leaderboard-refresh 间隔整体重新加载
+     */
+    private void refreshLeaderboardIfDue() {
+        long refreshMillis = plugin.getConfigManager().getDatabaseConfig().getLong("change-feed.leaderboard-refresh", 60) * 1000L;
+        long now = System.currentTimeMillis();
+        if (leaderboardDirty && now - leaderboardLoadedAt >= refreshMillis) {
+            leaderboardDirty = false;
+            leaderboardLoadedAt = now;
+            guildService.getLeaderboard().load();
+        }
+    }
+
+    /**
+     * 删除超过 keep-minutes 的变更记录（每分钟最多执行一次）
+     */
+    private void purgeExpired(FileConfiguration config) throws SQLException {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeAt < 60000) {
+            return;
+        }
+        lastPurgeAt = now;
+        int keepMinutes = Math.max(1, config.getInt("change-feed.keep-minutes", 60));
+        databaseManager.update("DELETE FROM guild_changes WHERE created_ms < ?", TimeProvider.plusMinutesMillis(-keepMinutes));
+    }
+
+    private long loadMaxId() throws SQLException {
+        try (Connection conn = databaseManager.getConsistentReadConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT MAX(id) FROM guild_changes");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
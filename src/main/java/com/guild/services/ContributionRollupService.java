@@ -0,0 +1,196 @@
+package com.guild.services;
+
+import com.guild.GuildPlugin;
+import com.guild.core.database.DatabaseManager;
+import com.guild.core.time.TimeProvider;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * 贡献记录按日汇总任务 - 定期把超过保留天数的原始贡献记录压缩到 guild_contribution_daily
+ * 每批在一个事务中完成"汇总写入 + 删除原始记录"，贡献总额表不受影响
+ * 日期按 created_ms 在服务器时区下换算；尚未回填 created_ms 的旧行留到回填完成后的下一次运行
+ */
+public class ContributionRollupService {
+
+    // 可以使用 created_ms 索引的范围条件
+    private static final String OLDER_THAN = "created_ms < ?";
+
+    private final GuildPlugin plugin;
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopped;
+    private volatile long lastRunRows;
+
+    public ContributionRollupService(GuildPlugin plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.logger = plugin.getLogger();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Guild-ContributionRollup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 按 database.yml 的 contribution-rollup 配置启动定时汇总（需在数据库初始化之后调用）
+     */
+    public void start() {
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        if (!config.getBoolean("contribution-rollup.enabled", false)) {
+            return;
+        }
+        long initialDelay = Math.max(0, config.getLong("contribution-rollup.initial-delay", 30));
+        long interval = Math.max(1, config.getLong("contribution-rollup.interval", 1440));
+        scheduler.scheduleWithFixedDelay(() -> {
+            if (running.compareAndSet(false, true)) {
+                try {
+                    rollup();
+                } finally {
+                    running.set(false);
+                }
+            }
+        }, initialDelay, interval, TimeUnit.MINUTES);
+        logger.info("贡献记录按日汇总已启动: 每 " + interval + " 分钟运行一次");
+    }
+
+    /**
+     * 停止定时汇总；正在运行的汇总会在当前批次结束后退出
+     */
+    public void shutdown(long timeoutMillis) {
+        stopped = true;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("贡献记录汇总任务未能在 " + timeoutMillis + "ms 内结束");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 最近一次运行压缩的原始记录数
+     */
+    public long getLastRunRows() {
+        return lastRunRows;
+    }
+
+    /**
+     * 分批压缩早于 keep-days 天（按自然日对齐）的原始贡献记录
+     */
+    private void rollup() {
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        int keepDays = Math.max(1, config.getInt("contribution-rollup.keep-days", 90));
+        int chunkSize = Math.max(1, config.getInt("contribution-rollup.chunk-size", 1000));
+        long pauseMillis = Math.max(0, config.getLong("contribution-rollup.chunk-pause", 200));
+        // 对齐到当天零点，保证被压缩的每一天都是完整的
+        long cutoff = TimeProvider.toMillis(TimeProvider.nowLocalDateTime().toLocalDate().minusDays(keepDays).atStartOfDay());
+
+        boolean sqlite = databaseManager.getDatabaseType() == DatabaseManager.DatabaseType.SQLITE;
+        String selectSql = "SELECT guild_id, player_uuid, contribution_type, amount, created_ms FROM guild_contributions " +
+            "WHERE id >= ? AND id < ? AND " + OLDER_THAN;
+        String upsertSql = "INSERT INTO guild_contribution_daily (guild_id, player_uuid, contribution_type, day, total, entry_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?)" +
+            (sqlite
+                ? " ON CONFLICT (guild_id, player_uuid, contribution_type, day) DO UPDATE SET " +
+                  "total = total + excluded.total, entry_count = entry_count + excluded.entry_count"
+                : " ON DUPLICATE KEY UPDATE total = total + VALUES(total), entry_count = entry_count + VALUES(entry_count)");
+        String deleteSql = "DELETE FROM guild_contributions WHERE id >= ? AND id < ? AND " + OLDER_THAN;
+
+        long started = System.currentTimeMillis();
+        long rows = 0;
+        try {
+            long[] range = loadIdRange(cutoff);
+            if (range == null) {
+                lastRunRows = 0;
+                return;
+            }
+            for (long from = range[0]; from <= range[1] && !stopped; from += chunkSize) {
+                long to = Math.min(from + chunkSize, range[1] + 1);
+                long chunkFrom = from;
+                // 汇总与删除在同一事务中提交（SQLite 单写模式下排队到写线程）
+                rows += databaseManager.executeInTransaction(unitOfWork -> {
+                    for (Map.Entry<List<Object>, double[]> daily : sumByDay(unitOfWork.getConnection(), selectSql, chunkFrom, to, cutoff).entrySet()) {
+                        List<Object> key = daily.getKey();
+                        unitOfWork.queue(upsertSql, key.get(0), key.get(1), key.get(2), key.get(3),
+                            daily.getValue()[0], (long) daily.getValue()[1]);
+                    }
+                    return unitOfWork.update(deleteSql, chunkFrom, to, cutoff);
+                });
+                if (pauseMillis > 0 && to <= range[1]) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (SQLException e) {
+            logger.severe("汇总贡献记录时发生错误: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        lastRunRows = rows;
+        if (rows > 0) {
+            logger.info("已将 " + rows + " 条旧贡献记录压缩为按日汇总 (耗时 " + (System.currentTimeMillis() - started) + "ms)");
+        }
+    }
+
+    /**
+     * 按 (工会, 玩家, 类型, 日期) 汇总一个ID区间内的过期记录：键 -> {金额合计, 条数}
+     * 日期由 created_ms 按服务器时区换算，与写入和显示使用同一个时区，不依赖数据库会话时区
+     */
+    private Map<List<Object>, double[]> sumByDay(Connection conn, String selectSql, long from, long to, long cutoff) throws SQLException {
+        Map<List<Object>, double[]> totals = new LinkedHashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+            stmt.setLong(1, from);
+            stmt.setLong(2, to);
+            stmt.setLong(3, cutoff);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate day = TimeProvider.fromMillis(rs.getLong(5)).toLocalDate();
+                    List<Object> key = List.of(rs.getInt(1), rs.getString(2), rs.getString(3), day.format(TimeProvider.DATE_FORMATTER));
+                    double[] total = totals.computeIfAbsent(key, k -> new double[2]);
+                    total[0] += rs.getDouble(4);
+                    total[1]++;
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * 需要扫描的ID区间 [最小ID, 最大ID]，没有需要压缩的记录时返回 null
+     */
+    private long[] loadIdRange(long cutoff) throws SQLException {
+        try (Connection conn = databaseManager.getConsistentReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT MIN(id), MAX(id) FROM guild_contributions WHERE " + OLDER_THAN)) {
+            stmt.setLong(1, cutoff);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getObject(1) != null) {
+                    return new long[] {rs.getLong(1), rs.getLong(2)};
+                }
+            }
+        }
+        return null;
+    }
+}
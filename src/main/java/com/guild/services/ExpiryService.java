@@ -0,0 +1,273 @@
+package com.guild.services;
+
+import com.guild.GuildPlugin;
+import com.guild.core.database.DatabaseManager;
+import com.guild.core.time.TimeProvider;
+import com.guild.models.GuildRelation;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 到期处理 - 把超时未处理的邀请、工会关系请求和入会申请标记为 EXPIRED
+ * 启动时用索引范围查询加载一次所有待处理记录的到期时间，之后新建的记录由 GuildService 登记
+ * 到期时间保存在内存中的最小堆里，每次检查只取出已到期的部分，按类型合并为少量批量 UPDATE，不扫描数据表
+ */
+public class ExpiryService {
+
+    // 每条 UPDATE 的 IN 列表最多包含的ID数
+    private static final int UPDATE_CHUNK = 500;
+
+    private final GuildPlugin plugin;
+    private final DatabaseManager databaseManager;
+    private final GuildService guildService;
+    private final Logger logger;
+    private final ScheduledExecutorService scheduler;
+    // 按到期时间排序的待处理记录；已被处理（接受、拒绝等）的记录留在堆里，到期时的 UPDATE 不会匹配到它们
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>();
+    // 重新加载期间登记的记录，加载完成后并入新的堆（加载的查询可能没有读到它们）
+    private List<Deadline> registeredDuringReload;
+    private volatile boolean enabled;
+    private volatile long applicationMillis;
+    private volatile long expiredCount;
+
+    public ExpiryService(GuildPlugin plugin, DatabaseManager databaseManager, GuildService guildService) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.guildService = guildService;
+        this.logger = plugin.getLogger();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Guild-Expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 按 database.yml 的 expiry 配置加载到期时间并开始定时检查（需在数据库初始化之后调用）
+     */
+    public void start() {
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        if (!config.getBoolean("expiry.enabled", true)) {
+            return;
+        }
+        applicationMillis = TimeUnit.DAYS.toMillis(Math.max(0, config.getInt("expiry.application-days", 7)));
+        enabled = true;
+        if (!reload()) {
+            enabled = false;
+            return;
+        }
+        long interval = Math.max(1, config.getLong("expiry.check-interval", 5));
+        long reloadInterval = Math.max(1, config.getLong("expiry.reload-interval", 30));
+        scheduler.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.SECONDS);
+        // 其他服务器新建的记录不会登记到本服，定期重新加载一次
+        scheduler.scheduleWithFixedDelay(this::reload, reloadInterval, reloadInterval, TimeUnit.MINUTES);
+        logger.info("到期处理已启动: " + size() + " 条待处理记录，每 " + interval + " 秒检查一次");
+    }
+
+    /**
+     * 停止定时检查
+     */
+    public void shutdown(long timeoutMillis) {
+        enabled = false;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("到期处理任务未能在 " + timeoutMillis + "ms 内结束");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 登记新建的邀请或关系请求的到期时间
+     */
+    public void register(Kind kind, int id, long expiresMillis) {
+        if (!enabled || id <= 0) {
+            return;
+        }
+        Deadline deadline = new Deadline(expiresMillis, kind, id);
+        synchronized (deadlines) {
+            deadlines.add(deadline);
+            if (registeredDuringReload != null) {
+                registeredDuringReload.add(deadline);
+            }
+        }
+    }
+
+    /**
+     * 登记新提交的入会申请（application-days 为 0 时申请不会过期）
+     */
+    public void registerApplication(int id, long createdMillis) {
+        if (applicationMillis > 0) {
+            register(Kind.APPLICATION, id, createdMillis + applicationMillis);
+        }
+    }
+
+    public int size() {
+        synchronized (deadlines) {
+            return deadlines.size();
+        }
+    }
+
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        Map<Kind, List<Integer>> due = new EnumMap<>(Kind.class);
+        synchronized (deadlines) {
+            while (!deadlines.isEmpty() && deadlines.peek().millis <= now) {
+                Deadline deadline = deadlines.poll();
+                due.computeIfAbsent(deadline.kind, kind -> new ArrayList<>()).add(deadline.id);
+            }
+        }
+        for (Map.Entry<Kind, List<Integer>> entry : due.entrySet()) {
+            try {
+                expire(entry.getKey(), entry.getValue(), now);
+            } catch (SQLException e) {
+                logger.severe("处理过期" + entry.getKey().displayName + "时发生错误: " + e.getMessage());
+                // 放回堆中，下次检查时重试
+                synchronized (deadlines) {
+                    for (int id : entry.getValue()) {
+                        deadlines.add(new Deadline(now, entry.getKey(), id));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 在一个事务中把到期的记录标记为 EXPIRED，每 UPDATE_CHUNK 个ID一条语句
+     * 条件中再次检查状态与到期时间，期间已被处理或延期的记录不受影响
+     */
+    private void expire(Kind kind, List<Integer> ids, long now) throws SQLException {
+        Collections.sort(ids);
+        int expired = databaseManager.executeInTransaction(unitOfWork -> {
+            int rows = 0;
+            for (int from = 0; from < ids.size(); from += UPDATE_CHUNK) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + UPDATE_CHUNK));
+                List<Object> params = new ArrayList<>(chunk.size() + 3);
+                String set = "status = 'EXPIRED'";
+                if (kind == Kind.RELATION) {
+                    set += ", updated_at = ?, updated_ms = ?";
+                    params.add(TimeProvider.formatMillis(now));
+                    params.add(now);
+                }
+                params.addAll(chunk);
+                params.add(kind == Kind.APPLICATION ? now - applicationMillis : now);
+                rows += unitOfWork.update("UPDATE " + kind.table + " SET " + set + " WHERE id IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") AND status = 'PENDING' AND " +
+                    kind.deadlineColumn + " <= ?", params.toArray());
+            }
+            if (kind == Kind.RELATION && rows > 0) {
+                guildService.getChangeFeed().recordRelationChange(unitOfWork);
+            }
+            return rows;
+        });
+        if (expired == 0) {
+            return;
+        }
+        expiredCount += expired;
+        if (kind == Kind.RELATION) {
+            for (int id : ids) {
+                GuildRelation relation = guildService.getRelationGraph().getRelation(id);
+                if (relation != null && relation.getStatus() == GuildRelation.RelationStatus.PENDING) {
+                    guildService.getRelationGraph().updateStatus(id, GuildRelation.RelationStatus.EXPIRED);
+                }
+            }
+        }
+        logger.info("已将 " + expired + " 条过期的" + kind.displayName + "标记为已过期");
+    }
+
+    /**
+     * 从数据库重新加载所有待处理记录的到期时间（按 (status, 到期列) 索引读取）
+     */
+    private boolean reload() {
+        PriorityQueue<Deadline> loaded = new PriorityQueue<>();
+        synchronized (deadlines) {
+            registeredDuringReload = new ArrayList<>();
+        }
+        try (Connection conn = databaseManager.getReadConnection()) {
+            for (Kind kind : Kind.values()) {
+                if (kind == Kind.APPLICATION && applicationMillis <= 0) {
+                    continue;
+                }
+                long offset = kind == Kind.APPLICATION ? applicationMillis : 0;
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT id, " + kind.deadlineColumn + " FROM " + kind.table +
+                         " WHERE status = 'PENDING' AND " + kind.deadlineColumn + " IS NOT NULL")) {
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            loaded.add(new Deadline(rs.getLong(2) + offset, kind, rs.getInt(1)));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.severe("加载待处理记录的到期时间时发生错误: " + e.getMessage());
+            synchronized (deadlines) {
+                registeredDuringReload = null;
+            }
+            return false;
+        }
+        synchronized (deadlines) {
+            loaded.addAll(registeredDuringReload);
+            registeredDuringReload = null;
+            deadlines.clear();
+            deadlines.addAll(loaded);
+        }
+        return true;
+    }
+
+    /**
+     * 会过期的记录类型
+     */
+    public enum Kind {
+        INVITE("guild_invites", "expires_ms", "邀请"),
+        RELATION("guild_relations", "expires_ms", "关系请求"),
+        // 申请没有到期列，按提交时间加 application-days 计算
+        APPLICATION("guild_applications", "created_ms", "入会申请");
+
+        private final String table;
+        private final String deadlineColumn;
+        private final String displayName;
+
+        Kind(String table, String deadlineColumn, String displayName) {
+            this.table = table;
+            this.deadlineColumn = deadlineColumn;
+            this.displayName = displayName;
+        }
+    }
+
+    private static final class Deadline implements Comparable<Deadline> {
+        private final long millis;
+        private final Kind kind;
+        private final int id;
+
+        Deadline(long millis, Kind kind, int id) {
+            this.millis = millis;
+            this.kind = kind;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Deadline other) {
+            return Long.compare(millis, other.millis);
+        }
+    }
+}
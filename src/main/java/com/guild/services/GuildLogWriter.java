@@ -0,0 +1,278 @@
+package com.guild.services;
+
+import com.guild.GuildPlugin;
+import com.guild.core.database.DatabaseManager;
+import com.guild.core.time.TimeProvider;
+import com.guild.models.GuildLog;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.logging.Logger;
+
+/**
+ * 工会日志批量写入器 - 将日志放入队列，由后台线程合并为一个批次在单个事务中写入
+ * 达到 batch-size 条或距批次第一条日志超过 flush-interval 毫秒时写入
+ */
+public class GuildLogWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO guild_logs (guild_id, guild_name, player_uuid, player_name, log_type, description, details, created_at, created_ms) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    // 每条日志提交成功后以工会ID回调
+    private final IntConsumer writtenListener;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final LinkedBlockingQueue<PendingLog> queue;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    // 统计信息
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile int peakQueueSize;
+
+    public GuildLogWriter(GuildPlugin plugin, DatabaseManager databaseManager, IntConsumer writtenListener) {
+        this.databaseManager = databaseManager;
+        this.logger = plugin.getLogger();
+        this.writtenListener = writtenListener;
+
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        this.batchSize = Math.max(1, config.getInt("log-writer.batch-size", 100));
+        this.flushIntervalMillis = Math.max(1, config.getLong("log-writer.flush-interval", 500));
+        this.queue = new LinkedBlockingQueue<>(Math.max(batchSize, config.getInt("log-writer.max-queue-size", 10000)));
+
+        this.writerThread = new Thread(this::runLoop, "Guild-LogWriter");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * 将日志加入写入队列，写入完成后 future 返回结果
+     * 队列已满时改为在数据库线程池上逐条写入
+     */
+    public CompletableFuture<Boolean> enqueue(int guildId, String guildName, String playerUuid, String playerName,
+                                              GuildLog.LogType logType, String description, String details) {
+        PendingLog log = new PendingLog(guildId, guildName, playerUuid, playerName, logType.name(),
+            description, details, TimeProvider.nowMillis());
+
+        if (running && queue.offer(log)) {
+            enqueuedCount.incrementAndGet();
+            int size = queue.size();
+            if (size > peakQueueSize) {
+                peakQueueSize = size;
+            }
+            return log.future;
+        }
+
+        long overflow = overflowCount.incrementAndGet();
+        if (overflow == 1 || overflow % 1000 == 0) {
+            logger.warning("工会日志写入队列已满或已关闭，改为逐条写入 (累计 " + overflow + " 条)");
+        }
+        return databaseManager.supplyAsync(() -> {
+            List<PendingLog> single = new ArrayList<>(1);
+            single.add(log);
+            flush(single);
+            return log.future.join();
+        });
+    }
+
+    /**
+     * 停止接收新日志，并在超时时间内写完队列中剩余的日志
+     */
+    public void shutdown(long timeoutMillis) {
+        // 不中断写入线程，避免打断正在进行的JDBC操作；线程最多等待一个 flush-interval 后发现已停止
+        running = false;
+        try {
+            writerThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.warning("工会日志写入器未能在 " + timeoutMillis + "ms 内写完，剩余 " + queue.size() + " 条日志未写入");
+        } else {
+            logger.info("工会日志写入器已关闭，共写入 " + writtenCount.get() + " 条日志");
+        }
+    }
+
+    private void runLoop() {
+        List<PendingLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                // 被意外中断：把剩余日志全部取出，按批次写完后退出
+                running = false;
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                for (int from = 0; from < batch.size(); from += batchSize) {
+                    flush(batch.subList(from, Math.min(batch.size(), from + batchSize)));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 等待第一条日志，之后在 flush-interval 内尽量凑满一个批次
+     */
+    private void collectBatch(List<PendingLog> batch) throws InterruptedException {
+        if (!running) {
+            queue.drainTo(batch);
+            return;
+        }
+        PendingLog first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            if (batch.size() >= batchSize) {
+                break;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingLog> batch) {
+        long start = System.nanoTime();
+        boolean batchWritten = false;
+        try {
+            databaseManager.executeInTransaction(unitOfWork -> {
+                for (PendingLog log : batch) {
+                    unitOfWork.queue(INSERT_SQL, insertParams(log));
+                }
+                return null;
+            });
+            batchWritten = true;
+        } catch (SQLException e) {
+            logger.severe("批量写入工会日志时发生错误 (" + batch.size() + " 条): " + e.getMessage());
+        }
+
+        for (PendingLog log : batch) {
+            // 整批失败时逐条重试，一条坏数据（如工会已被删除导致的外键失败）不会连带丢弃同批的其他日志
+            boolean success = batchWritten || (batch.size() > 1 && writeSingle(log));
+            if (success) {
+                writtenCount.incrementAndGet();
+                writtenListener.accept(log.guildId);
+            } else {
+                failedCount.incrementAndGet();
+            }
+            log.future.complete(success);
+        }
+        totalFlushNanos.addAndGet(System.nanoTime() - start);
+        batchCount.incrementAndGet();
+        lastBatchSize = batch.size();
+    }
+
+    private boolean writeSingle(PendingLog log) {
+        try {
+            return databaseManager.update(INSERT_SQL, insertParams(log)) > 0;
+        } catch (SQLException e) {
+            logger.warning("丢弃无法写入的工会日志 (工会ID: " + log.guildId + ", 类型: " + log.logType + "): " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static Object[] insertParams(PendingLog log) {
+        return new Object[] {log.guildId, log.guildName, log.playerUuid, log.playerName, log.logType,
+            log.description, log.details, TimeProvider.formatMillis(log.createdMillis), log.createdMillis};
+    }
+
+    // ==================== 统计信息 ====================
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getPeakQueueSize() {
+        return peakQueueSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueuedCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    /**
+     * 平均每批写入耗时（毫秒）
+     */
+    public double getAverageFlushMillis() {
+        long batches = batchCount.get();
+        return batches > 0 ? totalFlushNanos.get() / 1_000_000.0 / batches : 0;
+    }
+
+    private static final class PendingLog {
+        private final int guildId;
+        private final String guildName;
+        private final String playerUuid;
+        private final String playerName;
+        private final String logType;
+        private final String description;
+        private final String details;
+        private final long createdMillis;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        PendingLog(int guildId, String guildName, String playerUuid, String playerName, String logType,
+                   String description, String details, long createdMillis) {
+            this.guildId = guildId;
+            this.guildName = guildName;
+            this.playerUuid = playerUuid;
+            this.playerName = playerName;
+            this.logType = logType;
+            this.description = description;
+            this.details = details;
+            this.createdMillis = createdMillis;
+        }
+    }
+}
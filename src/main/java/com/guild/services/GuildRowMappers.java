@@ -0,0 +1,329 @@
+package com.guild.services;
+
+import com.guild.core.database.ResultSetColumns;
+import com.guild.core.database.RowMapper;
+import com.guild.core.time.TimeProvider;
+import com.guild.models.Guild;
+import com.guild.models.GuildApplication;
+import com.guild.models.GuildContribution;
+import com.guild.models.GuildEconomy;
+import com.guild.models.GuildInvitation;
+import com.guild.models.GuildLog;
+import com.guild.models.GuildMember;
+import com.guild.models.GuildRelation;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 各数据表的行映射器 - 按 ResultSet 元数据解析一次列索引，之后逐行按索引读取
+ * 可选列（旧版本表结构中可能不存在）在解析时确定是否存在，缺失时使用默认值
+ */
+final class GuildRowMappers {
+
+    private GuildRowMappers() {}
+
+    static RowMapper<Guild> guild(ResultSet resultSet) throws SQLException {
+        ResultSetColumns columns = ResultSetColumns.of(resultSet);
+        int id = columns.require("id");
+        int name = columns.require("name");
+        int tag = columns.require("tag");
+        int description = columns.require("description");
+        int leaderUuid = columns.require("leader_uuid");
+        int leaderName = columns.require("leader_name");
+        int homeWorld = columns.index("home_world");
+        int homeX = columns.index("home_x");
+        int homeY = columns.index("home_y");
+        int homeZ = columns.index("home_z");
+        int homeYaw = columns.index("home_yaw");
+        int homePitch = columns.index("home_pitch");
+        int createdAt = columns.index("created_at");
+        int createdMs = columns.index("created_ms");
+        int updatedAt = columns.index("updated_at");
+        int updatedMs = columns.index("updated_ms");
+        int balance = columns.index("balance");
+        int level = columns.index("level");
+        int maxMembers = columns.index("max_members");
+        int frozen = columns.index("frozen");
+        return rs -> {
+            Guild guild = new Guild();
+            guild.setId(rs.getInt(id));
+            guild.setName(rs.getString(name));
+            guild.setTag(rs.getString(tag));
+            guild.setDescription(rs.getString(description));
+            guild.setLeaderUuid(UUID.fromString(rs.getString(leaderUuid)));
+            guild.setLeaderName(rs.getString(leaderName));
+
+            // 家的位置信息（home_world 为空时坐标使用默认值）
+            String world = homeWorld > 0 ? rs.getString(homeWorld) : null;
+            guild.setHomeWorld(world);
+            if (world != null) {
+                guild.setHomeX(homeX > 0 ? rs.getDouble(homeX) : 0.0);
+                guild.setHomeY(homeY > 0 ? rs.getDouble(homeY) : 0.0);
+                guild.setHomeZ(homeZ > 0 ? rs.getDouble(homeZ) : 0.0);
+                guild.setHomeYaw(homeYaw > 0 ? rs.getFloat(homeYaw) : 0.0f);
+                guild.setHomePitch(homePitch > 0 ? rs.getFloat(homePitch) : 0.0f);
+            } else {
+                guild.setHomeX(0.0);
+                guild.setHomeY(0.0);
+                guild.setHomeZ(0.0);
+                guild.setHomeYaw(0.0f);
+                guild.setHomePitch(0.0f);
+            }
+
+            guild.setCreatedAt(timestamp(rs, createdMs, createdAt));
+            guild.setUpdatedAt(timestamp(rs, updatedMs, updatedAt));
+            guild.setBalance(balance > 0 ? rs.getDouble(balance) : 0.0);
+            guild.setLevel(level > 0 ? rs.getInt(level) : 1);
+            guild.setMaxMembers(maxMembers > 0 ? rs.getInt(maxMembers) : 6);
+            guild.setFrozen(frozen > 0 && rs.getBoolean(frozen));
+            return guild;
+        };
+    }
+
+    static RowMapper<GuildMember> member(ResultSet resultSet) throws SQLException {
+        return member(ResultSetColumns.of(resultSet));
+    }
+
+    /**
+     * 按给定的列索引表映射成员，联表查询中成员列带别名前缀时配合 ResultSetColumns.withPrefix 使用
+     */
+    static RowMapper<GuildMember> member(ResultSetColumns columns) throws SQLException {
+        int id = columns.require("id");
+        int guildId = columns.require("guild_id");
+        int playerUuid = columns.require("player_uuid");
+        int playerName = columns.require("player_name");
+        int role = columns.require("role");
+        int joinedAt = columns.index("joined_at");
+        int joinedMs = columns.index("joined_ms");
+        return rs -> {
+            GuildMember member = new GuildMember();
+            member.setId(rs.getInt(id));
+            member.setGuildId(rs.getInt(guildId));
+            member.setPlayerUuid(UUID.fromString(rs.getString(playerUuid)));
+            member.setPlayerName(rs.getString(playerName));
+            member.setRole(GuildMember.Role.valueOf(rs.getString(role)));
+            member.setJoinedAt(timestamp(rs, joinedMs, joinedAt));
+            return member;
+        };
+    }
+
+    static RowMapper<GuildApplication> application(ResultSet resultSet) throws SQLException {
+        ResultSetColumns columns = ResultSetColumns.of(resultSet);
+        int id = columns.require("id");
+        int guildId = columns.require("guild_id");
+        int playerUuid = columns.require("player_uuid");
+        int playerName = columns.require("player_name");
+        int message = columns.require("message");
+        int status = columns.require("status");
+        int createdAt = columns.index("created_at");
+        int createdMs = columns.index("created_ms");
+        return rs -> {
+            GuildApplication application = new GuildApplication();
+            application.setId(rs.getInt(id));
+            application.setGuildId(rs.getInt(guildId));
+            application.setPlayerUuid(UUID.fromString(rs.getString(playerUuid)));
+            application.setPlayerName(rs.getString(playerName));
+            application.setMessage(rs.getString(message));
+            application.setStatus(GuildApplication.ApplicationStatus.valueOf(rs.getString(status)));
+            application.setCreatedAt(timestamp(rs, createdMs, createdAt));
+            return application;
+        };
+    }
+
+    static RowMapper<GuildInvitation> invitation(ResultSet resultSet) throws SQLException {
+        ResultSetColumns columns = ResultSetColumns.of(resultSet);
+        int id = columns.require("id");
+        int guildId = columns.require("guild_id");
+        int playerUuid = columns.require("player_uuid");
+        int playerName = columns.require("player_name");
+        int inviterUuid = columns.require("inviter_uuid");
+        int inviterName = columns.require("inviter_name");
+        int status = columns.require("status");
+        int createdAt = columns.index("created_at");
+        int createdMs = columns.index("created_ms");
+        int expiresAt = columns.index("expires_at");
+        int expiresMs = columns.index("expires_ms");
+        return rs -> {
+            GuildInvitation invitation = new GuildInvitation();
+            invitation.setId(rs.getInt(id));
+            invitation.setGuildId(rs.getInt(guildId));
+            invitation.setTargetUuid(UUID.fromString(rs.getString(playerUuid)));
+            invitation.setTargetName(rs.getString(playerName));
+            invitation.setInviterUuid(UUID.fromString(rs.getString(inviterUuid)));
+            invitation.setInviterName(rs.getString(inviterName));
+            invitation.setStatus(GuildInvitation.InvitationStatus.valueOf(rs.getString(status)));
+            invitation.setInvitedAt(timestamp(rs, createdMs, createdAt));
+            invitation.setExpiresAt(timestamp(rs, expiresMs, expiresAt));
+            return invitation;
+        };
+    }
+
+    static RowMapper<GuildRelation> relation(ResultSet resultSet) throws SQLException {
+        ResultSetColumns columns = ResultSetColumns.of(resultSet);
+        int id = columns.require("id");
+        int guild1Id = columns.require("guild1_id");
+        int guild2Id = columns.require("guild2_id");
+        int guild1Name = columns.require("guild1_name");
+        int guild2Name = columns.require("guild2_name");
+        int relationType = columns.require("relation_type");
+        int status = columns.require("status");
+        int initiatorUuid = columns.require("initiator_uuid");
+        int initiatorName = columns.require("initiator_name");
+        int createdAt = columns.index("created_at");
+        int createdMs = columns.index("created_ms");
+        int updatedAt = columns.index("updated_at");
+        int updatedMs = columns.index("updated_ms");
+        int expiresAt = columns.index("expires_at");
+        int expiresMs = columns.index("expires_ms");
+        return rs -> {
+            GuildRelation relation = new GuildRelation();
+            relation.setId(rs.getInt(id));
+            relation.setGuild1Id(rs.getInt(guild1Id));
+            relation.setGuild2Id(rs.getInt(guild2Id));
+            relation.setGuild1Name(rs.getString(guild1Name));
+            relation.setGuild2Name(rs.getString(guild2Name));
+            relation.setType(GuildRelation.RelationType.valueOf(rs.getString(relationType)));
+            relation.setStatus(GuildRelation.RelationStatus.valueOf(rs.getString(status)));
+            relation.setInitiatorUuid(UUID.fromString(rs.getString(initiatorUuid)));
+            relation.setInitiatorName(rs.getString(initiatorName));
+            relation.setCreatedAt(timestamp(rs, createdMs, createdAt));
+            relation.setUpdatedAt(timestamp(rs, updatedMs, updatedAt));
+            LocalDateTime expires = millis(rs, expiresMs);
+            if (expires == null && expiresAt > 0 && rs.getString(expiresAt) != null) {
+                expires = timestamp(rs, expiresAt);
+            }
+            relation.setExpiresAt(expires);
+            return relation;
+        };
+    }
+
+    static RowMapper<GuildEconomy> economy(ResultSet resultSet) throws SQLException {
+        ResultSetColumns columns = ResultSetColumns.of(resultSet);
+        int id = columns.require("id");
+        int guildId = columns.require("guild_id");
+        int balance = columns.require("balance");
+        int level = columns.require("level");
+        int experience = columns.require("experience");
+        int maxExperience = columns.require("max_experience");
+        int maxMembers = columns.require("max_members");
+        int lastUpdated = columns.index("last_updated");
+        int lastUpdatedMs = columns.index("last_updated_ms");
+        return rs -> {
+            GuildEconomy economy = new GuildEconomy();
+            economy.setId(rs.getInt(id));
+            economy.setGuildId(rs.getInt(guildId));
+            economy.setBalance(rs.getDouble(balance));
+            economy.setLevel(rs.getInt(level));
+            economy.setExperience(rs.getDouble(experience));
+            economy.setMaxExperience(rs.getDouble(maxExperience));
+            economy.setMaxMembers(rs.getInt(maxMembers));
+            economy.setLastUpdated(timestamp(rs, lastUpdatedMs, lastUpdated));
+            return economy;
+        };
+    }
+
+    static RowMapper<GuildContribution> contribution(ResultSet resultSet) throws SQLException {
+        ResultSetColumns columns = ResultSetColumns.of(resultSet);
+        int id = columns.require("id");
+        int guildId = columns.require("guild_id");
+        int playerUuid = columns.require("player_uuid");
+        int playerName = columns.require("player_name");
+        int amount = columns.require("amount");
+        int contributionType = columns.require("contribution_type");
+        int description = columns.require("description");
+        int createdAt = columns.index("created_at");
+        int createdMs = columns.index("created_ms");
+        return rs -> {
+            GuildContribution contribution = new GuildContribution();
+            contribution.setId(rs.getInt(id));
+            contribution.setGuildId(rs.getInt(guildId));
+            contribution.setPlayerUuid(UUID.fromString(rs.getString(playerUuid)));
+            contribution.setPlayerName(rs.getString(playerName));
+            contribution.setAmount(rs.getDouble(amount));
+            contribution.setType(GuildContribution.ContributionType.valueOf(rs.getString(contributionType)));
+            contribution.setDescription(rs.getString(description));
+            contribution.setCreatedAt(timestamp(rs, createdMs, createdAt));
+            return contribution;
+        };
+    }
+
+    static RowMapper<GuildLog> log(ResultSet resultSet) throws SQLException {
+        ResultSetColumns columns = ResultSetColumns.of(resultSet);
+        int id = columns.require("id");
+        int guildId = columns.require("guild_id");
+        int guildName = columns.require("guild_name");
+        int playerUuid = columns.require("player_uuid");
+        int playerName = columns.require("player_name");
+        int logType = columns.require("log_type");
+        int description = columns.require("description");
+        int details = columns.index("details");
+        int createdAt = columns.index("created_at");
+        int createdMs = columns.index("created_ms");
+        return rs -> {
+            GuildLog log = new GuildLog();
+            log.setId(rs.getInt(id));
+            log.setGuildId(rs.getInt(guildId));
+            log.setGuildName(rs.getString(guildName));
+            log.setPlayerUuid(rs.getString(playerUuid));
+            log.setPlayerName(rs.getString(playerName));
+            log.setLogType(GuildLog.LogType.valueOf(rs.getString(logType)));
+            log.setDescription(rs.getString(description));
+            log.setDetails(details > 0 ? rs.getString(details) : null);
+            // 日志没有创建时间时保持为空，不使用当前时间代替
+            LocalDateTime created = millis(rs, createdMs);
+            if (created == null && createdAt > 0 && rs.getString(createdAt) != null) {
+                created = timestamp(rs, createdAt);
+            }
+            log.setCreatedAt(created);
+            return log;
+        };
+    }
+
+    /**
+     * 读取时间：优先使用毫秒列，列不存在或尚未回填（NULL）时回退到旧的文本时间列
+     */
+    static LocalDateTime timestamp(ResultSet rs, int millisIndex, int textIndex) throws SQLException {
+        LocalDateTime value = millis(rs, millisIndex);
+        return value != null ? value : timestamp(rs, textIndex);
+    }
+
+    /**
+     * 读取毫秒列并按服务器时区转换，列不存在或为 NULL 时返回 null
+     */
+    static LocalDateTime millis(ResultSet rs, int index) throws SQLException {
+        if (index <= 0) {
+            return null;
+        }
+        long value = rs.getLong(index);
+        return rs.wasNull() ? null : TimeProvider.fromMillis(value);
+    }
+
+    /**
+     * 读取文本时间列：优先按字符串快速解析，避免驱动按时区转换导致偏差；解析失败时回退到驱动时间戳
+     * 列不存在或为空时返回当前时间
+     */
+    static LocalDateTime timestamp(ResultSet rs, int index) throws SQLException {
+        if (index <= 0) {
+            return LocalDateTime.now();
+        }
+        String text = rs.getString(index);
+        if (text != null && !text.isEmpty()) {
+            LocalDateTime parsed = TimeProvider.parse(text);
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        try {
+            Timestamp ts = rs.getTimestamp(index);
+            if (ts != null) {
+                return ts.toLocalDateTime();
+            }
+        } catch (SQLException ignore) {
+        }
+        return LocalDateTime.now();
+    }
+}
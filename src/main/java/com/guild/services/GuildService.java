@@ -1,7 +1,12 @@
 package com.guild.services;
 
 import com.guild.GuildPlugin;
+import com.guild.core.cache.GuildCache;
+import com.guild.core.cache.GuildRelationGraph;
 import com.guild.core.database.DatabaseManager;
+import com.guild.core.database.ResultSetColumns;
+import com.guild.core.database.RowMapper;
+import com.guild.core.events.GuildDataChangeEvent;
 import com.guild.models.Guild;
 import com.guild.models.GuildMember;
 import com.guild.models.GuildApplication;
@@ -10,36 +15,370 @@ import com.guild.models.GuildRelation;
 import com.guild.models.GuildEconomy;
 import com.guild.models.GuildContribution;
 import com.guild.models.GuildLog;
+import com.guild.models.GuildLogPage;
+import com.guild.models.PlayerGuildContext;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.sql.*;
-import java.time.LocalDateTime;
 import com.guild.core.time.TimeProvider;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import com.guild.core.utils.CompatibleScheduler;
 
 public class GuildService {
     
+    // 批量查询时每条 IN 列表最多包含的参数数
+    private static final int IN_CHUNK = 500;
+    
     private final GuildPlugin plugin;
     private final DatabaseManager databaseManager;
     private final Logger logger;
+    private final GuildCache cache;
+    private final GuildRelationGraph relationGraph;
+    private final GuildLogWriter logWriter;
+    private final LogRetentionService logRetention;
+    private final ContributionRollupService contributionRollup;
+    private final TimestampBackfillService timestampBackfill;
+    private final ChangeFeedService changeFeed;
+    private final BackupService backup;
+    private final ExpiryService expiry;
+    private final GuildStatisticsService statistics;
+    private final LeaderboardService leaderboard;
+    // 每个工会的日志条数：查询时 COUNT 一次并缓存，写入日志后丢弃
+    private final Map<Integer, Integer> logCounts = new ConcurrentHashMap<>();
+    // 每次丢弃日志计数时递增，COUNT 期间有日志写入则不缓存这次的结果
+    private final AtomicLong logCountsVersion = new AtomicLong();
+    // 启动预热是否已完成，完成前 /guild 命令暂不可用
+    private volatile boolean ready;
     
     public GuildService(GuildPlugin plugin) {
         this.plugin = plugin;
         this.databaseManager = plugin.getDatabaseManager();
         this.logger = plugin.getLogger();
+        this.cache = new GuildCache();
+        this.relationGraph = new GuildRelationGraph();
+        this.logWriter = new GuildLogWriter(plugin, databaseManager, this::onGuildLogWritten);
+        this.logRetention = new LogRetentionService(plugin, databaseManager, this);
+        this.contributionRollup = new ContributionRollupService(plugin, databaseManager);
+        this.timestampBackfill = new TimestampBackfillService(plugin, databaseManager);
+        this.changeFeed = new ChangeFeedService(plugin, databaseManager, this);
+        this.backup = new BackupService(plugin, databaseManager, this);
+        this.expiry = new ExpiryService(plugin, databaseManager, this);
+        this.statistics = new GuildStatisticsService(plugin, databaseManager);
+        this.leaderboard = new LeaderboardService(plugin, databaseManager);
+    }
+    
+    /**
+     * 关闭服务：写完队列中剩余的日志（需在关闭数据库之前调用）
+     */
+    public void shutdown() {
+        long timeout = plugin.getConfigManager().getDatabaseConfig().getLong("log-writer.shutdown-timeout", 10000);
+        logRetention.shutdown(timeout);
+        contributionRollup.shutdown(timeout);
+        timestampBackfill.shutdown(timeout);
+        changeFeed.shutdown(timeout);
+        backup.shutdown(timeout);
+        expiry.shutdown(timeout);
+        logWriter.shutdown(timeout);
+    }
+    
+    /**
+     * 获取工会数据缓存
+     */
+    public GuildCache getCache() {
+        return cache;
+    }
+    
+    /**
+     * 获取工会关系图
+     */
+    public GuildRelationGraph getRelationGraph() {
+        return relationGraph;
+    }
+    
+    /**
+     * 扫描一次 guild_relations 构建关系图（数据库初始化后、接受请求前调用）
+     */
+    public void loadRelationGraph() {
+        List<GuildRelation> relations = new ArrayList<>();
+        try (Connection conn = databaseManager.getConsistentReadConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM guild_relations");
+             ResultSet rs = stmt.executeQuery()) {
+            RowMapper<GuildRelation> mapper = GuildRowMappers.relation(rs);
+            while (rs.next()) {
+                relations.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            logger.severe("加载工会关系图时发生错误: " + e.getMessage());
+            return;
+        }
+        relationGraph.load(relations);
+        logger.info("工会关系图已加载: " + relations.size() + " 条关系");
+    }
+    
+    /**
+     * 启动预热：在数据库线程池上并行加载全部工会、成员、关系图与排行榜，全部结束后标记为就绪
+     * 单项失败只记录错误，对应数据在首次访问时再从数据库加载
+     */
+    public CompletableFuture<Void> warmUp() {
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<Void>> phases = new ArrayList<>();
+        if (plugin.getConfigManager().getDatabaseConfig().getBoolean("startup.warmup-cache", true)) {
+            phases.add(warmUpPhase("工会", this::warmUpGuilds));
+            phases.add(warmUpPhase("成员", this::warmUpMembers));
+        }
+        phases.add(warmUpPhase("关系图", this::loadRelationGraph));
+        phases.add(warmUpPhase("排行榜", leaderboard::load));
+        return CompletableFuture.allOf(phases.toArray(new CompletableFuture[0])).handle((ignored, e) -> {
+            ready = true;
+            logger.info("启动预热完成，工会命令已开放 (耗时 " + (System.currentTimeMillis() - start) + "ms)");
+            return null;
+        });
+    }
+    
+    /**
+     * 数据库内容被整体替换后（从备份恢复）丢弃全部缓存并重新预热，预热完成前 /guild 命令暂不可用
+     */
+    public CompletableFuture<Void> reloadAfterRestore() {
+        ready = false;
+        cache.clear();
+        invalidateGuildLogsCounts();
+        statistics.reloadAsync();
+        if (changeFeed.isEnabled()) {
+            logger.warning("数据库已从备份恢复，共用该数据库的其他服务器需要重启以重新加载缓存");
+        }
+        return warmUp();
+    }
+    
+    /**
+     * 是否已完成启动预热
+     */
+    public boolean isReady() {
+        return ready;
+    }
+    
+    private CompletableFuture<Void> warmUpPhase(String name, Runnable phase) {
+        return databaseManager.runAsync(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                phase.run();
+            } catch (RuntimeException e) {
+                logger.severe("预热" + name + "数据时发生错误: " + e.getMessage());
+                return;
+            }
+            logger.info("预热阶段 [" + name + "] 完成 (" + (System.currentTimeMillis() - start) + "ms)");
+        });
+    }
+    
+    private void warmUpGuilds() {
+        long stamp = cache.stamp();
+        int count = 0;
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM guilds");
+             ResultSet rs = stmt.executeQuery()) {
+            RowMapper<Guild> mapper = GuildRowMappers.guild(rs);
+            while (rs.next()) {
+                cache.cacheGuild(mapper.map(rs), stamp);
+                count++;
+            }
+        } catch (SQLException e) {
+            logger.severe("预热工会数据时发生错误: " + e.getMessage());
+            return;
+        }
+        logger.info("已预加载 " + count + " 个工会");
+    }
+    
+    private void warmUpMembers() {
+        long stamp = cache.stamp();
+        Map<Integer, List<GuildMember>> membersByGuild = new HashMap<>();
+        int count = 0;
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM guild_members");
+             ResultSet rs = stmt.executeQuery()) {
+            RowMapper<GuildMember> mapper = GuildRowMappers.member(rs);
+            while (rs.next()) {
+                GuildMember member = mapper.map(rs);
+                membersByGuild.computeIfAbsent(member.getGuildId(), id -> new ArrayList<>()).add(member);
+                count++;
+            }
+        } catch (SQLException e) {
+            logger.severe("预热成员数据时发生错误: " + e.getMessage());
+            return;
+        }
+        // 全表扫描得到的是每个工会完整的成员列表，可直接作为成员缓存
+        for (Map.Entry<Integer, List<GuildMember>> entry : membersByGuild.entrySet()) {
+            cache.cacheMembers(entry.getKey(), entry.getValue(), stamp);
+        }
+        logger.info("已预加载 " + membersByGuild.size() + " 个工会的 " + count + " 名成员");
+    }
+    
+    /**
+     * 获取工会日志批量写入器
+     */
+    public GuildLogWriter getLogWriter() {
+        return logWriter;
+    }
+    
+    /**
+     * 获取工会日志保留任务
+     */
+    public LogRetentionService getLogRetention() {
+        return logRetention;
+    }
+    
+    /**
+     * 获取贡献记录按日汇总任务
+     */
+    public ContributionRollupService getContributionRollup() {
+        return contributionRollup;
+    }
+    
+    /**
+     * 获取毫秒时间列回填任务
+     */
+    public TimestampBackfillService getTimestampBackfill() {
+        return timestampBackfill;
+    }
+    
+    /**
+     * 获取数据库备份与恢复服务
+     */
+    public BackupService getBackup() {
+        return backup;
+    }
+    
+    /**
+     * 获取邀请、关系请求与入会申请的到期处理
+     */
+    public ExpiryService getExpiry() {
+        return expiry;
+    }
+    
+    /**
+     * 获取跨服数据变更同步
+     */
+    public ChangeFeedService getChangeFeed() {
+        return changeFeed;
+    }
+    
+    /**
+     * 获取工会汇总统计
+     */
+    public GuildStatisticsService getStatistics() {
+        return statistics;
+    }
+    
+    /**
+     * 获取工会排行榜
+     */
+    public LeaderboardService getLeaderboard() {
+        return leaderboard;
+    }
+    
+    /**
+     * 发布工会数据变更事件（在数据库写入成功后调用），同时开启该工会/玩家的读己之写窗口
+     */
+    private void publishChange(GuildDataChangeEvent event) {
+        recordWrite(event.getGuildId(), event.getPlayerUuid());
+        plugin.getEventBus().publish(event);
+    }
+    
+    /**
+     * 记录一次写入：开启读己之写窗口（跨服变更已在写入的事务中记录）
+     * guildId <= 0 或 playerUuid 为 null 表示不涉及该维度
+     */
+    private void recordWrite(int guildId, UUID playerUuid) {
+        databaseManager.markWrite(guildId, playerUuid);
+    }
+    
+    /**
+     * 执行单条写语句，并在同一事务中记录跨服变更；未启用跨服同步时直接以自动提交执行
+     */
+    private int updateRecorded(int guildId, UUID playerUuid, String sql, Object... params) throws SQLException {
+        if (!changeFeed.isEnabled()) {
+            return databaseManager.update(sql, params);
+        }
+        return databaseManager.executeInTransaction(unitOfWork -> {
+            int rows = unitOfWork.update(sql, params);
+            if (rows > 0) {
+                changeFeed.record(unitOfWork, guildId, playerUuid);
+            }
+            return rows;
+        });
+    }
+    
+    /**
+     * 执行单条 INSERT 并在同一事务中记录跨服变更，返回生成的自增主键
+     */
+    private int insertRecorded(int guildId, UUID playerUuid, String sql, Object... params) throws SQLException {
+        if (!changeFeed.isEnabled()) {
+            return databaseManager.insert(sql, params);
+        }
+        return databaseManager.executeInTransaction(unitOfWork -> {
+            int id = unitOfWork.insert(sql, params);
+            if (id > 0) {
+                changeFeed.record(unitOfWork, guildId, playerUuid);
+            }
+            return id;
+        });
+    }
+    
+    /**
+     * 执行单条工会关系写语句，并在同一事务中记录关系变更（其他服务器重新加载关系图）
+     */
+    private int updateRelationRecorded(String sql, Object... params) throws SQLException {
+        if (!changeFeed.isEnabled()) {
+            return databaseManager.update(sql, params);
+        }
+        return databaseManager.executeInTransaction(unitOfWork -> {
+            int rows = unitOfWork.update(sql, params);
+            if (rows > 0) {
+                changeFeed.recordRelationChange(unitOfWork);
+            }
+            return rows;
+        });
+    }
+    
+    /**
+     * 应用其他服务器对工会的修改：丢弃本地缓存，下次读取时重新加载
+     */
+    public void applyRemoteGuildChange(int guildId) {
+        cache.invalidateGuild(guildId);
+        invalidateGuildLogsCount(guildId);
+        plugin.getPlaceholderManager().invalidateGuild(guildId);
+    }
+    
+    /**
+     * 应用其他服务器对玩家成员记录的修改：丢弃本地缓存并刷新权限
+     */
+    public void applyRemotePlayerChange(UUID playerUuid) {
+        cache.invalidatePlayer(playerUuid);
+        try { plugin.getPermissionManager().updatePlayerPermissions(playerUuid); } catch (Exception ignored) {}
+        plugin.getPlaceholderManager().invalidatePlayer(playerUuid);
     }
     
     // 时间工具：统一使用操作系统本地时间字符串（yyyy-MM-dd HH:mm:ss）
     private String nowString() { return TimeProvider.nowString(); }
     private String plusMinutesString(int minutes) { return TimeProvider.plusMinutesString(minutes); }
     private String plusDaysString(int days) { return TimeProvider.plusDaysString(days); }
+    // 毫秒时间戳（*_ms 列）：读取、排序与范围查询只使用毫秒列，文本列继续写入以兼容旧版本
+    private long nowMillis() { return TimeProvider.nowMillis(); }
+    private long plusMinutesMillis(int minutes) { return TimeProvider.plusMinutesMillis(minutes); }
+    private long plusDaysMillis(int days) { return TimeProvider.plusDaysMillis(days); }
     
     /**
      * 创建工会 (异步)
@@ -55,36 +394,38 @@ public class GuildService {
                     return CompletableFuture.completedFuture(false);
                 }
                 
-                return CompletableFuture.supplyAsync(() -> {
+                return databaseManager.supplyAsync(() -> {
+                    int guildId;
                     try {
-                        String sql = "INSERT INTO guilds (name, tag, description, leader_uuid, leader_name, balance, level, max_members, frozen, created_at, updated_at) VALUES (?, ?, ?, ?, ?, 0.0, 1, 6, 0, ?, ?)";
+                        String sql = "INSERT INTO guilds (name, tag, description, leader_uuid, leader_name, balance, level, max_members, frozen, created_at, updated_at, created_ms, updated_ms) VALUES (?, ?, ?, ?, ?, 0.0, 1, 6, 0, ?, ?, ?, ?)";
                         
-                        try (Connection conn = databaseManager.getConnection();
-                             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                            
-                            stmt.setString(1, name);
-                            stmt.setString(2, tag);
-                            stmt.setString(3, description);
-                            stmt.setString(4, leaderUuid.toString());
-                            stmt.setString(5, leaderName);
-                            
-                            stmt.setString(6, nowString());
-                            stmt.setString(7, nowString());
-                            int affectedRows = stmt.executeUpdate();
-                            if (affectedRows > 0) {
-                                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                                    if (rs.next()) {
-                                        int guildId = rs.getInt(1);
-                                        logger.info("工会创建成功: " + name + " (ID: " + guildId + ")");
-                                        return guildId;
-                                    }
-                                }
+                        long now = nowMillis();
+                        guildId = databaseManager.executeInTransaction(unitOfWork -> {
+                            int id = unitOfWork.insert(sql, name, tag, description, leaderUuid.toString(), leaderName,
+                                nowString(), nowString(), now, now);
+                            if (id > 0) {
+                                changeFeed.record(unitOfWork, id, null);
                             }
-                        }
+                            return id;
+                        });
                     } catch (SQLException e) {
                         logger.severe("创建工会时发生错误: " + e.getMessage());
+                        return -1;
                     }
-                    return -1;
+                    if (guildId <= 0) {
+                        return -1;
+                    }
+                    logger.info("工会创建成功: " + name + " (ID: " + guildId + ")");
+                    Guild guild = new Guild(name, tag, description, leaderUuid, leaderName);
+                    guild.setId(guildId);
+                    guild.setBalance(0.0);
+                    guild.setLevel(1);
+                    guild.setMaxMembers(6);
+                    guild.setFrozen(false);
+                    // 会长随后由 addGuildMemberDirectAsync 写入，此时成员列表为空但完整
+                    cache.putGuild(guild, new ArrayList<>());
+                    publishChange(GuildDataChangeEvent.guildCreated(guildId, name));
+                    return guildId;
                 }).thenCompose(guildId -> {
                     if ((Integer) guildId > 0) {
                         // 添加会长为工会成员（避免重复查询）
@@ -132,56 +473,99 @@ public class GuildService {
                     return CompletableFuture.completedFuture(false);
                 }
                 
-                return CompletableFuture.supplyAsync(() -> {
-                    try {
-                        // 获取工会余额用于退款
-                        double guildBalance = guild.getBalance();
-                        
-                        // 删除所有工会成员
-                        String deleteMembersSql = "DELETE FROM guild_members WHERE guild_id = ?";
-                        try (Connection conn = databaseManager.getConnection();
-                             PreparedStatement stmt = conn.prepareStatement(deleteMembersSql)) {
-                            stmt.setInt(1, guildId);
-                            stmt.executeUpdate();
-                        }
-                        
-                        // 删除工会
-                        String deleteGuildSql = "DELETE FROM guilds WHERE id = ?";
-                        try (Connection conn = databaseManager.getConnection();
-                             PreparedStatement stmt = conn.prepareStatement(deleteGuildSql)) {
-                            stmt.setInt(1, guildId);
-                            int affectedRows = stmt.executeUpdate();
-                            if (affectedRows > 0) {
-                                logger.info("工会删除成功: " + guild.getName() + " (ID: " + guildId + ")");
-                                
-                                // 退款给会长（如果经济系统可用）
-                                if (guildBalance > 0 && plugin.getEconomyManager().isVaultAvailable()) {
-                                    try {
-                                        org.bukkit.entity.Player leaderPlayer = org.bukkit.Bukkit.getPlayer(guild.getLeaderUuid());
-                                        if (leaderPlayer != null && leaderPlayer.isOnline()) {
-                                            plugin.getEconomyManager().deposit(leaderPlayer, guildBalance);
-                                            String message = plugin.getConfigManager().getMessagesConfig().getString("economy.disband-compensation", "&a工会解散，您获得了 {amount} 金币补偿！")
-                                                .replace("{amount}", plugin.getEconomyManager().format(guildBalance));
-                                            leaderPlayer.sendMessage(com.guild.core.utils.ColorUtils.colorize(message));
-                                        }
-                                    } catch (Exception e) {
-                                        logger.warning("退款给会长时发生错误: " + e.getMessage());
-                                    }
-                                }
-                                
-                                // 记录工会解散日志
-                                logGuildActionAsync(guildId, guild.getName(), guild.getLeaderUuid().toString(), guild.getLeaderName(),
-                                    GuildLog.LogType.GUILD_DISSOLVED, "工会解散", "工会余额: " + guildBalance + " 金币");
-                                
-                                return true;
+                return deleteGuildCascadeAsync(guild);
+            });
+        });
+    }
+    
+    /**
+     * 强制删除工会 (异步) - 管理员操作，不检查权限
+     */
+    public CompletableFuture<Boolean> forceDeleteGuildAsync(int guildId) {
+        return getGuildByIdAsync(guildId).thenCompose(guild -> {
+            if (guild == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return deleteGuildCascadeAsync(guild);
+        });
+    }
+    
+    /**
+     * 在一个事务中删除工会及其全部关联数据
+     * 不依赖外键级联（MyISAM 不支持外键，SQLite 可通过 sqlite.foreign-keys 关闭），不会留下孤立行
+     */
+    private CompletableFuture<Boolean> deleteGuildCascadeAsync(Guild guild) {
+        int guildId = guild.getId();
+        return databaseManager.supplyAsync(() -> {
+            // 获取工会余额用于退款
+            double guildBalance = guild.getBalance();
+            List<UUID> memberUuids = new ArrayList<>();
+            Integer deletedMembers;
+            try {
+                deletedMembers = databaseManager.executeInTransaction(unitOfWork -> {
+                    // 成员记录被删除：这些玩家的读取在窗口期内走主库，其他服务器也需失效对应缓存
+                    try (PreparedStatement stmt = unitOfWork.getConnection().prepareStatement(
+                            "SELECT player_uuid FROM guild_members WHERE guild_id = ?")) {
+                        stmt.setInt(1, guildId);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                memberUuids.add(UUID.fromString(rs.getString(1)));
                             }
                         }
-                    } catch (SQLException e) {
-                        logger.severe("删除工会时发生错误: " + e.getMessage());
                     }
-                    return false;
+                    unitOfWork.queue("DELETE FROM guild_applications WHERE guild_id = ?", guildId);
+                    unitOfWork.queue("DELETE FROM guild_invites WHERE guild_id = ?", guildId);
+                    unitOfWork.queue("DELETE FROM guild_relations WHERE guild1_id = ? OR guild2_id = ?", guildId, guildId);
+                    unitOfWork.queue("DELETE FROM guild_economy WHERE guild_id = ?", guildId);
+                    unitOfWork.queue("DELETE FROM guild_contributions WHERE guild_id = ?", guildId);
+                    unitOfWork.queue("DELETE FROM guild_contribution_totals WHERE guild_id = ?", guildId);
+                    unitOfWork.queue("DELETE FROM guild_contribution_daily WHERE guild_id = ?", guildId);
+                    unitOfWork.queue("DELETE FROM guild_logs WHERE guild_id = ?", guildId);
+                    int members = unitOfWork.update("DELETE FROM guild_members WHERE guild_id = ?", guildId);
+                    if (unitOfWork.update("DELETE FROM guilds WHERE id = ?", guildId) == 0) {
+                        unitOfWork.setRollbackOnly();
+                        return null;
+                    }
+                    changeFeed.record(unitOfWork, guildId, null);
+                    for (UUID memberUuid : memberUuids) {
+                        changeFeed.record(unitOfWork, guildId, memberUuid);
+                    }
+                    changeFeed.recordRelationChange(unitOfWork);
+                    return members;
                 });
-            });
+            } catch (SQLException e) {
+                logger.severe("删除工会时发生错误: " + e.getMessage());
+                return false;
+            }
+            if (deletedMembers == null) {
+                return false;
+            }
+            
+            // 工会日志已随工会一起删除，解散记录只写入服务器日志
+            logger.info("工会删除成功: " + guild.getName() + " (ID: " + guildId + "), 成员: " + deletedMembers
+                + ", 工会余额: " + guildBalance + " 金币");
+            cache.removeGuild(guildId);
+            relationGraph.removeGuild(guildId);
+            invalidateGuildLogsCount(guildId);
+            memberUuids.forEach(memberUuid -> recordWrite(guildId, memberUuid));
+            publishChange(GuildDataChangeEvent.guildDeleted(guildId, deletedMembers, guildBalance, guild.isFrozen()));
+            plugin.getPlaceholderManager().invalidateGuild(guildId);
+            
+            // 退款给会长（如果经济系统可用）
+            if (guildBalance > 0 && plugin.getEconomyManager().isVaultAvailable()) {
+                try {
+                    org.bukkit.entity.Player leaderPlayer = org.bukkit.Bukkit.getPlayer(guild.getLeaderUuid());
+                    if (leaderPlayer != null && leaderPlayer.isOnline()) {
+                        plugin.getEconomyManager().deposit(leaderPlayer, guildBalance);
+                        String message = plugin.getConfigManager().getMessagesConfig().getString("economy.disband-compensation", "&a工会解散，您获得了 {amount} 金币补偿！")
+                            .replace("{amount}", plugin.getEconomyManager().format(guildBalance));
+                        leaderPlayer.sendMessage(com.guild.core.utils.ColorUtils.colorize(message));
+                    }
+                } catch (Exception e) {
+                    logger.warning("退款给会长时发生错误: " + e.getMessage());
+                }
+            }
+            return true;
         });
     }
     
@@ -230,24 +614,21 @@ public class GuildService {
                             return CompletableFuture.completedFuture(false);
                         }
                         
-                        return CompletableFuture.supplyAsync(() -> {
+                        return databaseManager.supplyAsync(() -> {
                             try {
-                                String sql = "UPDATE guilds SET name = COALESCE(?, name), tag = COALESCE(?, tag), description = COALESCE(?, description), updated_at = ? WHERE id = ?";
+                                String sql = "UPDATE guilds SET name = COALESCE(?, name), tag = COALESCE(?, tag), description = COALESCE(?, description), updated_at = ?, updated_ms = ? WHERE id = ?";
                                 
-                                try (Connection conn = databaseManager.getConnection();
-                                     PreparedStatement stmt = conn.prepareStatement(sql)) {
-                                    
-                                    stmt.setString(1, name);
-                                    stmt.setString(2, tag);
-                                    stmt.setString(3, description);
-                                    stmt.setString(4, nowString());
-                                    stmt.setInt(5, guildId);
-                                    
-                                    int affectedRows = stmt.executeUpdate();
-                                    if (affectedRows > 0) {
-                                        logger.info("工会信息更新成功: " + guild.getName() + " (ID: " + guildId + ")");
-                                        return true;
+                                int affectedRows = updateRecorded(guildId, requesterUuid, sql, name, tag, description, nowString(), nowMillis(), guildId);
+                                if (affectedRows > 0) {
+                                    logger.info("工会信息更新成功: " + guild.getName() + " (ID: " + guildId + ")");
+                                    // 名称/标签可能变化，移除后由下次读取重新加载并建立索引
+                                    cache.evictGuild(guildId);
+                                    recordWrite(guildId, requesterUuid);
+                                    plugin.getPlaceholderManager().invalidateGuild(guildId);
+                                    if (name != null && !name.equals(guild.getName())) {
+                                        publishChange(GuildDataChangeEvent.guildRenamed(guildId, name));
                                     }
+                                    return true;
                                 }
                             } catch (SQLException e) {
                                 logger.severe("更新工会信息时发生错误: " + e.getMessage());
@@ -280,36 +661,15 @@ public class GuildService {
                 return CompletableFuture.completedFuture(false);
             }
             
-            return CompletableFuture.supplyAsync(() -> {
+            return databaseManager.supplyAsync(() -> {
                 try {
                 
-                String sql = "INSERT INTO guild_members (guild_id, player_uuid, player_name, role, joined_at) VALUES (?, ?, ?, ?, ?)";
+                String sql = "INSERT INTO guild_members (guild_id, player_uuid, player_name, role, joined_at, joined_ms) VALUES (?, ?, ?, ?, ?, ?)";
                 
-                try (Connection conn = databaseManager.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    
-                    stmt.setInt(1, guildId);
-                    stmt.setString(2, playerUuid.toString());
-                    stmt.setString(3, playerName);
-                    stmt.setString(4, role.name());
-                    stmt.setString(5, nowString());
-                    
-                    int affectedRows = stmt.executeUpdate();
-                    if (affectedRows > 0) {
-                        logger.info("玩家 " + playerName + " 加入工会 (ID: " + guildId + ")");
-                        // 更新内置权限缓存
-                        try { plugin.getPermissionManager().updatePlayerPermissions(playerUuid); } catch (Exception ignored) {}
-                        
-                        // 记录成员加入日志
-                        getGuildByIdAsync(guildId).thenAccept(guild -> {
-                            if (guild != null) {
-                                logGuildActionAsync(guildId, guild.getName(), playerUuid.toString(), playerName,
-                                    GuildLog.LogType.MEMBER_JOINED, "成员加入", "玩家: " + playerName + ", 职位: " + role.getDisplayName());
-                            }
-                        });
-                        
-                        return true;
-                    }
+                int memberId = insertRecorded(guildId, playerUuid, sql, guildId, playerUuid.toString(), playerName, role.name(), nowString(), nowMillis());
+                if (memberId > 0) {
+                    onMemberJoined(newMember(memberId, guildId, playerUuid, playerName, role));
+                    return true;
                 }
             } catch (SQLException e) {
                 logger.severe("添加工会成员时发生错误: " + e.getMessage());
@@ -319,6 +679,29 @@ public class GuildService {
         });
     }
     
+    /**
+     * 成员写入成功后更新缓存、权限、占位符并记录加入日志
+     */
+    private void onMemberJoined(GuildMember member) {
+        int guildId = member.getGuildId();
+        UUID playerUuid = member.getPlayerUuid();
+        String playerName = member.getPlayerName();
+        logger.info("玩家 " + playerName + " 加入工会 (ID: " + guildId + ")");
+        cache.addMember(member);
+        publishChange(GuildDataChangeEvent.memberJoined(guildId, playerUuid));
+        // 更新内置权限缓存
+        try { plugin.getPermissionManager().updatePlayerPermissions(playerUuid); } catch (Exception ignored) {}
+        plugin.getPlaceholderManager().invalidatePlayer(playerUuid);
+        
+        // 记录成员加入日志
+        getGuildByIdAsync(guildId).thenAccept(guild -> {
+            if (guild != null) {
+                logGuildActionAsync(guildId, guild.getName(), playerUuid.toString(), playerName,
+                    GuildLog.LogType.MEMBER_JOINED, "成员加入", "玩家: " + playerName + ", 职位: " + member.getRole().getDisplayName());
+            }
+        });
+    }
+    
     /**
      * 添加工会成员 (同步包装器)
      */
@@ -358,38 +741,35 @@ public class GuildService {
                     return CompletableFuture.completedFuture(false);
                 }
                 
-                return CompletableFuture.supplyAsync(() -> {
+                return databaseManager.supplyAsync(() -> {
                     try {
                         String sql = "DELETE FROM guild_members WHERE player_uuid = ?";
                         
-                        try (Connection conn = databaseManager.getConnection();
-                             PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        int affectedRows = updateRecorded(member.getGuildId(), playerUuid, sql, playerUuid.toString());
+                        if (affectedRows > 0) {
+                            logger.info("玩家 " + member.getPlayerName() + " 离开工会 (ID: " + member.getGuildId() + ")");
+                            cache.removeMember(playerUuid);
+                            publishChange(GuildDataChangeEvent.memberLeft(member.getGuildId(), playerUuid));
+                            // 更新内置权限缓存
+                            try { plugin.getPermissionManager().updatePlayerPermissions(playerUuid); } catch (Exception ignored) {}
+                            plugin.getPlaceholderManager().invalidatePlayer(playerUuid);
                             
-                            stmt.setString(1, playerUuid.toString());
+                            // 记录成员离开日志
+                            getGuildByIdAsync(member.getGuildId()).thenAccept(guild -> {
+                                if (guild != null) {
+                                    GuildLog.LogType logType = playerUuid.equals(requesterUuid) ? 
+                                        GuildLog.LogType.MEMBER_LEFT : GuildLog.LogType.MEMBER_KICKED;
+                                    String description = playerUuid.equals(requesterUuid) ? "成员主动离开" : "成员被踢出";
+                                    String details = "玩家: " + member.getPlayerName() + 
+                                        (playerUuid.equals(requesterUuid) ? "" : ", 操作者: " + requester.getPlayerName());
+                                    
+                                    logGuildActionAsync(member.getGuildId(), guild.getName(), 
+                                        requesterUuid.toString(), requester.getPlayerName(),
+                                        logType, description, details);
+                                }
+                            });
                             
-                            int affectedRows = stmt.executeUpdate();
-                            if (affectedRows > 0) {
-                                logger.info("玩家 " + member.getPlayerName() + " 离开工会 (ID: " + member.getGuildId() + ")");
-                                // 更新内置权限缓存
-                                try { plugin.getPermissionManager().updatePlayerPermissions(playerUuid); } catch (Exception ignored) {}
-                                
-                                // 记录成员离开日志
-                                getGuildByIdAsync(member.getGuildId()).thenAccept(guild -> {
-                                    if (guild != null) {
-                                        GuildLog.LogType logType = playerUuid.equals(requesterUuid) ? 
-                                            GuildLog.LogType.MEMBER_LEFT : GuildLog.LogType.MEMBER_KICKED;
-                                        String description = playerUuid.equals(requesterUuid) ? "成员主动离开" : "成员被踢出";
-                                        String details = "玩家: " + member.getPlayerName() + 
-                                            (playerUuid.equals(requesterUuid) ? "" : ", 操作者: " + requester.getPlayerName());
-                                        
-                                        logGuildActionAsync(member.getGuildId(), guild.getName(), 
-                                            requesterUuid.toString(), requester.getPlayerName(),
-                                            logType, description, details);
-                                    }
-                                });
-                                
-                                return true;
-                            }
+                            return true;
                         }
                     } catch (SQLException e) {
                         logger.severe("移除工会成员时发生错误: " + e.getMessage());
@@ -428,41 +808,42 @@ public class GuildService {
                     return CompletableFuture.completedFuture(false);
                 }
                 
-                return CompletableFuture.supplyAsync(() -> {
+                // 任命会长需要同时降级原会长并更新工会表，整体在一个事务中完成
+                if (newRole == GuildMember.Role.LEADER) {
+                    return transferLeadershipAsync(member.getGuildId(), playerUuid, requesterUuid, requester.getPlayerName());
+                }
+                
+                return databaseManager.supplyAsync(() -> {
                     try {
                         String sql = "UPDATE guild_members SET role = ? WHERE player_uuid = ?";
                         
-                        try (Connection conn = databaseManager.getConnection();
-                             PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        int affectedRows = updateRecorded(member.getGuildId(), playerUuid, sql, newRole.name(), playerUuid.toString());
+                        if (affectedRows > 0) {
+                            logger.info("玩家 " + member.getPlayerName() + " 角色更新为: " + newRole.name());
+                            cache.updateMemberRole(playerUuid, newRole);
+                            recordWrite(member.getGuildId(), playerUuid);
+                            // 更新内置权限缓存
+                            try { plugin.getPermissionManager().updatePlayerPermissions(playerUuid); } catch (Exception ignored) {}
+                            plugin.getPlaceholderManager().invalidatePlayer(playerUuid);
                             
-                            stmt.setString(1, newRole.name());
-                            stmt.setString(2, playerUuid.toString());
+                            // 记录角色变更日志
+                            getGuildByIdAsync(member.getGuildId()).thenAccept(guild -> {
+                                if (guild != null) {
+                                    GuildLog.LogType logType = newRole == GuildMember.Role.LEADER ? 
+                                        GuildLog.LogType.LEADER_TRANSFERRED : 
+                                        (newRole == GuildMember.Role.OFFICER ? GuildLog.LogType.MEMBER_PROMOTED : GuildLog.LogType.MEMBER_DEMOTED);
+                                    String description = newRole == GuildMember.Role.LEADER ? "会长转让" : 
+                                        (newRole == GuildMember.Role.OFFICER ? "成员升职" : "成员降职");
+                                    String details = "玩家: " + member.getPlayerName() + ", 新职位: " + newRole.getDisplayName() + 
+                                        ", 操作者: " + requester.getPlayerName();
+                                    
+                                    logGuildActionAsync(member.getGuildId(), guild.getName(), 
+                                        requesterUuid.toString(), requester.getPlayerName(),
+                                        logType, description, details);
+                                }
+                            });
                             
-                            int affectedRows = stmt.executeUpdate();
-                            if (affectedRows > 0) {
-                                logger.info("玩家 " + member.getPlayerName() + " 角色更新为: " + newRole.name());
-                                // 更新内置权限缓存
-                                try { plugin.getPermissionManager().updatePlayerPermissions(playerUuid); } catch (Exception ignored) {}
-                                
-                                // 记录角色变更日志
-                                getGuildByIdAsync(member.getGuildId()).thenAccept(guild -> {
-                                    if (guild != null) {
-                                        GuildLog.LogType logType = newRole == GuildMember.Role.LEADER ? 
-                                            GuildLog.LogType.LEADER_TRANSFERRED : 
-                                            (newRole == GuildMember.Role.OFFICER ? GuildLog.LogType.MEMBER_PROMOTED : GuildLog.LogType.MEMBER_DEMOTED);
-                                        String description = newRole == GuildMember.Role.LEADER ? "会长转让" : 
-                                            (newRole == GuildMember.Role.OFFICER ? "成员升职" : "成员降职");
-                                        String details = "玩家: " + member.getPlayerName() + ", 新职位: " + newRole.getDisplayName() + 
-                                            ", 操作者: " + requester.getPlayerName();
-                                        
-                                        logGuildActionAsync(member.getGuildId(), guild.getName(), 
-                                            requesterUuid.toString(), requester.getPlayerName(),
-                                            logType, description, details);
-                                    }
-                                });
-                                
-                                return true;
-                            }
+                            return true;
                         }
                     } catch (SQLException e) {
                         logger.severe("更新成员角色时发生错误: " + e.getMessage());
@@ -473,6 +854,71 @@ public class GuildService {
         });
     }
     
+    /**
+     * 转让会长 (异步)
+     * 原会长降为官员、新会长升职、工会表的会长字段在同一事务中更新；不检查操作者权限
+     * @param operatorUuid 操作者（管理员在控制台操作时可为任意UUID），仅用于日志
+     */
+    public CompletableFuture<Boolean> transferLeadershipAsync(int guildId, UUID newLeaderUuid, UUID operatorUuid, String operatorName) {
+        return getGuildByIdAsync(guildId).thenCompose(guild -> {
+            if (guild == null || newLeaderUuid.equals(guild.getLeaderUuid())) {
+                return CompletableFuture.completedFuture(false);
+            }
+            
+            return getGuildMemberAsync(newLeaderUuid).thenCompose(newLeader -> {
+                if (newLeader == null || newLeader.getGuildId() != guildId) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                
+                return databaseManager.supplyAsync(() -> {
+                    boolean transferred;
+                    try {
+                        transferred = databaseManager.executeInTransaction(unitOfWork -> {
+                            unitOfWork.queue("UPDATE guild_members SET role = ? WHERE guild_id = ? AND role = ?",
+                                GuildMember.Role.OFFICER.name(), guildId, GuildMember.Role.LEADER.name());
+                            if (unitOfWork.update("UPDATE guild_members SET role = ? WHERE guild_id = ? AND player_uuid = ?",
+                                    GuildMember.Role.LEADER.name(), guildId, newLeaderUuid.toString()) == 0) {
+                                unitOfWork.setRollbackOnly();
+                                return false;
+                            }
+                            unitOfWork.queue("UPDATE guilds SET leader_uuid = ?, leader_name = ?, updated_at = ?, updated_ms = ? WHERE id = ?",
+                                newLeaderUuid.toString(), newLeader.getPlayerName(), nowString(), nowMillis(), guildId);
+                            changeFeed.record(unitOfWork, guildId, guild.getLeaderUuid());
+                            changeFeed.record(unitOfWork, guildId, newLeaderUuid);
+                            return true;
+                        });
+                    } catch (SQLException e) {
+                        logger.severe("转让会长时发生错误: " + e.getMessage());
+                        return false;
+                    }
+                    if (!transferred) {
+                        return false;
+                    }
+                    
+                    UUID oldLeaderUuid = guild.getLeaderUuid();
+                    logger.info("工会 " + guild.getName() + " 会长转让: " + guild.getLeaderName() + " -> " + newLeader.getPlayerName());
+                    cache.updateMemberRole(oldLeaderUuid, GuildMember.Role.OFFICER);
+                    cache.updateMemberRole(newLeaderUuid, GuildMember.Role.LEADER);
+                    recordWrite(guildId, oldLeaderUuid);
+                    recordWrite(guildId, newLeaderUuid);
+                    cache.updateGuild(guildId, cached -> {
+                        cached.setLeaderUuid(newLeaderUuid);
+                        cached.setLeaderName(newLeader.getPlayerName());
+                    });
+                    for (UUID changed : new UUID[] {oldLeaderUuid, newLeaderUuid}) {
+                        try { plugin.getPermissionManager().updatePlayerPermissions(changed); } catch (Exception ignored) {}
+                    }
+                    plugin.getPlaceholderManager().invalidateGuild(guildId);
+                    
+                    logGuildActionAsync(guildId, guild.getName(), operatorUuid.toString(), operatorName,
+                        GuildLog.LogType.LEADER_TRANSFERRED, "会长转让",
+                        "原会长: " + guild.getLeaderName() + ", 新会长: " + newLeader.getPlayerName() + ", 操作者: " + operatorName);
+                    return true;
+                });
+            });
+        });
+    }
+    
     /**
      * 更新成员角色 (同步包装器)
      */
@@ -489,22 +935,34 @@ public class GuildService {
      * 获取玩家工会 (异步)
      */
     public CompletableFuture<Guild> getPlayerGuildAsync(UUID playerUuid) {
-        return CompletableFuture.supplyAsync(() -> {
+        Integer cachedGuildId = cache.getPlayerGuildId(playerUuid);
+        if (cachedGuildId != null) {
+            if (cachedGuildId == GuildCache.NO_GUILD) {
+                return CompletableFuture.completedFuture(null);
+            }
+            Guild cachedGuild = cache.getGuild(cachedGuildId);
+            if (cachedGuild != null) {
+                return CompletableFuture.completedFuture(cachedGuild);
+            }
+        }
+        
+        return databaseManager.supplyAsync(() -> {
+            long stamp = cache.stamp();
             try {
-                String sql = "SELECT g.* FROM guilds g " +
-                            "INNER JOIN guild_members gm ON g.id = gm.guild_id " +
-                            "WHERE gm.player_uuid = ?";
-                
-                try (Connection conn = databaseManager.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    
-                    stmt.setString(1, playerUuid.toString());
-                    
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        if (rs.next()) {
-                            return createGuildFromResultSet(rs);
-                        }
-                    }
+                GuildMember member;
+                try (Connection conn = databaseManager.getReadConnection(0, playerUuid)) {
+                    member = loadMember(conn, playerUuid, stamp);
+                }
+                if (member == null) {
+                    return null;
+                }
+                Guild guild = cache.getGuild(member.getGuildId());
+                if (guild != null) {
+                    return guild;
+                }
+                // 工会本身可能刚被其他成员修改，按工会重新选择读连接
+                try (Connection conn = databaseManager.getReadConnection(member.getGuildId(), playerUuid)) {
+                    return loadGuild(conn, member.getGuildId(), stamp);
                 }
             } catch (SQLException e) {
                 logger.severe("获取玩家工会时发生错误: " + e.getMessage());
@@ -526,24 +984,80 @@ public class GuildService {
     }
     
     /**
-     * 获取工会成员 (异步)
+     * 获取玩家的工会上下文 (异步)
+     * 成员记录与工会都已缓存时直接返回，否则用一次联表查询同时取回并回填缓存
      */
-    public CompletableFuture<GuildMember> getGuildMemberAsync(UUID playerUuid) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String sql = "SELECT * FROM guild_members WHERE player_uuid = ?";
+    public CompletableFuture<PlayerGuildContext> getPlayerContextAsync(UUID playerUuid) {
+        Integer cachedGuildId = cache.getPlayerGuildId(playerUuid);
+        if (cachedGuildId != null && cachedGuildId == GuildCache.NO_GUILD) {
+            return CompletableFuture.completedFuture(PlayerGuildContext.none());
+        }
+        GuildMember cachedMember = cache.getMember(playerUuid);
+        if (cachedMember != null) {
+            Guild cachedGuild = cache.getGuild(cachedMember.getGuildId());
+            if (cachedGuild != null) {
+                return CompletableFuture.completedFuture(new PlayerGuildContext(cachedMember, cachedGuild));
+            }
+        }
+        // 已知所在工会时按工会和玩家选择读连接，工会刚被修改时也能读到最新数据
+        int knownGuildId = cachedGuildId != null ? cachedGuildId : 0;
+        
+        return databaseManager.supplyAsync(() -> {
+            long stamp = cache.stamp();
+            String sql = "SELECT g.*, m.id AS member_id, m.guild_id AS member_guild_id, m.player_uuid AS member_player_uuid, " +
+                         "m.player_name AS member_player_name, m.role AS member_role, m.joined_at AS member_joined_at, " +
+                         "m.joined_ms AS member_joined_ms FROM guild_members m JOIN guilds g ON g.id = m.guild_id WHERE m.player_uuid = ?";
+            try (Connection conn = databaseManager.getReadConnection(knownGuildId, playerUuid);
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
                 
-                try (Connection conn = databaseManager.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    
-                    stmt.setString(1, playerUuid.toString());
-                    
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        if (rs.next()) {
-                            return createGuildMemberFromResultSet(rs);
-                        }
+                stmt.setString(1, playerUuid.toString());
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        Guild guild = createGuildFromResultSet(rs);
+                        GuildMember member = GuildRowMappers.member(ResultSetColumns.of(rs).withPrefix("member_")).map(rs);
+                        cache.cacheGuild(guild, stamp);
+                        cache.cacheMember(member, stamp);
+                        return new PlayerGuildContext(member, guild);
                     }
                 }
+                cache.cacheNoGuild(playerUuid, stamp);
+            } catch (SQLException e) {
+                logger.severe("获取玩家工会上下文时发生错误: " + e.getMessage());
+            }
+            return PlayerGuildContext.none();
+        });
+    }
+    
+    /**
+     * 获取玩家的工会上下文 (同步包装器)
+     */
+    public PlayerGuildContext getPlayerContext(UUID playerUuid) {
+        try {
+            return getPlayerContextAsync(playerUuid).get();
+        } catch (Exception e) {
+            logger.severe("获取玩家工会上下文时发生异常: " + e.getMessage());
+            return PlayerGuildContext.none();
+        }
+    }
+    
+    /**
+     * 获取工会成员 (异步)
+     */
+    public CompletableFuture<GuildMember> getGuildMemberAsync(UUID playerUuid) {
+        Integer cachedGuildId = cache.getPlayerGuildId(playerUuid);
+        if (cachedGuildId != null && cachedGuildId == GuildCache.NO_GUILD) {
+            return CompletableFuture.completedFuture(null);
+        }
+        GuildMember cachedMember = cache.getMember(playerUuid);
+        if (cachedMember != null) {
+            return CompletableFuture.completedFuture(cachedMember);
+        }
+        
+        return databaseManager.supplyAsync(() -> {
+            long stamp = cache.stamp();
+            try (Connection conn = databaseManager.getReadConnection(0, playerUuid)) {
+                return loadMember(conn, playerUuid, stamp);
             } catch (SQLException e) {
                 logger.severe("获取工会成员时发生错误: " + e.getMessage());
             }
@@ -551,6 +1065,52 @@ public class GuildService {
         });
     }
     
+    /**
+     * 从数据库读取玩家的成员记录并回填缓存（无记录时缓存为无工会）
+     */
+    private GuildMember loadMember(Connection conn, UUID playerUuid, long stamp) throws SQLException {
+        String sql = "SELECT * FROM guild_members WHERE player_uuid = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, playerUuid.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    GuildMember member = createGuildMemberFromResultSet(rs);
+                    cache.cacheMember(member, stamp);
+                    return member;
+                }
+            }
+        }
+        cache.cacheNoGuild(playerUuid, stamp);
+        return null;
+    }
+    
+    /**
+     * 从数据库读取工会并回填缓存
+     */
+    private Guild loadGuild(Connection conn, int guildId, long stamp) throws SQLException {
+        String sql = "SELECT * FROM guilds WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, guildId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Guild guild = createGuildFromResultSet(rs);
+                    cache.cacheGuild(guild, stamp);
+                    return guild;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 根据插入返回的自增主键构造新成员对象
+     */
+    private static GuildMember newMember(int memberId, int guildId, UUID playerUuid, String playerName, GuildMember.Role role) {
+        GuildMember member = new GuildMember(guildId, playerUuid, playerName, role);
+        member.setId(memberId);
+        return member;
+    }
+    
     /**
      * 获取工会成员 (同步包装器)
      */
@@ -567,11 +1127,16 @@ public class GuildService {
      * 获取工会成员数量 (异步)
      */
     public CompletableFuture<Integer> getGuildMemberCountAsync(int guildId) {
-        return CompletableFuture.supplyAsync(() -> {
+        int cachedCount = cache.getMemberCount(guildId);
+        if (cachedCount >= 0) {
+            return CompletableFuture.completedFuture(cachedCount);
+        }
+        
+        return databaseManager.supplyAsync(() -> {
             try {
                 String sql = "SELECT COUNT(*) FROM guild_members WHERE guild_id = ?";
                 
-                try (Connection conn = databaseManager.getConnection();
+                try (Connection conn = databaseManager.getReadConnection(guildId, null);
                      PreparedStatement stmt = conn.prepareStatement(sql)) {
                     
                     stmt.setInt(1, guildId);
@@ -605,22 +1170,30 @@ public class GuildService {
      * 获取工会所有成员 (异步)
      */
     public CompletableFuture<List<GuildMember>> getGuildMembersAsync(int guildId) {
-        return CompletableFuture.supplyAsync(() -> {
+        List<GuildMember> cachedMembers = cache.getMembers(guildId);
+        if (cachedMembers != null) {
+            return CompletableFuture.completedFuture(cachedMembers);
+        }
+        
+        return databaseManager.supplyAsync(() -> {
             List<GuildMember> members = new ArrayList<>();
+            long stamp = cache.stamp();
             try {
-                String sql = "SELECT * FROM guild_members WHERE guild_id = ? ORDER BY role ASC, joined_at ASC";
+                String sql = "SELECT * FROM guild_members WHERE guild_id = ? ORDER BY role ASC, joined_ms ASC";
                 
-                try (Connection conn = databaseManager.getConnection();
+                try (Connection conn = databaseManager.getReadConnection(guildId, null);
                      PreparedStatement stmt = conn.prepareStatement(sql)) {
                     
                     stmt.setInt(1, guildId);
                     
                     try (ResultSet rs = stmt.executeQuery()) {
+                        RowMapper<GuildMember> mapper = GuildRowMappers.member(rs);
                         while (rs.next()) {
-                            members.add(createGuildMemberFromResultSet(rs));
+                            members.add(mapper.map(rs));
                         }
                     }
                 }
+                cache.cacheMembers(guildId, members, stamp);
             } catch (SQLException e) {
                 logger.severe("获取工会成员列表时发生错误: " + e.getMessage());
             }
@@ -644,21 +1217,15 @@ public class GuildService {
      * 根据ID获取工会 (异步)
      */
     public CompletableFuture<Guild> getGuildByIdAsync(int guildId) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String sql = "SELECT * FROM guilds WHERE id = ?";
-                
-                try (Connection conn = databaseManager.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    
-                    stmt.setInt(1, guildId);
-                    
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        if (rs.next()) {
-                            return createGuildFromResultSet(rs);
-                        }
-                    }
-                }
+        Guild cachedGuild = cache.getGuild(guildId);
+        if (cachedGuild != null) {
+            return CompletableFuture.completedFuture(cachedGuild);
+        }
+        
+        return databaseManager.supplyAsync(() -> {
+            long stamp = cache.stamp();
+            try (Connection conn = databaseManager.getReadConnection(guildId, null)) {
+                return loadGuild(conn, guildId, stamp);
             } catch (SQLException e) {
                 logger.severe("根据ID获取工会时发生错误: " + e.getMessage());
             }
@@ -682,18 +1249,26 @@ public class GuildService {
      * 根据名称获取工会 (异步)
      */
     public CompletableFuture<Guild> getGuildByNameAsync(String name) {
-        return CompletableFuture.supplyAsync(() -> {
+        Guild cachedGuild = cache.getGuildByName(name);
+        if (cachedGuild != null) {
+            return CompletableFuture.completedFuture(cachedGuild);
+        }
+        
+        return databaseManager.supplyAsync(() -> {
+            long stamp = cache.stamp();
             try {
                 String sql = "SELECT * FROM guilds WHERE name = ?";
                 
-                try (Connection conn = databaseManager.getConnection();
+                try (Connection conn = databaseManager.getReadConnection();
                      PreparedStatement stmt = conn.prepareStatement(sql)) {
                     
                     stmt.setString(1, name);
                     
                     try (ResultSet rs = stmt.executeQuery()) {
                         if (rs.next()) {
-                            return createGuildFromResultSet(rs);
+                            Guild guild = createGuildFromResultSet(rs);
+                            cache.cacheGuild(guild, stamp);
+                            return guild;
                         }
                     }
                 }
@@ -716,22 +1291,172 @@ public class GuildService {
         }
     }
     
+    /**
+     * 批量根据ID获取工会 (异步)
+     * 已缓存的直接返回，其余的用 IN 查询一次取回；不存在的ID不会出现在结果中
+     */
+    public CompletableFuture<Map<Integer, Guild>> getGuildsByIdsAsync(Collection<Integer> guildIds) {
+        Map<Integer, Guild> result = new LinkedHashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int guildId : new LinkedHashSet<>(guildIds)) {
+            Guild cachedGuild = cache.getGuild(guildId);
+            if (cachedGuild != null) {
+                result.put(guildId, cachedGuild);
+            } else {
+                missing.add(guildId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        
+        return databaseManager.supplyAsync(() -> {
+            long stamp = cache.stamp();
+            try (Connection conn = databaseManager.getReadConnection()) {
+                for (List<Integer> chunk : chunks(missing)) {
+                    try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM guilds WHERE id IN (" + placeholders(chunk.size()) + ")")) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setInt(i + 1, chunk.get(i));
+                        }
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                Guild guild = createGuildFromResultSet(rs);
+                                cache.cacheGuild(guild, stamp);
+                                result.put(guild.getId(), guild);
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                logger.severe("批量获取工会时发生错误: " + e.getMessage());
+            }
+            return result;
+        });
+    }
+    
+    /**
+     * 批量根据名称获取工会 (异步)，结果以传入的名称为键
+     */
+    public CompletableFuture<Map<String, Guild>> getGuildsByNamesAsync(Collection<String> names) {
+        Map<String, Guild> result = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(names)) {
+            Guild cachedGuild = cache.getGuildByName(name);
+            if (cachedGuild != null) {
+                result.put(name, cachedGuild);
+            } else {
+                missing.add(name);
+            }
+        }
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        
+        return databaseManager.supplyAsync(() -> {
+            long stamp = cache.stamp();
+            try (Connection conn = databaseManager.getReadConnection()) {
+                for (List<String> chunk : chunks(missing)) {
+                    try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM guilds WHERE name IN (" + placeholders(chunk.size()) + ")")) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setString(i + 1, chunk.get(i));
+                        }
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                Guild guild = createGuildFromResultSet(rs);
+                                cache.cacheGuild(guild, stamp);
+                                // MySQL 的名称比较不区分大小写，按请求时的写法放回结果
+                                for (String name : chunk) {
+                                    if (name.equalsIgnoreCase(guild.getName())) {
+                                        result.put(name, guild);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                logger.severe("批量根据名称获取工会时发生错误: " + e.getMessage());
+            }
+            return result;
+        });
+    }
+    
+    /**
+     * 批量获取工会成员数量 (异步)
+     * 成员列表已缓存的直接计数，其余的用一次 GROUP BY 查询；没有成员的工会数量为 0
+     */
+    public CompletableFuture<Map<Integer, Integer>> getMemberCountsAsync(Collection<Integer> guildIds) {
+        Map<Integer, Integer> result = new LinkedHashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int guildId : new LinkedHashSet<>(guildIds)) {
+            int cachedCount = cache.getMemberCount(guildId);
+            result.put(guildId, Math.max(0, cachedCount));
+            if (cachedCount < 0) {
+                missing.add(guildId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        
+        return databaseManager.supplyAsync(() -> {
+            try (Connection conn = databaseManager.getReadConnection()) {
+                for (List<Integer> chunk : chunks(missing)) {
+                    try (PreparedStatement stmt = conn.prepareStatement("SELECT guild_id, COUNT(*) FROM guild_members WHERE guild_id IN (" +
+                             placeholders(chunk.size()) + ") GROUP BY guild_id")) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setInt(i + 1, chunk.get(i));
+                        }
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                result.put(rs.getInt(1), rs.getInt(2));
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                logger.severe("批量获取工会成员数量时发生错误: " + e.getMessage());
+            }
+            return result;
+        });
+    }
+    
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += IN_CHUNK) {
+            chunks.add(values.subList(from, Math.min(values.size(), from + IN_CHUNK)));
+        }
+        return chunks;
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
     /**
      * 根据标签获取工会 (异步)
      */
     public CompletableFuture<Guild> getGuildByTagAsync(String tag) {
-        return CompletableFuture.supplyAsync(() -> {
+        Guild cachedGuild = cache.getGuildByTag(tag);
+        if (cachedGuild != null) {
+            return CompletableFuture.completedFuture(cachedGuild);
+        }
+        
+        return databaseManager.supplyAsync(() -> {
+            long stamp = cache.stamp();
             try {
                 String sql = "SELECT * FROM guilds WHERE tag = ?";
                 
-                try (Connection conn = databaseManager.getConnection();
+                try (Connection conn = databaseManager.getReadConnection();
                      PreparedStatement stmt = conn.prepareStatement(sql)) {
                     
                     stmt.setString(1, tag);
                     
                     try (ResultSet rs = stmt.executeQuery()) {
                         if (rs.next()) {
-                            return createGuildFromResultSet(rs);
+                            Guild guild = createGuildFromResultSet(rs);
+                            cache.cacheGuild(guild, stamp);
+                            return guild;
                         }
                     }
                 }
@@ -758,17 +1483,21 @@ public class GuildService {
      * 获取所有工会 (异步)
      */
     public CompletableFuture<List<Guild>> getAllGuildsAsync() {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(() -> {
             List<Guild> guilds = new ArrayList<>();
+            long stamp = cache.stamp();
             try {
-                String sql = "SELECT * FROM guilds ORDER BY created_at DESC";
+                String sql = "SELECT * FROM guilds ORDER BY created_ms DESC";
                 
-                try (Connection conn = databaseManager.getConnection();
+                try (Connection conn = databaseManager.getReadConnection();
                      PreparedStatement stmt = conn.prepareStatement(sql);
                      ResultSet rs = stmt.executeQuery()) {
                     
+                    RowMapper<Guild> mapper = GuildRowMappers.guild(rs);
                     while (rs.next()) {
-                        guilds.add(createGuildFromResultSet(rs));
+                        Guild guild = mapper.map(rs);
+                        cache.cacheGuild(guild, stamp);
+                        guilds.add(guild);
                     }
                 }
             } catch (SQLException e) {
@@ -826,101 +1555,14 @@ public class GuildService {
      * 从ResultSet创建Guild对象
      */
     private Guild createGuildFromResultSet(ResultSet rs) throws SQLException {
-        Guild guild = new Guild();
-        guild.setId(rs.getInt("id"));
-        guild.setName(rs.getString("name"));
-        guild.setTag(rs.getString("tag"));
-        guild.setDescription(rs.getString("description"));
-        guild.setLeaderUuid(UUID.fromString(rs.getString("leader_uuid")));
-        guild.setLeaderName(rs.getString("leader_name"));
-        
-        // 家的位置信息（安全处理空值）
-        String homeWorld = rs.getString("home_world");
-        guild.setHomeWorld(homeWorld);
-        
-        if (homeWorld != null) {
-            guild.setHomeX(rs.getDouble("home_x"));
-            guild.setHomeY(rs.getDouble("home_y"));
-            guild.setHomeZ(rs.getDouble("home_z"));
-            guild.setHomeYaw(rs.getFloat("home_yaw"));
-            guild.setHomePitch(rs.getFloat("home_pitch"));
-        } else {
-            // 如果home_world为null，设置默认值
-            guild.setHomeX(0.0);
-            guild.setHomeY(0.0);
-            guild.setHomeZ(0.0);
-            guild.setHomeYaw(0.0f);
-            guild.setHomePitch(0.0f);
-        }
-        
-        guild.setCreatedAt(parseTimestamp(rs, "created_at"));
-        guild.setUpdatedAt(parseTimestamp(rs, "updated_at"));
-        
-        // 读取economy相关列（安全处理，如果列不存在则使用默认值）
-        try {
-            guild.setBalance(rs.getDouble("balance"));
-        } catch (SQLException e) {
-            guild.setBalance(0.0);
-        }
-        
-        try {
-            guild.setLevel(rs.getInt("level"));
-        } catch (SQLException e) {
-            guild.setLevel(1);
-        }
-        
-        try {
-            guild.setMaxMembers(rs.getInt("max_members"));
-        } catch (SQLException e) {
-            guild.setMaxMembers(6);
-        }
-        
-        try {
-            guild.setFrozen(rs.getBoolean("frozen"));
-        } catch (SQLException e) {
-            guild.setFrozen(false);
-        }
-        
-        return guild;
+        return GuildRowMappers.guild(rs).map(rs);
     }
     
     /**
      * 从ResultSet创建GuildMember对象
      */
     private GuildMember createGuildMemberFromResultSet(ResultSet rs) throws SQLException {
-        GuildMember member = new GuildMember();
-        member.setId(rs.getInt("id"));
-        member.setGuildId(rs.getInt("guild_id"));
-        member.setPlayerUuid(UUID.fromString(rs.getString("player_uuid")));
-        member.setPlayerName(rs.getString("player_name"));
-        member.setRole(GuildMember.Role.valueOf(rs.getString("role")));
-        member.setJoinedAt(parseTimestamp(rs, "joined_at"));
-        return member;
-    }
-    
-    /**
-     * 解析时间戳
-     */
-    private java.time.LocalDateTime parseTimestamp(ResultSet rs, String columnName) throws SQLException {
-        // 优先以字符串按统一格式解析，避免驱动按时区转换导致偏差
-        String s = rs.getString(columnName);
-        if (s != null && !s.isEmpty()) {
-            try {
-                return LocalDateTime.parse(s, com.guild.core.time.TimeProvider.FULL_FORMATTER);
-            } catch (Exception ignore) {
-                try {
-                    return LocalDateTime.parse(s.replace(" ", "T"));
-                } catch (Exception ex) {
-                    logger.warning("无法解析时间戳: " + s);
-                }
-            }
-        }
-        // 回退：使用驱动时间戳
-        try {
-            Timestamp ts = rs.getTimestamp(columnName);
-            if (ts != null) return ts.toLocalDateTime();
-        } catch (SQLException ignore) {}
-        return LocalDateTime.now();
+        return GuildRowMappers.member(rs).map(rs);
     }
 
     
@@ -929,39 +1571,38 @@ public class GuildService {
      * 提交申请 (异步)
      */
     public CompletableFuture<Boolean> submitApplicationAsync(int guildId, UUID playerUuid, String playerName, String message) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(() -> {
             try {
-                // 检查是否已有待处理的申请
-                if (hasPendingApplication(playerUuid, guildId)) {
-                    return false;
-                }
-                
-                String sql = "INSERT INTO guild_applications (guild_id, player_uuid, player_name, message, status, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+                String sql = "INSERT INTO guild_applications (guild_id, player_uuid, player_name, message, status, created_at, created_ms) VALUES (?, ?, ?, ?, ?, ?, ?)";
                 
-                try (Connection conn = databaseManager.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                long createdMillis = nowMillis();
+                // 检查待处理的申请与插入在同一事务中完成，不在数据库线程上等待另一个数据库任务
+                int applicationId = databaseManager.executeInTransaction(unitOfWork -> {
+                    if (unitOfWork.queryInt("SELECT COUNT(*) FROM guild_applications WHERE player_uuid = ? AND guild_id = ? AND status = ?", 0,
+                            playerUuid.toString(), guildId, GuildApplication.ApplicationStatus.PENDING.name()) > 0) {
+                        return 0;
+                    }
+                    int id = unitOfWork.insert(sql, guildId, playerUuid.toString(), playerName, message,
+                        GuildApplication.ApplicationStatus.PENDING.name(), nowString(), createdMillis);
+                    if (id > 0) {
+                        changeFeed.record(unitOfWork, guildId, playerUuid);
+                    }
+                    return id;
+                });
+                if (applicationId > 0) {
+                    logger.info("玩家 " + playerName + " 提交了加入工会申请 (工会ID: " + guildId + ")");
+                    expiry.registerApplication(applicationId, createdMillis);
+                    recordWrite(guildId, playerUuid);
                     
-                    stmt.setInt(1, guildId);
-                    stmt.setString(2, playerUuid.toString());
-                    stmt.setString(3, playerName);
-                    stmt.setString(4, message);
-                    stmt.setString(5, GuildApplication.ApplicationStatus.PENDING.name());
-                    stmt.setString(6, nowString());
+                    // 记录申请提交日志
+                    getGuildByIdAsync(guildId).thenAccept(guild -> {
+                        if (guild != null) {
+                            logGuildActionAsync(guildId, guild.getName(), playerUuid.toString(), playerName,
+                                GuildLog.LogType.APPLICATION_SUBMITTED, "申请提交", "申请消息: " + message);
+                        }
+                    });
                     
-                    int affectedRows = stmt.executeUpdate();
-                    if (affectedRows > 0) {
-                        logger.info("玩家 " + playerName + " 提交了加入工会申请 (工会ID: " + guildId + ")");
-                        
-                        // 记录申请提交日志
-                        getGuildByIdAsync(guildId).thenAccept(guild -> {
-                            if (guild != null) {
-                                logGuildActionAsync(guildId, guild.getName(), playerUuid.toString(), playerName,
-                                    GuildLog.LogType.APPLICATION_SUBMITTED, "申请提交", "申请消息: " + message);
-                            }
-                        });
-                        
-                        return true;
-                    }
+                    return true;
                 }
             } catch (SQLException e) {
                 logger.severe("提交申请时发生错误: " + e.getMessage());
@@ -998,48 +1639,62 @@ public class GuildService {
                     return CompletableFuture.completedFuture(false);
                 }
                 
-                return CompletableFuture.supplyAsync(() -> {
+                boolean approve = status == GuildApplication.ApplicationStatus.APPROVED;
+                // 通过时更新申请状态与写入成员在同一事务中完成，申请人已加入其他工会时整体回滚
+                return databaseManager.supplyAsync(() -> {
+                    GuildMember[] joined = new GuildMember[1];
+                    boolean processed;
                     try {
-                        String sql = "UPDATE guild_applications SET status = ? WHERE id = ?";
-                        
-                        try (Connection conn = databaseManager.getConnection();
-                             PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            
-                            stmt.setString(1, status.name());
-                            stmt.setInt(2, applicationId);
-                            
-                            int affectedRows = stmt.executeUpdate();
-                            if (affectedRows > 0) {
-                                logger.info("申请处理完成: " + application.getPlayerName() + " -> " + status.name());
-                                
-                                // 记录申请处理日志
-                                getGuildByIdAsync(application.getGuildId()).thenAccept(guild -> {
-                                    if (guild != null) {
-                                        GuildLog.LogType logType = status == GuildApplication.ApplicationStatus.APPROVED ? 
-                                            GuildLog.LogType.APPLICATION_ACCEPTED : GuildLog.LogType.APPLICATION_REJECTED;
-                                        String description = status == GuildApplication.ApplicationStatus.APPROVED ? "申请接受" : "申请拒绝";
-                                        String details = "申请人: " + application.getPlayerName() + ", 处理者: " + processor.getPlayerName();
-                                        
-                                        logGuildActionAsync(application.getGuildId(), guild.getName(), 
-                                            processorUuid.toString(), processor.getPlayerName(),
-                                            logType, description, details);
-                                    }
-                                });
-                                
+                        processed = databaseManager.executeInTransaction(unitOfWork -> {
+                            if (unitOfWork.update("UPDATE guild_applications SET status = ? WHERE id = ? AND status = ?",
+                                    status.name(), applicationId, GuildApplication.ApplicationStatus.PENDING.name()) == 0) {
+                                unitOfWork.setRollbackOnly();
+                                return false;
+                            }
+                            changeFeed.record(unitOfWork, application.getGuildId(), application.getPlayerUuid());
+                            if (!approve) {
                                 return true;
                             }
-                        }
+                            if (unitOfWork.queryInt("SELECT COUNT(*) FROM guild_members WHERE player_uuid = ?", 0,
+                                    application.getPlayerUuid().toString()) > 0) {
+                                unitOfWork.setRollbackOnly();
+                                return false;
+                            }
+                            String sql = "INSERT INTO guild_members (guild_id, player_uuid, player_name, role, joined_at, joined_ms) VALUES (?, ?, ?, ?, ?, ?)";
+                            int memberId = unitOfWork.insert(sql, application.getGuildId(), application.getPlayerUuid().toString(),
+                                application.getPlayerName(), GuildMember.Role.MEMBER.name(), nowString(), nowMillis());
+                            joined[0] = newMember(memberId, application.getGuildId(), application.getPlayerUuid(),
+                                application.getPlayerName(), GuildMember.Role.MEMBER);
+                            return true;
+                        });
                     } catch (SQLException e) {
                         logger.severe("处理申请时发生错误: " + e.getMessage());
+                        return false;
                     }
-                    return false;
-                }).thenCompose(success -> {
-                    if (success && status == GuildApplication.ApplicationStatus.APPROVED) {
-                        // 如果申请被通过，自动添加成员
-                        return addGuildMemberAsync(application.getGuildId(), application.getPlayerUuid(), 
-                                                  application.getPlayerName(), GuildMember.Role.MEMBER);
+                    if (!processed) {
+                        return false;
+                    }
+                    
+                    logger.info("申请处理完成: " + application.getPlayerName() + " -> " + status.name());
+                    recordWrite(application.getGuildId(), application.getPlayerUuid());
+                    if (joined[0] != null) {
+                        onMemberJoined(joined[0]);
                     }
-                    return CompletableFuture.completedFuture(success);
+                    
+                    // 记录申请处理日志
+                    getGuildByIdAsync(application.getGuildId()).thenAccept(guild -> {
+                        if (guild != null) {
+                            GuildLog.LogType logType = approve ? 
+                                GuildLog.LogType.APPLICATION_ACCEPTED : GuildLog.LogType.APPLICATION_REJECTED;
+                            String description = approve ? "申请接受" : "申请拒绝";
+                            String details = "申请人: " + application.getPlayerName() + ", 处理者: " + processor.getPlayerName();
+                            
+                            logGuildActionAsync(application.getGuildId(), guild.getName(), 
+                                processorUuid.toString(), processor.getPlayerName(),
+                                logType, description, details);
+                        }
+                    });
+                    return true;
                 });
             });
         });
@@ -1061,11 +1716,11 @@ public class GuildService {
      * 检查是否有待处理的申请 (异步)
      */
     public CompletableFuture<Boolean> hasPendingApplicationAsync(UUID playerUuid, int guildId) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(() -> {
             try {
                 String sql = "SELECT COUNT(*) FROM guild_applications WHERE player_uuid = ? AND guild_id = ? AND status = ?";
                 
-                try (Connection conn = databaseManager.getConnection();
+                try (Connection conn = databaseManager.getReadConnection(guildId, playerUuid);
                      PreparedStatement stmt = conn.prepareStatement(sql)) {
                     
                     stmt.setString(1, playerUuid.toString());
@@ -1101,19 +1756,20 @@ public class GuildService {
      * 获取工会申请列表 (异步)
      */
     public CompletableFuture<List<GuildApplication>> getGuildApplicationsAsync(int guildId) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(() -> {
             List<GuildApplication> applications = new ArrayList<>();
             try {
-                String sql = "SELECT * FROM guild_applications WHERE guild_id = ? ORDER BY created_at DESC";
+                String sql = "SELECT * FROM guild_applications WHERE guild_id = ? ORDER BY created_ms DESC";
                 
-                try (Connection conn = databaseManager.getConnection();
+                try (Connection conn = databaseManager.getReadConnection(guildId, null);
                      PreparedStatement stmt = conn.prepareStatement(sql)) {
                     
                     stmt.setInt(1, guildId);
                     
                     try (ResultSet rs = stmt.executeQuery()) {
+                        RowMapper<GuildApplication> mapper = GuildRowMappers.application(rs);
                         while (rs.next()) {
-                            applications.add(createGuildApplicationFromResultSet(rs));
+                            applications.add(mapper.map(rs));
                         }
                     }
                 }
@@ -1140,19 +1796,20 @@ public class GuildService {
      * 获取玩家申请列表 (异步)
      */
     public CompletableFuture<List<GuildApplication>> getPlayerApplicationsAsync(UUID playerUuid) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(() -> {
             List<GuildApplication> applications = new ArrayList<>();
             try {
-                String sql = "SELECT * FROM guild_applications WHERE player_uuid = ? ORDER BY created_at DESC";
+                String sql = "SELECT * FROM guild_applications WHERE player_uuid = ? ORDER BY created_ms DESC";
                 
-                try (Connection conn = databaseManager.getConnection();
+                try (Connection conn = databaseManager.getReadConnection(0, playerUuid);
                      PreparedStatement stmt = conn.prepareStatement(sql)) {
                     
                     stmt.setString(1, playerUuid.toString());
                     
                     try (ResultSet rs = stmt.executeQuery()) {
+                        RowMapper<GuildApplication> mapper = GuildRowMappers.application(rs);
                         while (rs.next()) {
-                            applications.add(createGuildApplicationFromResultSet(rs));
+                            applications.add(mapper.map(rs));
                         }
                     }
                 }
@@ -1179,11 +1836,11 @@ public class GuildService {
      * 根据ID获取申请 (异步)
      */
     public CompletableFuture<GuildApplication> getApplicationByIdAsync(int applicationId) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(() -> {
             try {
                 String sql = "SELECT * FROM guild_applications WHERE id = ?";
                 
-                try (Connection conn = databaseManager.getConnection();
+                try (Connection conn = databaseManager.getReadConnection();
                      PreparedStatement stmt = conn.prepareStatement(sql)) {
                     
                     stmt.setInt(1, applicationId);
@@ -1217,17 +1874,8 @@ public class GuildService {
      * 从ResultSet创建GuildApplication对象
      */
     private GuildApplication createGuildApplicationFromResultSet(ResultSet rs) throws SQLException {
-        GuildApplication application = new GuildApplication();
-        application.setId(rs.getInt("id"));
-        application.setGuildId(rs.getInt("guild_id"));
-        application.setPlayerUuid(UUID.fromString(rs.getString("player_uuid")));
-        application.setPlayerName(rs.getString("player_name"));
-        application.setMessage(rs.getString("message"));
-                 application.setStatus(GuildApplication.ApplicationStatus.valueOf(rs.getString("status")));
-         application.setCreatedAt(parseTimestamp(rs, "created_at"));
-         
-         return application;
-     }
+        return GuildRowMappers.application(rs).map(rs);
+    }
      
      /**
       * 设置工会家 (异步)
@@ -1244,27 +1892,23 @@ public class GuildService {
                      return CompletableFuture.completedFuture(false);
                  }
                  
-                 return CompletableFuture.supplyAsync(() -> {
+                 return databaseManager.supplyAsync(() -> {
                      try {
-                         String sql = "UPDATE guilds SET home_world = ?, home_x = ?, home_y = ?, home_z = ?, home_yaw = ?, home_pitch = ?, updated_at = ? WHERE id = ?";
+                         String sql = "UPDATE guilds SET home_world = ?, home_x = ?, home_y = ?, home_z = ?, home_yaw = ?, home_pitch = ?, updated_at = ?, updated_ms = ? WHERE id = ?";
                          
-                         try (Connection conn = databaseManager.getConnection();
-                              PreparedStatement stmt = conn.prepareStatement(sql)) {
-                             
-                             stmt.setString(1, location.getWorld().getName());
-                             stmt.setDouble(2, location.getX());
-                             stmt.setDouble(3, location.getY());
-                             stmt.setDouble(4, location.getZ());
-                             stmt.setFloat(5, location.getYaw());
-                             stmt.setFloat(6, location.getPitch());
-                             stmt.setString(7, nowString());
-                             stmt.setInt(8, guildId);
-                             
-                             int affectedRows = stmt.executeUpdate();
-                             if (affectedRows > 0) {
-                                 logger.info("工会家设置成功: " + guild.getName() + " (ID: " + guildId + ")");
-                                 return true;
-                             }
+                         int affectedRows = updateRecorded(guildId, requesterUuid, sql, location.getWorld().getName(), location.getX(), location.getY(), location.getZ(), location.getYaw(), location.getPitch(), nowString(), nowMillis(), guildId);
+                         if (affectedRows > 0) {
+                             logger.info("工会家设置成功: " + guild.getName() + " (ID: " + guildId + ")");
+                             recordWrite(guildId, requesterUuid);
+                             cache.updateGuild(guildId, cached -> {
+                                 cached.setHomeWorld(location.getWorld().getName());
+                                 cached.setHomeX(location.getX());
+                                 cached.setHomeY(location.getY());
+                                 cached.setHomeZ(location.getZ());
+                                 cached.setHomeYaw(location.getYaw());
+                                 cached.setHomePitch(location.getPitch());
+                             });
+                             return true;
                          }
                      } catch (SQLException e) {
                          logger.severe("设置工会家时发生错误: " + e.getMessage());
@@ -1334,27 +1978,19 @@ public class GuildService {
                      return CompletableFuture.completedFuture(false);
                  }
                  
-                 return CompletableFuture.supplyAsync(() -> {
+                 return databaseManager.supplyAsync(() -> {
                      try {
-                         String sql = "INSERT INTO guild_invites (guild_id, player_uuid, player_name, inviter_uuid, inviter_name, status, expires_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-                         
-                         try (Connection conn = databaseManager.getConnection();
-                              PreparedStatement stmt = conn.prepareStatement(sql)) {
+                         String sql = "INSERT INTO guild_invites (guild_id, player_uuid, player_name, inviter_uuid, inviter_name, status, expires_at, created_at, expires_ms, created_ms) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
                          
-                             stmt.setInt(1, guildId);
-                             stmt.setString(2, targetUuid.toString());
-                             stmt.setString(3, targetName);
-                             stmt.setString(4, inviterUuid.toString());
-                             stmt.setString(5, inviterName);
-                             stmt.setString(6, "PENDING");
-                             stmt.setString(7, plusMinutesString(30));
-                             stmt.setString(8, nowString());
-                         
-                             int affectedRows = stmt.executeUpdate();
-                             if (affectedRows > 0) {
-                                 logger.info("邀请发送成功: " + inviterName + " -> " + targetName + " (工会ID: " + guildId + ")");
-                                 return true;
-                             }
+                         long expiresMillis = plusMinutesMillis(30);
+                         int inviteId = insertRecorded(guildId, targetUuid, sql, guildId, targetUuid.toString(), targetName,
+                             inviterUuid.toString(), inviterName, "PENDING", plusMinutesString(30), nowString(),
+                             expiresMillis, nowMillis());
+                         if (inviteId > 0) {
+                             logger.info("邀请发送成功: " + inviterName + " -> " + targetName + " (工会ID: " + guildId + ")");
+                             expiry.register(ExpiryService.Kind.INVITE, inviteId, expiresMillis);
+                             recordWrite(guildId, targetUuid);
+                             return true;
                          }
                      } catch (SQLException e) {
                          logger.severe("发送邀请时发生错误: " + e.getMessage());
@@ -1386,25 +2022,18 @@ public class GuildService {
                  return CompletableFuture.completedFuture(false);
              }
              
-             return CompletableFuture.supplyAsync(() -> {
+             return databaseManager.supplyAsync(() -> {
                  try {
                      String status = accept ? "ACCEPTED" : "DECLINED";
                      String sql = "UPDATE guild_invites SET status = ? WHERE player_uuid = ? AND inviter_uuid = ? AND status = 'PENDING'";
                      
-                     try (Connection conn = databaseManager.getConnection();
-                          PreparedStatement stmt = conn.prepareStatement(sql)) {
-                         
-                         stmt.setString(1, status);
-                         stmt.setString(2, targetUuid.toString());
-                         stmt.setString(3, inviterUuid.toString());
-                         
-                         int affectedRows = stmt.executeUpdate();
-                         if (affectedRows > 0) {
-                             logger.info("邀请处理成功: " + targetUuid + " -> " + status);
-                             return true;
-                         }
-                         return false;
+                     int affectedRows = updateRecorded(0, targetUuid, sql, status, targetUuid.toString(), inviterUuid.toString());
+                     if (affectedRows > 0) {
+                         logger.info("邀请处理成功: " + targetUuid + " -> " + status);
+                         recordWrite(0, targetUuid);
+                         return true;
                      }
+                     return false;
                  } catch (SQLException e) {
                      logger.severe("处理邀请时发生错误: " + e.getMessage());
                  }
@@ -1435,16 +2064,16 @@ public class GuildService {
       * 获取待处理邀请 (异步)
       */
      public CompletableFuture<GuildInvitation> getPendingInvitationAsync(UUID targetUuid, UUID inviterUuid) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              try {
-                 String sql = "SELECT * FROM guild_invites WHERE player_uuid = ? AND inviter_uuid = ? AND status = 'PENDING' AND expires_at > ? ORDER BY created_at DESC LIMIT 1";
+                 String sql = "SELECT * FROM guild_invites WHERE player_uuid = ? AND inviter_uuid = ? AND status = 'PENDING' AND expires_ms > ? ORDER BY created_ms DESC LIMIT 1";
                  
-                 try (Connection conn = databaseManager.getConnection();
+                 try (Connection conn = databaseManager.getReadConnection(0, targetUuid);
                       PreparedStatement stmt = conn.prepareStatement(sql)) {
                  
                      stmt.setString(1, targetUuid.toString());
                      stmt.setString(2, inviterUuid.toString());
-                     stmt.setString(3, nowString());
+                     stmt.setLong(3, nowMillis());
                  
                      try (ResultSet rs = stmt.executeQuery()) {
                          if (rs.next()) {
@@ -1475,16 +2104,16 @@ public class GuildService {
       * 获取玩家的待处理邀请 (异步)
       */
      public CompletableFuture<GuildInvitation> getPendingInvitationAsync(UUID targetUuid, int guildId) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              try {
-                 String sql = "SELECT * FROM guild_invites WHERE player_uuid = ? AND guild_id = ? AND status = 'PENDING' AND expires_at > ? ORDER BY created_at DESC LIMIT 1";
+                 String sql = "SELECT * FROM guild_invites WHERE player_uuid = ? AND guild_id = ? AND status = 'PENDING' AND expires_ms > ? ORDER BY created_ms DESC LIMIT 1";
                  
-                 try (Connection conn = databaseManager.getConnection();
+                 try (Connection conn = databaseManager.getReadConnection(guildId, targetUuid);
                       PreparedStatement stmt = conn.prepareStatement(sql)) {
                  
                      stmt.setString(1, targetUuid.toString());
                      stmt.setInt(2, guildId);
-                     stmt.setString(3, nowString());
+                     stmt.setLong(3, nowMillis());
                  
                      try (ResultSet rs = stmt.executeQuery()) {
                          if (rs.next()) {
@@ -1515,36 +2144,27 @@ public class GuildService {
       * 从ResultSet创建GuildInvitation对象
       */
      private GuildInvitation createGuildInvitationFromResultSet(ResultSet rs) throws SQLException {
-         GuildInvitation invitation = new GuildInvitation();
-         invitation.setId(rs.getInt("id"));
-         invitation.setGuildId(rs.getInt("guild_id"));
-         invitation.setTargetUuid(UUID.fromString(rs.getString("player_uuid")));
-         invitation.setTargetName(rs.getString("player_name"));
-         invitation.setInviterUuid(UUID.fromString(rs.getString("inviter_uuid")));
-         invitation.setInviterName(rs.getString("inviter_name"));
-         invitation.setStatus(GuildInvitation.InvitationStatus.valueOf(rs.getString("status")));
-         invitation.setInvitedAt(parseTimestamp(rs, "created_at"));
-         invitation.setExpiresAt(parseTimestamp(rs, "expires_at"));
-         return invitation;
+         return GuildRowMappers.invitation(rs).map(rs);
      }
      
      /**
       * 获取待处理申请 (异步)
       */
      public CompletableFuture<List<GuildApplication>> getPendingApplicationsAsync(int guildId) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              List<GuildApplication> applications = new ArrayList<>();
              try {
-                 String sql = "SELECT * FROM guild_applications WHERE guild_id = ? AND status = 'PENDING' ORDER BY created_at DESC";
+                 String sql = "SELECT * FROM guild_applications WHERE guild_id = ? AND status = 'PENDING' ORDER BY created_ms DESC";
                  
-                 try (Connection conn = databaseManager.getConnection();
+                 try (Connection conn = databaseManager.getReadConnection(guildId, null);
                       PreparedStatement stmt = conn.prepareStatement(sql)) {
                      
                      stmt.setInt(1, guildId);
                      
                      try (ResultSet rs = stmt.executeQuery()) {
+                         RowMapper<GuildApplication> mapper = GuildRowMappers.application(rs);
                          while (rs.next()) {
-                             applications.add(createGuildApplicationFromResultSet(rs));
+                             applications.add(mapper.map(rs));
                          }
                      }
                  }
@@ -1559,19 +2179,20 @@ public class GuildService {
       * 获取申请历史 (异步)
       */
      public CompletableFuture<List<GuildApplication>> getApplicationHistoryAsync(int guildId) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              List<GuildApplication> applications = new ArrayList<>();
              try {
-                 String sql = "SELECT * FROM guild_applications WHERE guild_id = ? AND status != 'PENDING' ORDER BY created_at DESC";
+                 String sql = "SELECT * FROM guild_applications WHERE guild_id = ? AND status != 'PENDING' ORDER BY created_ms DESC";
                  
-                 try (Connection conn = databaseManager.getConnection();
+                 try (Connection conn = databaseManager.getReadConnection(guildId, null);
                       PreparedStatement stmt = conn.prepareStatement(sql)) {
                      
                      stmt.setInt(1, guildId);
                      
                      try (ResultSet rs = stmt.executeQuery()) {
+                         RowMapper<GuildApplication> mapper = GuildRowMappers.application(rs);
                          while (rs.next()) {
-                             applications.add(createGuildApplicationFromResultSet(rs));
+                             applications.add(mapper.map(rs));
                          }
                      }
                  }
@@ -1586,11 +2207,21 @@ public class GuildService {
       * 获取工会成员 (异步) - 重载方法，接受guildId参数
       */
      public CompletableFuture<GuildMember> getGuildMemberAsync(int guildId, UUID playerUuid) {
-         return CompletableFuture.supplyAsync(() -> {
+         Integer cachedGuildId = cache.getPlayerGuildId(playerUuid);
+         if (cachedGuildId != null && cachedGuildId != guildId) {
+             return CompletableFuture.completedFuture(null);
+         }
+         GuildMember cachedMember = cache.getMember(playerUuid);
+         if (cachedMember != null && cachedMember.getGuildId() == guildId) {
+             return CompletableFuture.completedFuture(cachedMember);
+         }
+         
+         return databaseManager.supplyAsync(() -> {
+             long stamp = cache.stamp();
              try {
                  String sql = "SELECT * FROM guild_members WHERE guild_id = ? AND player_uuid = ?";
                  
-                 try (Connection conn = databaseManager.getConnection();
+                 try (Connection conn = databaseManager.getReadConnection(guildId, playerUuid);
                       PreparedStatement stmt = conn.prepareStatement(sql)) {
                      
                      stmt.setInt(1, guildId);
@@ -1598,7 +2229,9 @@ public class GuildService {
                      
                      try (ResultSet rs = stmt.executeQuery()) {
                          if (rs.next()) {
-                             return createGuildMemberFromResultSet(rs);
+                             GuildMember member = createGuildMemberFromResultSet(rs);
+                             cache.cacheMember(member, stamp);
+                             return member;
                          }
                      }
                  }
@@ -1613,19 +2246,17 @@ public class GuildService {
       * 更新工会描述 (异步)
       */
      public CompletableFuture<Boolean> updateGuildDescriptionAsync(int guildId, String description) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              try {
                  String sql = "UPDATE guilds SET description = ? WHERE id = ?";
                  
-                 try (Connection conn = databaseManager.getConnection();
-                      PreparedStatement stmt = conn.prepareStatement(sql)) {
-                     
-                     stmt.setString(1, description);
-                     stmt.setInt(2, guildId);
-                     
-                     int rowsAffected = stmt.executeUpdate();
-                     return rowsAffected > 0;
+                 int rowsAffected = updateRecorded(guildId, null, sql, description, guildId);
+                 if (rowsAffected > 0) {
+                     cache.updateGuild(guildId, cached -> cached.setDescription(description));
+                     recordWrite(guildId, null);
+                     return true;
                  }
+                 return false;
              } catch (SQLException e) {
                  logger.severe("更新工会描述时发生错误: " + e.getMessage());
                  return false;
@@ -1640,25 +2271,31 @@ public class GuildService {
       */
      public CompletableFuture<Boolean> createGuildRelationAsync(int guild1Id, int guild2Id, String guild1Name, String guild2Name,
                                                               GuildRelation.RelationType type, UUID initiatorUuid, String initiatorName) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              try {
-                 String sql = "INSERT INTO guild_relations (guild1_id, guild2_id, guild1_name, guild2_name, relation_type, initiator_uuid, initiator_name, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-                 
-                 try (Connection conn = databaseManager.getConnection();
-                      PreparedStatement stmt = conn.prepareStatement(sql)) {
+                 String sql = "INSERT INTO guild_relations (guild1_id, guild2_id, guild1_name, guild2_name, relation_type, initiator_uuid, initiator_name, expires_at, created_ms, updated_ms, expires_ms) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
                  
-                     stmt.setInt(1, guild1Id);
-                     stmt.setInt(2, guild2Id);
-                     stmt.setString(3, guild1Name);
-                     stmt.setString(4, guild2Name);
-                     stmt.setString(5, type.name());
-                     stmt.setString(6, initiatorUuid.toString());
-                     stmt.setString(7, initiatorName);
-                     stmt.setString(8, plusDaysString(7));
-                     
-                     int rowsAffected = stmt.executeUpdate();
-                     return rowsAffected > 0;
+                 long expiresMillis = plusDaysMillis(7);
+                 int relationId = databaseManager.executeInTransaction(unitOfWork -> {
+                     int id = unitOfWork.insert(sql, guild1Id, guild2Id, guild1Name, guild2Name, type.name(),
+                         initiatorUuid.toString(), initiatorName, plusDaysString(7), nowMillis(), nowMillis(), expiresMillis);
+                     if (id > 0) {
+                         changeFeed.record(unitOfWork, guild1Id, null);
+                         changeFeed.record(unitOfWork, guild2Id, null);
+                         changeFeed.recordRelationChange(unitOfWork);
+                     }
+                     return id;
+                 });
+                 if (relationId > 0) {
+                     GuildRelation relation = new GuildRelation(guild1Id, guild2Id, guild1Name, guild2Name,
+                         type, initiatorUuid, initiatorName);
+                     relation.setId(relationId);
+                     relationGraph.addRelation(relation);
+                     expiry.register(ExpiryService.Kind.RELATION, relationId, expiresMillis);
+                     recordWrite(guild1Id, null);
+                     recordWrite(guild2Id, null);
                  }
+                 return relationId > 0;
              } catch (SQLException e) {
                  logger.severe("创建工会关系时发生错误: " + e.getMessage());
                  return false;
@@ -1670,20 +2307,17 @@ public class GuildService {
       * 更新工会关系状态 (异步)
       */
      public CompletableFuture<Boolean> updateGuildRelationStatusAsync(int relationId, GuildRelation.RelationStatus status) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              try {
-                 String sql = "UPDATE guild_relations SET status = ?, updated_at = ? WHERE id = ?";
-                 
-                 try (Connection conn = databaseManager.getConnection();
-                      PreparedStatement stmt = conn.prepareStatement(sql)) {
+                 String sql = "UPDATE guild_relations SET status = ?, updated_at = ?, updated_ms = ? WHERE id = ?";
                  
-                     stmt.setString(1, status.name());
-                     stmt.setString(2, nowString());
-                     stmt.setInt(3, relationId);
-                 
-                     int rowsAffected = stmt.executeUpdate();
-                     return rowsAffected > 0;
+                 int rowsAffected = updateRelationRecorded(sql, status.name(), nowString(), nowMillis(), relationId);
+                 if (rowsAffected > 0) {
+                     relationGraph.updateStatus(relationId, status);
+                     // 只知道关系ID，仅开启全局窗口
+                     recordWrite(0, null);
                  }
+                 return rowsAffected > 0;
              } catch (SQLException e) {
                  logger.severe("更新工会关系状态时发生错误: " + e.getMessage());
                  return false;
@@ -1695,11 +2329,14 @@ public class GuildService {
       * 获取工会关系 (异步)
       */
      public CompletableFuture<GuildRelation> getGuildRelationAsync(int guild1Id, int guild2Id) {
-         return CompletableFuture.supplyAsync(() -> {
+         if (relationGraph.isLoaded()) {
+             return CompletableFuture.completedFuture(relationGraph.getRelation(guild1Id, guild2Id));
+         }
+         return databaseManager.supplyAsync(() -> {
              try {
                  String sql = "SELECT * FROM guild_relations WHERE (guild1_id = ? AND guild2_id = ?) OR (guild1_id = ? AND guild2_id = ?)";
                  
-                 try (Connection conn = databaseManager.getConnection();
+                 try (Connection conn = databaseManager.getReadConnection(guild1Id, null);
                       PreparedStatement stmt = conn.prepareStatement(sql)) {
                      
                      stmt.setInt(1, guild1Id);
@@ -1724,25 +2361,52 @@ public class GuildService {
       * 获取工会的所有关系 (异步)
       */
      public CompletableFuture<List<GuildRelation>> getGuildRelationsAsync(int guildId) {
-         return CompletableFuture.supplyAsync(() -> {
+         if (relationGraph.isLoaded()) {
+             return CompletableFuture.completedFuture(relationGraph.getRelations(guildId));
+         }
+         return databaseManager.supplyAsync(() -> {
              List<GuildRelation> relations = new ArrayList<>();
              try {
-                 String sql = "SELECT * FROM guild_relations WHERE guild1_id = ? OR guild2_id = ? ORDER BY created_at DESC";
+                 String sql = "SELECT * FROM guild_relations WHERE guild1_id = ? OR guild2_id = ? ORDER BY created_ms DESC";
                  
-                 try (Connection conn = databaseManager.getConnection();
+                 try (Connection conn = databaseManager.getReadConnection(guildId, null);
                       PreparedStatement stmt = conn.prepareStatement(sql)) {
                      
                      stmt.setInt(1, guildId);
                      stmt.setInt(2, guildId);
                      
                      try (ResultSet rs = stmt.executeQuery()) {
+                         RowMapper<GuildRelation> mapper = GuildRowMappers.relation(rs);
                          while (rs.next()) {
-                             relations.add(createGuildRelationFromResultSet(rs));
+                             relations.add(mapper.map(rs));
                          }
                      }
                  }
              } catch (SQLException e) {
-                 logger.severe("获取工会关系列表时发生错误: " + e.getMessage());
+                 logger.severe("获取工会关系列表时发生错误: " + e.getMessage());
+             }
+             return relations;
+         });
+     }
+     
+     /**
+      * 获取所有工会关系 (异步)
+      */
+     public CompletableFuture<List<GuildRelation>> getAllGuildRelationsAsync() {
+         if (relationGraph.isLoaded()) {
+             return CompletableFuture.completedFuture(relationGraph.getAllRelations());
+         }
+         return databaseManager.supplyAsync(() -> {
+             List<GuildRelation> relations = new ArrayList<>();
+             try (Connection conn = databaseManager.getReadConnection();
+                  PreparedStatement stmt = conn.prepareStatement("SELECT * FROM guild_relations ORDER BY created_ms DESC");
+                  ResultSet rs = stmt.executeQuery()) {
+                 RowMapper<GuildRelation> mapper = GuildRowMappers.relation(rs);
+                 while (rs.next()) {
+                     relations.add(mapper.map(rs));
+                 }
+             } catch (SQLException e) {
+                 logger.severe("获取所有工会关系时发生错误: " + e.getMessage());
              }
              return relations;
          });
@@ -1752,18 +2416,16 @@ public class GuildService {
       * 删除工会关系 (异步)
       */
      public CompletableFuture<Boolean> deleteGuildRelationAsync(int relationId) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              try {
                  String sql = "DELETE FROM guild_relations WHERE id = ?";
                  
-                 try (Connection conn = databaseManager.getConnection();
-                      PreparedStatement stmt = conn.prepareStatement(sql)) {
-                     
-                     stmt.setInt(1, relationId);
-                     
-                     int rowsAffected = stmt.executeUpdate();
-                     return rowsAffected > 0;
+                 int rowsAffected = updateRelationRecorded(sql, relationId);
+                 if (rowsAffected > 0) {
+                     relationGraph.removeRelation(relationId);
+                     recordWrite(0, null);
                  }
+                 return rowsAffected > 0;
              } catch (SQLException e) {
                  logger.severe("删除工会关系时发生错误: " + e.getMessage());
                  return false;
@@ -1777,19 +2439,16 @@ public class GuildService {
       * 初始化工会经济 (异步)
       */
      public CompletableFuture<Boolean> initializeGuildEconomyAsync(int guildId) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              try {
-                 String sql = "INSERT INTO guild_economy (guild_id, balance, level, experience, max_experience, max_members) " +
-                             "VALUES (?, 0.0, 1, 0.0, 5000.0, 6)";
+                 String sql = "INSERT INTO guild_economy (guild_id, balance, level, experience, max_experience, max_members, last_updated_ms) " +
+                             "VALUES (?, 0.0, 1, 0.0, 5000.0, 6, ?)";
                  
-                 try (Connection conn = databaseManager.getConnection();
-                      PreparedStatement stmt = conn.prepareStatement(sql)) {
-                     
-                     stmt.setInt(1, guildId);
-                     
-                     int rowsAffected = stmt.executeUpdate();
-                     return rowsAffected > 0;
+                 int rowsAffected = updateRecorded(guildId, null, sql, guildId, nowMillis());
+                 if (rowsAffected > 0) {
+                     recordWrite(guildId, null);
                  }
+                 return rowsAffected > 0;
              } catch (SQLException e) {
                  logger.severe("初始化工会经济时发生错误: " + e.getMessage());
                  return false;
@@ -1801,11 +2460,11 @@ public class GuildService {
       * 获取工会经济信息 (异步)
       */
      public CompletableFuture<GuildEconomy> getGuildEconomyAsync(int guildId) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              try {
                  String sql = "SELECT * FROM guild_economy WHERE guild_id = ?";
                  
-                 try (Connection conn = databaseManager.getConnection();
+                 try (Connection conn = databaseManager.getReadConnection(guildId, null);
                       PreparedStatement stmt = conn.prepareStatement(sql)) {
                      
                      stmt.setInt(1, guildId);
@@ -1827,24 +2486,15 @@ public class GuildService {
       * 更新工会经济 (异步)
       */
      public CompletableFuture<Boolean> updateGuildEconomyAsync(int guildId, double balance, int level, double experience, double maxExperience, int maxMembers) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              try {
-                 String sql = "UPDATE guild_economy SET balance = ?, level = ?, experience = ?, max_experience = ?, max_members = ?, last_updated = ? WHERE guild_id = ?";
+                 String sql = "UPDATE guild_economy SET balance = ?, level = ?, experience = ?, max_experience = ?, max_members = ?, last_updated = ?, last_updated_ms = ? WHERE guild_id = ?";
                  
-                 try (Connection conn = databaseManager.getConnection();
-                      PreparedStatement stmt = conn.prepareStatement(sql)) {
-                 
-                     stmt.setDouble(1, balance);
-                     stmt.setInt(2, level);
-                     stmt.setDouble(3, experience);
-                     stmt.setDouble(4, maxExperience);
-                     stmt.setInt(5, maxMembers);
-                     stmt.setString(6, nowString());
-                     stmt.setInt(7, guildId);
-                 
-                     int rowsAffected = stmt.executeUpdate();
-                     return rowsAffected > 0;
+                 int rowsAffected = updateRecorded(guildId, null, sql, balance, level, experience, maxExperience, maxMembers, nowString(), nowMillis(), guildId);
+                 if (rowsAffected > 0) {
+                     recordWrite(guildId, null);
                  }
+                 return rowsAffected > 0;
              } catch (SQLException e) {
                  logger.severe("更新工会经济时发生错误: " + e.getMessage());
                  return false;
@@ -1854,51 +2504,51 @@ public class GuildService {
      
      /**
       * 添加工会贡献记录 (异步)
+      * 贡献记录与贡献汇总在同一事务中写入
       */
      public CompletableFuture<Boolean> addGuildContributionAsync(int guildId, UUID playerUuid, String playerName,
                                                                double amount, GuildContribution.ContributionType type, String description) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              try {
-                 String sql = "INSERT INTO guild_contributions (guild_id, player_uuid, player_name, amount, contribution_type, description) " +
-                             "VALUES (?, ?, ?, ?, ?, ?)";
-                 
-                 try (Connection conn = databaseManager.getConnection();
-                      PreparedStatement stmt = conn.prepareStatement(sql)) {
-                     
-                     stmt.setInt(1, guildId);
-                     stmt.setString(2, playerUuid.toString());
-                     stmt.setString(3, playerName);
-                     stmt.setDouble(4, amount);
-                     stmt.setString(5, type.name());
-                     stmt.setString(6, description);
-                     
-                     int rowsAffected = stmt.executeUpdate();
-                     return rowsAffected > 0;
-                 }
+                 databaseManager.executeInTransaction(unitOfWork -> {
+                     insertContribution(unitOfWork.getConnection(), guildId, playerUuid, playerName, amount, type, description);
+                     if (type.isPersonalContribution()) {
+                         changeFeed.record(unitOfWork, guildId, playerUuid);
+                     }
+                     return null;
+                 });
              } catch (SQLException e) {
                  logger.severe("添加工会贡献记录时发生错误: " + e.getMessage());
                  return false;
              }
+             
+             if (type.isPersonalContribution()) {
+                 publishChange(GuildDataChangeEvent.contributionAdded(guildId, playerUuid, amount));
+             }
+             plugin.getPlaceholderManager().invalidatePlayer(playerUuid);
+             return true;
          });
      }
      
      /**
       * 获取工会贡献记录 (异步)
+      * 只包含尚未被按日汇总压缩的原始记录，统计总额请使用 getPlayerContributionTotalsAsync
       */
      public CompletableFuture<List<GuildContribution>> getGuildContributionsAsync(int guildId) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              List<GuildContribution> contributions = new ArrayList<>();
              try {
-                 String sql = "SELECT * FROM guild_contributions WHERE guild_id = ? ORDER BY created_at DESC";
+                 String sql = "SELECT * FROM guild_contributions WHERE guild_id = ? ORDER BY created_ms DESC";
                  
-                 try (Connection conn = databaseManager.getConnection();
+                 try (Connection conn = databaseManager.getReadConnection(guildId, null);
                       PreparedStatement stmt = conn.prepareStatement(sql)) {
                      
                      stmt.setInt(1, guildId);
                      
                      try (ResultSet rs = stmt.executeQuery()) {
+                         RowMapper<GuildContribution> mapper = GuildRowMappers.contribution(rs);
                          while (rs.next()) {
-                             contributions.add(createGuildContributionFromResultSet(rs));
+                             contributions.add(mapper.map(rs));
                          }
                      }
                  }
@@ -1911,21 +2561,23 @@ public class GuildService {
      
      /**
       * 获取玩家贡献记录 (异步)
+      * 只包含尚未被按日汇总压缩的原始记录
       */
      public CompletableFuture<List<GuildContribution>> getPlayerContributionsAsync(UUID playerUuid) {
-         return CompletableFuture.supplyAsync(() -> {
+         return databaseManager.supplyAsync(() -> {
              List<GuildContribution> contributions = new ArrayList<>();
              try {
-                 String sql = "SELECT * FROM guild_contributions WHERE player_uuid = ? ORDER BY created_at DESC";
+                 String sql = "SELECT * FROM guild_contributions WHERE player_uuid = ? ORDER BY created_ms DESC";
                  
-                 try (Connection conn = databaseManager.getConnection();
+                 try (Connection conn = databaseManager.getReadConnection(0, playerUuid);
                       PreparedStatement stmt = conn.prepareStatement(sql)) {
                      
                      stmt.setString(1, playerUuid.toString());
                      
                      try (ResultSet rs = stmt.executeQuery()) {
+                         RowMapper<GuildContribution> mapper = GuildRowMappers.contribution(rs);
                          while (rs.next()) {
-                             contributions.add(createGuildContributionFromResultSet(rs));
+                             contributions.add(mapper.map(rs));
                          }
                      }
                  }
@@ -1936,54 +2588,61 @@ public class GuildService {
          });
      }
      
+     /**
+      * 获取玩家在工会中的个人贡献总额 (异步)
+      * 直接读取贡献汇总表，只按主键前缀读取该玩家的几行
+      */
+     public CompletableFuture<Double> getPlayerContributionTotalAsync(int guildId, UUID playerUuid) {
+         return getPlayerContributionTotalsAsync(guildId, playerUuid).thenApply(totals -> {
+             double total = 0;
+             for (Map.Entry<GuildContribution.ContributionType, Double> entry : totals.entrySet()) {
+                 if (entry.getKey().isPersonalContribution()) {
+                     total += entry.getValue();
+                 }
+             }
+             return total;
+         });
+     }
+     
+     /**
+      * 获取玩家在工会中按贡献类型汇总的总额 (异步)
+      */
+     public CompletableFuture<Map<GuildContribution.ContributionType, Double>> getPlayerContributionTotalsAsync(int guildId, UUID playerUuid) {
+         return databaseManager.supplyAsync(() -> {
+             Map<GuildContribution.ContributionType, Double> totals = new EnumMap<>(GuildContribution.ContributionType.class);
+             String sql = "SELECT contribution_type, total FROM guild_contribution_totals WHERE guild_id = ? AND player_uuid = ?";
+             try (Connection conn = databaseManager.getReadConnection(guildId, playerUuid);
+                  PreparedStatement stmt = conn.prepareStatement(sql)) {
+                 stmt.setInt(1, guildId);
+                 stmt.setString(2, playerUuid.toString());
+                 try (ResultSet rs = stmt.executeQuery()) {
+                     while (rs.next()) {
+                         try {
+                             totals.put(GuildContribution.ContributionType.valueOf(rs.getString("contribution_type")), rs.getDouble("total"));
+                         } catch (IllegalArgumentException ignored) {
+                             // 未知类型（旧版本写入）不计入
+                         }
+                     }
+                 }
+             } catch (SQLException e) {
+                 logger.severe("获取玩家贡献汇总时发生错误: " + e.getMessage());
+             }
+             return totals;
+         });
+     }
+     
      // ==================== 辅助方法 ====================
      
      private GuildRelation createGuildRelationFromResultSet(ResultSet rs) throws SQLException {
-         GuildRelation relation = new GuildRelation();
-         relation.setId(rs.getInt("id"));
-         relation.setGuild1Id(rs.getInt("guild1_id"));
-         relation.setGuild2Id(rs.getInt("guild2_id"));
-         relation.setGuild1Name(rs.getString("guild1_name"));
-         relation.setGuild2Name(rs.getString("guild2_name"));
-         relation.setType(GuildRelation.RelationType.valueOf(rs.getString("relation_type")));
-         relation.setStatus(GuildRelation.RelationStatus.valueOf(rs.getString("status")));
-         relation.setInitiatorUuid(UUID.fromString(rs.getString("initiator_uuid")));
-         relation.setInitiatorName(rs.getString("initiator_name"));
-         relation.setCreatedAt(parseTimestamp(rs, "created_at"));
-         relation.setUpdatedAt(parseTimestamp(rs, "updated_at"));
-         
-         String expiresAt = rs.getString("expires_at");
-         if (expiresAt != null) {
-             relation.setExpiresAt(parseTimestamp(rs, "expires_at"));
-         }
-         
-         return relation;
+         return GuildRowMappers.relation(rs).map(rs);
      }
      
      private GuildEconomy createGuildEconomyFromResultSet(ResultSet rs) throws SQLException {
-         GuildEconomy economy = new GuildEconomy();
-         economy.setId(rs.getInt("id"));
-         economy.setGuildId(rs.getInt("guild_id"));
-         economy.setBalance(rs.getDouble("balance"));
-         economy.setLevel(rs.getInt("level"));
-         economy.setExperience(rs.getDouble("experience"));
-         economy.setMaxExperience(rs.getDouble("max_experience"));
-         economy.setMaxMembers(rs.getInt("max_members"));
-         economy.setLastUpdated(parseTimestamp(rs, "last_updated"));
-         return economy;
+         return GuildRowMappers.economy(rs).map(rs);
      }
      
      private GuildContribution createGuildContributionFromResultSet(ResultSet rs) throws SQLException {
-         GuildContribution contribution = new GuildContribution();
-         contribution.setId(rs.getInt("id"));
-         contribution.setGuildId(rs.getInt("guild_id"));
-         contribution.setPlayerUuid(UUID.fromString(rs.getString("player_uuid")));
-         contribution.setPlayerName(rs.getString("player_name"));
-         contribution.setAmount(rs.getDouble("amount"));
-         contribution.setType(GuildContribution.ContributionType.valueOf(rs.getString("contribution_type")));
-         contribution.setDescription(rs.getString("description"));
-         contribution.setCreatedAt(parseTimestamp(rs, "created_at"));
-         return contribution;
+         return GuildRowMappers.contribution(rs).map(rs);
      }
      
      // ==================== 工会经济管理方法 ====================
@@ -1992,72 +2651,347 @@ public class GuildService {
       * 更新工会余额 (异步)
       */
      public CompletableFuture<Boolean> updateGuildBalanceAsync(int guildId, double balance) {
-         return getGuildByIdAsync(guildId).thenCompose(guild -> {
-             if (guild == null) {
-                 return CompletableFuture.completedFuture(false);
+         return databaseManager.supplyAsync(() -> {
+             BalanceChange change;
+             try {
+                 // 旧余额在同一事务中读取（锁定该行），日志和 BALANCE_CHANGED 事件使用实际的前后值而不是缓存中的余额
+                 change = databaseManager.executeInTransaction(unitOfWork -> {
+                     BalanceChange current = readBalanceForUpdate(unitOfWork.getConnection(), guildId);
+                     if (current == null) {
+                         unitOfWork.setRollbackOnly();
+                         return null;
+                     }
+                     unitOfWork.update("UPDATE guilds SET balance = ?, updated_at = ?, updated_ms = ? WHERE id = ?",
+                         balance, nowString(), nowMillis(), guildId);
+                     changeFeed.record(unitOfWork, guildId, null);
+                     return new BalanceChange(guildId, current.guildName, current.newBalance, balance);
+                 });
+             } catch (SQLException e) {
+                 logger.severe("更新工会余额时发生错误: " + e.getMessage());
+                 return false;
+             }
+             if (change == null) {
+                 return false;
              }
+             logger.info("工会余额更新成功: " + change.guildName + " (ID: " + guildId + ") 新余额: " + balance);
              
-             return CompletableFuture.supplyAsync(() -> {
-                 try {
-                     String sql = "UPDATE guilds SET balance = ?, updated_at = ? WHERE id = ?";
-                     
-                     try (Connection conn = databaseManager.getConnection();
-                          PreparedStatement stmt = conn.prepareStatement(sql)) {
-                     
-                         stmt.setDouble(1, balance);
-                         stmt.setString(2, nowString());
-                         stmt.setInt(3, guildId);
-                     
-                         int affectedRows = stmt.executeUpdate();
-                         if (affectedRows > 0) {
-                             logger.info("工会余额更新成功: " + guild.getName() + " (ID: " + guildId + ") 新余额: " + balance);
-                             
-                             // 异步检查是否需要自动升级，不阻塞当前操作
-                             CompletableFuture.runAsync(() -> {
-                                 checkAndUpgradeGuildLevel(guildId, balance);
-                             });
-                             
-                             // 记录资金变更日志
-                             double oldBalance = guild.getBalance();
-                             double change = balance - oldBalance;
-                             if (change != 0) {
-                                 GuildLog.LogType logType = change > 0 ? GuildLog.LogType.FUND_DEPOSITED : GuildLog.LogType.FUND_WITHDRAWN;
-                                 String description = change > 0 ? "资金存入" : "资金取出";
-                                 String details = "变更金额: " + (change > 0 ? "+" : "") + change + " 金币, 新余额: " + balance + " 金币";
-                                 
-                                 // 这里需要获取操作者信息，暂时使用系统记录
-                                 logGuildActionAsync(guildId, guild.getName(), "SYSTEM", "系统",
-                                     logType, description, details);
-                             }
-                             
-                             return true;
-                         }
+             // 异步检查是否需要自动升级，不阻塞当前操作
+             databaseManager.runAsync(() -> {
+                 checkAndUpgradeGuildLevel(guildId, balance);
+             });
+             
+             // 记录资金变更日志
+             double amount = balance - change.oldBalance;
+             if (amount != 0) {
+                 GuildLog.LogType logType = amount > 0 ? GuildLog.LogType.FUND_DEPOSITED : GuildLog.LogType.FUND_WITHDRAWN;
+                 String description = amount > 0 ? "资金存入" : "资金取出";
+                 String details = "变更金额: " + (amount > 0 ? "+" : "") + amount + " 金币, 新余额: " + balance + " 金币";
+                 
+                 // 这里需要获取操作者信息，暂时使用系统记录
+                 logGuildActionAsync(guildId, change.guildName, "SYSTEM", "系统",
+                     logType, description, details);
+             }
+             
+             cache.updateGuild(guildId, cached -> cached.setBalance(balance));
+             publishChange(GuildDataChangeEvent.balanceChanged(guildId, change.oldBalance, balance));
+             return true;
+         });
+     }
+    
+     // ==================== 工会资金账本 ====================
+     
+     /**
+      * 向工会存入资金 (异步)
+      * 余额增量更新与贡献记录在同一事务中写入，并发存款不会互相覆盖
+      */
+     public CompletableFuture<Boolean> depositAsync(int guildId, UUID playerUuid, String playerName, double amount) {
+         if (amount <= 0) {
+             return CompletableFuture.completedFuture(false);
+         }
+         return adjustBalanceAsync(guildId, playerUuid, playerName, amount, GuildContribution.ContributionType.DEPOSIT, "资金存入");
+     }
+     
+     /**
+      * 从工会取出资金 (异步)
+      * 余额不足时不做任何修改并返回 false
+      */
+     public CompletableFuture<Boolean> withdrawAsync(int guildId, UUID playerUuid, String playerName, double amount) {
+         if (amount <= 0) {
+             return CompletableFuture.completedFuture(false);
+         }
+         return adjustBalanceAsync(guildId, playerUuid, playerName, -amount, GuildContribution.ContributionType.WITHDRAW, "资金取出");
+     }
+     
+     /**
+      * 按增量调整工会余额并写入贡献记录 (异步)
+      * @param delta 正数为存入，负数为取出；取出后余额不能小于0
+      */
+     public CompletableFuture<Boolean> adjustBalanceAsync(int guildId, UUID playerUuid, String playerName, double delta,
+                                                         GuildContribution.ContributionType type, String description) {
+         return databaseManager.supplyAsync(() -> {
+             BalanceChange change;
+             try {
+                 change = databaseManager.executeInTransaction(unitOfWork -> {
+                     Connection conn = unitOfWork.getConnection();
+                     BalanceChange applied = applyBalanceDelta(conn, guildId, delta);
+                     if (applied == null) {
+                         unitOfWork.setRollbackOnly();
+                         return null;
                      }
-                 } catch (SQLException e) {
-                     logger.severe("更新工会余额时发生错误: " + e.getMessage());
+                     insertContribution(conn, guildId, playerUuid, playerName, delta, type, description);
+                     changeFeed.record(unitOfWork, guildId, type.isPersonalContribution() ? playerUuid : null);
+                     return applied;
+                 });
+             } catch (SQLException e) {
+                 logger.severe("调整工会余额时发生错误: " + e.getMessage());
+                 return false;
+             }
+             if (change == null) {
+                 return false;
+             }
+             
+             onBalanceChanged(change, playerUuid, playerName,
+                 delta > 0 ? GuildLog.LogType.FUND_DEPOSITED : GuildLog.LogType.FUND_WITHDRAWN, description);
+             if (type.isPersonalContribution()) {
+                 publishChange(GuildDataChangeEvent.contributionAdded(guildId, playerUuid, delta));
+             }
+             return true;
+         });
+     }
+     
+     /**
+      * 最多扣除 amount，余额不足时扣到 0 (异步)
+      * 实际扣除额在事务中按锁定后的余额计算，不使用缓存中的余额
+      * @return 实际扣除的金额，工会不存在或出错时为 null
+      */
+     public CompletableFuture<Double> deductUpToAsync(int guildId, UUID playerUuid, String playerName, double amount,
+                                                      GuildContribution.ContributionType type, String description) {
+         if (amount <= 0) {
+             return CompletableFuture.completedFuture(0.0);
+         }
+         return databaseManager.supplyAsync(() -> {
+             BalanceChange change;
+             try {
+                 change = databaseManager.executeInTransaction(unitOfWork -> {
+                     Connection conn = unitOfWork.getConnection();
+                     BalanceChange current = readBalanceForUpdate(conn, guildId);
+                     if (current == null) {
+                         unitOfWork.setRollbackOnly();
+                         return null;
+                     }
+                     double deducted = Math.min(amount, current.newBalance);
+                     if (deducted <= 0) {
+                         return current;
+                     }
+                     BalanceChange applied = applyBalanceDelta(conn, guildId, -deducted);
+                     if (applied == null) {
+                         unitOfWork.setRollbackOnly();
+                         return null;
+                     }
+                     insertContribution(conn, guildId, playerUuid, playerName, -deducted, type, description);
+                     changeFeed.record(unitOfWork, guildId, type.isPersonalContribution() ? playerUuid : null);
+                     return applied;
+                 });
+             } catch (SQLException e) {
+                 logger.severe("扣除工会资金时发生错误: " + e.getMessage());
+                 return null;
+             }
+             if (change == null) {
+                 return null;
+             }
+             double deducted = change.oldBalance - change.newBalance;
+             if (deducted > 0) {
+                 onBalanceChanged(change, playerUuid, playerName, GuildLog.LogType.FUND_WITHDRAWN, description);
+                 if (type.isPersonalContribution()) {
+                     publishChange(GuildDataChangeEvent.contributionAdded(guildId, playerUuid, -deducted));
                  }
+             }
+             return deducted;
+         });
+     }
+     
+     /**
+      * 工会之间转账 (异步)
+      * 扣款、入账与双方贡献记录在同一事务中完成，来源工会余额不足时返回 false
+      */
+     public CompletableFuture<Boolean> transferAsync(int fromGuildId, int toGuildId, UUID playerUuid, String playerName, double amount) {
+         if (amount <= 0 || fromGuildId == toGuildId) {
+             return CompletableFuture.completedFuture(false);
+         }
+         return databaseManager.supplyAsync(() -> {
+             BalanceChange[] changes;
+             try {
+                 changes = databaseManager.executeInTransaction(unitOfWork -> {
+                     Connection conn = unitOfWork.getConnection();
+                     BalanceChange debit = applyBalanceDelta(conn, fromGuildId, -amount);
+                     BalanceChange credit = debit != null ? applyBalanceDelta(conn, toGuildId, amount) : null;
+                     if (credit == null) {
+                         unitOfWork.setRollbackOnly();
+                         return null;
+                     }
+                     insertContribution(conn, fromGuildId, playerUuid, playerName, -amount,
+                         GuildContribution.ContributionType.TRANSFER, "转账至 " + credit.guildName);
+                     insertContribution(conn, toGuildId, playerUuid, playerName, amount,
+                         GuildContribution.ContributionType.TRANSFER, "来自 " + debit.guildName + " 的转账");
+                     changeFeed.record(unitOfWork, fromGuildId, null);
+                     changeFeed.record(unitOfWork, toGuildId, null);
+                     return new BalanceChange[] {debit, credit};
+                 });
+             } catch (SQLException e) {
+                 logger.severe("工会转账时发生错误: " + e.getMessage());
                  return false;
-             });
+             }
+             if (changes == null) {
+                 return false;
+             }
+             BalanceChange from = changes[0];
+             BalanceChange to = changes[1];
+             
+             onBalanceChanged(from, playerUuid, playerName, GuildLog.LogType.FUND_TRANSFERRED, "转账至 " + to.guildName);
+             onBalanceChanged(to, playerUuid, playerName, GuildLog.LogType.FUND_TRANSFERRED, "来自 " + from.guildName + " 的转账");
+             return true;
          });
      }
+     
+     /**
+      * 在当前事务中按增量更新余额，并读回更新后的余额
+      * @return 工会不存在或余额不足时返回 null
+      */
+     private BalanceChange applyBalanceDelta(Connection conn, int guildId, double delta) throws SQLException {
+         String sql = "UPDATE guilds SET balance = balance + ?, updated_at = ?, updated_ms = ? WHERE id = ? AND balance + ? >= 0";
+         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+             stmt.setDouble(1, delta);
+             stmt.setString(2, nowString());
+             stmt.setLong(3, nowMillis());
+             stmt.setInt(4, guildId);
+             stmt.setDouble(5, delta);
+             if (stmt.executeUpdate() == 0) {
+                 return null;
+             }
+         }
+         try (PreparedStatement stmt = conn.prepareStatement("SELECT name, balance FROM guilds WHERE id = ?")) {
+             stmt.setInt(1, guildId);
+             try (ResultSet rs = stmt.executeQuery()) {
+                 if (!rs.next()) {
+                     return null;
+                 }
+                 double newBalance = rs.getDouble("balance");
+                 return new BalanceChange(guildId, rs.getString("name"), newBalance - delta, newBalance);
+             }
+         }
+     }
+     
+     /**
+      * 在当前事务中读取并锁定工会余额（MySQL 使用 FOR UPDATE；SQLite 单写模式下写事务本身串行）
+      * @return 前后余额相同的 BalanceChange，工会不存在时返回 null
+      */
+     private BalanceChange readBalanceForUpdate(Connection conn, int guildId) throws SQLException {
+         String sql = "SELECT name, balance FROM guilds WHERE id = ?" +
+             (databaseManager.getDatabaseType() == DatabaseManager.DatabaseType.MYSQL ? " FOR UPDATE" : "");
+         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+             stmt.setInt(1, guildId);
+             try (ResultSet rs = stmt.executeQuery()) {
+                 if (!rs.next()) {
+                     return null;
+                 }
+                 double balance = rs.getDouble("balance");
+                 return new BalanceChange(guildId, rs.getString("name"), balance, balance);
+             }
+         }
+     }
+     
+     private void insertContribution(Connection conn, int guildId, UUID playerUuid, String playerName, double amount,
+                                     GuildContribution.ContributionType type, String description) throws SQLException {
+         String sql = "INSERT INTO guild_contributions (guild_id, player_uuid, player_name, amount, contribution_type, description, created_at, created_ms) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+             stmt.setInt(1, guildId);
+             stmt.setString(2, playerUuid.toString());
+             stmt.setString(3, playerName);
+             stmt.setDouble(4, amount);
+             stmt.setString(5, type.name());
+             stmt.setString(6, description);
+             stmt.setString(7, nowString());
+             stmt.setLong(8, nowMillis());
+             stmt.executeUpdate();
+         }
+         addContributionTotal(conn, guildId, playerUuid, playerName, amount, type);
+     }
+     
+     /**
+      * 在当前事务中累加贡献汇总
+      */
+     private void addContributionTotal(Connection conn, int guildId, UUID playerUuid, String playerName, double amount,
+                                       GuildContribution.ContributionType type) throws SQLException {
+         String sql = databaseManager.getDatabaseType() == DatabaseManager.DatabaseType.SQLITE
+             ? "INSERT INTO guild_contribution_totals (guild_id, player_uuid, contribution_type, player_name, total, entry_count, updated_at) " +
+               "VALUES (?, ?, ?, ?, ?, 1, ?) ON CONFLICT (guild_id, player_uuid, contribution_type) DO UPDATE SET " +
+               "total = total + excluded.total, entry_count = entry_count + 1, player_name = excluded.player_name, updated_at = excluded.updated_at"
+             : "INSERT INTO guild_contribution_totals (guild_id, player_uuid, contribution_type, player_name, total, entry_count, updated_at) " +
+               "VALUES (?, ?, ?, ?, ?, 1, ?) ON DUPLICATE KEY UPDATE " +
+               "total = total + VALUES(total), entry_count = entry_count + 1, player_name = VALUES(player_name), updated_at = VALUES(updated_at)";
+         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+             stmt.setInt(1, guildId);
+             stmt.setString(2, playerUuid.toString());
+             stmt.setString(3, type.name());
+             stmt.setString(4, playerName);
+             stmt.setDouble(5, amount);
+             stmt.setString(6, nowString());
+             stmt.executeUpdate();
+         }
+     }
+     
+     /**
+      * 事务提交后更新缓存、统计、日志并检查自动升级
+      */
+     private void onBalanceChanged(BalanceChange change, UUID playerUuid, String playerName,
+                                   GuildLog.LogType logType, String description) {
+         cache.updateGuild(change.guildId, cached -> cached.setBalance(change.newBalance));
+         publishChange(GuildDataChangeEvent.balanceChanged(change.guildId, change.oldBalance, change.newBalance));
+         // 玩家的个人贡献可能变化
+         plugin.getPlaceholderManager().invalidatePlayer(playerUuid);
+         
+         double amount = change.newBalance - change.oldBalance;
+         String details = "变更金额: " + (amount > 0 ? "+" : "") + amount + " 金币, 新余额: " + change.newBalance + " 金币";
+         logGuildActionAsync(change.guildId, change.guildName, playerUuid.toString(), playerName, logType, description, details);
+         
+         if (amount > 0) {
+             databaseManager.runAsync(() -> checkAndUpgradeGuildLevel(change.guildId, change.newBalance));
+         }
+     }
+     
+     /**
+      * 一次余额变更的前后值
+      */
+     private static final class BalanceChange {
+         private final int guildId;
+         private final String guildName;
+         private final double oldBalance;
+         private final double newBalance;
+         
+         BalanceChange(int guildId, String guildName, double oldBalance, double newBalance) {
+             this.guildId = guildId;
+             this.guildName = guildName;
+             this.oldBalance = oldBalance;
+             this.newBalance = newBalance;
+         }
+     }
     
     /**
      * 更新工会等级 (异步)
      */
     public CompletableFuture<Boolean> updateGuildLevelAsync(int guildId, int level) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(() -> {
             try {
                 String sql = "UPDATE guilds SET level = ? WHERE id = ?";
                 
-                try (Connection conn = databaseManager.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    
-                    stmt.setInt(1, level);
-                    stmt.setInt(2, guildId);
-                    
-                    int affectedRows = stmt.executeUpdate();
-                    return affectedRows > 0;
+                int affectedRows = updateRecorded(guildId, null, sql, level, guildId);
+                if (affectedRows > 0) {
+                    cache.updateGuild(guildId, cached -> cached.setLevel(level));
+                    publishChange(GuildDataChangeEvent.levelChanged(guildId, level));
+                    return true;
                 }
+                return false;
             } catch (SQLException e) {
                 logger.severe("更新工会等级时发生错误: " + e.getMessage());
                 return false;
@@ -2069,19 +3003,17 @@ public class GuildService {
      * 更新工会最大成员数 (异步)
      */
     public CompletableFuture<Boolean> updateGuildMaxMembersAsync(int guildId, int maxMembers) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(() -> {
             try {
                 String sql = "UPDATE guilds SET max_members = ? WHERE id = ?";
                 
-                try (Connection conn = databaseManager.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    
-                    stmt.setInt(1, maxMembers);
-                    stmt.setInt(2, guildId);
-                    
-                    int affectedRows = stmt.executeUpdate();
-                    return affectedRows > 0;
+                int affectedRows = updateRecorded(guildId, null, sql, maxMembers, guildId);
+                if (affectedRows > 0) {
+                    cache.updateGuild(guildId, cached -> cached.setMaxMembers(maxMembers));
+                    recordWrite(guildId, null);
+                    return true;
                 }
+                return false;
             } catch (SQLException e) {
                 logger.severe("更新工会最大成员数时发生错误: " + e.getMessage());
                 return false;
@@ -2098,27 +3030,27 @@ public class GuildService {
                 return CompletableFuture.completedFuture(false);
             }
             
-            return CompletableFuture.supplyAsync(() -> {
+            return databaseManager.supplyAsync(() -> {
                 try {
                     String sql = "UPDATE guilds SET frozen = ? WHERE id = ?";
                     
-                    try (Connection conn = databaseManager.getConnection();
-                         PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    // guild 可能是缓存中的同一个对象，必须在更新缓存之前取出旧状态
+                    boolean wasFrozen = guild.isFrozen();
+                    int affectedRows = updateRecorded(guildId, null, sql, frozen, guildId);
+                    if (affectedRows > 0) {
+                        cache.updateGuild(guildId, cached -> cached.setFrozen(frozen));
+                        recordWrite(guildId, null);
+                        if (wasFrozen != frozen) {
+                            publishChange(GuildDataChangeEvent.frozenChanged(guildId, frozen));
+                        }
+                        // 记录冻结状态变更日志
+                        GuildLog.LogType logType = frozen ? GuildLog.LogType.GUILD_FROZEN : GuildLog.LogType.GUILD_UNFROZEN;
+                        String description = frozen ? "工会冻结" : "工会解冻";
                         
-                        stmt.setBoolean(1, frozen);
-                        stmt.setInt(2, guildId);
+                        logGuildActionAsync(guildId, guild.getName(), "SYSTEM", "系统",
+                            logType, description, "操作: " + (frozen ? "冻结" : "解冻"));
                         
-                        int affectedRows = stmt.executeUpdate();
-                        if (affectedRows > 0) {
-                            // 记录冻结状态变更日志
-                            GuildLog.LogType logType = frozen ? GuildLog.LogType.GUILD_FROZEN : GuildLog.LogType.GUILD_UNFROZEN;
-                            String description = frozen ? "工会冻结" : "工会解冻";
-                            
-                            logGuildActionAsync(guildId, guild.getName(), "SYSTEM", "系统",
-                                logType, description, "操作: " + (frozen ? "冻结" : "解冻"));
-                            
-                            return true;
-                        }
+                        return true;
                     }
                 } catch (SQLException e) {
                     logger.severe("更新工会冻结状态时发生错误: " + e.getMessage());
@@ -2133,21 +3065,16 @@ public class GuildService {
      * 仅用于建会后插入会长，以避免额外读库造成的连接争用。
      */
     private CompletableFuture<Boolean> addGuildMemberDirectAsync(int guildId, UUID playerUuid, String playerName, GuildMember.Role role) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(() -> {
             try {
-                String sql = "INSERT INTO guild_members (guild_id, player_uuid, player_name, role, joined_at) VALUES (?, ?, ?, ?, ?)";
-                try (Connection conn = databaseManager.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    stmt.setInt(1, guildId);
-                    stmt.setString(2, playerUuid.toString());
-                    stmt.setString(3, playerName);
-                    stmt.setString(4, role.name());
-                    stmt.setString(5, nowString());
-                    int affectedRows = stmt.executeUpdate();
-                    if (affectedRows > 0) {
-                        try { plugin.getPermissionManager().updatePlayerPermissions(playerUuid); } catch (Exception ignored) {}
-                        return true;
-                    }
+                String sql = "INSERT INTO guild_members (guild_id, player_uuid, player_name, role, joined_at, joined_ms) VALUES (?, ?, ?, ?, ?, ?)";
+                int memberId = insertRecorded(guildId, playerUuid, sql, guildId, playerUuid.toString(), playerName, role.name(), nowString(), nowMillis());
+                if (memberId > 0) {
+                    cache.addMember(newMember(memberId, guildId, playerUuid, playerName, role));
+                    publishChange(GuildDataChangeEvent.memberJoined(guildId, playerUuid));
+                    try { plugin.getPermissionManager().updatePlayerPermissions(playerUuid); } catch (Exception ignored) {}
+                    plugin.getPlaceholderManager().invalidatePlayer(playerUuid);
+                    return true;
                 }
             } catch (SQLException e) {
                 logger.severe("直接添加工会成员时发生错误: " + e.getMessage());
@@ -2173,28 +3100,24 @@ public class GuildService {
                 int newLevel = currentLevel + 1;
                 int newMaxMembers = getMaxMembersForLevel(newLevel);
                 
-                CompletableFuture.supplyAsync(() -> {
+                databaseManager.supplyAsync(() -> {
                     try {
-                        String sql = "UPDATE guilds SET level = ?, max_members = ?, updated_at = ? WHERE id = ?";
+                        String sql = "UPDATE guilds SET level = ?, max_members = ?, updated_at = ?, updated_ms = ? WHERE id = ?";
                         
-                        try (Connection conn = databaseManager.getConnection();
-                             PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        int affectedRows = updateRecorded(guildId, null, sql, newLevel, newMaxMembers, nowString(), nowMillis(), guildId);
+                        if (affectedRows > 0) {
+                            logger.info("工会自动升级成功: " + guild.getName() + " (ID: " + guildId + ") 等级: " + currentLevel + " -> " + newLevel);
+                            cache.updateGuild(guildId, cached -> {
+                                cached.setLevel(newLevel);
+                                cached.setMaxMembers(newMaxMembers);
+                            });
+                            publishChange(GuildDataChangeEvent.levelChanged(guildId, newLevel));
                             
-                            stmt.setInt(1, newLevel);
-                            stmt.setInt(2, newMaxMembers);
-                            stmt.setString(3, nowString());
-                            stmt.setInt(4, guildId);
+                            // 记录升级日志
+                            logGuildActionAsync(guildId, guild.getName(), "SYSTEM", "系统",
+                                GuildLog.LogType.GUILD_LEVEL_UP, "工会升级", "新等级: " + newLevel + ", 新最大成员数: " + newMaxMembers);
                             
-                            int affectedRows = stmt.executeUpdate();
-                            if (affectedRows > 0) {
-                                logger.info("工会自动升级成功: " + guild.getName() + " (ID: " + guildId + ") 等级: " + currentLevel + " -> " + newLevel);
-                                
-                                // 记录升级日志
-                                logGuildActionAsync(guildId, guild.getName(), "SYSTEM", "系统",
-                                    GuildLog.LogType.GUILD_LEVEL_UP, "工会升级", "新等级: " + newLevel + ", 新最大成员数: " + newMaxMembers);
-                                
-                                return true;
-                            }
+                            return true;
                         }
                     } catch (SQLException e) {
                         logger.severe("自动升级工会时发生错误: " + e.getMessage());
@@ -2277,30 +3200,8 @@ public class GuildService {
     public CompletableFuture<Boolean> logGuildActionAsync(int guildId, String guildName, String playerUuid, 
                                                         String playerName, GuildLog.LogType logType, 
                                                         String description, String details) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String sql = "INSERT INTO guild_logs (guild_id, guild_name, player_uuid, player_name, log_type, description, details, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-                
-                try (Connection conn = databaseManager.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
-                 
-                     stmt.setInt(1, guildId);
-                     stmt.setString(2, guildName);
-                     stmt.setString(3, playerUuid);
-                     stmt.setString(4, playerName);
-                     stmt.setString(5, logType.name());
-                     stmt.setString(6, description);
-                     stmt.setString(7, details);
-                     stmt.setString(8, nowString());
-                 
-                     int affectedRows = stmt.executeUpdate();
-                     return affectedRows > 0;
-                 }
-            } catch (SQLException e) {
-                logger.severe("记录工会日志时发生错误: " + e.getMessage());
-                return false;
-            }
-        });
+        // 由批量写入器合并写入，future 在所在批次提交后完成
+        return logWriter.enqueue(guildId, guildName, playerUuid, playerName, logType, description, details);
     }
     
     /**
@@ -2320,12 +3221,12 @@ public class GuildService {
      * 获取工会日志列表 (异步)
      */
     public CompletableFuture<List<GuildLog>> getGuildLogsAsync(int guildId, int limit, int offset) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseManager.supplyAsync(() -> {
             List<GuildLog> logs = new ArrayList<>();
             try {
-                String sql = "SELECT * FROM guild_logs WHERE guild_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+                String sql = "SELECT * FROM guild_logs WHERE guild_id = ? ORDER BY created_ms DESC LIMIT ? OFFSET ?";
                 
-                try (Connection conn = databaseManager.getConnection();
+                try (Connection conn = databaseManager.getReadConnection(guildId, null);
                      PreparedStatement stmt = conn.prepareStatement(sql)) {
                     
                     stmt.setInt(1, guildId);
@@ -2333,8 +3234,9 @@ public class GuildService {
                     stmt.setInt(3, offset);
                     
                     try (ResultSet rs = stmt.executeQuery()) {
+                        RowMapper<GuildLog> mapper = GuildRowMappers.log(rs);
                         while (rs.next()) {
-                            GuildLog log = createGuildLogFromResultSet(rs);
+                            GuildLog log = mapper.map(rs);
                             logs.add(log);
                         }
                     }
@@ -2358,22 +3260,111 @@ public class GuildService {
         }
     }
     
+    /**
+     * 按游标获取一页工会日志 (异步)
+     * 使用 (created_ms, id) 倒序的键集分页，不论翻到第几页都只扫描 limit 行
+     * 尚未回填 created_ms 的旧日志作为单独的尾段，在有时间戳的日志之后按 id 倒序分页
+     * @param cursor 上一页返回的游标，查询第一页时为 null
+     */
+    public CompletableFuture<GuildLogPage> getGuildLogsPageAsync(int guildId, int limit, GuildLogPage.Cursor cursor) {
+        return databaseManager.supplyAsync(() -> {
+            try (Connection conn = databaseManager.getReadConnection(guildId, null)) {
+                List<GuildLog> logs = new ArrayList<>(limit);
+                long[] lastCreatedMillis = new long[1];
+                boolean undated = cursor != null && cursor.isUndated();
+                if (!undated) {
+                    boolean more;
+                    if (cursor == null) {
+                        more = fetchGuildLogs(conn, "SELECT * FROM guild_logs WHERE guild_id = ? AND created_ms IS NOT NULL " +
+                                "ORDER BY created_ms DESC, id DESC LIMIT ?", limit, logs, lastCreatedMillis, guildId);
+                    } else {
+                        more = fetchGuildLogs(conn, "SELECT * FROM guild_logs WHERE guild_id = ? AND created_ms IS NOT NULL " +
+                                "AND (created_ms < ? OR (created_ms = ? AND id < ?)) ORDER BY created_ms DESC, id DESC LIMIT ?",
+                                limit, logs, lastCreatedMillis, guildId, cursor.getCreatedMillis(), cursor.getCreatedMillis(), cursor.getId());
+                    }
+                    if (more) {
+                        GuildLog last = logs.get(logs.size() - 1);
+                        return new GuildLogPage(logs, new GuildLogPage.Cursor(lastCreatedMillis[0], last.getId()));
+                    }
+                }
+                // 有时间戳的日志已读完，接着读 created_ms 为空的旧日志
+                int remaining = limit - logs.size();
+                boolean more;
+                if (undated) {
+                    more = fetchGuildLogs(conn, "SELECT * FROM guild_logs WHERE guild_id = ? AND created_ms IS NULL AND id < ? " +
+                            "ORDER BY id DESC LIMIT ?", remaining, logs, lastCreatedMillis, guildId, cursor.getId());
+                } else {
+                    more = fetchGuildLogs(conn, "SELECT * FROM guild_logs WHERE guild_id = ? AND created_ms IS NULL " +
+                            "ORDER BY id DESC LIMIT ?", remaining, logs, lastCreatedMillis, guildId);
+                }
+                if (!more) {
+                    return new GuildLogPage(logs, null);
+                }
+                // 本页没有放入旧日志时从尾段开头继续
+                GuildLogPage.Cursor nextCursor = remaining == 0
+                    ? GuildLogPage.Cursor.undatedStart()
+                    : GuildLogPage.Cursor.undated(logs.get(logs.size() - 1).getId());
+                return new GuildLogPage(logs, nextCursor);
+            } catch (SQLException e) {
+                logger.severe("分页获取工会日志时发生错误: " + e.getMessage());
+                return GuildLogPage.empty();
+            }
+        });
+    }
+    
+    /**
+     * 执行一段日志查询（最后一个参数为 LIMIT，多取一条），最多放入 capacity 条
+     * @return 是否还有更多日志；lastCreatedMillis[0] 为最后放入的一条的 created_ms
+     */
+    private boolean fetchGuildLogs(Connection conn, String sql, int capacity, List<GuildLog> logs,
+                                   long[] lastCreatedMillis, Object... params) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Object param : params) {
+                stmt.setObject(index++, param);
+            }
+            stmt.setInt(index, capacity + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<GuildLog> mapper = GuildRowMappers.log(rs);
+                int createdMs = ResultSetColumns.of(rs).require("created_ms");
+                int added = 0;
+                while (rs.next()) {
+                    if (added == capacity) {
+                        return true;
+                    }
+                    logs.add(mapper.map(rs));
+                    lastCreatedMillis[0] = rs.getLong(createdMs);
+                    added++;
+                }
+                return false;
+            }
+        }
+    }
+    
     /**
      * 获取工会日志总数 (异步)
      */
     public CompletableFuture<Integer> getGuildLogsCountAsync(int guildId) {
-        return CompletableFuture.supplyAsync(() -> {
+        Integer cached = logCounts.get(guildId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return databaseManager.supplyAsync(() -> {
+            long stamp = logCountsVersion.get();
             try {
                 String sql = "SELECT COUNT(*) FROM guild_logs WHERE guild_id = ?";
                 
-                try (Connection conn = databaseManager.getConnection();
+                try (Connection conn = databaseManager.getConsistentReadConnection();
                      PreparedStatement stmt = conn.prepareStatement(sql)) {
                     
                     stmt.setInt(1, guildId);
                     
                     try (ResultSet rs = stmt.executeQuery()) {
                         if (rs.next()) {
-                            return rs.getInt(1);
+                            int count = rs.getInt(1);
+                            // 在映射的锁内校验版本：COUNT 之后写入的日志会先递增版本再移除计数，不会留下过时的值
+                            logCounts.compute(guildId, (id, existing) -> logCountsVersion.get() == stamp ? Integer.valueOf(count) : existing);
+                            return count;
                         }
                     }
                 }
@@ -2384,6 +3375,30 @@ public class GuildService {
         });
     }
     
+    /**
+     * 丢弃工会日志计数，下次查询时重新 COUNT
+     */
+    public void invalidateGuildLogsCount(int guildId) {
+        logCountsVersion.incrementAndGet();
+        logCounts.remove(guildId);
+    }
+    
+    /**
+     * 丢弃所有工会的日志计数（批量清理日志后调用）
+     */
+    public void invalidateGuildLogsCounts() {
+        logCountsVersion.incrementAndGet();
+        logCounts.clear();
+    }
+    
+    /**
+     * 日志写入器提交一条日志后调用，丢弃该工会的计数
+     * 不在缓存值上累加：与并发的 COUNT 交错时无法判断新日志是否已被计入
+     */
+    private void onGuildLogWritten(int guildId) {
+        invalidateGuildLogsCount(guildId);
+    }
+    
     /**
      * 获取工会日志总数 (同步包装器)
      */
@@ -2400,57 +3415,15 @@ public class GuildService {
      * 从ResultSet创建GuildLog对象
      */
     private GuildLog createGuildLogFromResultSet(ResultSet rs) throws SQLException {
-        GuildLog log = new GuildLog();
-        log.setId(rs.getInt("id"));
-        log.setGuildId(rs.getInt("guild_id"));
-        log.setGuildName(rs.getString("guild_name"));
-        log.setPlayerUuid(rs.getString("player_uuid"));
-        log.setPlayerName(rs.getString("player_name"));
-        log.setLogType(GuildLog.LogType.valueOf(rs.getString("log_type")));
-        log.setDescription(rs.getString("description"));
-        log.setDetails(rs.getString("details"));
-        
-        String createdAtStr = rs.getString("created_at");
-        if (createdAtStr != null) {
-            try {
-                if (plugin.getDatabaseManager().getDatabaseType() == DatabaseManager.DatabaseType.SQLITE) {
-                    log.setCreatedAt(LocalDateTime.parse(createdAtStr, com.guild.core.time.TimeProvider.FULL_FORMATTER));
-                } else {
-                    log.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                }
-            } catch (Exception e) {
-                logger.warning("解析日志创建时间时发生错误: " + e.getMessage());
-            }
-        }
-        
-        return log;
+        return GuildRowMappers.log(rs).map(rs);
     }
     
     /**
      * 清理旧日志 (异步)
+     * 所有日志类型统一保留 daysToKeep 天，由日志保留任务分批删除
      */
     public CompletableFuture<Integer> cleanOldLogsAsync(int daysToKeep) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // 统一使用参数绑定的阈值时间（字符串），避免数据库侧时区差异
-                String sql = "DELETE FROM guild_logs WHERE created_at < ?";
-                
-                try (Connection conn = databaseManager.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    
-                    // 计算阈值字符串：当前系统时间减去 daysToKeep 天，格式 yyyy-MM-dd HH:mm:ss
-                    String threshold = com.guild.core.time.TimeProvider.nowLocalDateTime().minusDays(daysToKeep)
-                        .format(com.guild.core.time.TimeProvider.FULL_FORMATTER);
-                    stmt.setString(1, threshold);
-                    int affectedRows = stmt.executeUpdate();
-                    logger.info("清理了 " + affectedRows + " 条旧日志记录");
-                    return affectedRows;
-                }
-            } catch (SQLException e) {
-                logger.severe("清理旧日志时发生错误: " + e.getMessage());
-                return 0;
-            }
-        });
+        return logRetention.runNow(daysToKeep).thenApply(deleted -> Math.max(0, deleted));
     }
     
     /**
@@ -0,0 +1,144 @@
+package com.guild.services;
+
+import com.guild.GuildPlugin;
+import com.guild.core.database.DatabaseManager;
+import com.guild.core.events.GuildDataChangeEvent;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * 工会汇总统计 - 首次查询时用一条聚合SQL加载，之后根据 GuildDataChangeEvent 增量更新
+ * 加载完成后读取统计为 O(1)，不再按工会逐个查询成员数
+ */
+public class GuildStatisticsService {
+
+    private static final String AGGREGATE_SQL = "SELECT COUNT(*), COALESCE(SUM(balance), 0), " +
+        "COALESCE(SUM(CASE WHEN frozen = 1 THEN 1 ELSE 0 END), 0), " +
+        "(SELECT COUNT(*) FROM guild_members) FROM guilds";
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final AtomicReference<Statistics> current = new AtomicReference<>();
+    // 每次变更递增；加载期间发生过变更时不缓存加载结果，避免重复计入
+    private final AtomicLong version = new AtomicLong();
+
+    public GuildStatisticsService(GuildPlugin plugin, DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+        this.logger = plugin.getLogger();
+        plugin.getEventBus().subscribe(GuildDataChangeEvent.class, this::onDataChange);
+    }
+
+    /**
+     * 获取统计数据，已加载时直接返回
+     */
+    public CompletableFuture<Statistics> getStatisticsAsync() {
+        Statistics statistics = current.get();
+        if (statistics != null) {
+            return CompletableFuture.completedFuture(statistics);
+        }
+        return reloadAsync();
+    }
+
+    /**
+     * 丢弃增量结果，用聚合SQL重新计算
+     */
+    public CompletableFuture<Statistics> reloadAsync() {
+        return databaseManager.supplyAsync(() -> {
+            long stamp = version.get();
+            try (Connection conn = databaseManager.getConsistentReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(AGGREGATE_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Statistics loaded = new Statistics(rs.getInt(1), rs.getInt(4), rs.getDouble(2), rs.getInt(3),
+                        System.currentTimeMillis());
+                    // 写入提交后、事件发布前查询到的行会在事件到达时再计入一次：
+                    // 先确认没有尚未结束的写入任务，再确认查询期间没有收到事件，两者都满足才缓存
+                    boolean writesInFlight = databaseManager.hasWritesInFlight();
+                    if (!writesInFlight && version.get() == stamp) {
+                        current.set(loaded);
+                    } else {
+                        current.set(null);
+                    }
+                    return loaded;
+                }
+            } catch (SQLException e) {
+                logger.severe("加载工会统计时发生错误: " + e.getMessage());
+            }
+            return Statistics.EMPTY;
+        });
+    }
+
+    /**
+     * 丢弃当前统计，下次读取时重新计算（其他服务器的改动没有增量事件）
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        current.set(null);
+    }
+
+    private void onDataChange(GuildDataChangeEvent event) {
+        version.incrementAndGet();
+        current.updateAndGet(statistics -> statistics != null ? statistics.apply(event) : null);
+    }
+
+    /**
+     * 工会汇总统计快照
+     */
+    public static final class Statistics {
+
+        static final Statistics EMPTY = new Statistics(0, 0, 0, 0, 0L);
+
+        private final int totalGuilds;
+        private final int totalMembers;
+        private final double totalBalance;
+        private final int frozenGuilds;
+        private final long loadedAt;
+
+        private Statistics(int totalGuilds, int totalMembers, double totalBalance, int frozenGuilds, long loadedAt) {
+            this.totalGuilds = totalGuilds;
+            this.totalMembers = totalMembers;
+            this.totalBalance = totalBalance;
+            this.frozenGuilds = frozenGuilds;
+            this.loadedAt = loadedAt;
+        }
+
+        private Statistics apply(GuildDataChangeEvent event) {
+            return new Statistics(totalGuilds + event.getGuildDelta(), totalMembers + event.getMemberDelta(),
+                totalBalance + event.getBalanceDelta(), frozenGuilds + event.getFrozenDelta(), loadedAt);
+        }
+
+        public int getTotalGuilds() {
+            return totalGuilds;
+        }
+
+        public int getTotalMembers() {
+            return totalMembers;
+        }
+
+        public double getTotalBalance() {
+            return totalBalance;
+        }
+
+        public int getFrozenGuilds() {
+            return frozenGuilds;
+        }
+
+        public int getActiveGuilds() {
+            return totalGuilds - frozenGuilds;
+        }
+
+        /**
+         * 最近一次用聚合SQL重新计算的时间
+         */
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+    }
+}
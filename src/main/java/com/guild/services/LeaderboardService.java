@@ -0,0 +1,404 @@
+package com.guild.services;
+
+import com.guild.GuildPlugin;
+import com.guild.core.cache.RankTree;
+import com.guild.core.database.DatabaseManager;
+import com.guild.core.events.GuildDataChangeEvent;
+import com.guild.core.utils.CompatibleScheduler;
+import com.guild.models.GuildContribution;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * 工会排行榜 - 启动时用分组查询加载一次，之后根据 GuildDataChangeEvent 增量调整名次
+ * 每个指标一棵排名树，单个工会的数据变更只需 O(log n) 重新排序
+ */
+public class LeaderboardService {
+
+    // 加载结果与增量变更不一致时的重试次数、间隔，以及全部失败后重新加载的延迟（tick）
+    private static final int LOAD_ATTEMPTS = 5;
+    private static final long LOAD_RETRY_PAUSE_MILLIS = 50;
+    private static final long LOAD_RESCHEDULE_TICKS = 100L;
+
+    private final GuildPlugin plugin;
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    // 以下字段由 this 加锁保护；重新加载时整体替换
+    private Map<Integer, Entry> entries = new HashMap<>();
+    private Map<Metric, RankTree> trees = newTrees();
+    // 每次增量变更加一，用于判断加载查询期间是否有变更
+    private long version;
+    private volatile boolean loaded;
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+
+    public LeaderboardService(GuildPlugin plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.logger = plugin.getLogger();
+        plugin.getEventBus().subscribe(GuildDataChangeEvent.class, this::onDataChange);
+    }
+
+    /**
+     * 是否已完成加载
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 扫描一次工会、成员数和贡献汇总构建排行榜（数据库初始化后、接受请求前调用，跨服变更时重新加载）
+     * 查询和建树不持有锁，完成后在锁内整体替换，读取排行不会被全表查询阻塞
+     * 成员数、贡献值按增量调整，结果与增量变更不一致时不替换，稍后重新加载
+     */
+    public void load() {
+        for (int attempt = 1; attempt <= LOAD_ATTEMPTS; attempt++) {
+            if (attempt > 1 && !pauseBeforeRetry()) {
+                break;
+            }
+            long stamp;
+            synchronized (this) {
+                stamp = version;
+            }
+            Map<Integer, Entry> loadedEntries = queryEntries();
+            if (loadedEntries == null) {
+                return;
+            }
+            Map<Metric, RankTree> loadedTrees = newTrees();
+            for (Entry entry : loadedEntries.values()) {
+                insert(loadedTrees, entry);
+            }
+            synchronized (this) {
+                // 查询期间有增量变更，或有尚未发布变更事件的写入时，查询结果与增量调整可能重复或遗漏，重新查询
+                if (version != stamp || databaseManager.hasWritesInFlight()) {
+                    continue;
+                }
+                entries = loadedEntries;
+                trees = loadedTrees;
+                loaded = true;
+            }
+            logger.info("工会排行榜已加载: " + loadedEntries.size() + " 个工会");
+            return;
+        }
+        logger.warning("工会排行榜加载期间数据持续变更，保留当前排行并稍后重新加载");
+        scheduleReload();
+    }
+
+    private boolean pauseBeforeRetry() {
+        try {
+            Thread.sleep(LOAD_RETRY_PAUSE_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 延迟后在数据库线程重新加载，同一时间只保留一个待执行的重新加载
+     */
+    private void scheduleReload() {
+        if (!reloadScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        CompatibleScheduler.runTaskLater(plugin, () -> databaseManager.runAsync(() -> {
+            reloadScheduled.set(false);
+            load();
+        }), LOAD_RESCHEDULE_TICKS);
+    }
+
+    /**
+     * 查询所有工会的排行数据，出错时返回 null
+     */
+    private Map<Integer, Entry> queryEntries() {
+        Map<Integer, String> names = new HashMap<>();
+        Map<Integer, double[]> values = new HashMap<>();
+        try (Connection conn = databaseManager.getConsistentReadConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT id, name, balance, level FROM guilds");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int guildId = rs.getInt("id");
+                    names.put(guildId, rs.getString("name"));
+                    values.put(guildId, new double[] {rs.getDouble("balance"), rs.getInt("level"), 0, 0});
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT guild_id, COUNT(*) FROM guild_members GROUP BY guild_id");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    double[] guildValues = values.get(rs.getInt(1));
+                    if (guildValues != null) {
+                        guildValues[2] = rs.getInt(2);
+                    }
+                }
+            }
+            List<String> personalTypes = new ArrayList<>();
+            for (GuildContribution.ContributionType type : GuildContribution.ContributionType.values()) {
+                if (type.isPersonalContribution()) {
+                    personalTypes.add(type.name());
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT guild_id, SUM(total) FROM guild_contribution_totals WHERE contribution_type IN (" +
+                     String.join(", ", Collections.nCopies(personalTypes.size(), "?")) + ") GROUP BY guild_id")) {
+                for (int i = 0; i < personalTypes.size(); i++) {
+                    stmt.setString(i + 1, personalTypes.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        double[] guildValues = values.get(rs.getInt(1));
+                        if (guildValues != null) {
+                            guildValues[3] = rs.getDouble(2);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.severe("加载工会排行榜时发生错误: " + e.getMessage());
+            return null;
+        }
+
+        Map<Integer, Entry> loadedEntries = new HashMap<>();
+        for (Map.Entry<Integer, double[]> loadedValues : values.entrySet()) {
+            double[] v = loadedValues.getValue();
+            loadedEntries.put(loadedValues.getKey(),
+                new Entry(loadedValues.getKey(), names.get(loadedValues.getKey()), v[0], (int) v[1], (int) v[2], v[3]));
+        }
+        return loadedEntries;
+    }
+
+    private static Map<Metric, RankTree> newTrees() {
+        Map<Metric, RankTree> newTrees = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            newTrees.put(metric, new RankTree());
+        }
+        return newTrees;
+    }
+
+    private static void insert(Map<Metric, RankTree> target, Entry entry) {
+        for (Metric metric : Metric.values()) {
+            target.get(metric).insert(entry.guildId, entry.getValue(metric));
+        }
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 获取指定指标的前 limit 名
+     */
+    public synchronized List<Entry> getTop(Metric metric, int limit) {
+        List<Entry> top = new ArrayList<>();
+        for (Integer guildId : trees.get(metric).top(limit)) {
+            top.add(entries.get(guildId));
+        }
+        return top;
+    }
+
+    /**
+     * 获取指定指标第 rank 名（从 1 开始），不存在时返回 null
+     */
+    public synchronized Entry getEntry(Metric metric, int rank) {
+        int guildId = trees.get(metric).idAt(rank);
+        return guildId >= 0 ? entries.get(guildId) : null;
+    }
+
+    /**
+     * 获取工会在指定指标上的名次（从 1 开始），未上榜时返回 0
+     */
+    public synchronized int getRank(Metric metric, int guildId) {
+        Entry entry = entries.get(guildId);
+        return entry != null ? trees.get(metric).rankOf(guildId, entry.getValue(metric)) : 0;
+    }
+
+    public synchronized Entry getGuildEntry(int guildId) {
+        return entries.get(guildId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // ==================== 增量更新 ====================
+
+    private synchronized void onDataChange(GuildDataChangeEvent event) {
+        version++;
+        if (!loaded) {
+            return;
+        }
+        int guildId = event.getGuildId();
+        if (event.getType() == GuildDataChangeEvent.Type.GUILD_CREATED) {
+            add(new Entry(guildId, event.getGuildName(), 0, event.getLevel(), 0, 0));
+            return;
+        }
+        Entry entry = entries.get(guildId);
+        if (entry == null) {
+            return;
+        }
+        switch (event.getType()) {
+            case GUILD_DELETED:
+                entries.remove(guildId);
+                for (Metric metric : Metric.values()) {
+                    trees.get(metric).remove(guildId, entry.getValue(metric));
+                }
+                break;
+            case MEMBER_JOINED:
+            case MEMBER_LEFT:
+                replace(entry, new Entry(guildId, entry.name, entry.balance, entry.level,
+                    Math.max(0, entry.members + event.getMemberDelta()), entry.contribution));
+                break;
+            case BALANCE_CHANGED:
+                // 使用变更后的绝对余额，并发更新时调用方记录的旧余额可能已过期，累加差值会逐渐偏离
+                replace(entry, new Entry(guildId, entry.name, event.getNewBalance(), entry.level,
+                    entry.members, entry.contribution));
+                break;
+            case LEVEL_CHANGED:
+                replace(entry, new Entry(guildId, entry.name, entry.balance, event.getLevel(),
+                    entry.members, entry.contribution));
+                break;
+            case CONTRIBUTION_ADDED:
+                replace(entry, new Entry(guildId, entry.name, entry.balance, entry.level,
+                    entry.members, entry.contribution + event.getContributionDelta()));
+                break;
+            case GUILD_RENAMED:
+                // 名称不影响排序，直接替换
+                entries.put(guildId, new Entry(guildId, event.getGuildName(), entry.balance, entry.level,
+                    entry.members, entry.contribution));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void add(Entry entry) {
+        entries.put(entry.guildId, entry);
+        insert(trees, entry);
+    }
+
+    /**
+     * 替换工会数据，只对数值发生变化的指标重新排序
+     */
+    private void replace(Entry old, Entry updated) {
+        entries.put(updated.guildId, updated);
+        for (Metric metric : Metric.values()) {
+            double oldValue = old.getValue(metric);
+            double newValue = updated.getValue(metric);
+            if (Double.compare(oldValue, newValue) != 0) {
+                RankTree tree = trees.get(metric);
+                tree.remove(updated.guildId, oldValue);
+                tree.insert(updated.guildId, newValue);
+            }
+        }
+    }
+
+    /**
+     * 排行指标
+     */
+    public enum Metric {
+        BALANCE("balance", "资金"),
+        LEVEL("level", "等级"),
+        MEMBERS("members", "成员数"),
+        CONTRIBUTION("contribution", "总贡献");
+
+        private final String key;
+        private final String displayName;
+
+        Metric(String key, String displayName) {
+            this.key = key;
+            this.displayName = displayName;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * 按占位符中使用的名称查找，找不到时返回 null
+         */
+        public static Metric fromKey(String key) {
+            for (Metric metric : values()) {
+                if (metric.key.equalsIgnoreCase(key)) {
+                    return metric;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 单个工会的排行数据快照（不可变）
+     */
+    public static final class Entry {
+        private final int guildId;
+        private final String name;
+        private final double balance;
+        private final int level;
+        private final int members;
+        private final double contribution;
+
+        private Entry(int guildId, String name, double balance, int level, int members, double contribution) {
+            this.guildId = guildId;
+            this.name = name;
+            this.balance = balance;
+            this.level = level;
+            this.members = members;
+            this.contribution = contribution;
+        }
+
+        public int getGuildId() {
+            return guildId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getBalance() {
+            return balance;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public int getMembers() {
+            return members;
+        }
+
+        public double getContribution() {
+            return contribution;
+        }
+
+        public double getValue(Metric metric) {
+            switch (metric) {
+                case BALANCE: return balance;
+                case LEVEL: return level;
+                case MEMBERS: return members;
+                default: return contribution;
+            }
+        }
+
+        /**
+         * 用于显示的数值：资金和贡献保留两位小数，其余为整数
+         */
+        public String formatValue(Metric metric) {
+            if (metric == Metric.BALANCE || metric == Metric.CONTRIBUTION) {
+                return String.format("%.2f", getValue(metric));
+            }
+            return String.valueOf((int) getValue(metric));
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.guild.services;
+
+import com.guild.GuildPlugin;
+import com.guild.core.database.DatabaseManager;
+import com.guild.core.time.TimeProvider;
+import com.guild.models.GuildLog;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * 工会日志保留任务 - 定期在后台按主键区间分批删除过期日志
+ * 每批只删除一个ID区间内的行，批次之间暂停，避免长时间占用写锁
+ * 支持按日志类型单独设置保留天数（0 表示永久保留）
+ */
+public class LogRetentionService {
+
+    // 可以使用 created_ms 索引的范围条件
+    private static final String OLDER_THAN = "created_ms < ?";
+    // 尚未回填 created_ms 的旧行按文本时间判断，只在回填完成前单独查询
+    private static final String UNDATED_OLDER_THAN = "created_ms IS NULL AND created_at < ?";
+
+    private final GuildPlugin plugin;
+    private final DatabaseManager databaseManager;
+    private final GuildService guildService;
+    private final Logger logger;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopped;
+
+    // 当前（或最近一次）运行的进度
+    private volatile long runStartedAt;
+    private volatile long runFinishedAt;
+    private volatile long currentId;
+    private volatile long startId;
+    private volatile long endId;
+    private volatile long deletedRows;
+    private volatile long chunkCount;
+    private volatile long lastRunDeleted;
+    private volatile long lastRunMillis;
+
+    public LogRetentionService(GuildPlugin plugin, DatabaseManager databaseManager, GuildService guildService) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.guildService = guildService;
+        this.logger = plugin.getLogger();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Guild-LogRetention");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 按 database.yml 的 log-retention 配置启动定时清理（需在数据库初始化之后调用）
+     */
+    public void start() {
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        if (!config.getBoolean("log-retention.enabled", true)) {
+            logger.info("工会日志定时清理已关闭");
+            return;
+        }
+        long initialDelay = Math.max(0, config.getLong("log-retention.initial-delay", 10));
+        long interval = Math.max(1, config.getLong("log-retention.interval", 360));
+        scheduler.scheduleWithFixedDelay(() -> {
+            if (running.compareAndSet(false, true)) {
+                try {
+                    purge(loadPolicy(null));
+                } finally {
+                    running.set(false);
+                }
+            }
+        }, initialDelay, interval, TimeUnit.MINUTES);
+        logger.info("工会日志定时清理已启动: 每 " + interval + " 分钟运行一次");
+    }
+
+    /**
+     * 立即在后台运行一次清理
+     * @param daysOverride 不为 null 时所有日志类型统一使用该保留天数
+     * @return 删除的行数；已有清理任务在运行时返回 -1
+     */
+    public CompletableFuture<Integer> runNow(Integer daysOverride) {
+        if (!running.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(-1);
+        }
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        try {
+            scheduler.execute(() -> {
+                try {
+                    future.complete((int) purge(loadPolicy(daysOverride)));
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            future.complete(0);
+        }
+        return future;
+    }
+
+    /**
+     * 停止定时清理；正在运行的清理会在当前批次结束后退出
+     */
+    public void shutdown(long timeoutMillis) {
+        stopped = true;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("工会日志清理任务未能在 " + timeoutMillis + "ms 内结束");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 读取保留策略：默认天数 + 按日志类型覆盖
+     */
+    private Map<GuildLog.LogType, Integer> loadPolicy(Integer daysOverride) {
+        Map<GuildLog.LogType, Integer> policy = new EnumMap<>(GuildLog.LogType.class);
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        int defaultDays = daysOverride != null ? daysOverride : config.getInt("log-retention.default-days", 30);
+        ConfigurationSection types = daysOverride == null ? config.getConfigurationSection("log-retention.types") : null;
+        for (GuildLog.LogType type : GuildLog.LogType.values()) {
+            policy.put(type, types != null ? types.getInt(type.name(), defaultDays) : defaultDays);
+        }
+        return policy;
+    }
+
+    /**
+     * 分批删除过期日志，返回删除的总行数
+     */
+    private long purge(Map<GuildLog.LogType, Integer> policy) {
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        int chunkSize = Math.max(1, config.getInt("log-retention.chunk-size", 500));
+        long pauseMillis = Math.max(0, config.getLong("log-retention.chunk-pause", 200));
+
+        // 相同保留天数的类型合并为一个条件：(log_type IN (...) AND created_ms < ?)
+        Map<Integer, List<String>> typesByDays = new TreeMap<>();
+        for (Map.Entry<GuildLog.LogType, Integer> entry : policy.entrySet()) {
+            if (entry.getValue() > 0) {
+                typesByDays.computeIfAbsent(entry.getValue(), days -> new ArrayList<>()).add(entry.getKey().name());
+            }
+        }
+        runStartedAt = System.currentTimeMillis();
+        runFinishedAt = 0;
+        deletedRows = 0;
+        chunkCount = 0;
+        startId = 0;
+        endId = 0;
+        currentId = 0;
+        if (typesByDays.isEmpty()) {
+            finishRun();
+            return 0;
+        }
+
+        // 删除语句已按主键区间限定范围，回填完成前在区间内顺带判断未回填的旧行
+        boolean undated = !guildService.getTimestampBackfill().isComplete("guild_logs");
+        StringBuilder condition = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        for (Map.Entry<Integer, List<String>> entry : typesByDays.entrySet()) {
+            if (condition.length() > 0) {
+                condition.append(" OR ");
+            }
+            condition.append("(log_type IN (").append(String.join(", ", Collections.nCopies(entry.getValue().size(), "?")))
+                .append(") AND (").append(OLDER_THAN);
+            params.addAll(entry.getValue());
+            long threshold = TimeProvider.plusDaysMillis(-entry.getKey());
+            params.add(threshold);
+            if (undated) {
+                condition.append(" OR (").append(UNDATED_OLDER_THAN).append(")");
+                params.add(TimeProvider.formatMillis(threshold));
+            }
+            condition.append("))");
+        }
+        // 最短的保留天数对应最晚的阈值，超过该阈值之后的行不可能过期
+        long latestThreshold = TimeProvider.plusDaysMillis(-typesByDays.keySet().iterator().next());
+        String deleteSql = "DELETE FROM guild_logs WHERE id >= ? AND id < ? AND (" + condition + ")";
+
+        try {
+            if (!loadIdRange(latestThreshold, undated)) {
+                finishRun();
+                return 0;
+            }
+            for (long from = startId; from <= endId && !stopped; from += chunkSize) {
+                currentId = from;
+                List<Object> chunkParams = new ArrayList<>(params.size() + 2);
+                chunkParams.add(from);
+                chunkParams.add(Math.min(from + chunkSize, endId + 1));
+                chunkParams.addAll(params);
+                // 每批单独提交（SQLite 单写模式下排队到写线程），批与批之间让出写锁
+                deletedRows += databaseManager.update(deleteSql, chunkParams.toArray());
+                chunkCount++;
+                if (pauseMillis > 0 && from + chunkSize <= endId) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+            currentId = endId;
+        } catch (SQLException e) {
+            logger.severe("清理工会日志时发生错误: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        finishRun();
+        if (lastRunDeleted > 0) {
+            guildService.invalidateGuildLogsCounts();
+            logger.info("清理了 " + lastRunDeleted + " 条旧日志记录 (" + chunkCount + " 批, 耗时 " + lastRunMillis + "ms)");
+        }
+        return lastRunDeleted;
+    }
+
+    /**
+     * 确定需要扫描的ID区间：最小ID 到 早于最晚阈值的最大ID
+     * 按 created_ms 索引查询范围；回填完成前另外查询未回填旧行的范围并合并，不用 OR 合成一条（无法使用索引）
+     */
+    private boolean loadIdRange(long latestThreshold, boolean undated) throws SQLException {
+        try (Connection conn = databaseManager.getConsistentReadConnection()) {
+            long[] range = queryIdRange(conn, "SELECT MIN(id), MAX(id) FROM guild_logs WHERE " + OLDER_THAN, latestThreshold);
+            if (undated) {
+                long[] undatedRange = queryIdRange(conn, "SELECT MIN(id), MAX(id) FROM guild_logs WHERE " + UNDATED_OLDER_THAN,
+                    TimeProvider.formatMillis(latestThreshold));
+                if (range == null) {
+                    range = undatedRange;
+                } else if (undatedRange != null) {
+                    range = new long[] {Math.min(range[0], undatedRange[0]), Math.max(range[1], undatedRange[1])};
+                }
+            }
+            if (range == null) {
+                return false;
+            }
+            startId = range[0];
+            endId = range[1];
+            currentId = startId;
+            return true;
+        }
+    }
+
+    /**
+     * 执行 SELECT MIN(id), MAX(id) 查询，没有匹配的行时返回 null
+     */
+    private long[] queryIdRange(Connection conn, String sql, Object threshold) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setObject(1, threshold);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getObject(1) != null) {
+                    return new long[] {rs.getLong(1), rs.getLong(2)};
+                }
+            }
+        }
+        return null;
+    }
+
+    private void finishRun() {
+        runFinishedAt = System.currentTimeMillis();
+        lastRunDeleted = deletedRows;
+        lastRunMillis = runFinishedAt - runStartedAt;
+    }
+
+    // ==================== 运行状态 ====================
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 当前（或最近一次）运行的开始时间，从未运行时为 0
+     */
+    public long getRunStartedAt() {
+        return runStartedAt;
+    }
+
+    /**
+     * 最近一次运行的结束时间，正在运行或从未运行时为 0
+     */
+    public long getRunFinishedAt() {
+        return runFinishedAt;
+    }
+
+    public long getDeletedRows() {
+        return deletedRows;
+    }
+
+    public long getChunkCount() {
+        return chunkCount;
+    }
+
+    public long getLastRunDeleted() {
+        return lastRunDeleted;
+    }
+
+    public long getLastRunMillis() {
+        return lastRunMillis;
+    }
+
+    /**
+     * 当前运行的进度（0-100）
+     */
+    public double getProgressPercent() {
+        if (endId <= startId) {
+            return runFinishedAt > 0 ? 100 : 0;
+        }
+        return Math.min(100, (currentId - startId) * 100.0 / (endId - startId));
+    }
+
+    /**
+     * 当前（或最近一次）运行的删除速度（行/秒）
+     */
+    public double getRowsPerSecond() {
+        long end = runFinishedAt > 0 ? runFinishedAt : System.currentTimeMillis();
+        long elapsed = end - runStartedAt;
+        return runStartedAt > 0 && elapsed > 0 ? deletedRows * 1000.0 / elapsed : 0;
+    }
+}
@@ -0,0 +1,194 @@
+package com.guild.services;
+
+import com.guild.GuildPlugin;
+import com.guild.core.database.DatabaseManager;
+import com.guild.core.database.SchemaMigrator;
+import com.guild.core.time.TimeProvider;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 毫秒时间列回填任务 - 把 v6 迁移之前写入的行的文本时间转换为 *_ms 列
+ * 按ID分批回填，每批与进度（timestamp_backfill.last_id）在同一事务中提交，重启后从上次的位置继续
+ * 回填完成前，这些行的毫秒列为 NULL：读取时回退到文本列，范围清理会在回填后再处理它们
+ */
+public class TimestampBackfillService {
+
+    private final GuildPlugin plugin;
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final ExecutorService executor;
+    private volatile boolean stopped;
+    // 尚未回填完的表，读取回填进度之前为 null
+    private volatile Set<String> pendingTables;
+
+    public TimestampBackfillService(GuildPlugin plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.logger = plugin.getLogger();
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Guild-TimestampBackfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 在后台开始回填（需在数据库初始化之后调用），没有待回填的表时立即结束
+     */
+    public void start() {
+        executor.execute(this::backfill);
+    }
+
+    /**
+     * 停止回填；正在执行的批次提交后退出，剩余部分下次启动时继续
+     */
+    public void shutdown(long timeoutMillis) {
+        stopped = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("毫秒时间列回填任务未能在 " + timeoutMillis + "ms 内结束");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 表的毫秒列是否已全部回填；读取进度之前或回填失败时返回 false
+     * 回填完成后，按毫秒列查询时不需要再考虑毫秒列为 NULL 的旧行
+     */
+    public boolean isComplete(String table) {
+        Set<String> pending = pendingTables;
+        return pending != null && !pending.contains(table);
+    }
+
+    private void backfill() {
+        Map<String, long[]> pending;
+        try {
+            pending = loadPending();
+        } catch (SQLException e) {
+            logger.severe("读取毫秒时间列回填进度时发生错误: " + e.getMessage());
+            return;
+        }
+        Set<String> remaining = ConcurrentHashMap.newKeySet();
+        remaining.addAll(pending.keySet());
+        pendingTables = remaining;
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        FileConfiguration config = plugin.getConfigManager().getDatabaseConfig();
+        int batchSize = Math.max(1, config.getInt("timestamp-backfill.batch-size", 1000));
+        long pauseMillis = Math.max(0, config.getLong("timestamp-backfill.batch-pause", 100));
+        logger.info("开始在后台回填毫秒时间列: " + String.join(", ", pending.keySet()));
+
+        long started = System.currentTimeMillis();
+        long rows = 0;
+        try {
+            for (Map.Entry<String, long[]> entry : pending.entrySet()) {
+                long[] range = entry.getValue();
+                long lastId = range[0];
+                while (lastId < range[1] && !stopped) {
+                    long[] batch = backfillBatch(entry.getKey(), lastId, range[1], batchSize);
+                    lastId = batch[0];
+                    rows += batch[1];
+                    if (pauseMillis > 0 && lastId < range[1]) {
+                        Thread.sleep(pauseMillis);
+                    }
+                }
+                if (stopped) {
+                    return;
+                }
+                remaining.remove(entry.getKey());
+            }
+        } catch (SQLException e) {
+            logger.severe("回填毫秒时间列时发生错误: " + e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        logger.info("毫秒时间列回填完成: " + rows + " 行 (耗时 " + (System.currentTimeMillis() - started) + "ms)");
+    }
+
+    /**
+     * 回填 (lastId, maxId] 中的下一批行，返回 {新的 lastId, 回填行数}
+     */
+    private long[] backfillBatch(String table, long lastId, long maxId, int batchSize) throws SQLException {
+        List<String> columns = SchemaMigrator.MILLIS_COLUMNS.get(table);
+        String selectSql = "SELECT id, " + String.join(", ", columns) + " FROM " + table +
+            " WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+        StringBuilder updateSql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        for (int i = 0; i < columns.size(); i++) {
+            String millisColumn = SchemaMigrator.millisColumn(columns.get(i));
+            // 回填期间该行可能已被更新并写入了毫秒列，以新值为准
+            updateSql.append(i > 0 ? ", " : "").append(millisColumn).append(" = COALESCE(").append(millisColumn).append(", ?)");
+        }
+        updateSql.append(" WHERE id = ?");
+
+        return databaseManager.executeInTransaction(unitOfWork -> {
+            Connection conn = unitOfWork.getConnection();
+            long last = lastId;
+            long count = 0;
+            try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                stmt.setLong(1, lastId);
+                stmt.setLong(2, maxId);
+                stmt.setInt(3, batchSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        last = rs.getLong(1);
+                        Object[] params = new Object[columns.size() + 1];
+                        for (int i = 0; i < columns.size(); i++) {
+                            LocalDateTime parsed = TimeProvider.parse(rs.getString(i + 2));
+                            params[i] = parsed != null ? TimeProvider.toMillis(parsed) : null;
+                        }
+                        params[columns.size()] = last;
+                        unitOfWork.queue(updateSql.toString(), params);
+                        count++;
+                    }
+                }
+            }
+            if (count < batchSize) {
+                // 区间内剩余的行已被删除
+                last = maxId;
+            }
+            unitOfWork.queue("UPDATE timestamp_backfill SET last_id = ? WHERE table_name = ?", last, table);
+            return new long[] {last, count};
+        });
+    }
+
+    /**
+     * 尚未回填完的表：表名 -> {last_id, max_id}
+     */
+    private Map<String, long[]> loadPending() throws SQLException {
+        Map<String, long[]> pending = new LinkedHashMap<>();
+        try (Connection conn = databaseManager.getConsistentReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT table_name, last_id, max_id FROM timestamp_backfill WHERE last_id < max_id ORDER BY table_name");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                String table = rs.getString(1);
+                if (SchemaMigrator.MILLIS_COLUMNS.containsKey(table)) {
+                    pending.put(table, new long[] {rs.getLong(2), rs.getLong(3)});
+                }
+            }
+        }
+        return pending;
+    }
+}
@@ -0,0 +1,241 @@
+package com.guild.services;
+
+import com.guild.core.database.RowMapper;
+import com.guild.core.time.TimeProvider;
+import com.guild.models.Guild;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * 行映射基准测试 - 对同样的 guilds 结构的行分别用旧映射方式和 GuildRowMappers 读取
+ * 旧方式是改用预解析列索引之前 GuildService 中映射代码的原样副本：按列名读取、逐行 try/catch 探测可选列、
+ * 文本时间先按 FULL_FORMATTER 解析失败再按 ISO 解析；两种方式的查询开销相同，差值即为映射开销的差异
+ * 只在测试源码中，不打包进插件；与 GuildRowMappers 同包以访问包内可见的映射器
+ * 用法: java -cp <测试类路径和 JDBC 驱动> com.guild.services.RowMappingBenchmark <jdbc-url> [行数] [轮数]
+ */
+public class RowMappingBenchmark {
+
+    /** 单次最多生成的行数（5 个 0-9 数字表交叉连接） */
+    public static final int MAX_ROWS = 100000;
+
+    private static final String DIGITS = "(SELECT 0 AS d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 " +
+        "UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9)";
+    // 不依赖现有数据和递归 CTE（MySQL 的 cte_max_recursion_depth 默认只有 1000），SQLite 与 MySQL 均可执行
+    private static final String ROWS_SQL = "SELECT a.d + 10 * b.d + 100 * c.d + 1000 * e.d + 10000 * f.d + 1 AS id, " +
+        "'BenchGuild' AS name, 'BG' AS tag, '基准测试工会' AS description, '00000000-0000-0000-0000-000000000000' AS leader_uuid, " +
+        "'BenchPlayer' AS leader_name, 'world' AS home_world, 100.5 AS home_x, 64.0 AS home_y, -200.5 AS home_z, " +
+        "90.0 AS home_yaw, 0.0 AS home_pitch, '2024-06-15 12:34:56' AS created_at, 1718454896000 AS created_ms, " +
+        "'2024-06-15 12:34:56' AS updated_at, 1718454896000 AS updated_ms, 1000.0 AS balance, 3 AS level, " +
+        "20 AS max_members, 0 AS frozen FROM " + String.join(" CROSS JOIN ",
+            DIGITS + " a", DIGITS + " b", DIGITS + " c", DIGITS + " e", DIGITS + " f") + " LIMIT ?";
+
+    private final Connection connection;
+    private final Logger logger;
+
+    public RowMappingBenchmark(Connection connection, Logger logger) {
+        this.connection = connection;
+        this.logger = logger;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 1) {
+            System.err.println("用法: RowMappingBenchmark <jdbc-url> [行数] [轮数]");
+            return;
+        }
+        int rows = args.length >= 2 ? Integer.parseInt(args[1]) : 10000;
+        int rounds = args.length >= 3 ? Integer.parseInt(args[2]) : 10;
+        try (Connection conn = DriverManager.getConnection(args[0])) {
+            MappingResult result = new RowMappingBenchmark(conn, Logger.getLogger("RowMappingBenchmark")).run(rows, rounds);
+            System.out.printf("%d 行 x %d 轮: 旧映射 %.2fms, 按列索引 %.2fms (%.2fx)%n",
+                result.getRows(), rounds, result.getLegacyMillis(), result.getIndexedMillis(), result.getSpeedup());
+        }
+    }
+
+    /**
+     * 两种方式交替各执行 rounds 轮取平均（先预热 3 轮，结果不计入）
+     */
+    public MappingResult run(int rows, int rounds) throws SQLException {
+        int limit = Math.max(1, Math.min(rows, MAX_ROWS));
+        for (int i = 0; i < 3; i++) {
+            mapLegacy(limit);
+            mapIndexed(limit);
+        }
+        long legacy = 0;
+        long indexed = 0;
+        for (int i = 0; i < rounds; i++) {
+            legacy += mapLegacy(limit);
+            indexed += mapIndexed(limit);
+        }
+        return new MappingResult(limit, legacy / rounds, indexed / rounds);
+    }
+
+    private long mapLegacy(int rows) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(ROWS_SQL)) {
+            stmt.setInt(1, rows);
+            long checksum = 0;
+            long start = System.nanoTime();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    checksum += checksum(createGuildFromResultSet(rs));
+                }
+            }
+            return consume(System.nanoTime() - start, checksum);
+        }
+    }
+
+    private long mapIndexed(int rows) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(ROWS_SQL)) {
+            stmt.setInt(1, rows);
+            long checksum = 0;
+            long start = System.nanoTime();
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Guild> mapper = GuildRowMappers.guild(rs);
+                while (rs.next()) {
+                    checksum += checksum(mapper.map(rs));
+                }
+            }
+            return consume(System.nanoTime() - start, checksum);
+        }
+    }
+
+    private static long checksum(Guild guild) {
+        return guild.getId() + guild.getName().length() + guild.getLevel() + (long) guild.getBalance()
+            + guild.getCreatedAt().getSecond() + guild.getUpdatedAt().getMinute();
+    }
+
+    // 使用校验和，避免读取结果被JIT优化掉
+    private long consume(long nanos, long checksum) {
+        if (checksum == Long.MIN_VALUE) {
+            logger.fine("checksum " + checksum);
+        }
+        return nanos;
+    }
+
+    // ==================== 旧映射方式（原样保留，仅用于对比） ====================
+
+    /**
+     * 从ResultSet创建Guild对象
+     */
+    private Guild createGuildFromResultSet(ResultSet rs) throws SQLException {
+        Guild guild = new Guild();
+        guild.setId(rs.getInt("id"));
+        guild.setName(rs.getString("name"));
+        guild.setTag(rs.getString("tag"));
+        guild.setDescription(rs.getString("description"));
+        guild.setLeaderUuid(UUID.fromString(rs.getString("leader_uuid")));
+        guild.setLeaderName(rs.getString("leader_name"));
+        
+        // 家的位置信息（安全处理空值）
+        String homeWorld = rs.getString("home_world");
+        guild.setHomeWorld(homeWorld);
+        
+        if (homeWorld != null) {
+            guild.setHomeX(rs.getDouble("home_x"));
+            guild.setHomeY(rs.getDouble("home_y"));
+            guild.setHomeZ(rs.getDouble("home_z"));
+            guild.setHomeYaw(rs.getFloat("home_yaw"));
+            guild.setHomePitch(rs.getFloat("home_pitch"));
+        } else {
+            // 如果home_world为null，设置默认值
+            guild.setHomeX(0.0);
+            guild.setHomeY(0.0);
+            guild.setHomeZ(0.0);
+            guild.setHomeYaw(0.0f);
+            guild.setHomePitch(0.0f);
+        }
+        
+        guild.setCreatedAt(parseTimestamp(rs, "created_at"));
+        guild.setUpdatedAt(parseTimestamp(rs, "updated_at"));
+        
+        // 读取economy相关列（安全处理，如果列不存在则使用默认值）
+        try {
+            guild.setBalance(rs.getDouble("balance"));
+        } catch (SQLException e) {
+            guild.setBalance(0.0);
+        }
+        
+        try {
+            guild.setLevel(rs.getInt("level"));
+        } catch (SQLException e) {
+            guild.setLevel(1);
+        }
+        
+        try {
+            guild.setMaxMembers(rs.getInt("max_members"));
+        } catch (SQLException e) {
+            guild.setMaxMembers(6);
+        }
+        
+        try {
+            guild.setFrozen(rs.getBoolean("frozen"));
+        } catch (SQLException e) {
+            guild.setFrozen(false);
+        }
+        
+        return guild;
+    }
+    
+    /**
+     * 解析时间戳
+     */
+    private LocalDateTime parseTimestamp(ResultSet rs, String columnName) throws SQLException {
+        // 优先以字符串按统一格式解析，避免驱动按时区转换导致偏差
+        String s = rs.getString(columnName);
+        if (s != null && !s.isEmpty()) {
+            try {
+                return LocalDateTime.parse(s, TimeProvider.FULL_FORMATTER);
+            } catch (Exception ignore) {
+                try {
+                    return LocalDateTime.parse(s.replace(" ", "T"));
+                } catch (Exception ex) {
+                    logger.warning("无法解析时间戳: " + s);
+                }
+            }
+        }
+        // 回退：使用驱动时间戳
+        try {
+            Timestamp ts = rs.getTimestamp(columnName);
+            if (ts != null) return ts.toLocalDateTime();
+        } catch (SQLException ignore) {}
+        return LocalDateTime.now();
+    }
+
+    /**
+     * 行映射基准结果（每轮平均耗时）
+     */
+    public static final class MappingResult {
+        private final int rows;
+        private final long legacyNanos;
+        private final long indexedNanos;
+
+        MappingResult(int rows, long legacyNanos, long indexedNanos) {
+            this.rows = rows;
+            this.legacyNanos = legacyNanos;
+            this.indexedNanos = indexedNanos;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public double getLegacyMillis() {
+            return legacyNanos / 1_000_000.0;
+        }
+
+        public double getIndexedMillis() {
+            return indexedNanos / 1_000_000.0;
+        }
+
+        public double getSpeedup() {
+            return indexedNanos > 0 ? (double) legacyNanos / indexedNanos : 0;
+        }
+    }
+}